@@ -0,0 +1,20 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+final class BenchmarkDefaults {
+
+    private BenchmarkDefaults() {
+    }
+
+    /**
+     * Die PlausiException schreibt jede Fehlermeldung nach System.err. Für die Messung des
+     * Fehlerpfads wird die Konsolenausgabe verworfen, die Formatierung der Meldung bleibt Teil der Messung.
+     */
+    static PrintStream verwerfeStandardFehlerausgabe() {
+        PrintStream original = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        return original;
+    }
+}
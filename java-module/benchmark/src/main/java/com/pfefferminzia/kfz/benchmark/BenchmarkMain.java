@@ -0,0 +1,31 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Startet die JMH-Benchmarks mit denselben Kommandozeilenoptionen wie {@code org.openjdk.jmh.Main},
+ * aktiviert aber immer den GC-Profiler, damit neben ops/s auch die Allokationsrate berichtet wird.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        var kommandozeile = new CommandLineOptions(args);
+
+        // Hilfe, Listen und Profiler-Übersicht übernimmt der Standard-Launcher von JMH
+        if (kommandozeile.shouldHelp() || kommandozeile.shouldList() || kommandozeile.shouldListWithParams()
+            || kommandozeile.shouldListProfilers() || kommandozeile.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        var optionen = new OptionsBuilder()
+            .parent(kommandozeile)
+            .addProfiler(GCProfiler.class)
+            .build();
+
+        new Runner(optionen).run();
+    }
+}
@@ -0,0 +1,76 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.InkrementelleTarifierung;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Produkt;
+import com.pfefferminzia.kfz.model.Schutzbrief;
+import com.pfefferminzia.kfz.model.Tarifierung;
+import com.pfefferminzia.kfz.service.ValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interaktive Bearbeitung eines Angebots: Eine Rabattänderung über die {@link InkrementelleTarifierung} im Vergleich
+ * zum Neuaufbau der {@link Tarifierung} mit allen Bausteinen und vollständiger Validierung.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class InkrementelleTarifierungBenchmark {
+
+    @Param
+    public ValidationService.Modus modus;
+
+    @Param({"2", "10"})
+    public int bausteine;
+
+    private Haftpflicht haftpflicht;
+    private Kasko kasko;
+    private List<Produkt> zusatzbausteine;
+    private InkrementelleTarifierung bearbeitung;
+    private int aenderung;
+
+    @Setup
+    public void setup() {
+        ValidationService.setModus(modus);
+        haftpflicht = new Haftpflicht(312.47);
+        kasko = new Kasko(187.13);
+        zusatzbausteine = new ArrayList<>();
+        for (int i = 2; i < bausteine; i++) {
+            zusatzbausteine.add(new Schutzbrief(10 + i));
+        }
+        bearbeitung = InkrementelleTarifierung.aus(new Tarifierung(haftpflicht, kasko, zusatzbausteine));
+    }
+
+    @Benchmark
+    public long aenderung() {
+        int i = aenderung++;
+        bearbeitung.setRabatt(i % bausteine, i % 100);
+        return bearbeitung.getNettopraemieCent();
+    }
+
+    @Benchmark
+    public long neuaufbau() {
+        int i = aenderung++;
+        int baustein = i % bausteine;
+        (baustein == 0 ? haftpflicht : baustein == 1 ? kasko : zusatzbausteine.get(baustein - 2)).setRabatt(i % 100);
+        return new Tarifierung(haftpflicht, kasko, zusatzbausteine).getNettopraemieCent();
+    }
+}
@@ -0,0 +1,75 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.service.KontingentJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Durchsatz des KontingentJournal in Einträgen pro Sekunde mit 8 schreibenden Threads. Mit {@code NACH_FSYNC}
+ * wartet jeder Schreiber auf sein fsync, der Durchsatz hängt damit direkt vom Group Commit ab.
+ * Das Journal liegt im Standard-Temp-Verzeichnis ({@code -Djava.io.tmpdir=...} für eine andere Platte).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class KontingentJournalBenchmark {
+
+    @Param({"NACH_SCHREIBEN", "NACH_FSYNC"})
+    public KontingentJournal.Bestaetigung bestaetigung;
+
+    private Path verzeichnis;
+    private KontingentJournal journal;
+
+    @Setup
+    public void setup() throws IOException {
+        verzeichnis = Files.createTempDirectory("kontingent-journal");
+        journal = KontingentJournal.oeffne(verzeichnis, bestaetigung,
+            KontingentJournal.STANDARD_FSYNC_INTERVALL, KontingentJournal.STANDARD_SEGMENTGROESSE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> dateien = Files.walk(verzeichnis)) {
+            for (Path datei : dateien.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(datei);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Makler {
+
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        final String name = "Makler-" + THREADS.getAndIncrement() % 64;
+    }
+
+    @Benchmark
+    public void verbrauch(Makler makler) {
+        journal.verbrauch(makler.name, 30);
+    }
+}
@@ -0,0 +1,68 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.model.TarifAnfrage;
+import com.pfefferminzia.kfz.service.ParallelerTarifrechner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst die Skalierung des ParallelerTarifrechner über die Parallelität. Der Score ist in Anfragen
+ * pro Sekunde angegeben; bei linearer Skalierung wächst er proportional zur Parallelität.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelerTarifrechnerBenchmark {
+
+    private static final int ANFRAGEN = 100_000;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelitaet;
+
+    private List<TarifAnfrage> anfragen;
+    private ParallelerTarifrechner rechner;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        anfragen = new ArrayList<>(ANFRAGEN);
+        for (int i = 0; i < ANFRAGEN; i++) {
+            double haftpflicht = 1 + random.nextInt(100_000) / 100.0;
+            double kasko = 1 + random.nextInt(100_000) / 100.0;
+            anfragen.add(i % 2 == 0
+                ? TarifAnfrage.of(haftpflicht, random.nextInt(100), kasko, random.nextInt(100))
+                : TarifAnfrage.mitZielbeitrag((haftpflicht + kasko) * 0.7, haftpflicht, kasko));
+        }
+        rechner = new ParallelerTarifrechner(parallelitaet);
+    }
+
+    @TearDown
+    public void tearDown() {
+        rechner.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ANFRAGEN)
+    public List<ParallelerTarifrechner.Bewertung> geordnet() {
+        return rechner.bewerte(anfragen);
+    }
+}
@@ -0,0 +1,65 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.service.PortfolioOptimierer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verteilung eines Rabattbudgets auf einen Bestand von 100 000 Verträgen. Das Budget von 10 Punkten je Vertrag
+ * reicht für rund 60 % der Zielbeiträge, so dass beide Ziele die Grenze tatsächlich suchen müssen.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PortfolioOptimiererBenchmark {
+
+    private static final int VERTRAEGE = 100_000;
+
+    @Param
+    public PortfolioOptimierer.Ziel ziel;
+
+    @Param({"1", "4"})
+    public int parallelitaet;
+
+    private final long[] haftpflichtCent = new long[VERTRAEGE];
+    private final long[] kaskoCent = new long[VERTRAEGE];
+    private final long[] zielCent = new long[VERTRAEGE];
+    private PortfolioOptimierer optimierer;
+
+    @Setup
+    public void setup() {
+        var zufall = new SplittableRandom(42);
+        for (int i = 0; i < VERTRAEGE; i++) {
+            haftpflichtCent[i] = zufall.nextLong(10_000, 100_000);
+            kaskoCent[i] = i % 3 == 0 ? 0 : zufall.nextLong(10_000, 100_000);
+            zielCent[i] = (haftpflichtCent[i] + kaskoCent[i]) * zufall.nextInt(60, 100) / 100;
+        }
+        optimierer = new PortfolioOptimierer(parallelitaet);
+    }
+
+    @TearDown
+    public void tearDown() {
+        optimierer.close();
+    }
+
+    @Benchmark
+    public PortfolioOptimierer.Zuteilung optimiere() {
+        return optimierer.optimiere(haftpflichtCent, kaskoCent, zielCent, 10L * VERTRAEGE, ziel);
+    }
+}
@@ -0,0 +1,108 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.service.RabattKontingent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Konkurrierende Reservierungen auf dem RabattKontingent gegen eine Variante mit einer globalen Sperre.
+ * Mit {@code makler=1} teilen sich alle Threads ein Konto (maximale Konkurrenz), mit {@code makler=64}
+ * verteilen sie sich auf viele Konten.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RabattKontingentBenchmark {
+
+    @Param({"1", "64"})
+    public int makler;
+
+    private RabattKontingent kontingent;
+    private GesperrtesKontingent gesperrt;
+
+    @Setup
+    public void setup() {
+        kontingent = new RabattKontingent();
+        gesperrt = new GesperrtesKontingent();
+        for (int i = 0; i < makler; i++) {
+            kontingent.gutschreiben("M" + i, Long.MAX_VALUE / 2);
+            gesperrt.gutschreiben("M" + i, Long.MAX_VALUE / 2);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Anfragen {
+
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        String makler;
+        int punkte;
+
+        @Setup
+        public void setup(RabattKontingentBenchmark benchmark) {
+            makler = "M" + THREADS.getAndIncrement() % benchmark.makler;
+            punkte = 30;
+        }
+    }
+
+    @Benchmark
+    public boolean reserviereUndBuche(Anfragen anfragen) {
+        return kontingent.reserviere(anfragen.makler, anfragen.punkte).buche();
+    }
+
+    @Benchmark
+    public boolean reserviereUndFreigeben(Anfragen anfragen) {
+        return kontingent.reserviere(anfragen.makler, anfragen.punkte).freigeben();
+    }
+
+    @Benchmark
+    public boolean globaleSperre(Anfragen anfragen) {
+        return gesperrt.reserviere(anfragen.makler, anfragen.punkte) && gesperrt.buche(anfragen.makler, anfragen.punkte);
+    }
+
+    /** Vergleichsbasis: alle Konten hinter einer gemeinsamen Sperre. */
+    static final class GesperrtesKontingent {
+
+        private final Map<String, long[]> konten = new HashMap<>();
+
+        synchronized void gutschreiben(String makler, long punkte) {
+            konten.computeIfAbsent(makler, m -> new long[3])[0] += punkte;
+        }
+
+        synchronized boolean reserviere(String makler, long punkte) {
+            long[] konto = konten.get(makler);
+            if (konto == null || konto[0] < punkte) {
+                return false;
+            }
+            konto[0] -= punkte;
+            konto[1] += punkte;
+            return true;
+        }
+
+        synchronized boolean buche(String makler, long punkte) {
+            long[] konto = konten.get(makler);
+            konto[1] -= punkte;
+            konto[2] += punkte;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Tarifierung;
+import com.pfefferminzia.kfz.service.ValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zeit bis zur ersten Tarifierung in einer frischen JVM, je Fork genau eine Messung. Gemessen wird alles, was der
+ * erste Konstruktoraufruf auslöst: Laden der Klassen, Aufbau der Validierung und Zielbeitrag-Berechnung.
+ * <p>
+ * Die Properties werden vor dem ersten Zugriff auf den {@link ValidationService} gesetzt. Für die Messung mit einem
+ * AppCDS-Archiv wird es zuvor mit demselben Klassenpfad und derselben Validierung trainiert:
+ * <pre>
+ * java -Dkfz.validierung=direkt -XX:ArchiveClassesAtExit=kfz.jsa -cp target/benchmarks.jar com.pfefferminzia.kfz.Main training
+ * java -jar target/benchmarks.jar StartBenchmark -p validierung=direkt -jvmArgsAppend -XX:SharedArchiveFile=kfz.jsa
+ * </pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class StartBenchmark {
+
+    /** {@code jakarta} mit EL-Interpolation, {@code ohneEl} mit ParameterMessageInterpolator, {@code direkt} ohne Hibernate. */
+    @Param({"jakarta", "ohneEl", "direkt"})
+    public String validierung;
+
+    @Setup
+    public void setup() {
+        switch (validierung) {
+            case "jakarta" -> System.setProperty(ValidationService.MODUS_PROPERTY, "jakarta");
+            case "ohneEl" -> {
+                System.setProperty(ValidationService.MODUS_PROPERTY, "jakarta");
+                System.setProperty(ValidationService.EL_PROPERTY, "false");
+            }
+            case "direkt" -> System.setProperty(ValidationService.MODUS_PROPERTY, "direkt");
+            default -> throw new IllegalArgumentException(validierung);
+        }
+    }
+
+    @Benchmark
+    public Tarifierung ersteTarifierung() {
+        return new Tarifierung(120, new Haftpflicht(100), new Kasko(50));
+    }
+}
@@ -0,0 +1,87 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.TarifBatch;
+import com.pfefferminzia.kfz.model.Tarifierung;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht die spaltenorientierte Massenberechnung mit einer Tarifierung pro Vertrag.
+ * Der Score ist in Verträgen pro Sekunde angegeben.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TarifBatchBenchmark {
+
+    private static final int VERTRAEGE = 100_000;
+
+    /** Anteil der Verträge mit Kasko in Prozent. */
+    @Param({"50"})
+    public int kaskoAnteil;
+
+    private double[] haftpflichtPraemien;
+    private int[] haftpflichtRabatte;
+    private double[] kaskoPraemien;
+    private int[] kaskoRabatte;
+    private long[] mitKasko;
+    private TarifBatch batch;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        haftpflichtPraemien = new double[VERTRAEGE];
+        haftpflichtRabatte = new int[VERTRAEGE];
+        kaskoPraemien = new double[VERTRAEGE];
+        kaskoRabatte = new int[VERTRAEGE];
+        mitKasko = new long[(VERTRAEGE + 63) / 64];
+        for (int i = 0; i < VERTRAEGE; i++) {
+            haftpflichtPraemien[i] = 1 + random.nextInt(100_000) / 100.0;
+            haftpflichtRabatte[i] = random.nextInt(100);
+            if (random.nextInt(100) < kaskoAnteil) {
+                kaskoPraemien[i] = 1 + random.nextInt(100_000) / 100.0;
+                kaskoRabatte[i] = random.nextInt(100);
+                mitKasko[i / 64] |= 1L << i;
+            }
+        }
+        batch = new TarifBatch(haftpflichtPraemien, haftpflichtRabatte, kaskoPraemien, kaskoRabatte, mitKasko);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VERTRAEGE)
+    public double[] tarifBatch() {
+        batch.berechne();
+        return batch.getNettopraemien();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VERTRAEGE)
+    public void einzelneTarifierungen(Blackhole blackhole) {
+        for (int i = 0; i < VERTRAEGE; i++) {
+            var haftpflicht = new Haftpflicht(haftpflichtPraemien[i], haftpflichtRabatte[i]);
+            var tarifierung = (mitKasko[i / 64] & (1L << i)) != 0
+                ? new Tarifierung(haftpflicht, new Kasko(kaskoPraemien[i], kaskoRabatte[i]))
+                : new Tarifierung(haftpflicht);
+            blackhole.consume(tarifierung.getNettopraemie());
+        }
+    }
+}
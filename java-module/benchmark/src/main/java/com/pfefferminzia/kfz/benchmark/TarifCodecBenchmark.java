@@ -0,0 +1,103 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.cli.NdjsonFormat;
+import com.pfefferminzia.kfz.model.TarifAnfrage;
+import com.pfefferminzia.kfz.server.MikroBatcher;
+import com.pfefferminzia.kfz.server.TarifAntwort;
+import com.pfefferminzia.kfz.server.TarifCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serverseitige Bearbeitung eines Batches von 512 Anfragen: Körper lesen, tarifieren, Antwort schreiben – einmal im
+ * {@link TarifCodec}-Binärformat, einmal als NDJSON wie in {@code POST /tarifierung/batch}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TarifCodecBenchmark {
+
+    private static final int ANZAHL = 512;
+
+    @Param({"direkt", "heap"})
+    public String puffer;
+
+    private final NdjsonFormat format = new NdjsonFormat();
+
+    private ByteBuffer anfragen;
+    private ByteBuffer ergebnisse;
+    private byte[] ndjson;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        int groesse = TarifCodec.KOPF + ANZAHL * TarifCodec.DATENSATZ;
+        anfragen = "direkt".equals(puffer) ? ByteBuffer.allocateDirect(groesse) : ByteBuffer.allocate(groesse);
+        ergebnisse = "direkt".equals(puffer) ? ByteBuffer.allocateDirect(groesse) : ByteBuffer.allocate(groesse);
+        var zeilen = new StringBuilder();
+
+        int rahmen = TarifCodec.beginneAnfragen(anfragen);
+        for (int i = 0; i < ANZAHL; i++) {
+            double haftpflicht = 100 + random.nextInt(100_000) / 100.0;
+            double kasko = 50 + random.nextInt(50_000) / 100.0;
+            var anfrage = i % 4 == 0
+                ? TarifAnfrage.mitZielbeitrag(Math.floor(haftpflicht + kasko * 0.8), haftpflicht, kasko)
+                : TarifAnfrage.of(haftpflicht, random.nextInt(50), kasko, random.nextInt(50));
+            TarifCodec.schreibeAnfrage(anfragen, anfrage);
+            zeilen.append("{\"haftpflichtPraemie\":").append(anfrage.haftpflichtPraemie())
+                .append(",\"haftpflichtRabatt\":").append(anfrage.haftpflichtRabatt())
+                .append(",\"kaskoPraemie\":").append(anfrage.kaskoPraemie())
+                .append(",\"kaskoRabatt\":").append(anfrage.kaskoRabatt());
+            if (anfrage.zielbeitrag() != null) {
+                zeilen.append(",\"zielbeitrag\":").append(anfrage.zielbeitrag());
+            }
+            zeilen.append("}\n");
+        }
+        TarifCodec.beendeRahmen(anfragen, rahmen);
+        anfragen.flip();
+        ndjson = zeilen.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ByteBuffer binaer() {
+        anfragen.rewind();
+        ergebnisse.clear();
+        TarifCodec.bewerte(anfragen, ergebnisse);
+        return ergebnisse;
+    }
+
+    @Benchmark
+    public byte[] ndjson() {
+        List<String> zeilen = new String(ndjson, StandardCharsets.UTF_8).lines().toList();
+        var anfragenListe = new ArrayList<TarifAnfrage>(zeilen.size());
+        for (String zeile : zeilen) {
+            anfragenListe.add(format.leseAnfrage(zeile));
+        }
+        TarifAntwort[] antworten = MikroBatcher.berechne(anfragenListe);
+        var ausgabe = new StringBuilder(zeilen.size() * 96);
+        for (int i = 0; i < antworten.length; i++) {
+            antworten[i].schreibeNdjson(ausgabe, i + 1);
+            ausgabe.append('\n');
+        }
+        return ausgabe.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,70 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.metrik.TarifMetriken;
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Tarifierung;
+import com.pfefferminzia.kfz.model.TarifierungsErgebnis;
+import com.pfefferminzia.kfz.service.ValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kosten der eingebauten Metriken auf dem heißen Pfad: dieselben Tarifierungen mit aus- und eingeschalteten
+ * {@link TarifMetriken}. Validiert wird direkt, damit die Messpunkte nicht in der Jakarta-Validierung untergehen.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TarifMetrikenBenchmark {
+
+    @Param({"false", "true"})
+    public boolean metriken;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ValidationService.setModus(ValidationService.Modus.DIREKT);
+        if (metriken) {
+            TarifMetriken.aktiviere();
+        } else {
+            TarifMetriken.deaktiviere();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TarifMetriken.deaktiviere();
+        TarifMetriken.zuruecksetzen();
+    }
+
+    @Benchmark
+    public Tarifierung haftpflichtUndKasko() {
+        return new Tarifierung(new Haftpflicht(100, 20), new Kasko(50, 10));
+    }
+
+    @Benchmark
+    public Tarifierung zielbeitrag() {
+        return new Tarifierung(120, new Haftpflicht(100), new Kasko(50));
+    }
+
+    @Benchmark
+    public TarifierungsErgebnis tryCreateUngueltig() {
+        return Tarifierung.tryCreate(new Haftpflicht(-100, -10), new Kasko(50, 120));
+    }
+}
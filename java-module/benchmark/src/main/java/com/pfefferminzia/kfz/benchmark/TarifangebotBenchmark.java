@@ -0,0 +1,60 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.ProduktVorlage;
+import com.pfefferminzia.kfz.model.Tarifangebot;
+import com.pfefferminzia.kfz.model.Tarifierung;
+import com.pfefferminzia.kfz.service.ValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zielbeitrag auf gemeinsam genutzten Prämien: Kopie der Bausteine je Anfrage für {@link Tarifierung} im Vergleich zu
+ * {@link Tarifangebot} auf unveränderlichen {@link ProduktVorlage}n. Das Ergebnis wird zurückgegeben, wie es ein
+ * Server weiterreicht; sonst entfernt die Escape-Analyse die Kopien vollständig.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TarifangebotBenchmark {
+
+    private Haftpflicht haftpflicht;
+    private Kasko kasko;
+    private ProduktVorlage haftpflichtVorlage;
+    private ProduktVorlage kaskoVorlage;
+    private double zielbeitrag;
+
+    @Setup
+    public void setup() {
+        ValidationService.setModus(ValidationService.Modus.DIREKT);
+        haftpflicht = new Haftpflicht(312.47);
+        kasko = new Kasko(187.13);
+        haftpflichtVorlage = ProduktVorlage.aus(haftpflicht);
+        kaskoVorlage = ProduktVorlage.aus(kasko);
+        zielbeitrag = 420;
+    }
+
+    @Benchmark
+    public Tarifierung tarifierungMitKopie() {
+        return new Tarifierung(zielbeitrag, new Haftpflicht(haftpflicht.getPraemie()), new Kasko(kasko.getPraemie()));
+    }
+
+    @Benchmark
+    public Tarifangebot tarifangebot() {
+        return Tarifangebot.berechne(zielbeitrag, haftpflichtVorlage, kaskoVorlage);
+    }
+}
@@ -0,0 +1,111 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.tarifbuch.TarifSchluessel;
+import com.pfefferminzia.kfz.tarifbuch.Tarifbuch;
+import com.pfefferminzia.kfz.tarifbuch.TarifbuchSchreiber;
+import com.pfefferminzia.kfz.tarifbuch.TarifbuchVerwaltung;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Öffnen und Abfragen eines Tarifbuchs mit 10 Millionen Einträgen (200 Typ- × 250 Regional- × 200 SF-Klassen,
+ * 160 MB). Abgefragt werden zufällige Schlüssel, sodass jede Abfrage andere Seiten der Abbildung berührt.
+ * Das Tarifbuch liegt im Standard-Temp-Verzeichnis ({@code -Djava.io.tmpdir=...} für eine andere Platte).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TarifbuchBenchmark {
+
+    private static final int TYPKLASSEN = 200;
+    private static final int REGIONALKLASSEN = 250;
+    private static final int SF_KLASSEN = 200;
+    private static final int SCHLUESSEL_MASKE = (1 << 20) - 1;
+
+    private Path datei;
+    private Tarifbuch tarifbuch;
+    private TarifbuchVerwaltung verwaltung;
+    private final long[] schluessel = new long[SCHLUESSEL_MASKE + 1];
+    private final TarifSchluessel[] tarifSchluessel = new TarifSchluessel[SCHLUESSEL_MASKE + 1];
+    private int naechster;
+
+    @Setup
+    public void setup() throws IOException {
+        datei = Files.createTempFile("tarifbuch", ".bin");
+        try (var schreiber = TarifbuchSchreiber.oeffne(datei, (long) TYPKLASSEN * REGIONALKLASSEN * SF_KLASSEN)) {
+            for (int typ = 0; typ < TYPKLASSEN; typ++) {
+                for (int region = 0; region < REGIONALKLASSEN; region++) {
+                    for (int sf = 0; sf < SF_KLASSEN; sf++) {
+                        schreiber.eintrag(TarifSchluessel.alsLong(typ, region, sf),
+                            10_000 + typ * 100L + region * 10L + sf, 5_000 + sf);
+                    }
+                }
+            }
+        }
+        tarifbuch = Tarifbuch.oeffne(datei);
+        verwaltung = TarifbuchVerwaltung.oeffne(datei);
+
+        var zufall = new SplittableRandom(42);
+        for (int i = 0; i < schluessel.length; i++) {
+            tarifSchluessel[i] = new TarifSchluessel(zufall.nextInt(TYPKLASSEN), zufall.nextInt(REGIONALKLASSEN),
+                zufall.nextInt(SF_KLASSEN));
+            schluessel[i] = tarifSchluessel[i].alsLong();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        verwaltung.close();
+        Files.deleteIfExists(datei);
+    }
+
+    /**
+     * Einzelmessungen, weil jede Abbildung bis zur nächsten Garbage Collection bestehen bleibt.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 20)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Tarifbuch oeffnen() throws IOException {
+        return Tarifbuch.oeffne(datei);
+    }
+
+    @Benchmark
+    public long haftpflichtCent() {
+        return tarifbuch.haftpflichtCent(schluessel[naechster++ & SCHLUESSEL_MASKE]);
+    }
+
+    /**
+     * Wie {@link #haftpflichtCent()}, aber über die {@link TarifbuchVerwaltung}, die die Version für die Dauer der
+     * Abfrage belegt.
+     */
+    @Benchmark
+    public long haftpflichtCentVerwaltet() {
+        long schluessel = this.schluessel[naechster++ & SCHLUESSEL_MASKE];
+        return verwaltung.mitTarifbuch(tarifbuch -> tarifbuch.haftpflichtCent(schluessel));
+    }
+
+    @Benchmark
+    public Haftpflicht haftpflicht() {
+        return tarifbuch.haftpflicht(tarifSchluessel[naechster++ & SCHLUESSEL_MASKE], 10);
+    }
+}
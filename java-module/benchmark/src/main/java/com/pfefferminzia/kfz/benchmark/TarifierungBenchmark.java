@@ -0,0 +1,100 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Tarifierung;
+import com.pfefferminzia.kfz.model.TarifierungsErgebnis;
+import com.pfefferminzia.kfz.service.ValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst die drei Konstruktoren der Tarifierung (inkl. Validierung und Prämienberechnung)
+ * sowie den Fehlerpfad über die PlausiException, jeweils mit beiden Validierungsmodi.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TarifierungBenchmark {
+
+    @Param
+    public ValidationService.Modus modus;
+
+    private PrintStream standardFehlerausgabe;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ValidationService.setModus(modus);
+        standardFehlerausgabe = BenchmarkDefaults.verwerfeStandardFehlerausgabe();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setErr(standardFehlerausgabe);
+    }
+
+    @Benchmark
+    public Tarifierung nurHaftpflicht() {
+        return new Tarifierung(new Haftpflicht(100, 20));
+    }
+
+    @Benchmark
+    public Tarifierung haftpflichtUndKasko() {
+        return new Tarifierung(new Haftpflicht(100, 20), new Kasko(50, 10));
+    }
+
+    @Benchmark
+    public Tarifierung zielbeitrag() {
+        return new Tarifierung(120, new Haftpflicht(100), new Kasko(50));
+    }
+
+    @Benchmark
+    public Object ungueltigeHaftpflicht() {
+        try {
+            return new Tarifierung(new Haftpflicht(-100, -10));
+        } catch (PlausiException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object ungueltigeHaftpflichtUndKasko() {
+        try {
+            return new Tarifierung(new Haftpflicht(-100, 150), new Kasko(-50, -20));
+        } catch (PlausiException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public TarifierungsErgebnis tryCreateUngueltigeHaftpflichtUndKasko() {
+        return Tarifierung.tryCreate(new Haftpflicht(-100, 150), new Kasko(-50, -20));
+    }
+
+    @Benchmark
+    public Object fehlendeHaftpflicht() {
+        try {
+            return new Tarifierung(null);
+        } catch (PlausiException e) {
+            return e;
+        }
+    }
+}
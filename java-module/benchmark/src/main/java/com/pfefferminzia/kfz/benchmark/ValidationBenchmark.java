@@ -0,0 +1,57 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Tarifierung;
+import com.pfefferminzia.kfz.service.ValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst den ValidationService isoliert an bereits gültig konstruierten Tarifierungen,
+ * jeweils über Jakarta Validation und über die direkte Prüfung.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidationBenchmark {
+
+    @Param
+    public ValidationService.Modus modus;
+
+    private Tarifierung nurHaftpflicht;
+    private Tarifierung haftpflichtUndKasko;
+
+    @Setup
+    public void setup() {
+        ValidationService.setModus(modus);
+        nurHaftpflicht = new Tarifierung(new Haftpflicht(100, 20));
+        haftpflichtUndKasko = new Tarifierung(new Haftpflicht(100, 20), new Kasko(50, 10));
+    }
+
+    @Benchmark
+    public Tarifierung validiereNurHaftpflicht() {
+        ValidationService.validate(nurHaftpflicht);
+        return nurHaftpflicht;
+    }
+
+    @Benchmark
+    public Tarifierung validiereHaftpflichtUndKasko() {
+        ValidationService.validate(haftpflichtUndKasko);
+        return haftpflichtUndKasko;
+    }
+}
@@ -0,0 +1,71 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Produkt;
+import com.pfefferminzia.kfz.model.Schutzbrief;
+import com.pfefferminzia.kfz.model.Tarifierung;
+import com.pfefferminzia.kfz.service.ZielbeitragService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zielbeitrag-Berechnung für 1 bis 10 Bausteine. Der Zielbeitrag liegt bei 10 % der Gesamtprämie, sodass fast alle
+ * Bausteine rabattiert werden müssen. {@code rabatteCent} misst nur das Verfahren, {@code tarifierung} die komplette
+ * Tarifierung mit Validierung und neu erzeugten Bausteinen.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ZielbeitragBausteineBenchmark {
+
+    @Param({"1", "2", "3", "5", "8", "10"})
+    public int bausteine;
+
+    private long[] praemienCent;
+    private long zielCent;
+
+    @Setup
+    public void setup() {
+        var zufall = new SplittableRandom(42);
+        praemienCent = new long[bausteine];
+        long gesamtCent = 0;
+        for (int i = 0; i < bausteine; i++) {
+            praemienCent[i] = 1_000 + zufall.nextLong(50_000);
+            gesamtCent += praemienCent[i];
+        }
+        zielCent = gesamtCent / 10;
+    }
+
+    @Benchmark
+    public int[] rabatteCent() {
+        return ZielbeitragService.berechneRabatteCent(zielCent, praemienCent);
+    }
+
+    @Benchmark
+    public Tarifierung tarifierung() {
+        List<Produkt> zusatzbausteine = new ArrayList<>(Math.max(0, bausteine - 2));
+        for (int i = 2; i < bausteine; i++) {
+            zusatzbausteine.add(Schutzbrief.ausCent(praemienCent[i], 0));
+        }
+        Kasko kasko = bausteine > 1 ? Kasko.ausCent(praemienCent[1], 0) : null;
+        return new Tarifierung(zielCent / 100.0, Haftpflicht.ausCent(praemienCent[0], 0), kasko, zusatzbausteine);
+    }
+}
@@ -0,0 +1,89 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Tarifierung;
+import com.pfefferminzia.kfz.service.ZielbeitragCache;
+import com.pfefferminzia.kfz.service.ZielbeitragService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst die Rabattberechnung für einen Zielbeitrag. Da die Berechnung die Rabatte in die
+ * Produktbausteine schreibt, werden Haftpflicht und Kasko pro Aufruf neu erzeugt.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ZielbeitragBenchmark {
+
+    public enum Szenario {
+        HAFTPFLICHT_TEURER(100, 50),
+        KASKO_TEURER(50, 100),
+        GLEICHE_PRAEMIEN(75, 75);
+
+        final double haftpflichtPraemie;
+        final double kaskoPraemie;
+
+        Szenario(double haftpflichtPraemie, double kaskoPraemie) {
+            this.haftpflichtPraemie = haftpflichtPraemie;
+            this.kaskoPraemie = kaskoPraemie;
+        }
+    }
+
+    @Param
+    public Szenario szenario;
+
+    /** Anteil des Zielbeitrags an der Gesamtprämie: 0.8 = nur ein Baustein, 0.4 = beide Bausteine rabattiert. */
+    @Param({"0.8", "0.4"})
+    public double zielAnteil;
+
+    /** Mit vorgeschaltetem ZielbeitragCache (im eingeschwungenen Zustand nur Treffer). */
+    @Param({"false", "true"})
+    public boolean mitCache;
+
+    private double zielbeitrag;
+
+    @Setup
+    public void setup() {
+        zielbeitrag = (szenario.haftpflichtPraemie + szenario.kaskoPraemie) * zielAnteil;
+        if (mitCache) {
+            ZielbeitragService.aktiviereCache(new ZielbeitragCache(10_000, Duration.ofMinutes(10)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ZielbeitragService.deaktiviereCache();
+    }
+
+    @Benchmark
+    public Tarifierung zielbeitrag() {
+        return new Tarifierung(zielbeitrag,
+            new Haftpflicht(szenario.haftpflichtPraemie),
+            new Kasko(szenario.kaskoPraemie));
+    }
+
+    @Benchmark
+    public Tarifierung zielbeitragNurHaftpflicht() {
+        return new Tarifierung(szenario.haftpflichtPraemie * zielAnteil,
+            new Haftpflicht(szenario.haftpflichtPraemie),
+            null);
+    }
+}
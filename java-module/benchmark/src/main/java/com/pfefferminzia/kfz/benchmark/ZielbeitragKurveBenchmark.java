@@ -0,0 +1,74 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.model.Rabatte;
+import com.pfefferminzia.kfz.service.ZielbeitragKurve;
+import com.pfefferminzia.kfz.service.ZielbeitragService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schieberegler über den Zielbeitrag: dasselbe Prämienpaar, wechselnde erreichbare Zielbeiträge. Verglichen werden
+ * die Neuberechnung je Position mit der Abfrage einer einmal berechneten {@link ZielbeitragKurve}, dazu der Aufbau
+ * der Kurve selbst.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ZielbeitragKurveBenchmark {
+
+    private static final long HAFTPFLICHT_CENT = 48_731;
+    private static final long KASKO_CENT = 31_257;
+    private static final int POSITIONS_MASKE = 1023;
+
+    private final long[] zielCent = new long[POSITIONS_MASKE + 1];
+    private ZielbeitragKurve kurve;
+    private int naechste;
+
+    @Setup
+    public void setup() {
+        long gesamtCent = HAFTPFLICHT_CENT + KASKO_CENT;
+        var zufall = new SplittableRandom(42);
+        for (int i = 0; i < zielCent.length; i++) {
+            zielCent[i] = gesamtCent / 100 + zufall.nextLong(gesamtCent - gesamtCent / 100);
+        }
+        kurve = ZielbeitragKurve.berechneCent(HAFTPFLICHT_CENT, KASKO_CENT);
+    }
+
+    @Benchmark
+    public ZielbeitragKurve aufbau() {
+        return ZielbeitragKurve.berechneCent(HAFTPFLICHT_CENT, KASKO_CENT);
+    }
+
+    @Benchmark
+    public Rabatte neuberechnung() {
+        return ZielbeitragService.berechneRabatteCent(zielCent[naechste++ & POSITIONS_MASKE], HAFTPFLICHT_CENT, KASKO_CENT);
+    }
+
+    @Benchmark
+    public Rabatte kurve() {
+        return kurve.rabatteCent(zielCent[naechste++ & POSITIONS_MASKE]);
+    }
+
+    /**
+     * Abfrage ohne Allokation über den Index des Punkts.
+     */
+    @Benchmark
+    public long kurvePunkt() {
+        int punkt = kurve.punkt(zielCent[naechste++ & POSITIONS_MASKE]);
+        return kurve.nettopraemieCent(punkt) + kurve.haftpflichtRabatt(punkt) + kurve.kaskoRabatt(punkt);
+    }
+}
@@ -0,0 +1,97 @@
+package com.pfefferminzia.kfz.benchmark;
+
+import com.pfefferminzia.kfz.model.Rabatte;
+import com.pfefferminzia.kfz.service.ZielbeitragLoeser;
+import com.pfefferminzia.kfz.service.ZielbeitragLoeserAuswahl;
+import com.pfefferminzia.kfz.service.ZielbeitragVerfahren;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht die {@link ZielbeitragVerfahren} und die {@link ZielbeitragLoeserAuswahl} je Eingabeform. Die
+ * Zielbeiträge wechseln zufällig innerhalb der Spanne, damit die Sprungvorhersage die Schleifen nicht auswendig lernt.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ZielbeitragLoeserBenchmark {
+
+    public enum Form {
+        NUR_HAFTPFLICHT(48_731, 0),
+        HAFTPFLICHT_TEURER(48_731, 31_257),
+        KASKO_TEURER(31_257, 48_731),
+        GLEICHE_PRAEMIEN(39_999, 39_999);
+
+        final long haftpflichtCent;
+        final long kaskoCent;
+
+        Form(long haftpflichtCent, long kaskoCent) {
+            this.haftpflichtCent = haftpflichtCent;
+            this.kaskoCent = kaskoCent;
+        }
+    }
+
+    /** Spanne des Zielbeitrags in Prozent der Gesamtprämie. */
+    public enum Spanne {
+        /** Rabatte bis 3 %. */
+        KLEIN(97, 100),
+        /** Rabatte von 3 bis 10 %. */
+        MITTEL(90, 97),
+        /** Beliebige erreichbare Zielbeiträge. */
+        VOLL(1, 100);
+
+        final int vonProzent;
+        final int bisProzent;
+
+        Spanne(int vonProzent, int bisProzent) {
+            this.vonProzent = vonProzent;
+            this.bisProzent = bisProzent;
+        }
+    }
+
+    private static final int MASKE = 1023;
+
+    @Param({"GESCHLOSSEN", "ITERATIV", "BISEKTION", "EXAKT", "AUSWAHL"})
+    public String verfahren;
+
+    @Param
+    public Form form;
+
+    @Param
+    public Spanne spanne;
+
+    private final long[] ersparnis = new long[MASKE + 1];
+    private ZielbeitragLoeser loeser;
+    private int naechste;
+
+    @Setup
+    public void setup() {
+        loeser = verfahren.equals("AUSWAHL") ? ZielbeitragLoeserAuswahl.INSTANZ : ZielbeitragVerfahren.valueOf(verfahren);
+        long gesamtCent = form.haftpflichtCent + form.kaskoCent;
+        var zufall = new SplittableRandom(42);
+        for (int i = 0; i < ersparnis.length; i++) {
+            long zielCent = gesamtCent * zufall.nextInt(spanne.vonProzent * 100, spanne.bisProzent * 100) / 10_000;
+            ersparnis[i] = Math.max(1, (gesamtCent - zielCent - 1) * 100);
+        }
+    }
+
+    @Benchmark
+    public Rabatte loese() {
+        return loeser.loese(ersparnis[naechste++ & MASKE], form.haftpflichtCent, form.kaskoCent);
+    }
+}
@@ -0,0 +1,91 @@
+package com.pfefferminzia.kfz.lasttest;
+
+import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Tarifierung;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Arten von Makleranfragen im Lasttest. Prämien und Rabatte werden je Anfrage zufällig gezogen, Zielbeiträge liegen
+ * immer im erreichbaren Bereich.
+ */
+enum Anfrageart {
+
+    /** Haftpflicht und Kasko mit vorgegebenen Rabatten. */
+    TARIF("tarif") {
+        @Override
+        boolean fuehreAus(Pfad pfad, ThreadLocalRandom zufall) {
+            var haftpflicht = new Haftpflicht(praemie(zufall), zufall.nextInt(100));
+            var kasko = new Kasko(praemie(zufall), zufall.nextInt(100));
+            if (pfad == Pfad.TRY_CREATE) {
+                return Tarifierung.tryCreate(haftpflicht, kasko).istGueltig();
+            }
+            new Tarifierung(haftpflicht, kasko);
+            return true;
+        }
+    },
+
+    /** Rabatte für einen Zielbeitrag zwischen 50 % und 95 % der Gesamtprämie. */
+    ZIELBEITRAG("zielbeitrag") {
+        @Override
+        boolean fuehreAus(Pfad pfad, ThreadLocalRandom zufall) {
+            var haftpflicht = new Haftpflicht(praemie(zufall));
+            var kasko = new Kasko(praemie(zufall));
+            double zielbeitrag = Math.round((haftpflicht.getPraemie() + kasko.getPraemie())
+                * (0.5 + 0.45 * zufall.nextDouble()) * 100) / 100.0;
+            if (pfad == Pfad.TRY_CREATE) {
+                return Tarifierung.tryCreate(zielbeitrag, haftpflicht, kasko).istGueltig();
+            }
+            new Tarifierung(zielbeitrag, haftpflicht, kasko);
+            return true;
+        }
+    },
+
+    /** Negative Prämie und unzulässige Rabatte, erwartet werden Plausibilitätsfehler. */
+    UNGUELTIG("ungueltig") {
+        @Override
+        boolean fuehreAus(Pfad pfad, ThreadLocalRandom zufall) {
+            var haftpflicht = new Haftpflicht(-praemie(zufall), 100 + zufall.nextInt(50));
+            var kasko = new Kasko(praemie(zufall), -1 - zufall.nextInt(50));
+            if (pfad == Pfad.TRY_CREATE) {
+                return !Tarifierung.tryCreate(haftpflicht, kasko).istGueltig();
+            }
+            try {
+                new Tarifierung(haftpflicht, kasko);
+                return false;
+            } catch (PlausiException erwartet) {
+                return true;
+            }
+        }
+    };
+
+    /**
+     * Weg durch die Tarifierung: Konstruktor mit PlausiException oder {@link Tarifierung#tryCreate} mit Fehlermaske.
+     */
+    enum Pfad {
+        KONSTRUKTOR,
+        TRY_CREATE
+    }
+
+    private final String name;
+
+    Anfrageart(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return {@code true}, wenn das Ergebnis der Erwartung der Anfrageart entspricht
+     */
+    abstract boolean fuehreAus(Pfad pfad, ThreadLocalRandom zufall);
+
+    /** Name im Bericht und in der Konfiguration. */
+    String getName() {
+        return name;
+    }
+
+    private static double praemie(ThreadLocalRandom zufall) {
+        return 100 + zufall.nextInt(100_000) / 100.0;
+    }
+}
@@ -0,0 +1,98 @@
+package com.pfefferminzia.kfz.lasttest;
+
+import com.pfefferminzia.kfz.service.ValidationService;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Ergebnis eines Lasttests. {@link #json()} ist für den Vergleich zwischen Releases gedacht und enthält neben den
+ * Perzentilen die Umgebung (Java-Version, Prozessoren, Validierungsmodus) und die vollständige Konfiguration. Alle
+ * Zeiten in Mikrosekunden.
+ *
+ * @param gesendet      Anfragen im Messzeitraum
+ * @param laufzeitNanos Messzeitraum bis zur letzten Antwort
+ * @param maxVerzugNanos größte Verspätung des Taktgebers gegenüber dem Plan
+ */
+record Bericht(Konfiguration konfiguration, long gesendet, long laufzeitNanos, long maxVerzugNanos,
+               Map<Anfrageart, Lasttest.Messung> messungen) {
+
+    private static final double[] PERZENTILE = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] NAMEN = {"p50", "p90", "p99", "p999"};
+
+    double erreichteRate() {
+        return gesendet * 1e9 / laufzeitNanos;
+    }
+
+    String json() {
+        var json = new StringBuilder(1024).append("{\n");
+        json.append("  \"zeitpunkt\": \"").append(Instant.now()).append("\",\n");
+        json.append("  \"java\": \"").append(System.getProperty("java.version")).append("\",\n");
+        json.append("  \"prozessoren\": ").append(Runtime.getRuntime().availableProcessors()).append(",\n");
+        json.append("  \"validierung\": \"").append(ValidationService.getModus()).append("\",\n");
+        json.append("  \"konfiguration\": {\"rate\": ").append(konfiguration.rate())
+            .append(", \"dauerSekunden\": ").append(konfiguration.dauer().toSeconds())
+            .append(", \"aufwaermenSekunden\": ").append(konfiguration.aufwaermen().toSeconds())
+            .append(", \"mix\": [");
+        int[] mix = konfiguration.mix();
+        for (int i = 0; i < mix.length; i++) {
+            json.append(i > 0 ? ", " : "").append(mix[i]);
+        }
+        json.append("], \"threads\": ").append(konfiguration.threads())
+            .append(", \"pfad\": \"").append(Konfiguration.pfadName(konfiguration.pfad())).append("\"},\n");
+        json.append("  \"gesendet\": ").append(gesendet).append(",\n");
+        json.append("  \"erreichteRate\": ").append(format("%.1f", erreichteRate())).append(",\n");
+        json.append("  \"maxVerzugMikros\": ").append(mikros(maxVerzugNanos)).append(",\n");
+        json.append("  \"anfragearten\": {");
+        String trenner = "\n";
+        for (var eintrag : messungen.entrySet()) {
+            var messung = eintrag.getValue();
+            json.append(trenner).append("    \"").append(eintrag.getKey().getName()).append("\": {")
+                .append("\"anzahl\": ").append(messung.latenz().anzahl())
+                .append(", \"fehler\": ").append(messung.fehler().sum())
+                .append(",\n      \"latenzMikros\": ");
+            perzentile(json, messung.latenz());
+            json.append(",\n      \"bedienzeitMikros\": ");
+            perzentile(json, messung.bedienzeit());
+            json.append('}');
+            trenner = ",\n";
+        }
+        return json.append("\n  }\n}\n").toString();
+    }
+
+    private static void perzentile(StringBuilder json, LatenzHistogramm histogramm) {
+        json.append('{');
+        for (int i = 0; i < PERZENTILE.length; i++) {
+            json.append('"').append(NAMEN[i]).append("\": ").append(mikros(histogramm.perzentil(PERZENTILE[i])))
+                .append(", ");
+        }
+        json.append("\"max\": ").append(mikros(histogramm.maximum())).append('}');
+    }
+
+    @Override
+    public String toString() {
+        var text = new StringBuilder(512);
+        text.append(format("gesendet %d, erreichte Rate %.0f/s, max. Verzug Taktgeber %s us%n",
+            gesendet, erreichteRate(), mikros(maxVerzugNanos)));
+        text.append(format("%-12s %9s %7s %10s %10s %10s %10s %10s %14s%n",
+            "Latenz in us", "Anzahl", "Fehler", "p50", "p90", "p99", "p99.9", "max", "Bedienz. p99"));
+        for (var eintrag : messungen.entrySet()) {
+            var latenz = eintrag.getValue().latenz();
+            text.append(format("%-12s %9d %7d %10s %10s %10s %10s %10s %14s%n", eintrag.getKey().getName(),
+                latenz.anzahl(), eintrag.getValue().fehler().sum(),
+                mikros(latenz.perzentil(0.5)), mikros(latenz.perzentil(0.9)), mikros(latenz.perzentil(0.99)),
+                mikros(latenz.perzentil(0.999)), mikros(latenz.maximum()),
+                mikros(eintrag.getValue().bedienzeit().perzentil(0.99))));
+        }
+        return text.toString();
+    }
+
+    private static String mikros(long nanos) {
+        return format("%.1f", nanos / 1000.0);
+    }
+
+    private static String format(String format, Object... werte) {
+        return String.format(Locale.ROOT, format, werte);
+    }
+}
@@ -0,0 +1,137 @@
+package com.pfefferminzia.kfz.lasttest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Parameter eines Lasttests, aus Argumenten der Form {@code schluessel=wert}:
+ * <ul>
+ *   <li>{@code rate} – Anfragen pro Sekunde, unabhängig davon, wie schnell geantwortet wird (Standard 20000)</li>
+ *   <li>{@code dauer} – Messdauer in Sekunden (Standard 30)</li>
+ *   <li>{@code aufwaermen} – Sekunden vor der Messung, die nicht in den Bericht eingehen (Standard 10)</li>
+ *   <li>{@code mix} – Anteile von Tarif, Zielbeitrag und ungültigen Anfragen, z.B. {@code 70/20/10}</li>
+ *   <li>{@code threads} – Größe des Thread-Pools, {@code 0} für einen virtuellen Thread je Anfrage (Standard 0)</li>
+ *   <li>{@code pfad} – {@code tryCreate} oder {@code konstruktor} (Standard tryCreate)</li>
+ *   <li>{@code ausgabe} – Datei für den JSON-Bericht (Standard lasttest-bericht.json)</li>
+ * </ul>
+ */
+record Konfiguration(int rate, Duration dauer, Duration aufwaermen, int[] mix, int threads,
+                     Anfrageart.Pfad pfad, Path ausgabe) {
+
+    static final Konfiguration STANDARD = new Konfiguration(20_000, Duration.ofSeconds(30), Duration.ofSeconds(10),
+        new int[] {70, 20, 10}, 0, Anfrageart.Pfad.TRY_CREATE, Path.of("lasttest-bericht.json"));
+
+    Konfiguration {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate muss positiv sein: " + rate);
+        }
+        if (dauer.isNegative() || dauer.isZero() || aufwaermen.isNegative()) {
+            throw new IllegalArgumentException("Ungültige Dauer: dauer=" + dauer + ", aufwaermen=" + aufwaermen);
+        }
+        if (mix.length != Anfrageart.values().length || summe(mix) <= 0) {
+            throw new IllegalArgumentException("mix braucht " + Anfrageart.values().length
+                + " nicht negative Anteile, z.B. 70/20/10");
+        }
+        if (threads < 0) {
+            throw new IllegalArgumentException("threads darf nicht negativ sein: " + threads);
+        }
+        mix = mix.clone();
+    }
+
+    /**
+     * @throws IllegalArgumentException bei unbekannten Schlüsseln oder ungültigen Werten
+     */
+    static Konfiguration aus(String... argumente) {
+        var k = STANDARD;
+        for (String argument : argumente) {
+            int trenner = argument.indexOf('=');
+            if (trenner < 0) {
+                throw new IllegalArgumentException("Erwartet schluessel=wert: " + argument);
+            }
+            String wert = argument.substring(trenner + 1);
+            k = switch (argument.substring(0, trenner)) {
+                case "rate" -> new Konfiguration(Integer.parseInt(wert), k.dauer, k.aufwaermen, k.mix, k.threads,
+                    k.pfad, k.ausgabe);
+                case "dauer" -> new Konfiguration(k.rate, sekunden(wert), k.aufwaermen, k.mix, k.threads,
+                    k.pfad, k.ausgabe);
+                case "aufwaermen" -> new Konfiguration(k.rate, k.dauer, sekunden(wert), k.mix, k.threads,
+                    k.pfad, k.ausgabe);
+                case "mix" -> new Konfiguration(k.rate, k.dauer, k.aufwaermen, mix(wert), k.threads,
+                    k.pfad, k.ausgabe);
+                case "threads" -> new Konfiguration(k.rate, k.dauer, k.aufwaermen, k.mix, Integer.parseInt(wert),
+                    k.pfad, k.ausgabe);
+                case "pfad" -> new Konfiguration(k.rate, k.dauer, k.aufwaermen, k.mix, k.threads,
+                    pfad(wert), k.ausgabe);
+                case "ausgabe" -> new Konfiguration(k.rate, k.dauer, k.aufwaermen, k.mix, k.threads,
+                    k.pfad, Path.of(wert));
+                default -> throw new IllegalArgumentException("Unbekannter Parameter: " + argument);
+            };
+        }
+        return k;
+    }
+
+    /**
+     * Anfrageart für eine gleichverteilte Zahl aus {@code [0, summe(mix))}.
+     */
+    Anfrageart art(int los) {
+        for (int i = 0; i < mix.length; i++) {
+            los -= mix[i];
+            if (los < 0) {
+                return Anfrageart.values()[i];
+            }
+        }
+        throw new IllegalArgumentException("Los außerhalb des Mix: " + los);
+    }
+
+    int mixSumme() {
+        return summe(mix);
+    }
+
+    @Override
+    public int[] mix() {
+        return mix.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "rate=" + rate + " dauer=" + dauer.toSeconds() + " aufwaermen=" + aufwaermen.toSeconds()
+            + " mix=" + mix[0] + "/" + mix[1] + "/" + mix[2] + " threads=" + threads
+            + " pfad=" + pfadName(pfad) + " ausgabe=" + ausgabe;
+    }
+
+    static String pfadName(Anfrageart.Pfad pfad) {
+        return pfad == Anfrageart.Pfad.TRY_CREATE ? "tryCreate" : "konstruktor";
+    }
+
+    private static Anfrageart.Pfad pfad(String wert) {
+        return switch (wert) {
+            case "tryCreate" -> Anfrageart.Pfad.TRY_CREATE;
+            case "konstruktor" -> Anfrageart.Pfad.KONSTRUKTOR;
+            default -> throw new IllegalArgumentException("Unbekannter pfad: " + wert);
+        };
+    }
+
+    private static Duration sekunden(String wert) {
+        return Duration.ofMillis(Math.round(Double.parseDouble(wert) * 1000));
+    }
+
+    private static int[] mix(String wert) {
+        String[] teile = wert.split("/");
+        int[] mix = new int[teile.length];
+        for (int i = 0; i < teile.length; i++) {
+            mix[i] = Integer.parseInt(teile[i].trim());
+            if (mix[i] < 0) {
+                throw new IllegalArgumentException("Negativer Anteil im mix: " + wert);
+            }
+        }
+        return mix;
+    }
+
+    private static int summe(int[] mix) {
+        int summe = 0;
+        for (int anteil : mix) {
+            summe += anteil;
+        }
+        return summe;
+    }
+}
@@ -0,0 +1,116 @@
+package com.pfefferminzia.kfz.lasttest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-Loop-Lasttest der Tarifierung im eigenen Prozess: Ein einzelner Taktgeber plant die Anfragen in festem Abstand
+ * ({@code 1 / rate}) und gibt sie an Worker-Threads ab, ohne auf Antworten zu warten. Gemessen wird vom geplanten
+ * Zeitpunkt bis zum Ende der Bearbeitung, so dass Wartezeiten hinter langsamen Anfragen, GC-Pausen oder einem
+ * überlasteten Pool mit in die Latenz eingehen (keine "coordinated omission"). Die reine Bedienzeit ab Beginn der
+ * Bearbeitung wird getrennt ausgewiesen; der Abstand beider Verteilungen zeigt die Warteschlange.
+ * <p>
+ * Aufruf: {@code java -jar target/lasttest.jar rate=20000 dauer=30 mix=70/20/10}, Parameter siehe
+ * {@link Konfiguration}. Der Bericht geht als Text auf die Konsole und als JSON in die Ausgabedatei.
+ */
+public final class Lasttest {
+
+    /** Gemessene Werte einer Anfrageart. */
+    record Messung(LatenzHistogramm latenz, LatenzHistogramm bedienzeit, LongAdder fehler) {
+        Messung() {
+            this(new LatenzHistogramm(), new LatenzHistogramm(), new LongAdder());
+        }
+    }
+
+    private Lasttest() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Konfiguration konfiguration;
+        try {
+            konfiguration = Konfiguration.aus(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        System.out.println("Lasttest " + konfiguration);
+        Bericht bericht = fuehreAus(konfiguration);
+        System.out.print(bericht);
+        Files.writeString(konfiguration.ausgabe(), bericht.json());
+        System.out.println("Bericht: " + konfiguration.ausgabe().toAbsolutePath());
+    }
+
+    static Bericht fuehreAus(Konfiguration konfiguration) throws InterruptedException {
+        Map<Anfrageart, Messung> messungen = new EnumMap<>(Anfrageart.class);
+        for (Anfrageart art : Anfrageart.values()) {
+            messungen.put(art, new Messung());
+        }
+
+        double abstandNanos = 1e9 / konfiguration.rate();
+        long aufwaermen = konfiguration.aufwaermen().toNanos();
+        long gesamt = aufwaermen + konfiguration.dauer().toNanos();
+        long anzahl = (long) (gesamt / abstandNanos);
+        var zufall = ThreadLocalRandom.current();
+        long maxVerzug = 0;
+        long gesendet = 0;
+
+        ExecutorService pool = konfiguration.threads() == 0
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(konfiguration.threads());
+        long start = System.nanoTime();
+        long messbeginn = start + aufwaermen;
+        try {
+            for (long i = 0; i < anzahl; i++) {
+                long geplant = start + (long) (i * abstandNanos);
+                long jetzt;
+                while ((jetzt = System.nanoTime()) < geplant) {
+                    LockSupport.parkNanos(geplant - jetzt);
+                }
+                // Liegt der Taktgeber zurück, werden die fälligen Anfragen sofort nachgereicht, die Verspätung
+                // zählt über den geplanten Zeitpunkt trotzdem zur Latenz
+                boolean gemessen = geplant >= messbeginn;
+                if (gemessen) {
+                    maxVerzug = Math.max(maxVerzug, jetzt - geplant);
+                    gesendet++;
+                }
+                Anfrageart art = konfiguration.art(zufall.nextInt(konfiguration.mixSumme()));
+                pool.execute(() -> bearbeite(art, konfiguration.pfad(), geplant,
+                    gemessen ? messungen.get(art) : null));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        if (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+            pool.shutdownNow();
+        }
+        long ende = System.nanoTime();
+        return new Bericht(konfiguration, gesendet, Math.max(1, ende - messbeginn), maxVerzug, messungen);
+    }
+
+    private static void bearbeite(Anfrageart art, Anfrageart.Pfad pfad, long geplant, Messung messung) {
+        long beginn = System.nanoTime();
+        boolean erwartet;
+        try {
+            erwartet = art.fuehreAus(pfad, ThreadLocalRandom.current());
+        } catch (RuntimeException e) {
+            erwartet = false;
+        }
+        long ende = System.nanoTime();
+        if (messung != null) {
+            messung.latenz().erfasse(ende - geplant);
+            messung.bedienzeit().erfasse(ende - beginn);
+            if (!erwartet) {
+                messung.fehler().increment();
+            }
+        }
+    }
+}
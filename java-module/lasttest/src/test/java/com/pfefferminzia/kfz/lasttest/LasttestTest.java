@@ -0,0 +1,46 @@
+package com.pfefferminzia.kfz.lasttest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Lasttest Tests")
+class LasttestTest {
+
+    @Test
+    @DisplayName("Kurzer Lauf misst alle Anfragearten ohne unerwartete Ergebnisse")
+    void kurzerLauf() throws InterruptedException {
+        var konfiguration = Konfiguration.aus("rate=4000", "dauer=0.5", "aufwaermen=0.2", "mix=50/30/20", "threads=2");
+
+        var bericht = Lasttest.fuehreAus(konfiguration);
+
+        assertThat(bericht.gesendet()).isEqualTo(2_000);
+        long gemessen = 0;
+        for (var messung : bericht.messungen().values()) {
+            assertThat(messung.latenz().anzahl()).isPositive();
+            assertThat(messung.fehler().sum()).isZero();
+            // korrigierte Latenz enthält die Bedienzeit
+            assertThat(messung.latenz().perzentil(0.5)).isGreaterThanOrEqualTo(messung.bedienzeit().perzentil(0.5));
+            gemessen += messung.latenz().anzahl();
+        }
+        assertThat(gemessen).isEqualTo(bericht.gesendet());
+        assertThat(bericht.json())
+            .contains("\"tarif\": {", "\"zielbeitrag\": {", "\"ungueltig\": {", "\"p999\": ", "\"pfad\": \"tryCreate\"");
+    }
+
+    @Test
+    @DisplayName("Unbekannte Parameter und ungültige Werte werden abgelehnt")
+    void konfiguration() {
+        assertThat(Konfiguration.aus().rate()).isEqualTo(20_000);
+        assertThat(Konfiguration.aus("pfad=konstruktor").pfad()).isEqualTo(Anfrageart.Pfad.KONSTRUKTOR);
+        assertThatThrownBy(() -> Konfiguration.aus("raten=10"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Unbekannter Parameter: raten=10");
+        assertThatThrownBy(() -> Konfiguration.aus("mix=70/30"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Konfiguration.aus("rate=0"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,51 @@
+package com.pfefferminzia.kfz.lasttest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("LatenzHistogramm Tests")
+class LatenzHistogrammTest {
+
+    @Test
+    @DisplayName("Klassengrenzen sind lückenlos und auf unter 1 % genau")
+    void klassen() {
+        long vorher = -1;
+        for (int klasse = 0; klasse < LatenzHistogramm.klasse(Long.MAX_VALUE) + 1; klasse++) {
+            long grenze = LatenzHistogramm.obereGrenze(klasse);
+            assertThat(LatenzHistogramm.klasse(vorher + 1)).isEqualTo(klasse);
+            assertThat(LatenzHistogramm.klasse(grenze)).isEqualTo(klasse);
+            assertThat(grenze - vorher - 1).isLessThanOrEqualTo(Math.max(0, grenze / 100));
+            vorher = grenze;
+        }
+        assertThat(vorher).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    @DisplayName("Perzentile und Maximum entsprechen den sortierten Werten")
+    void perzentile() {
+        var zufall = new SplittableRandom(7);
+        long[] werte = new long[100_000];
+        var histogramm = new LatenzHistogramm();
+        for (int i = 0; i < werte.length; i++) {
+            // überwiegend einige Mikrosekunden, vereinzelt Ausreißer bis in den Sekundenbereich
+            werte[i] = i % 1000 == 0 ? zufall.nextLong(1_000_000_000L) : zufall.nextLong(2_000, 50_000);
+            histogramm.erfasse(werte[i]);
+        }
+        Arrays.sort(werte);
+
+        assertThat(histogramm.anzahl()).isEqualTo(werte.length);
+        assertThat(histogramm.maximum()).isEqualTo(werte[werte.length - 1]);
+        for (double anteil : new double[] {0.5, 0.9, 0.99, 0.999, 0.9999}) {
+            long exakt = werte[(int) Math.ceil(anteil * werte.length) - 1];
+            assertThat((double) histogramm.perzentil(anteil)).isCloseTo(exakt, within(exakt / 100.0));
+        }
+        assertThat(histogramm.perzentil(1.0)).isEqualTo(histogramm.maximum());
+        assertThat(new LatenzHistogramm().perzentil(0.99)).isZero();
+    }
+}
@@ -0,0 +1,93 @@
+package com.pfefferminzia.kfz;
+
+import com.pfefferminzia.kfz.cli.AnfrageFormat;
+import com.pfefferminzia.kfz.cli.BulkTarifierung;
+import com.pfefferminzia.kfz.cli.Trainingslauf;
+import com.pfefferminzia.kfz.server.Lastgenerator;
+import com.pfefferminzia.kfz.server.TarifServer;
+
+import java.net.URI;
+import java.time.Duration;
+
+public class Main {
+
+    private static final String VERWENDUNG = """
+        Verwendung:
+          java -jar kfz-versicherung-1.0.0-standalone.jar bulk <eingabe> <ausgabe> [csv|ndjson]
+          java -jar kfz-versicherung-1.0.0-standalone.jar server [port] [maxGleichzeitig]
+          java -jar kfz-versicherung-1.0.0-standalone.jar last <url> [verbindungen] [sekunden]
+          java -XX:ArchiveClassesAtExit=kfz.jsa -jar kfz-versicherung-1.0.0-standalone.jar training [runden]
+
+          <eingabe>, <ausgabe>  Dateipfad oder - für Standardein-/ausgabe
+          Format                wird sonst aus der Dateiendung der Eingabe abgeleitet
+          port                  Standard 8080
+          maxGleichzeitig       gleichzeitig bearbeitete Anfragen, darüber 503 (Standard 1024)
+          verbindungen          parallele Clients des Lastgenerators (Standard 64), sekunden Standard 10
+          training              Trainingslauf für ein AppCDS-Archiv, danach mit -XX:SharedArchiveFile=kfz.jsa starten
+        """;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.print(VERWENDUNG);
+            System.exit(2);
+        }
+
+        switch (args[0]) {
+            case "bulk" -> bulk(args);
+            case "server" -> server(args);
+            case "last" -> last(args);
+            case "training" -> training(args);
+            default -> {
+                System.err.println("Unbekannter Befehl: " + args[0]);
+                System.err.print(VERWENDUNG);
+                System.exit(2);
+            }
+        }
+    }
+
+    private static void bulk(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.print(VERWENDUNG);
+            System.exit(2);
+        }
+
+        var format = AnfrageFormat.fuer(args.length > 3 ? args[3] : args[1]);
+        long start = System.nanoTime();
+        var statistik = BulkTarifierung.verarbeite(args[1], args[2], format);
+        long dauerMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.err.printf("%d Anfragen verarbeitet, davon %d fehlerhaft (%d ms)%n",
+            statistik.verarbeitet(), statistik.fehlerhaft(), dauerMs);
+    }
+
+    private static void server(String[] args) throws Exception {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : TarifServer.STANDARD_PORT;
+        int maxGleichzeitig = args.length > 2 ? Integer.parseInt(args[2]) : TarifServer.STANDARD_MAX_GLEICHZEITIG;
+
+        var server = TarifServer.starte(port, maxGleichzeitig);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.err.printf("Tarifserver läuft auf Port %d (höchstens %d gleichzeitige Anfragen)%n",
+            server.getPort(), maxGleichzeitig);
+        Thread.currentThread().join();
+    }
+
+    private static void last(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.print(VERWENDUNG);
+            System.exit(2);
+        }
+        int verbindungen = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int sekunden = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        System.err.println(Lastgenerator.starte(URI.create(args[1]), verbindungen, Duration.ofSeconds(sekunden)));
+    }
+
+    private static void training(String[] args) throws Exception {
+        int runden = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        long start = System.nanoTime();
+        long anfragen = Trainingslauf.fuehreAus(runden);
+        long dauerMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.err.printf("Trainingslauf: %d Anfragen (%d ms)%n", anfragen, dauerMs);
+    }
+}
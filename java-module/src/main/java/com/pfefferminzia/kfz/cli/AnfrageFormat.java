@@ -0,0 +1,59 @@
+package com.pfefferminzia.kfz.cli;
+
+import com.pfefferminzia.kfz.model.TarifAnfrage;
+import com.pfefferminzia.kfz.model.TarifierungsErgebnis;
+
+import java.util.Locale;
+
+/**
+ * Zeilenbasiertes Ein- und Ausgabeformat der Massentarifierung.
+ */
+public interface AnfrageFormat {
+
+    /**
+     * @return Kopfzeile der Ausgabe oder {@code null}, wenn das Format keine hat
+     */
+    String ausgabeKopfzeile();
+
+    /**
+     * @return {@code true}, wenn die Zeile keine Anfrage enthält (Leerzeile, Kopfzeile)
+     */
+    boolean istUeberspringbar(String zeile);
+
+    /**
+     * @throws IllegalArgumentException wenn die Zeile nicht gelesen werden kann
+     */
+    TarifAnfrage leseAnfrage(String zeile);
+
+    void schreibeErgebnis(StringBuilder ausgabe, long zeile, TarifierungsErgebnis ergebnis);
+
+    void schreibeLesefehler(StringBuilder ausgabe, long zeile, String meldung);
+
+    static AnfrageFormat fuer(String name) {
+        String kleingeschrieben = name.toLowerCase(Locale.ROOT);
+        if (kleingeschrieben.endsWith("ndjson") || kleingeschrieben.endsWith("jsonl")) {
+            return new NdjsonFormat();
+        }
+        if (kleingeschrieben.endsWith("csv")) {
+            return new CsvFormat();
+        }
+        throw new IllegalArgumentException("Unbekanntes Format: " + name);
+    }
+
+    /**
+     * Hängt einen Betrag kaufmännisch gerundet mit zwei Nachkommastellen an, ohne String.format.
+     */
+    static void haengeBetragAn(StringBuilder ausgabe, double betrag) {
+        long cent = Math.round(betrag * 100);
+        if (cent < 0) {
+            ausgabe.append('-');
+            cent = -cent;
+        }
+        long nachkomma = cent % 100;
+        ausgabe.append(cent / 100).append('.');
+        if (nachkomma < 10) {
+            ausgabe.append('0');
+        }
+        ausgabe.append(nachkomma);
+    }
+}
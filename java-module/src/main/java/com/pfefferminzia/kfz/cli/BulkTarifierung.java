@@ -0,0 +1,87 @@
+package com.pfefferminzia.kfz.cli;
+
+import com.pfefferminzia.kfz.model.TarifierungsErgebnis;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streamende Massentarifierung: liest Anfragen zeilenweise, tarifiert jede über
+ * {@link com.pfefferminzia.kfz.model.Tarifierung#tryCreate} und schreibt das Ergebnis sofort.
+ * Der Speicherbedarf hängt nur von der Puffergröße ab, nicht von der Größe der Eingabe.
+ */
+public final class BulkTarifierung {
+
+    private static final int SCHREIBPUFFER = 1 << 16;
+
+    public record Statistik(long verarbeitet, long fehlerhaft) {
+    }
+
+    private BulkTarifierung() {
+    }
+
+    /**
+     * @param eingabe Eingabedatei oder {@code -} für die Standardeingabe
+     * @param ausgabe Ausgabedatei oder {@code -} für die Standardausgabe
+     */
+    public static Statistik verarbeite(String eingabe, String ausgabe, AnfrageFormat format) throws IOException {
+        ReadableByteChannel eingabeKanal = eingabe.equals("-")
+            ? Channels.newChannel(System.in)
+            : FileChannel.open(Path.of(eingabe), StandardOpenOption.READ);
+        Writer ausgabeWriter = ausgabe.equals("-")
+            ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+            : Files.newBufferedWriter(Path.of(ausgabe), StandardCharsets.UTF_8);
+
+        try (var leser = new ZeilenLeser(eingabeKanal); var writer = new BufferedWriter(ausgabeWriter, SCHREIBPUFFER)) {
+            return verarbeite(leser, writer, format);
+        }
+    }
+
+    static Statistik verarbeite(ZeilenLeser leser, Writer writer, AnfrageFormat format) throws IOException {
+        var zeilenpuffer = new StringBuilder(256);
+        long verarbeitet = 0;
+        long fehlerhaft = 0;
+        long nummer = 0;
+
+        if (format.ausgabeKopfzeile() != null) {
+            writer.write(format.ausgabeKopfzeile());
+            writer.write('\n');
+        }
+
+        String zeile;
+        while ((zeile = leser.naechsteZeile()) != null) {
+            nummer++;
+            if (format.istUeberspringbar(zeile)) {
+                continue;
+            }
+
+            zeilenpuffer.setLength(0);
+            try {
+                TarifierungsErgebnis ergebnis = format.leseAnfrage(zeile).bewerte();
+                format.schreibeErgebnis(zeilenpuffer, nummer, ergebnis);
+                if (!ergebnis.istGueltig()) {
+                    fehlerhaft++;
+                }
+            } catch (IllegalArgumentException e) {
+                format.schreibeLesefehler(zeilenpuffer, nummer, e.getMessage());
+                fehlerhaft++;
+            }
+            verarbeitet++;
+
+            zeilenpuffer.append('\n');
+            writer.append(zeilenpuffer);
+        }
+
+        writer.flush();
+        return new Statistik(verarbeitet, fehlerhaft);
+    }
+}
@@ -0,0 +1,96 @@
+package com.pfefferminzia.kfz.cli;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.model.TarifAnfrage;
+import com.pfefferminzia.kfz.model.TarifierungsErgebnis;
+
+/**
+ * CSV mit Semikolon als Trennzeichen. Spalten der Eingabe:
+ * {@code haftpflichtPraemie;haftpflichtRabatt;kaskoPraemie;kaskoRabatt;zielbeitrag}.
+ * Leere Spalten bedeuten: kein Rabatt, keine Kasko bzw. kein Zielbeitrag. Beträge dürfen Punkt oder Komma
+ * als Dezimaltrennzeichen verwenden. Eine Kopfzeile wird an ihrer ersten Spalte {@code haftpflichtPraemie} erkannt und
+ * übersprungen; jede andere Zeile, auch eine verstümmelte, zählt als Anfrage oder Lesefehler.
+ */
+public class CsvFormat implements AnfrageFormat {
+
+    private static final String ERSTE_SPALTE = "haftpflichtPraemie";
+
+    static final String AUSGABE_KOPFZEILE = "zeile;haftpflichtRabatt;kaskoRabatt;gesamtpraemie;nettopraemie;fehlercodes;fehler";
+
+    @Override
+    public String ausgabeKopfzeile() {
+        return AUSGABE_KOPFZEILE;
+    }
+
+    @Override
+    public boolean istUeberspringbar(String zeile) {
+        return zeile.isBlank() || istKopfzeile(zeile.strip());
+    }
+
+    private static boolean istKopfzeile(String zeile) {
+        int laenge = ERSTE_SPALTE.length();
+        return zeile.regionMatches(true, 0, ERSTE_SPALTE, 0, laenge)
+            && (zeile.length() == laenge || zeile.charAt(laenge) == ';');
+    }
+
+    @Override
+    public TarifAnfrage leseAnfrage(String zeile) {
+        String[] spalten = zeile.split(";", -1);
+        try {
+            return new TarifAnfrage(
+                betrag(spalten, 0),
+                rabatt(spalten, 1),
+                istLeer(spalten, 2) ? null : betrag(spalten, 2),
+                rabatt(spalten, 3),
+                istLeer(spalten, 4) ? null : betrag(spalten, 4));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Zeile nicht lesbar: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void schreibeErgebnis(StringBuilder ausgabe, long zeile, TarifierungsErgebnis ergebnis) {
+        ausgabe.append(zeile).append(';');
+        if (!ergebnis.istGueltig()) {
+            ausgabe.append(";;;;");
+            String trenner = "";
+            for (Fehlercode code : ergebnis.getFehlercodes()) {
+                ausgabe.append(trenner).append(code.name());
+                trenner = "|";
+            }
+            ausgabe.append(';').append(String.join("|", ergebnis.getFehler()));
+            return;
+        }
+
+        var tarifierung = ergebnis.getTarifierung();
+        ausgabe.append(tarifierung.getHaftpflicht().getRabatt()).append(';');
+        if (tarifierung.getKasko() != null) {
+            ausgabe.append(tarifierung.getKasko().getRabatt());
+        }
+        ausgabe.append(';');
+        AnfrageFormat.haengeBetragAn(ausgabe, tarifierung.getGesamtpraemie());
+        ausgabe.append(';');
+        AnfrageFormat.haengeBetragAn(ausgabe, tarifierung.getNettopraemie());
+        ausgabe.append(";;");
+    }
+
+    @Override
+    public void schreibeLesefehler(StringBuilder ausgabe, long zeile, String meldung) {
+        ausgabe.append(zeile).append(";;;;;;").append(meldung.replace(';', ','));
+    }
+
+    private static boolean istLeer(String[] spalten, int index) {
+        return index >= spalten.length || spalten[index].isBlank();
+    }
+
+    private static double betrag(String[] spalten, int index) {
+        if (istLeer(spalten, index)) {
+            throw new NumberFormatException("Spalte " + (index + 1) + " fehlt");
+        }
+        return Double.parseDouble(spalten[index].trim().replace(',', '.'));
+    }
+
+    private static int rabatt(String[] spalten, int index) {
+        return istLeer(spalten, index) ? 0 : Integer.parseInt(spalten[index].trim());
+    }
+}
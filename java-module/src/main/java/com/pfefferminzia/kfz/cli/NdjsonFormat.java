@@ -0,0 +1,240 @@
+package com.pfefferminzia.kfz.cli;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.model.TarifAnfrage;
+import com.pfefferminzia.kfz.model.TarifierungsErgebnis;
+
+import java.util.List;
+
+/**
+ * Ein JSON-Objekt pro Zeile, z.B.
+ * {@code {"haftpflichtPraemie":100,"kaskoPraemie":50,"zielbeitrag":120}}.
+ * Gelesen werden nur flache Objekte mit den Feldern {@code haftpflichtPraemie}, {@code haftpflichtRabatt},
+ * {@code kaskoPraemie}, {@code kaskoRabatt} und {@code zielbeitrag}; unbekannte Felder werden ignoriert.
+ */
+public class NdjsonFormat implements AnfrageFormat {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Override
+    public String ausgabeKopfzeile() {
+        return null;
+    }
+
+    @Override
+    public boolean istUeberspringbar(String zeile) {
+        return zeile.isBlank();
+    }
+
+    @Override
+    public TarifAnfrage leseAnfrage(String zeile) {
+        return new Parser(zeile).leseAnfrage();
+    }
+
+    @Override
+    public void schreibeErgebnis(StringBuilder ausgabe, long zeile, TarifierungsErgebnis ergebnis) {
+        if (!ergebnis.istGueltig()) {
+            schreibeFehler(ausgabe, zeile, ergebnis.getFehlercodes(), ergebnis.getFehler());
+            return;
+        }
+
+        var tarifierung = ergebnis.getTarifierung();
+        schreibeTarif(ausgabe, zeile, tarifierung.getHaftpflicht().getRabatt(),
+            tarifierung.getKasko() != null ? tarifierung.getKasko().getRabatt() : null,
+            tarifierung.getGesamtpraemie(), tarifierung.getNettopraemie());
+    }
+
+    /**
+     * Schreibt ein gültiges Ergebnis, auch für Aufrufer ohne {@link TarifierungsErgebnis} (z.B. aus einem TarifBatch).
+     *
+     * @param kaskoRabatt {@code null} für eine Tarifierung ohne Kasko
+     */
+    public static void schreibeTarif(StringBuilder ausgabe, long zeile, int haftpflichtRabatt, Integer kaskoRabatt,
+                                     double gesamtpraemie, double nettopraemie) {
+        ausgabe.append("{\"zeile\":").append(zeile);
+        ausgabe.append(",\"haftpflichtRabatt\":").append(haftpflichtRabatt);
+        if (kaskoRabatt != null) {
+            ausgabe.append(",\"kaskoRabatt\":").append(kaskoRabatt.intValue());
+        }
+        ausgabe.append(",\"gesamtpraemie\":");
+        AnfrageFormat.haengeBetragAn(ausgabe, gesamtpraemie);
+        ausgabe.append(",\"nettopraemie\":");
+        AnfrageFormat.haengeBetragAn(ausgabe, nettopraemie);
+        ausgabe.append('}');
+    }
+
+    public static void schreibeFehler(StringBuilder ausgabe, long zeile, List<Fehlercode> codes, List<String> fehler) {
+        ausgabe.append("{\"zeile\":").append(zeile);
+        ausgabe.append(",\"fehlercodes\":[");
+        String trenner = "";
+        for (Fehlercode code : codes) {
+            ausgabe.append(trenner).append('"').append(code.name()).append('"');
+            trenner = ",";
+        }
+        ausgabe.append("],\"fehler\":");
+        haengeTexteAn(ausgabe, fehler);
+        ausgabe.append('}');
+    }
+
+    @Override
+    public void schreibeLesefehler(StringBuilder ausgabe, long zeile, String meldung) {
+        ausgabe.append("{\"zeile\":").append(zeile).append(",\"fehler\":");
+        haengeTexteAn(ausgabe, List.of(meldung));
+        ausgabe.append('}');
+    }
+
+    private static void haengeTexteAn(StringBuilder ausgabe, List<String> texte) {
+        ausgabe.append('[');
+        for (int i = 0; i < texte.size(); i++) {
+            if (i > 0) {
+                ausgabe.append(',');
+            }
+            haengeTextAn(ausgabe, texte.get(i));
+        }
+        ausgabe.append(']');
+    }
+
+    /**
+     * Hängt einen Text als JSON-String in Anführungszeichen an. Alle Steuerzeichen unter U+0020 werden maskiert, damit
+     * das Ergebnis auf einer Zeile bleibt und gültiges JSON ist.
+     */
+    public static void haengeTextAn(StringBuilder ausgabe, String text) {
+        ausgabe.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> ausgabe.append("\\\"");
+                case '\\' -> ausgabe.append("\\\\");
+                case '\n' -> ausgabe.append("\\n");
+                case '\r' -> ausgabe.append("\\r");
+                case '\t' -> ausgabe.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        ausgabe.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        ausgabe.append(c);
+                    }
+                }
+            }
+        }
+        ausgabe.append('"');
+    }
+
+    /**
+     * Minimaler Parser für flache JSON-Objekte mit Zahlen-, null-, Wahrheits- und Textwerten.
+     */
+    private static final class Parser {
+
+        private final String json;
+        private int position;
+
+        private double haftpflichtPraemie = Double.NaN;
+        private int haftpflichtRabatt;
+        private Double kaskoPraemie;
+        private int kaskoRabatt;
+        private Double zielbeitrag;
+
+        Parser(String json) {
+            this.json = json;
+        }
+
+        TarifAnfrage leseAnfrage() {
+            erwarte('{');
+            if (naechstesZeichen() != '}') {
+                do {
+                    String feld = leseText();
+                    erwarte(':');
+                    leseWert(feld);
+                } while (optional(','));
+            }
+            erwarte('}');
+
+            if (Double.isNaN(haftpflichtPraemie)) {
+                throw new IllegalArgumentException("Zeile nicht lesbar: haftpflichtPraemie fehlt");
+            }
+            return new TarifAnfrage(haftpflichtPraemie, haftpflichtRabatt, kaskoPraemie, kaskoRabatt, zielbeitrag);
+        }
+
+        private void leseWert(String feld) {
+            char c = naechstesZeichen();
+            if (c == '"') {
+                leseText();
+                return;
+            }
+            if (c == 'n' || c == 't' || c == 'f') {
+                String wort = leseWort();
+                if (!wort.equals("null") && !wort.equals("true") && !wort.equals("false")) {
+                    throw fehler("unbekannter Wert " + wort);
+                }
+                return;
+            }
+
+            String zahl = leseWort();
+            try {
+                switch (feld) {
+                    case "haftpflichtPraemie" -> haftpflichtPraemie = Double.parseDouble(zahl);
+                    case "haftpflichtRabatt" -> haftpflichtRabatt = Integer.parseInt(zahl);
+                    case "kaskoPraemie" -> kaskoPraemie = Double.parseDouble(zahl);
+                    case "kaskoRabatt" -> kaskoRabatt = Integer.parseInt(zahl);
+                    case "zielbeitrag" -> zielbeitrag = Double.parseDouble(zahl);
+                    default -> Double.parseDouble(zahl);
+                }
+            } catch (NumberFormatException e) {
+                throw fehler("ungültige Zahl " + zahl + " für " + feld);
+            }
+        }
+
+        private String leseText() {
+            erwarte('"');
+            var text = new StringBuilder();
+            while (position < json.length()) {
+                char c = json.charAt(position++);
+                if (c == '"') {
+                    return text.toString();
+                }
+                if (c == '\\' && position < json.length()) {
+                    c = json.charAt(position++);
+                }
+                text.append(c);
+            }
+            throw fehler("Text nicht abgeschlossen");
+        }
+
+        private String leseWort() {
+            int start = position;
+            while (position < json.length() && ",}] \t".indexOf(json.charAt(position)) < 0) {
+                position++;
+            }
+            return json.substring(start, position);
+        }
+
+        private char naechstesZeichen() {
+            while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+            if (position >= json.length()) {
+                throw fehler("unerwartetes Zeilenende");
+            }
+            return json.charAt(position);
+        }
+
+        private void erwarte(char erwartet) {
+            if (naechstesZeichen() != erwartet) {
+                throw fehler("'" + erwartet + "' erwartet an Position " + (position + 1));
+            }
+            position++;
+        }
+
+        private boolean optional(char zeichen) {
+            if (naechstesZeichen() == zeichen) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private IllegalArgumentException fehler(String grund) {
+            return new IllegalArgumentException("Zeile nicht lesbar: " + grund);
+        }
+    }
+}
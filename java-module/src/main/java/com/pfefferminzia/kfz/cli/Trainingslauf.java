@@ -0,0 +1,105 @@
+package com.pfefferminzia.kfz.cli;
+
+import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Insassenunfall;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Schutzbrief;
+import com.pfefferminzia.kfz.model.Tarifierung;
+import com.pfefferminzia.kfz.model.Teilkasko;
+import com.pfefferminzia.kfz.model.Vollkasko;
+import com.pfefferminzia.kfz.service.ZielbeitragService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Trainingslauf für ein AppCDS-Archiv: durchläuft einmal alle typischen Pfade – Konstruktoren, Zielbeitrag,
+ * Zusatzbausteine, Plausibilitätsfehler und die Massentarifierung in beiden Formaten –, damit die JVM alle dabei
+ * geladenen Klassen ins Archiv schreibt. Die Validierung läuft im eingestellten Modus, der Trainingslauf muss also mit
+ * denselben {@code -Dkfz.validierung...}-Properties gestartet werden wie die späteren Läufe.
+ *
+ * <pre>
+ * java -XX:ArchiveClassesAtExit=kfz.jsa -jar kfz-versicherung-1.0.0-standalone.jar training
+ * java -XX:SharedArchiveFile=kfz.jsa -jar kfz-versicherung-1.0.0-standalone.jar bulk ...
+ * </pre>
+ */
+public final class Trainingslauf {
+
+    private static final String CSV = """
+        haftpflichtPraemie;haftpflichtRabatt;kaskoPraemie;kaskoRabatt;zielbeitrag
+        100;20;50;10;
+        100;;50;;120
+        100;;;;
+        -5;;;;
+        100;;50;;1
+        kaputt
+        """;
+
+    private static final String NDJSON = """
+        {"haftpflichtPraemie":100,"haftpflichtRabatt":20,"kaskoPraemie":50,"kaskoRabatt":10}
+        {"haftpflichtPraemie":100,"kaskoPraemie":50,"zielbeitrag":120}
+        {"haftpflichtPraemie":-5}
+        kaputt
+        """;
+
+    private Trainingslauf() {
+    }
+
+    /**
+     * @return Anzahl der durchlaufenen Anfragen einschließlich der fehlerhaften
+     */
+    public static long fuehreAus(int runden) throws IOException {
+        long anfragen = 0;
+        for (int runde = 0; runde < runden; runde++) {
+            anfragen += tarifiere();
+            anfragen += BulkTarifierung.verarbeite(leser(CSV), Writer.nullWriter(), new CsvFormat()).verarbeitet();
+            anfragen += BulkTarifierung.verarbeite(leser(NDJSON), Writer.nullWriter(), new NdjsonFormat()).verarbeitet();
+        }
+        return anfragen;
+    }
+
+    private static int tarifiere() {
+        int anfragen = 0;
+        new Tarifierung(new Haftpflicht(100, 20));
+        anfragen++;
+        new Tarifierung(new Haftpflicht(100, 20), new Kasko(50, 10));
+        anfragen++;
+        new Tarifierung(120, new Haftpflicht(100), new Kasko(50));
+        anfragen++;
+        new Tarifierung(80, new Haftpflicht(100), new Teilkasko(30),
+            List.of(new Schutzbrief(10), new Insassenunfall(5)));
+        anfragen++;
+        new Tarifierung(new Haftpflicht(100), new Vollkasko(60, 5), List.of(new Schutzbrief(10, 3)));
+        anfragen++;
+        Tarifierung.tryCreate(120, new Haftpflicht(100), new Kasko(50));
+        anfragen++;
+        Tarifierung.tryCreate(new Haftpflicht(-1, 120), new Kasko(-1, -1));
+        anfragen++;
+        ZielbeitragService.berechneRabatteCent(12_000, 10_000, 5_000);
+        anfragen++;
+
+        try {
+            anfragen++;
+            new Tarifierung(new Haftpflicht(-1, 120), new Kasko(0, -1));
+        } catch (PlausiException erwartet) {
+            // Fehlerpfad einschließlich Meldungsaufbau gehört zum Training
+        }
+        try {
+            anfragen++;
+            new Tarifierung(1, new Haftpflicht(100), new Kasko(50));
+        } catch (PlausiException erwartet) {
+            // Zielbeitrag nicht erreichbar
+        }
+        return anfragen;
+    }
+
+    private static ZeilenLeser leser(String eingabe) {
+        return new ZeilenLeser(Channels.newChannel(new ByteArrayInputStream(eingabe.getBytes(StandardCharsets.UTF_8))),
+            1 << 12);
+    }
+}
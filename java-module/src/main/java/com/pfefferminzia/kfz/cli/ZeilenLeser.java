@@ -0,0 +1,78 @@
+package com.pfefferminzia.kfz.cli;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Liest UTF-8-Zeilen aus einem Channel über einen großen Direct-Buffer. Es befindet sich immer nur
+ * der Puffer und die aktuelle Zeile im Speicher, unabhängig von der Größe der Eingabe.
+ */
+class ZeilenLeser implements Closeable {
+
+    static final int STANDARD_PUFFERGROESSE = 1 << 20;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer puffer;
+    private byte[] zeile = new byte[256];
+    private boolean ende;
+
+    ZeilenLeser(ReadableByteChannel channel) {
+        this(channel, STANDARD_PUFFERGROESSE);
+    }
+
+    ZeilenLeser(ReadableByteChannel channel, int puffergroesse) {
+        this.channel = channel;
+        this.puffer = ByteBuffer.allocateDirect(puffergroesse);
+        this.puffer.flip();
+    }
+
+    /**
+     * @return die nächste Zeile ohne Zeilenumbruch oder {@code null} am Ende der Eingabe
+     */
+    String naechsteZeile() throws IOException {
+        int laenge = 0;
+        while (true) {
+            if (!puffer.hasRemaining()) {
+                if (ende || !fuellePuffer()) {
+                    return laenge > 0 ? dekodiere(laenge) : null;
+                }
+            }
+
+            byte b = puffer.get();
+            if (b == '\n') {
+                return dekodiere(laenge);
+            }
+            if (laenge == zeile.length) {
+                zeile = Arrays.copyOf(zeile, zeile.length * 2);
+            }
+            zeile[laenge++] = b;
+        }
+    }
+
+    private boolean fuellePuffer() throws IOException {
+        puffer.clear();
+        int gelesen;
+        do {
+            gelesen = channel.read(puffer);
+        } while (gelesen == 0);
+        puffer.flip();
+        ende = gelesen < 0;
+        return puffer.hasRemaining();
+    }
+
+    private String dekodiere(int laenge) {
+        if (laenge > 0 && zeile[laenge - 1] == '\r') {
+            laenge--;
+        }
+        return new String(zeile, 0, laenge, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,78 @@
+package com.pfefferminzia.kfz.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Strukturierte Fehlercodes der Plausibilitätsprüfung. Jeder Code belegt ein Bit, sodass mehrere
+ * Fehler einer Tarifierung als {@code int}-Maske transportiert werden können.
+ */
+public enum Fehlercode {
+
+    HAFTPFLICHT_FEHLT("Haftpflicht ist Pflichtfeld"),
+    HAFTPFLICHT_PRAEMIE_NICHT_POSITIV("Prämie für die Haftpflicht muss positiv sein"),
+    HAFTPFLICHT_RABATT_NEGATIV("Rabatt für die Haftpflicht darf nicht negativ sein"),
+    HAFTPFLICHT_RABATT_ZU_HOCH("Rabatt für die Haftpflicht darf nicht größer 99 sein"),
+    KASKO_PRAEMIE_NICHT_POSITIV("Prämie für die Kasko muss positiv sein"),
+    KASKO_RABATT_NEGATIV("Rabatt für die Kasko darf nicht negativ sein"),
+    KASKO_RABATT_ZU_HOCH("Rabatt für die Kasko darf nicht größer 99 sein"),
+    ZIELBEITRAG_NICHT_POSITIV("Zielbeitrag muss positiv sein"),
+    /** Argumente: Zielbeitrag, minimaler Beitrag */
+    ZIELBEITRAG_NICHT_ERREICHBAR("Zielbeitrag von %.2f€ ist nicht erreichbar. Minimaler Beitrag: %.2f€"),
+    /** Argumente: Makler */
+    MAKLER_OHNE_KONTINGENT("Makler %s hat kein Rabattkontingent"),
+    /** Argumente: Makler, benötigte Punkte, freie Punkte */
+    RABATTKONTINGENT_ERSCHOEPFT("Rabattkontingent von Makler %s reicht nicht aus: benötigt %d, frei %d Punkte"),
+    /** Argumente: Tarifschlüssel */
+    TARIFSCHLUESSEL_UNBEKANNT("Tarifbuch enthält keinen Eintrag für %s"),
+    ZUSATZBAUSTEIN_PRAEMIE_NICHT_POSITIV("Prämie für den Zusatzbaustein muss positiv sein"),
+    ZUSATZBAUSTEIN_RABATT_NEGATIV("Rabatt für den Zusatzbaustein darf nicht negativ sein"),
+    ZUSATZBAUSTEIN_RABATT_ZU_HOCH("Rabatt für den Zusatzbaustein darf nicht größer 99 sein"),
+    BETRAG_AUSSERHALB_BEREICH("Prämien und Zielbeitrag müssen betragsmäßig unter 21.474.836,48€ liegen"),
+    ZUSATZBAUSTEIN_ART_UNZULAESSIG("Haftpflicht und Kasko dürfen nicht als Zusatzbaustein angegeben werden");
+
+    private static final Fehlercode[] WERTE = values();
+
+    private final String meldung;
+
+    Fehlercode(String meldung) {
+        this.meldung = meldung;
+    }
+
+    public String getMeldung() {
+        return meldung;
+    }
+
+    /**
+     * Setzt die Argumente in die Meldung ein (deutsches Zahlenformat). Meldungen ohne Platzhalter
+     * werden unverändert zurückgegeben.
+     */
+    public String formatiere(Object... argumente) {
+        return argumente.length == 0 ? meldung : String.format(Locale.GERMANY, meldung, argumente);
+    }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public boolean istGesetzt(int maske) {
+        return (maske & bit()) != 0;
+    }
+
+    public static List<Fehlercode> aus(int maske) {
+        List<Fehlercode> codes = new ArrayList<>(Integer.bitCount(maske));
+        for (Fehlercode code : WERTE) {
+            if (code.istGesetzt(maske)) {
+                codes.add(code);
+            }
+        }
+        return codes;
+    }
+
+    public static List<String> meldungen(int maske) {
+        return aus(maske).stream()
+            .map(Fehlercode::getMeldung)
+            .toList();
+    }
+}
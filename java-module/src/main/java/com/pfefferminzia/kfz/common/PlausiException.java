@@ -1,18 +1,34 @@
 package com.pfefferminzia.kfz.common;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 public class PlausiException extends RuntimeException {
 
-    private final List<String> fehler;
+    private volatile List<String> fehler;
+    private final Supplier<List<String>> fehlerQuelle;
 
     public PlausiException(List<String> fehler) {
         super(erstelleFehlermeldung(fehler));
         this.fehler = fehler;
+        this.fehlerQuelle = null;
         // Ausgabe in Console
         System.err.println(getMessage());
     }
 
+    /**
+     * Leichtgewichtige Variante ohne Stacktrace und ohne Konsolenausgabe.
+     * Die Fehler werden erst beim ersten Zugriff auf {@link #getFehler()} oder {@link #getMessage()} erzeugt.
+     */
+    private PlausiException(Supplier<List<String>> fehlerQuelle) {
+        super(null, null, false, false);
+        this.fehlerQuelle = fehlerQuelle;
+    }
+
+    public static PlausiException ohneStacktrace(Supplier<List<String>> fehler) {
+        return new PlausiException(fehler);
+    }
+
     private static String erstelleFehlermeldung(List<String> fehler) {
         if (fehler == null || fehler.isEmpty()) {
             return "Plausibilitätsprüfung fehlgeschlagen";
@@ -33,7 +49,18 @@ public class PlausiException extends RuntimeException {
         return sb.toString();
     }
 
+    @Override
+    public String getMessage() {
+        return fehlerQuelle == null ? super.getMessage() : erstelleFehlermeldung(getFehler());
+    }
+
+    /**
+     * @return {@code null}, wenn die Exception über den öffentlichen Konstruktor ohne Fehlerliste erzeugt wurde
+     */
     public List<String> getFehler() {
+        if (fehler == null && fehlerQuelle != null) {
+            fehler = fehlerQuelle.get();
+        }
         return fehler;
     }
 }
@@ -0,0 +1,82 @@
+package com.pfefferminzia.kfz.metrik;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sperrfreies Histogramm mit Zweierpotenz-Klassen: Klasse {@code i} zählt Werte im Bereich {@code [2^(i-1), 2^i)},
+ * Klasse {@code 0} den Wert {@code 0}. Gezählt wird über {@link LongAdder}, sodass viele Threads gleichzeitig
+ * erfassen können, ohne sich gegenseitig auszubremsen. Perzentile sind auf die Klassengrenze genau (Faktor 2).
+ */
+public final class Histogramm {
+
+    static final int KLASSEN = 64;
+
+    private final LongAdder[] klassen = new LongAdder[KLASSEN];
+    private final LongAdder summe = new LongAdder();
+    private final LongAccumulator maximum = new LongAccumulator(Math::max, 0);
+
+    public Histogramm() {
+        for (int i = 0; i < KLASSEN; i++) {
+            klassen[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param wert nicht negativ, negative Werte werden als {@code 0} gezählt
+     */
+    public void erfasse(long wert) {
+        long begrenzt = Math.max(0, wert);
+        klassen[Math.min(KLASSEN - 1, Long.SIZE - Long.numberOfLeadingZeros(begrenzt))].increment();
+        summe.add(begrenzt);
+        maximum.accumulate(begrenzt);
+    }
+
+    public void zuruecksetzen() {
+        for (LongAdder klasse : klassen) {
+            klasse.reset();
+        }
+        summe.reset();
+        maximum.reset();
+    }
+
+    /**
+     * Momentaufnahme; unter gleichzeitigem Erfassen nicht zwingend exakt konsistent zwischen den Klassen.
+     */
+    public Schnappschuss schnappschuss() {
+        long[] anzahlen = new long[KLASSEN];
+        long anzahl = 0;
+        for (int i = 0; i < KLASSEN; i++) {
+            anzahlen[i] = klassen[i].sum();
+            anzahl += anzahlen[i];
+        }
+        return new Schnappschuss(anzahl, summe.sum(), maximum.get(), anzahlen);
+    }
+
+    public record Schnappschuss(long anzahl, long summe, long maximum, long[] klassen) {
+
+        public double mittelwert() {
+            return anzahl == 0 ? 0 : (double) summe / anzahl;
+        }
+
+        /**
+         * Obere Grenze der Klasse, in die das Perzentil fällt, höchstens aber das Maximum.
+         *
+         * @param anteil z.B. {@code 0.99} für das 99. Perzentil
+         */
+        public long perzentil(double anteil) {
+            if (anzahl == 0) {
+                return 0;
+            }
+            long rang = Math.max(1, (long) Math.ceil(anteil * anzahl));
+            long gezaehlt = 0;
+            for (int i = 0; i < klassen.length; i++) {
+                gezaehlt += klassen[i];
+                if (gezaehlt >= rang) {
+                    return i == 0 ? 0 : Math.min(maximum, (1L << Math.min(62, i)) - 1);
+                }
+            }
+            return maximum;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.pfefferminzia.kfz.metrik;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Eingebaute Messpunkte der Tarifierung: Laufzeiten von {@code Tarifierung.berechneTarifierung},
+ * {@code ValidationService.validate} und der Zielbeitrag-Berechnung, die Lösungsschritte des Zielbeitrag-Verfahrens,
+ * verfehlte Toleranzen und Plausibilitätsfehler je {@link Fehlercode}.
+ * <p>
+ * Standardmäßig ausgeschaltet ({@code -Dkfz.metriken=true} oder {@link #aktiviere()} schaltet ein). Ausgeschaltet
+ * kostet jeder Messpunkt nur das Lesen eines {@code volatile}-Felds, eingeschaltet zählen alle Erfassungen
+ * sperrfrei über {@link LongAdder} und allokieren nichts. Abgefragt wird per {@link #schnappschuss()} oder über
+ * JMX ({@link #registriereMBean()}).
+ */
+public final class TarifMetriken {
+
+    public static final String AKTIV_PROPERTY = "kfz.metriken";
+    public static final String OBJEKTNAME = "com.pfefferminzia.kfz:type=TarifMetriken";
+
+    /**
+     * Iterationslimit der fachlichen Anforderung an das Zielbeitrag-Verfahren. Überschreiten können es nur
+     * {@code ITERATIV} (bis zu 198 Schritte) und {@code EXAKT}, siehe {@code ZielbeitragLoeser#schritte}.
+     */
+    public static final int ITERATIONSLIMIT = 100;
+
+    private static volatile boolean aktiv = Boolean.getBoolean(AKTIV_PROPERTY);
+
+    private static final Histogramm TARIFIERUNG = new Histogramm();
+    private static final Histogramm VALIDIERUNG = new Histogramm();
+    private static final Histogramm ZIELBEITRAG = new Histogramm();
+    private static final Histogramm LOESUNGSSCHRITTE = new Histogramm();
+    private static final LongAdder ITERATIONSLIMIT_UEBERSCHRITTEN = new LongAdder();
+    private static final LongAdder TOLERANZ_VERFEHLT = new LongAdder();
+    private static final LongAdder[] PLAUSI_FEHLER = new LongAdder[Fehlercode.values().length];
+    private static final Map<String, Fehlercode> CODE_JE_MELDUNG = new HashMap<>();
+
+    static {
+        for (Fehlercode code : Fehlercode.values()) {
+            PLAUSI_FEHLER[code.ordinal()] = new LongAdder();
+            CODE_JE_MELDUNG.put(code.getMeldung(), code);
+        }
+    }
+
+    public record Schnappschuss(Histogramm.Schnappschuss tarifierung, Histogramm.Schnappschuss validierung,
+                                Histogramm.Schnappschuss zielbeitrag, Histogramm.Schnappschuss loesungsschritte,
+                                long iterationslimitUeberschritten, long toleranzVerfehlt,
+                                Map<Fehlercode, Long> plausiFehler) {
+    }
+
+    private TarifMetriken() {
+    }
+
+    public static boolean istAktiv() {
+        return aktiv;
+    }
+
+    public static void aktiviere() {
+        aktiv = true;
+    }
+
+    public static void deaktiviere() {
+        aktiv = false;
+    }
+
+    public static void zuruecksetzen() {
+        TARIFIERUNG.zuruecksetzen();
+        VALIDIERUNG.zuruecksetzen();
+        ZIELBEITRAG.zuruecksetzen();
+        LOESUNGSSCHRITTE.zuruecksetzen();
+        ITERATIONSLIMIT_UEBERSCHRITTEN.reset();
+        TOLERANZ_VERFEHLT.reset();
+        for (LongAdder zaehler : PLAUSI_FEHLER) {
+            zaehler.reset();
+        }
+    }
+
+    /**
+     * Beginn einer Zeitmessung, {@code 0} wenn die Metriken ausgeschaltet sind.
+     */
+    public static long start() {
+        return aktiv ? System.nanoTime() : 0;
+    }
+
+    public static void tarifierung(long start) {
+        if (start != 0) {
+            TARIFIERUNG.erfasse(System.nanoTime() - start);
+        }
+    }
+
+    public static void validierung(long start) {
+        if (start != 0) {
+            VALIDIERUNG.erfasse(System.nanoTime() - start);
+        }
+    }
+
+    public static void zielbeitrag(long start) {
+        if (start != 0) {
+            ZIELBEITRAG.erfasse(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @param schritte                  Lösungsschritte des Verfahrens
+     * @param abweichungHundertstelCent Nettoprämie minus Zielbeitrag in Hundertstel-Cent
+     * @param toleranzHundertstelCent   zulässige Abweichung in Hundertstel-Cent
+     */
+    public static void loesung(int schritte, long abweichungHundertstelCent, long toleranzHundertstelCent) {
+        if (aktiv) {
+            LOESUNGSSCHRITTE.erfasse(schritte);
+            if (schritte > ITERATIONSLIMIT) {
+                ITERATIONSLIMIT_UEBERSCHRITTEN.increment();
+            }
+            if (Math.abs(abweichungHundertstelCent) > toleranzHundertstelCent) {
+                TOLERANZ_VERFEHLT.increment();
+            }
+        }
+    }
+
+    public static void plausiFehler(int fehlerMaske) {
+        if (aktiv) {
+            for (int rest = fehlerMaske; rest != 0; rest &= rest - 1) {
+                PLAUSI_FEHLER[Integer.numberOfTrailingZeros(rest)].increment();
+            }
+        }
+    }
+
+    /**
+     * Zählt Fehlermeldungen, die aus der Jakarta-Validierung stammen und keine Fehlermaske haben.
+     */
+    public static void plausiFehler(Iterable<String> meldungen) {
+        if (aktiv) {
+            for (String meldung : meldungen) {
+                Fehlercode code = CODE_JE_MELDUNG.get(meldung);
+                if (code != null) {
+                    PLAUSI_FEHLER[code.ordinal()].increment();
+                }
+            }
+        }
+    }
+
+    public static Schnappschuss schnappschuss() {
+        var plausiFehler = new EnumMap<Fehlercode, Long>(Fehlercode.class);
+        for (Fehlercode code : Fehlercode.values()) {
+            long anzahl = PLAUSI_FEHLER[code.ordinal()].sum();
+            if (anzahl > 0) {
+                plausiFehler.put(code, anzahl);
+            }
+        }
+        return new Schnappschuss(TARIFIERUNG.schnappschuss(), VALIDIERUNG.schnappschuss(),
+            ZIELBEITRAG.schnappschuss(), LOESUNGSSCHRITTE.schnappschuss(), ITERATIONSLIMIT_UEBERSCHRITTEN.sum(),
+            TOLERANZ_VERFEHLT.sum(), plausiFehler);
+    }
+
+    /**
+     * Registriert die Metriken beim Plattform-MBeanServer; wiederholte Aufrufe sind wirkungslos.
+     */
+    public static void registriereMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MBean(), new ObjectName(OBJEKTNAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // bereits registriert
+        } catch (JMException e) {
+            throw new IllegalStateException("TarifMetriken konnten nicht bei JMX registriert werden", e);
+        }
+    }
+
+    private static final class MBean implements TarifMetrikenMXBean {
+
+        @Override
+        public boolean isAktiv() {
+            return aktiv;
+        }
+
+        @Override
+        public void setAktiv(boolean wert) {
+            aktiv = wert;
+        }
+
+        @Override
+        public long getTarifierungAnzahl() {
+            return TARIFIERUNG.schnappschuss().anzahl();
+        }
+
+        @Override
+        public double getTarifierungMittelwertMikros() {
+            return TARIFIERUNG.schnappschuss().mittelwert() / 1_000;
+        }
+
+        @Override
+        public long getTarifierungP99Mikros() {
+            return TARIFIERUNG.schnappschuss().perzentil(0.99) / 1_000;
+        }
+
+        @Override
+        public long getValidierungAnzahl() {
+            return VALIDIERUNG.schnappschuss().anzahl();
+        }
+
+        @Override
+        public double getValidierungMittelwertMikros() {
+            return VALIDIERUNG.schnappschuss().mittelwert() / 1_000;
+        }
+
+        @Override
+        public long getValidierungP99Mikros() {
+            return VALIDIERUNG.schnappschuss().perzentil(0.99) / 1_000;
+        }
+
+        @Override
+        public long getZielbeitragAnzahl() {
+            return ZIELBEITRAG.schnappschuss().anzahl();
+        }
+
+        @Override
+        public double getZielbeitragMittelwertMikros() {
+            return ZIELBEITRAG.schnappschuss().mittelwert() / 1_000;
+        }
+
+        @Override
+        public long getZielbeitragP99Mikros() {
+            return ZIELBEITRAG.schnappschuss().perzentil(0.99) / 1_000;
+        }
+
+        @Override
+        public long getLoesungsschritteMaximum() {
+            return LOESUNGSSCHRITTE.schnappschuss().maximum();
+        }
+
+        @Override
+        public long getIterationslimitUeberschritten() {
+            return ITERATIONSLIMIT_UEBERSCHRITTEN.sum();
+        }
+
+        @Override
+        public long getToleranzVerfehlt() {
+            return TOLERANZ_VERFEHLT.sum();
+        }
+
+        @Override
+        public Map<String, Long> getPlausiFehler() {
+            var ergebnis = new TreeMap<String, Long>();
+            schnappschuss().plausiFehler().forEach((code, anzahl) -> ergebnis.put(code.name(), anzahl));
+            return ergebnis;
+        }
+
+        @Override
+        public void zuruecksetzen() {
+            TarifMetriken.zuruecksetzen();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.pfefferminzia.kfz.metrik;
+
+import java.util.Map;
+
+/**
+ * JMX-Sicht auf {@link TarifMetriken}, registriert unter {@value TarifMetriken#OBJEKTNAME}.
+ * Zeiten in Mikrosekunden.
+ */
+public interface TarifMetrikenMXBean {
+
+    boolean isAktiv();
+
+    void setAktiv(boolean aktiv);
+
+    long getTarifierungAnzahl();
+
+    double getTarifierungMittelwertMikros();
+
+    long getTarifierungP99Mikros();
+
+    long getValidierungAnzahl();
+
+    double getValidierungMittelwertMikros();
+
+    long getValidierungP99Mikros();
+
+    long getZielbeitragAnzahl();
+
+    double getZielbeitragMittelwertMikros();
+
+    long getZielbeitragP99Mikros();
+
+    long getLoesungsschritteMaximum();
+
+    long getIterationslimitUeberschritten();
+
+    long getToleranzVerfehlt();
+
+    Map<String, Long> getPlausiFehler();
+
+    void zuruecksetzen();
+}
@@ -8,4 +8,11 @@ public class Haftpflicht extends Produkt{
     public Haftpflicht(double praemie) {
         super(praemie);
     }
+
+    /**
+     * Erzeugt die Haftpflicht aus einer Prämie in ganzen Cent; {@link #getPraemieCent()} liefert den Wert unverändert zurück.
+     */
+    public static Haftpflicht ausCent(long praemieCent, int rabatt) {
+        return new Haftpflicht(TarifKern.inEuro(praemieCent), rabatt);
+    }
 }
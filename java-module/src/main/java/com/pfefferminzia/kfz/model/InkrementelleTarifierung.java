@@ -0,0 +1,179 @@
+package com.pfefferminzia.kfz.model;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.metrik.TarifMetriken;
+import com.pfefferminzia.kfz.service.TarifierungValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bearbeitbare Tarifierung für die interaktive Angebotserstellung: Eine Änderung von Rabatt oder Prämie eines
+ * Bausteins prüft nur den geänderten Wert und schreibt Gesamt- und Nettoprämie per Differenz fort, mit konstantem
+ * Aufwand unabhängig von der Zahl der Bausteine.
+ * <p>
+ * Die Summen werden exakt in Cent bzw. Hundertstel-Cent geführt, die Nettoprämie wird wie bei {@link Tarifierung}
+ * erst beim Lesen einmal gerundet; die Euro-Werte sind daraus abgeleitet. Bausteine werden mit ihrem Index in
+ * {@link Tarifierung#getBausteine()} angesprochen: Haftpflicht, Kasko (falls vorhanden), dann die Zusatzbausteine.
+ * <p>
+ * Die Bausteine der Ausgangs-Tarifierung werden beim Übernehmen kopiert, die Ausgangs-Tarifierung bleibt also
+ * unverändert; {@link #alsTarifierung()} erzeugt aus weiteren Kopien eine aktuelle, vollständig geprüfte Tarifierung.
+ * Änderungen müssen über diese Klasse laufen, ein direktes {@link Produkt#setRabatt(int)} auf
+ * {@link #getBaustein(int)} bleibt unbemerkt. Nicht threadsicher.
+ */
+public final class InkrementelleTarifierung {
+
+    /**
+     * Wird nach jeder wirksamen Änderung mit den neuen Summen aufgerufen.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void geaendert(int baustein, long gesamtpraemieCent, long nettopraemieCent);
+    }
+
+    private final Haftpflicht haftpflicht;
+    private final Kasko kasko;
+    private final List<Produkt> zusatzbausteine;
+    private final Produkt[] bausteine;
+    private final List<Listener> listener = new ArrayList<>();
+
+    private long gesamtpraemieCent;
+    private long nettopraemieHundertstelCent;
+
+    private InkrementelleTarifierung(Tarifierung tarifierung) {
+        this.haftpflicht = (Haftpflicht) tarifierung.getHaftpflicht().kopie();
+        this.kasko = tarifierung.getKasko() != null ? (Kasko) tarifierung.getKasko().kopie() : null;
+        this.zusatzbausteine = kopiere(tarifierung.getZusatzbausteine());
+        this.bausteine = new Produkt[1 + (kasko != null ? 1 : 0) + zusatzbausteine.size()];
+        int index = 0;
+        bausteine[index++] = haftpflicht;
+        if (kasko != null) {
+            bausteine[index++] = kasko;
+        }
+        for (Produkt baustein : zusatzbausteine) {
+            bausteine[index++] = baustein;
+        }
+        for (Produkt baustein : bausteine) {
+            gesamtpraemieCent += baustein.getPraemieCent();
+            nettopraemieHundertstelCent += TarifKern.praemieMitRabattHundertstelCent(baustein.getPraemieCent(),
+                baustein.getRabatt());
+        }
+    }
+
+    /**
+     * Übernimmt eine Kopie einer bereits geprüften Tarifierung; nur hier werden alle Bausteine einmal summiert.
+     */
+    public static InkrementelleTarifierung aus(Tarifierung tarifierung) {
+        return new InkrementelleTarifierung(tarifierung);
+    }
+
+    public void registriere(Listener listener) {
+        this.listener.add(listener);
+    }
+
+    public void entferne(Listener listener) {
+        this.listener.remove(listener);
+    }
+
+    /**
+     * @throws PlausiException wenn der Rabatt nicht zwischen 0 und 99 liegt; die Tarifierung bleibt dann unverändert
+     */
+    public void setRabatt(int baustein, int rabatt) {
+        Produkt produkt = bausteine[baustein];
+        int fehlerMaske = TarifierungValidator.pruefeRabatt(baustein, kasko != null, rabatt);
+        if (fehlerMaske != 0) {
+            throw plausiFehler(fehlerMaske);
+        }
+        if (rabatt == produkt.getRabatt()) {
+            return;
+        }
+
+        long praemieCent = produkt.getPraemieCent();
+        nettopraemieHundertstelCent += TarifKern.praemieMitRabattHundertstelCent(praemieCent, rabatt)
+            - TarifKern.praemieMitRabattHundertstelCent(praemieCent, produkt.getRabatt());
+        produkt.setRabatt(rabatt);
+        benachrichtige(baustein);
+    }
+
+    /**
+     * @throws PlausiException wenn die Prämie nicht positiv ist; die Tarifierung bleibt dann unverändert
+     */
+    public void setPraemie(int baustein, double praemie) {
+        Produkt produkt = bausteine[baustein];
+        int fehlerMaske = TarifierungValidator.pruefePraemie(baustein, kasko != null, praemie);
+        if (fehlerMaske != 0) {
+            throw plausiFehler(fehlerMaske);
+        }
+
+        long alteCent = produkt.getPraemieCent();
+        produkt.setPraemie(praemie);
+        long differenzCent = produkt.getPraemieCent() - alteCent;
+        gesamtpraemieCent += differenzCent;
+        nettopraemieHundertstelCent += TarifKern.praemieMitRabattHundertstelCent(differenzCent, produkt.getRabatt());
+        benachrichtige(baustein);
+    }
+
+    public int getAnzahlBausteine() {
+        return bausteine.length;
+    }
+
+    public Produkt getBaustein(int baustein) {
+        return bausteine[baustein];
+    }
+
+    public long getGesamtpraemieCent() {
+        return gesamtpraemieCent;
+    }
+
+    /** Nettoprämie in ganzen Cent, aus der exakten Summe einmal gerundet. */
+    public long getNettopraemieCent() {
+        return TarifKern.rundeHundertstel(nettopraemieHundertstelCent);
+    }
+
+    public double getGesamtpraemie() {
+        return TarifKern.inEuro(gesamtpraemieCent);
+    }
+
+    /**
+     * Nettoprämie in Euro aus {@link #getNettopraemieCent()}, also auf ganze Cent gerundet. Sie entspricht
+     * {@code alsTarifierung().getNettopraemieCent()}, nicht {@code alsTarifierung().getNettopraemie()}: Dort wird in
+     * {@code double} über die Euro-Prämien summiert und nicht gerundet, die Werte können um bis zu einen halben Cent
+     * abweichen.
+     */
+    public double getNettopraemie() {
+        return TarifKern.inEuro(getNettopraemieCent());
+    }
+
+    /**
+     * Neue Tarifierung aus Kopien der aktuellen Bausteine, vollständig geprüft. Spätere Änderungen an dieser
+     * Bearbeitung wirken sich nicht auf sie aus.
+     */
+    public Tarifierung alsTarifierung() {
+        return new Tarifierung((Haftpflicht) haftpflicht.kopie(), kasko != null ? (Kasko) kasko.kopie() : null,
+            kopiere(zusatzbausteine));
+    }
+
+    private static List<Produkt> kopiere(List<Produkt> bausteine) {
+        var kopien = new ArrayList<Produkt>(bausteine.size());
+        for (Produkt baustein : bausteine) {
+            kopien.add(baustein.kopie());
+        }
+        return kopien;
+    }
+
+    private void benachrichtige(int baustein) {
+        if (listener.isEmpty()) {
+            return;
+        }
+        long nettopraemieCent = getNettopraemieCent();
+        for (int i = 0; i < listener.size(); i++) {
+            listener.get(i).geaendert(baustein, gesamtpraemieCent, nettopraemieCent);
+        }
+    }
+
+    private static PlausiException plausiFehler(int fehlerMaske) {
+        TarifMetriken.plausiFehler(fehlerMaske);
+        return new PlausiException(Fehlercode.meldungen(fehlerMaske));
+    }
+}
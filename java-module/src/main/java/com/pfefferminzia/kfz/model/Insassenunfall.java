@@ -0,0 +1,21 @@
+package com.pfefferminzia.kfz.model;
+
+/**
+ * Zusatzbaustein für Unfallschäden der Insassen, siehe {@link Tarifierung#getZusatzbausteine()}.
+ */
+public class Insassenunfall extends Produkt {
+    public Insassenunfall(double praemie, int rabatt) {
+        super(praemie, rabatt);
+    }
+
+    public Insassenunfall(double praemie) {
+        super(praemie);
+    }
+
+    /**
+     * Erzeugt die Insassenunfallversicherung aus einer Prämie in ganzen Cent; {@link #getPraemieCent()} liefert den Wert unverändert zurück.
+     */
+    public static Insassenunfall ausCent(long praemieCent, int rabatt) {
+        return new Insassenunfall(TarifKern.inEuro(praemieCent), rabatt);
+    }
+}
@@ -8,4 +8,11 @@ public class Kasko extends Produkt {
     public Kasko(double praemie) {
         super(praemie);
     }
+
+    /**
+     * Erzeugt die Kasko aus einer Prämie in ganzen Cent; {@link #getPraemieCent()} liefert den Wert unverändert zurück.
+     */
+    public static Kasko ausCent(long praemieCent, int rabatt) {
+        return new Kasko(TarifKern.inEuro(praemieCent), rabatt);
+    }
 }
@@ -1,32 +1,57 @@
 package com.pfefferminzia.kfz.model;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
 
-public abstract class Produkt {
+public abstract class Produkt implements Cloneable {
     
     @Positive(message = "Prämie muss positiv sein")
+    @DecimalMin(value = "-21474836.47", message = Tarifierung.BETRAG_AUSSERHALB_BEREICH)
+    @DecimalMax(value = "21474836.47", message = Tarifierung.BETRAG_AUSSERHALB_BEREICH)
     double praemie;
     
     @Min(value = 0, message = "Rabatt darf nicht negativ sein")
     @Max(value = 99, message = "Rabatt darf nicht größer 99 sein")
     int rabatt;
 
+    /** Für {@link #praemieCent}: Die Prämie lässt sich nicht in Cent umrechnen. */
+    private static final long AUSSERHALB = Long.MIN_VALUE;
+
+    /** Prämie in ganzen Cent, bei jeder Änderung der Prämie einmal gerundet (siehe {@link TarifKern#zuCent(double)}). */
+    long praemieCent;
+
+    /**
+     * Nimmt auch Prämien außerhalb von {@link TarifKern#istImBereich(double)} an, damit die Plausibilitätsprüfung sie
+     * melden kann; gerechnet wird mit ihnen nicht, siehe {@link #getPraemieCent()}.
+     */
     public Produkt(double praemie, int rabatt) {
         this.praemie = praemie;
         this.rabatt = rabatt;
+        this.praemieCent = zuCent(praemie);
     }
 
     public Produkt(double praemie) {
-        this.praemie = praemie;
-        this.rabatt = 0;
+        this(praemie, 0);
     }
 
     public double getPraemie() {
         return praemie;
     }
 
+    /**
+     * @throws IllegalStateException wenn die Prämie nicht endlich ist oder außerhalb von ±{@value TarifKern#MAX_CENT}
+     *                               Cent liegt
+     */
+    public long getPraemieCent() {
+        if (praemieCent == AUSSERHALB) {
+            throw new IllegalStateException("Prämie außerhalb des Bereichs: " + praemie);
+        }
+        return praemieCent;
+    }
+
     public int getRabatt() {
         return rabatt;
     }
@@ -35,7 +60,35 @@ public abstract class Produkt {
         this.rabatt = rabatt;
     }
 
+    /**
+     * Nur für {@link InkrementelleTarifierung}, die ihre Summen dabei mitführt.
+     */
+    void setPraemie(double praemie) {
+        this.praemie = praemie;
+        this.praemieCent = zuCent(praemie);
+    }
+
+    /**
+     * Kopie mit derselben Klasse, Prämie und Rabatt, etwa damit {@link InkrementelleTarifierung} die Bausteine einer
+     * Tarifierung ändern kann, ohne deren Summen zu verfälschen.
+     */
+    Produkt kopie() {
+        try {
+            return (Produkt) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
     public double getPraemieMitRabatt() {
-        return praemie * ((100 - rabatt) / 100.0);
+        return TarifKern.praemieMitRabatt(praemie, rabatt);
+    }
+
+    public long getPraemieMitRabattCent() {
+        return TarifKern.praemieMitRabattCent(getPraemieCent(), rabatt);
+    }
+
+    private static long zuCent(double praemie) {
+        return TarifKern.istImBereich(praemie) ? TarifKern.zuCent(praemie) : AUSSERHALB;
     }
 }
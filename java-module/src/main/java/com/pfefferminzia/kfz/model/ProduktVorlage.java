@@ -0,0 +1,59 @@
+package com.pfefferminzia.kfz.model;
+
+/**
+ * Unveränderliche Prämie eines Bausteins ohne Rabatt, etwa aus dem Tarifbuch. Anders als {@link Produkt} kann eine
+ * Vorlage ohne Kopie in einem Cache liegen und von beliebig vielen Threads gleichzeitig für {@link Tarifangebot}
+ * verwendet werden; die Rabatte stehen erst im Ergebnis.
+ */
+public final class ProduktVorlage {
+
+    private final double praemie;
+    private final long praemieCent;
+
+    private ProduktVorlage(double praemie, long praemieCent) {
+        this.praemie = praemie;
+        this.praemieCent = praemieCent;
+    }
+
+    /**
+     * @throws IllegalArgumentException wenn die Prämie nicht endlich ist oder außerhalb des Bereichs von
+     *                                  {@link TarifKern#zuCent(double)} liegt
+     */
+    public static ProduktVorlage of(double praemie) {
+        return new ProduktVorlage(praemie, TarifKern.zuCent(praemie));
+    }
+
+    public static ProduktVorlage ausCent(long praemieCent) {
+        return new ProduktVorlage(TarifKern.inEuro(praemieCent), praemieCent);
+    }
+
+    /**
+     * Übernimmt die Prämie eines bestehenden Bausteins, der Rabatt wird ignoriert.
+     */
+    public static ProduktVorlage aus(Produkt produkt) {
+        return new ProduktVorlage(produkt.getPraemie(), produkt.getPraemieCent());
+    }
+
+    public double getPraemie() {
+        return praemie;
+    }
+
+    public long getPraemieCent() {
+        return praemieCent;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ProduktVorlage vorlage && Double.compare(praemie, vorlage.praemie) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(praemie);
+    }
+
+    @Override
+    public String toString() {
+        return "ProduktVorlage[praemie=" + praemie + "]";
+    }
+}
@@ -0,0 +1,13 @@
+package com.pfefferminzia.kfz.model;
+
+/**
+ * Rabatte in Prozentpunkten für Haftpflicht und (optionale) Kasko.
+ */
+public record Rabatte(int haftpflicht, int kasko) {
+
+    public static final Rabatte KEINE = new Rabatte(0, 0);
+
+    public int summe() {
+        return haftpflicht + kasko;
+    }
+}
@@ -0,0 +1,21 @@
+package com.pfefferminzia.kfz.model;
+
+/**
+ * Zusatzbaustein für Pannen- und Unfallhilfe, siehe {@link Tarifierung#getZusatzbausteine()}.
+ */
+public class Schutzbrief extends Produkt {
+    public Schutzbrief(double praemie, int rabatt) {
+        super(praemie, rabatt);
+    }
+
+    public Schutzbrief(double praemie) {
+        super(praemie);
+    }
+
+    /**
+     * Erzeugt den Schutzbrief aus einer Prämie in ganzen Cent; {@link #getPraemieCent()} liefert den Wert unverändert zurück.
+     */
+    public static Schutzbrief ausCent(long praemieCent, int rabatt) {
+        return new Schutzbrief(TarifKern.inEuro(praemieCent), rabatt);
+    }
+}
@@ -0,0 +1,40 @@
+package com.pfefferminzia.kfz.model;
+
+/**
+ * Eingaben einer einzelnen Tarifierung, z.B. aus einer Massenverarbeitung.
+ *
+ * @param kaskoPraemie {@code null} für eine Tarifierung ohne Kasko
+ * @param zielbeitrag  {@code null} für eine Tarifierung ohne Zielbeitrag; die Rabatte werden dann berechnet
+ */
+public record TarifAnfrage(double haftpflichtPraemie, int haftpflichtRabatt,
+                           Double kaskoPraemie, int kaskoRabatt,
+                           Double zielbeitrag) {
+
+    public static TarifAnfrage of(double haftpflichtPraemie, int haftpflichtRabatt) {
+        return new TarifAnfrage(haftpflichtPraemie, haftpflichtRabatt, null, 0, null);
+    }
+
+    public static TarifAnfrage of(double haftpflichtPraemie, int haftpflichtRabatt, double kaskoPraemie, int kaskoRabatt) {
+        return new TarifAnfrage(haftpflichtPraemie, haftpflichtRabatt, kaskoPraemie, kaskoRabatt, null);
+    }
+
+    public static TarifAnfrage mitZielbeitrag(double zielbeitrag, double haftpflichtPraemie, Double kaskoPraemie) {
+        return new TarifAnfrage(haftpflichtPraemie, 0, kaskoPraemie, 0, zielbeitrag);
+    }
+
+    public boolean hatKasko() {
+        return kaskoPraemie != null;
+    }
+
+    /**
+     * Erzeugt eigene Produktbausteine und tarifiert sie über {@link Tarifierung#tryCreate}.
+     */
+    public TarifierungsErgebnis bewerte() {
+        var haftpflicht = new Haftpflicht(haftpflichtPraemie, haftpflichtRabatt);
+        var kasko = hatKasko() ? new Kasko(kaskoPraemie, kaskoRabatt) : null;
+
+        return zielbeitrag != null
+            ? Tarifierung.tryCreate(zielbeitrag, haftpflicht, kasko)
+            : Tarifierung.tryCreate(haftpflicht, kasko);
+    }
+}
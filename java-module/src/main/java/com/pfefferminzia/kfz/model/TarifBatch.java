@@ -0,0 +1,131 @@
+package com.pfefferminzia.kfz.model;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+
+import java.util.List;
+
+/**
+ * Spaltenorientierte Massenberechnung vieler Tarifierungen ohne Objektgraph pro Vertrag.
+ * <p>
+ * Eingaben und Ergebnisse liegen in primitiven Arrays (eine Zeile je Vertrag). Die Kasko ist optional,
+ * ihr Vorhandensein wird in einer Bitmap ({@code long}-Wörter, Bit {@code i % 64} von Wort {@code i / 64})
+ * geführt. {@link #berechne()} prüft und berechnet alle Zeilen in einem Durchlauf mit denselben Formeln wie
+ * {@link Produkt#getPraemieMitRabatt()} (siehe {@link TarifKern}). Statt einer PlausiException liefert jede Zeile eine Fehlermaske
+ * aus {@link Fehlercode#bit()}; ungültige Zeilen erhalten {@code NaN} als Prämien.
+ */
+public class TarifBatch {
+
+    private final int groesse;
+
+    private final double[] haftpflichtPraemien;
+    private final int[] haftpflichtRabatte;
+    private final double[] kaskoPraemien;
+    private final int[] kaskoRabatte;
+    private final long[] mitKasko;
+
+    private final double[] gesamtpraemien;
+    private final double[] nettopraemien;
+    private final int[] fehler;
+
+    public TarifBatch(int groesse) {
+        this(new double[groesse], new int[groesse], new double[groesse], new int[groesse], new long[woerter(groesse)]);
+    }
+
+    /**
+     * Übernimmt die Eingabespalten ohne Kopie. Alle Spalten müssen dieselbe Länge haben.
+     */
+    public TarifBatch(double[] haftpflichtPraemien, int[] haftpflichtRabatte,
+                      double[] kaskoPraemien, int[] kaskoRabatte, long[] mitKasko) {
+        int groesse = haftpflichtPraemien.length;
+        if (haftpflichtRabatte.length != groesse || kaskoPraemien.length != groesse
+            || kaskoRabatte.length != groesse || mitKasko.length < woerter(groesse)) {
+            throw new IllegalArgumentException("Alle Spalten eines TarifBatch müssen dieselbe Länge haben");
+        }
+
+        this.groesse = groesse;
+        this.haftpflichtPraemien = haftpflichtPraemien;
+        this.haftpflichtRabatte = haftpflichtRabatte;
+        this.kaskoPraemien = kaskoPraemien;
+        this.kaskoRabatte = kaskoRabatte;
+        this.mitKasko = mitKasko;
+        this.gesamtpraemien = new double[groesse];
+        this.nettopraemien = new double[groesse];
+        this.fehler = new int[groesse];
+    }
+
+    public void setHaftpflicht(int zeile, double praemie, int rabatt) {
+        haftpflichtPraemien[zeile] = praemie;
+        haftpflichtRabatte[zeile] = rabatt;
+    }
+
+    public void setKasko(int zeile, double praemie, int rabatt) {
+        kaskoPraemien[zeile] = praemie;
+        kaskoRabatte[zeile] = rabatt;
+        mitKasko[zeile >>> 6] |= 1L << zeile;
+    }
+
+    public void entferneKasko(int zeile) {
+        kaskoPraemien[zeile] = 0;
+        kaskoRabatte[zeile] = 0;
+        mitKasko[zeile >>> 6] &= ~(1L << zeile);
+    }
+
+    public boolean hatKasko(int zeile) {
+        return (mitKasko[zeile >>> 6] & (1L << zeile)) != 0;
+    }
+
+    /**
+     * Prüft und berechnet alle Zeilen. Die Schleife ist bewusst verzweigungsarm gehalten,
+     * damit der JIT-Compiler sie vektorisieren kann.
+     */
+    public void berechne() {
+        for (int i = 0; i < groesse; i++) {
+            boolean kasko = (mitKasko[i >>> 6] & (1L << i)) != 0;
+
+            double hp = haftpflichtPraemien[i];
+            int hr = haftpflichtRabatte[i];
+            double kp = kasko ? kaskoPraemien[i] : 0.0;
+            int kr = kasko ? kaskoRabatte[i] : 0;
+
+            int maske = TarifKern.fehlerMaske(hp > 0, hr, kasko, kp > 0, kr);
+
+            double gesamt = hp + kp;
+            double netto = TarifKern.praemieMitRabatt(hp, hr) + TarifKern.praemieMitRabatt(kp, kr);
+
+            fehler[i] = maske;
+            gesamtpraemien[i] = maske == 0 ? gesamt : Double.NaN;
+            nettopraemien[i] = maske == 0 ? netto : Double.NaN;
+        }
+    }
+
+    public int getGroesse() {
+        return groesse;
+    }
+
+    /** Ergebnisspalte ohne Kopie, gültig nach {@link #berechne()}. */
+    public double[] getGesamtpraemien() {
+        return gesamtpraemien;
+    }
+
+    /** Ergebnisspalte ohne Kopie, gültig nach {@link #berechne()}. */
+    public double[] getNettopraemien() {
+        return nettopraemien;
+    }
+
+    /** Fehlermaske je Zeile (Bits aus {@link Fehlercode#bit()}), {@code 0} bei gültigen Zeilen. */
+    public int[] getFehler() {
+        return fehler;
+    }
+
+    public boolean istGueltig(int zeile) {
+        return fehler[zeile] == 0;
+    }
+
+    public List<String> getFehlermeldungen(int zeile) {
+        return Fehlercode.meldungen(fehler[zeile]);
+    }
+
+    private static int woerter(int groesse) {
+        return (groesse + 63) >>> 6;
+    }
+}
@@ -0,0 +1,117 @@
+package com.pfefferminzia.kfz.model;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+
+import java.util.List;
+
+/**
+ * Festkomma-Variante von {@link TarifBatch}: Prämien liegen als ganze Cent in {@code long}-Spalten,
+ * die Ergebnisse sind exakt und unabhängig von der Reihenfolge der Berechnung reproduzierbar.
+ * Gerundet wird wie in {@link TarifKern#nettopraemieCent(long, int, long, int)}; ungültige Zeilen erhalten
+ * {@code 0} als Prämien und eine Fehlermaske ungleich {@code 0}.
+ */
+public class TarifBatchCent {
+
+    private final int groesse;
+
+    private final long[] haftpflichtCent;
+    private final int[] haftpflichtRabatte;
+    private final long[] kaskoCent;
+    private final int[] kaskoRabatte;
+    private final long[] mitKasko;
+
+    private final long[] gesamtpraemienCent;
+    private final long[] nettopraemienCent;
+    private final int[] fehler;
+
+    public TarifBatchCent(int groesse) {
+        this(new long[groesse], new int[groesse], new long[groesse], new int[groesse], new long[(groesse + 63) >>> 6]);
+    }
+
+    /**
+     * Übernimmt die Eingabespalten ohne Kopie. Alle Spalten müssen dieselbe Länge haben.
+     */
+    public TarifBatchCent(long[] haftpflichtCent, int[] haftpflichtRabatte,
+                          long[] kaskoCent, int[] kaskoRabatte, long[] mitKasko) {
+        int groesse = haftpflichtCent.length;
+        if (haftpflichtRabatte.length != groesse || kaskoCent.length != groesse
+            || kaskoRabatte.length != groesse || mitKasko.length < (groesse + 63) >>> 6) {
+            throw new IllegalArgumentException("Alle Spalten eines TarifBatch müssen dieselbe Länge haben");
+        }
+
+        this.groesse = groesse;
+        this.haftpflichtCent = haftpflichtCent;
+        this.haftpflichtRabatte = haftpflichtRabatte;
+        this.kaskoCent = kaskoCent;
+        this.kaskoRabatte = kaskoRabatte;
+        this.mitKasko = mitKasko;
+        this.gesamtpraemienCent = new long[groesse];
+        this.nettopraemienCent = new long[groesse];
+        this.fehler = new int[groesse];
+    }
+
+    public void setHaftpflicht(int zeile, long praemieCent, int rabatt) {
+        haftpflichtCent[zeile] = praemieCent;
+        haftpflichtRabatte[zeile] = rabatt;
+    }
+
+    public void setKasko(int zeile, long praemieCent, int rabatt) {
+        kaskoCent[zeile] = praemieCent;
+        kaskoRabatte[zeile] = rabatt;
+        mitKasko[zeile >>> 6] |= 1L << zeile;
+    }
+
+    public void entferneKasko(int zeile) {
+        kaskoCent[zeile] = 0;
+        kaskoRabatte[zeile] = 0;
+        mitKasko[zeile >>> 6] &= ~(1L << zeile);
+    }
+
+    public boolean hatKasko(int zeile) {
+        return (mitKasko[zeile >>> 6] & (1L << zeile)) != 0;
+    }
+
+    public void berechne() {
+        for (int i = 0; i < groesse; i++) {
+            boolean kasko = (mitKasko[i >>> 6] & (1L << i)) != 0;
+
+            long hp = haftpflichtCent[i];
+            int hr = haftpflichtRabatte[i];
+            long kp = kasko ? kaskoCent[i] : 0;
+            int kr = kasko ? kaskoRabatte[i] : 0;
+
+            int maske = TarifKern.fehlerMaske(hp > 0, hr, kasko, kp > 0, kr);
+
+            fehler[i] = maske;
+            gesamtpraemienCent[i] = maske == 0 ? TarifKern.gesamtpraemieCent(hp, kp) : 0;
+            nettopraemienCent[i] = maske == 0 ? TarifKern.nettopraemieCent(hp, hr, kp, kr) : 0;
+        }
+    }
+
+    public int getGroesse() {
+        return groesse;
+    }
+
+    /** Ergebnisspalte ohne Kopie, gültig nach {@link #berechne()}. */
+    public long[] getGesamtpraemienCent() {
+        return gesamtpraemienCent;
+    }
+
+    /** Ergebnisspalte ohne Kopie, gültig nach {@link #berechne()}. */
+    public long[] getNettopraemienCent() {
+        return nettopraemienCent;
+    }
+
+    /** Fehlermaske je Zeile (Bits aus {@link Fehlercode#bit()}), {@code 0} bei gültigen Zeilen. */
+    public int[] getFehler() {
+        return fehler;
+    }
+
+    public boolean istGueltig(int zeile) {
+        return fehler[zeile] == 0;
+    }
+
+    public List<String> getFehlermeldungen(int zeile) {
+        return Fehlercode.meldungen(fehler[zeile]);
+    }
+}
@@ -0,0 +1,175 @@
+package com.pfefferminzia.kfz.model;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+
+import java.util.List;
+
+/**
+ * Prämienformeln der Tarifierung auf primitiven Werten. Die Methoden allokieren nichts
+ * (kein Optional, kein Boxing) und werden von {@link Produkt}, {@link Tarifierung} und
+ * {@link TarifBatch} gemeinsam genutzt.
+ * <p>
+ * Neben den {@code double}-Formeln gibt es eine Festkomma-Variante in ganzen Cent ({@code long}). Gerundet wird
+ * genau an zwei Stellen, jeweils halbe Cent in Richtung +∞ (für positive Prämien also kaufmännisch): beim Übergang
+ * von Euro nach Cent in {@link #zuCent(double)} und beim Rabattieren in {@link #praemieMitRabattCent(long, int)}.
+ * Euro-Beträge werden nur bis ±{@value #MAX_CENT} Cent umgerechnet, damit die Summen in Hundertstel-Cent nicht
+ * überlaufen. Die Nettoprämie einer
+ * Tarifierung wird aus der exakten Summe in Hundertstel-Cent einmal gerundet, nicht aus gerundeten Einzelprämien
+ * addiert – so gilt die Toleranz des Zielbeitrags auch für den gerundeten Betrag.
+ */
+public final class TarifKern {
+
+    /** Größter Betrag in ganzen Cent, den {@link #zuCent(double)} umrechnet: 21.474.836,47€. */
+    public static final long MAX_CENT = Integer.MAX_VALUE;
+
+    private static final double MAX_EURO = MAX_CENT / 100.0;
+
+    private TarifKern() {
+    }
+
+    public static double praemieMitRabatt(double praemie, int rabatt) {
+        return praemie * ((100 - rabatt) / 100.0);
+    }
+
+    /**
+     * @param kasko {@code null} für eine Tarifierung ohne Kasko
+     */
+    public static double gesamtpraemie(Haftpflicht haftpflicht, Kasko kasko) {
+        return haftpflicht.getPraemie() + (kasko != null ? kasko.getPraemie() : 0.0);
+    }
+
+    /**
+     * @param kasko {@code null} für eine Tarifierung ohne Kasko
+     */
+    public static double nettopraemie(Haftpflicht haftpflicht, Kasko kasko) {
+        return haftpflicht.getPraemieMitRabatt() + (kasko != null ? kasko.getPraemieMitRabatt() : 0.0);
+    }
+
+    /**
+     * Rechnet einen Euro-Betrag mit {@link Math#round(double)} in ganze Cent um: Halbe Cent werden in Richtung +∞
+     * gerundet (-0,005€ ergibt 0 Cent), und zwar bezogen auf den binären {@code double}-Wert – 1,005€ liegt knapp
+     * darunter und ergibt 100 Cent.
+     *
+     * @throws IllegalArgumentException wenn der Betrag nicht endlich ist oder außerhalb von ±{@value #MAX_CENT} Cent
+     *                                  liegt, siehe {@link #istImBereich(double)}
+     */
+    public static long zuCent(double euro) {
+        if (!istImBereich(euro)) {
+            throw new IllegalArgumentException("Betrag außerhalb des Bereichs: " + euro);
+        }
+        return Math.round(euro * 100);
+    }
+
+    /**
+     * Prüft, ob ein Euro-Betrag endlich ist und sich mit {@link #zuCent(double)} umrechnen lässt.
+     */
+    public static boolean istImBereich(double euro) {
+        return Math.abs(euro) <= MAX_EURO;
+    }
+
+    public static boolean istImBereichCent(long cent) {
+        return cent <= MAX_CENT && cent >= -MAX_CENT;
+    }
+
+    public static double inEuro(long cent) {
+        return cent / 100.0;
+    }
+
+    public static long praemieMitRabattCent(long praemieCent, int rabatt) {
+        return rundeHundertstel(praemieMitRabattHundertstelCent(praemieCent, rabatt));
+    }
+
+    /**
+     * @param kaskoCent {@code 0} für eine Tarifierung ohne Kasko
+     */
+    public static long gesamtpraemieCent(long haftpflichtCent, long kaskoCent) {
+        return haftpflichtCent + kaskoCent;
+    }
+
+    /**
+     * @param kaskoCent {@code 0} für eine Tarifierung ohne Kasko
+     */
+    public static long nettopraemieCent(long haftpflichtCent, int haftpflichtRabatt, long kaskoCent, int kaskoRabatt) {
+        return rundeHundertstel(praemieMitRabattHundertstelCent(haftpflichtCent, haftpflichtRabatt)
+            + praemieMitRabattHundertstelCent(kaskoCent, kaskoRabatt));
+    }
+
+    /**
+     * @param kasko {@code null} für eine Tarifierung ohne Kasko
+     */
+    public static long gesamtpraemieCent(Haftpflicht haftpflicht, Kasko kasko) {
+        return gesamtpraemieCent(haftpflicht.getPraemieCent(), kasko != null ? kasko.getPraemieCent() : 0);
+    }
+
+    /**
+     * @param kasko {@code null} für eine Tarifierung ohne Kasko
+     */
+    public static long nettopraemieCent(Haftpflicht haftpflicht, Kasko kasko) {
+        return kasko != null
+            ? nettopraemieCent(haftpflicht.getPraemieCent(), haftpflicht.getRabatt(), kasko.getPraemieCent(), kasko.getRabatt())
+            : praemieMitRabattCent(haftpflicht.getPraemieCent(), haftpflicht.getRabatt());
+    }
+
+    /**
+     * Gesamtprämie beliebig vieler Bausteine in ganzen Cent.
+     */
+    public static long gesamtpraemieCent(List<? extends Produkt> bausteine) {
+        long summe = 0;
+        for (int i = 0; i < bausteine.size(); i++) {
+            summe += bausteine.get(i).getPraemieCent();
+        }
+        return summe;
+    }
+
+    /**
+     * Nettoprämie beliebig vieler Bausteine, wie bei zwei Bausteinen einmal aus der exakten Summe gerundet.
+     */
+    public static long nettopraemieCent(List<? extends Produkt> bausteine) {
+        long summe = 0;
+        for (int i = 0; i < bausteine.size(); i++) {
+            Produkt baustein = bausteine.get(i);
+            summe += praemieMitRabattHundertstelCent(baustein.getPraemieCent(), baustein.getRabatt());
+        }
+        return rundeHundertstel(summe);
+    }
+
+    public static double gesamtpraemie(List<? extends Produkt> bausteine) {
+        double summe = 0;
+        for (int i = 0; i < bausteine.size(); i++) {
+            summe += bausteine.get(i).getPraemie();
+        }
+        return summe;
+    }
+
+    public static double nettopraemie(List<? extends Produkt> bausteine) {
+        double summe = 0;
+        for (int i = 0; i < bausteine.size(); i++) {
+            summe += bausteine.get(i).getPraemieMitRabatt();
+        }
+        return summe;
+    }
+
+    /**
+     * Fehlermaske einer Zeile für {@link TarifBatch} und {@link TarifBatchCent}, Bits aus {@link Fehlercode#bit()}.
+     */
+    static int fehlerMaske(boolean haftpflichtPositiv, int haftpflichtRabatt,
+                           boolean mitKasko, boolean kaskoPositiv, int kaskoRabatt) {
+        int maske = (haftpflichtPositiv ? 0 : Fehlercode.HAFTPFLICHT_PRAEMIE_NICHT_POSITIV.bit())
+            | (haftpflichtRabatt >= 0 ? 0 : Fehlercode.HAFTPFLICHT_RABATT_NEGATIV.bit())
+            | (haftpflichtRabatt <= 99 ? 0 : Fehlercode.HAFTPFLICHT_RABATT_ZU_HOCH.bit());
+        if (mitKasko) {
+            maske |= (kaskoPositiv ? 0 : Fehlercode.KASKO_PRAEMIE_NICHT_POSITIV.bit())
+                | (kaskoRabatt >= 0 ? 0 : Fehlercode.KASKO_RABATT_NEGATIV.bit())
+                | (kaskoRabatt <= 99 ? 0 : Fehlercode.KASKO_RABATT_ZU_HOCH.bit());
+        }
+        return maske;
+    }
+
+    static long praemieMitRabattHundertstelCent(long praemieCent, int rabatt) {
+        return praemieCent * (100 - rabatt);
+    }
+
+    static long rundeHundertstel(long hundertstelCent) {
+        return Math.floorDiv(hundertstelCent + 50, 100);
+    }
+}
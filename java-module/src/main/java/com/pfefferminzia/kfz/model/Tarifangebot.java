@@ -0,0 +1,218 @@
+package com.pfefferminzia.kfz.model;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.metrik.TarifMetriken;
+import com.pfefferminzia.kfz.service.TarifierungValidator;
+import com.pfefferminzia.kfz.service.ZielbeitragService;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Unveränderliches Ergebnis einer Tarifierung aus {@link ProduktVorlage}n: Prämien und Rabatte aller Bausteine mit
+ * Gesamt- und Nettoprämie. Die Vorlagen werden nur gelesen, auch die für einen Zielbeitrag berechneten Rabatte stehen
+ * ausschließlich im Ergebnis – anders als bei {@link Tarifierung}, die die Rabatte in Haftpflicht und Kasko
+ * zurückschreibt. Vorlagen und Ergebnis können daher ohne Kopien und ohne Sperren zwischen Threads geteilt werden.
+ * <p>
+ * Geprüft und gerechnet wird wie bei {@link Tarifierung#tryCreate}, unabhängig vom Modus des ValidationService direkt
+ * und exakt in Cent; die Euro-Werte sind aus den Cent-Beträgen abgeleitet. Bausteine werden wie in
+ * {@link Tarifierung#getBausteine()} angesprochen: Haftpflicht, Kasko (falls vorhanden), dann die Zusatzbausteine.
+ * Plausibilitätsfehler werden wie bei {@link TarifierungsErgebnis#orElseThrow()} als PlausiException ohne Stacktrace
+ * und ohne Konsolenausgabe gemeldet.
+ */
+public final class Tarifangebot {
+
+    private final Double zielbeitrag;
+    private final boolean mitKasko;
+    private final long[] praemienCent;
+    private final int[] rabatte;
+    private final long gesamtpraemieCent;
+    private final long nettopraemieCent;
+
+    private Tarifangebot(Double zielbeitrag, boolean mitKasko, long[] praemienCent, int[] rabatte) {
+        this.zielbeitrag = zielbeitrag;
+        this.mitKasko = mitKasko;
+        this.praemienCent = praemienCent;
+        this.rabatte = rabatte;
+        long gesamt = 0;
+        long nettoHundertstel = 0;
+        for (int i = 0; i < praemienCent.length; i++) {
+            gesamt += praemienCent[i];
+            nettoHundertstel += TarifKern.praemieMitRabattHundertstelCent(praemienCent[i], rabatte[i]);
+        }
+        this.gesamtpraemieCent = gesamt;
+        this.nettopraemieCent = TarifKern.rundeHundertstel(nettoHundertstel);
+    }
+
+    /**
+     * @param kasko {@code null} für eine Tarifierung ohne Kasko
+     * @throws PlausiException bei unplausiblen Prämien oder Rabatten
+     */
+    public static Tarifangebot berechne(ProduktVorlage haftpflicht, int haftpflichtRabatt,
+                                        ProduktVorlage kasko, int kaskoRabatt) {
+        return kasko != null
+            ? berechne(haftpflicht, kasko, List.of(), haftpflichtRabatt, kaskoRabatt)
+            : berechne(haftpflicht, null, List.of(), haftpflichtRabatt);
+    }
+
+    /**
+     * @param kasko   {@code null} für eine Tarifierung ohne Kasko
+     * @param rabatte Rabatte in der Reihenfolge der Bausteine
+     * @throws IllegalArgumentException wenn die Zahl der Rabatte nicht der Zahl der Bausteine entspricht
+     * @throws PlausiException          bei unplausiblen Prämien oder Rabatten
+     */
+    public static Tarifangebot berechne(ProduktVorlage haftpflicht, ProduktVorlage kasko,
+                                        List<ProduktVorlage> zusatzbausteine, int... rabatte) {
+        int anzahl = 1 + (kasko != null ? 1 : 0) + zusatzbausteine.size();
+        if (rabatte.length != anzahl) {
+            throw new IllegalArgumentException(rabatte.length + " Rabatte für " + anzahl + " Bausteine");
+        }
+        return erstelle(null, haftpflicht, kasko, zusatzbausteine, rabatte.clone());
+    }
+
+    /**
+     * @param kasko {@code null} für eine Tarifierung ohne Kasko
+     * @throws PlausiException bei unplausiblen Prämien oder wenn der Zielbeitrag nicht erreichbar ist
+     */
+    public static Tarifangebot berechne(double zielbeitrag, ProduktVorlage haftpflicht, ProduktVorlage kasko) {
+        return berechne(zielbeitrag, haftpflicht, kasko, List.of());
+    }
+
+    /**
+     * Berechnet die Rabatte aller Bausteine einschließlich der Zusatzbausteine für den Zielbeitrag.
+     *
+     * @param kasko {@code null} für eine Tarifierung ohne Kasko
+     * @throws PlausiException bei unplausiblen Prämien oder wenn der Zielbeitrag nicht erreichbar ist
+     */
+    public static Tarifangebot berechne(double zielbeitrag, ProduktVorlage haftpflicht, ProduktVorlage kasko,
+                                        List<ProduktVorlage> zusatzbausteine) {
+        return erstelle(zielbeitrag, haftpflicht, kasko, zusatzbausteine, null);
+    }
+
+    private static Tarifangebot erstelle(Double zielbeitrag, ProduktVorlage haftpflicht, ProduktVorlage kasko,
+                                         List<ProduktVorlage> zusatzbausteine, int[] rabatte) {
+        long start = TarifMetriken.start();
+        try {
+            int anzahl = 1 + (kasko != null ? 1 : 0) + zusatzbausteine.size();
+            long[] praemienCent = new long[anzahl];
+            // Unplausible Prämien und Beträge außerhalb von TarifKern.istImBereich meldet die Prüfung unten
+            boolean berechenbar = haftpflicht != null && zielbeitrag != null && TarifKern.istImBereich(zielbeitrag);
+            for (int i = 0; i < anzahl; i++) {
+                ProduktVorlage vorlage = vorlage(i, haftpflicht, kasko, zusatzbausteine);
+                praemienCent[i] = vorlage != null ? vorlage.getPraemieCent() : 0;
+                berechenbar &= vorlage != null && vorlage.getPraemie() > 0
+                    && TarifKern.istImBereich(vorlage.getPraemie());
+            }
+
+            if (berechenbar) {
+                long gesamtCent = 0;
+                for (long praemieCent : praemienCent) {
+                    gesamtCent += praemieCent;
+                }
+                if (!ZielbeitragService.istErreichbarCent(TarifKern.zuCent(zielbeitrag), gesamtCent)) {
+                    TarifMetriken.plausiFehler(Fehlercode.ZIELBEITRAG_NICHT_ERREICHBAR.bit());
+                    double minimalerBeitrag = ZielbeitragService.minimalerBeitrag(gesamtCent);
+                    throw PlausiException.ohneStacktrace(() -> List.of(
+                        ZielbeitragService.nichtErreichbarMeldung(zielbeitrag, minimalerBeitrag)));
+                }
+                rabatte = berechneRabatte(zielbeitrag, praemienCent, zusatzbausteine.isEmpty());
+            } else if (zielbeitrag != null) {
+                rabatte = new int[anzahl];
+            }
+
+            int fehlerMaske = zielbeitrag != null ? TarifierungValidator.pruefeZielbeitrag(zielbeitrag) : 0;
+            for (int i = 0; i < anzahl; i++) {
+                ProduktVorlage vorlage = vorlage(i, haftpflicht, kasko, zusatzbausteine);
+                if (vorlage == null) {
+                    fehlerMaske |= Fehlercode.HAFTPFLICHT_FEHLT.bit();
+                    continue;
+                }
+                fehlerMaske |= TarifierungValidator.pruefePraemie(i, kasko != null, vorlage.getPraemie())
+                    | TarifierungValidator.pruefeRabatt(i, kasko != null, rabatte[i]);
+            }
+            if (fehlerMaske != 0) {
+                throw plausiFehler(fehlerMaske);
+            }
+
+            return new Tarifangebot(zielbeitrag, kasko != null, praemienCent, rabatte);
+        } finally {
+            TarifMetriken.tarifierung(start);
+        }
+    }
+
+    private static ProduktVorlage vorlage(int baustein, ProduktVorlage haftpflicht, ProduktVorlage kasko,
+                                          List<ProduktVorlage> zusatzbausteine) {
+        if (baustein == 0) {
+            return haftpflicht;
+        }
+        if (kasko != null) {
+            return baustein == 1 ? kasko : Objects.requireNonNull(zusatzbausteine.get(baustein - 2));
+        }
+        return Objects.requireNonNull(zusatzbausteine.get(baustein - 1));
+    }
+
+    /**
+     * Derselbe Weg durch den {@link ZielbeitragService} wie bei {@link Tarifierung}, ohne Zusatzbausteine also auch
+     * über einen aktivierten {@link com.pfefferminzia.kfz.service.ZielbeitragCache}.
+     */
+    private static int[] berechneRabatte(double zielbeitrag, long[] praemienCent, boolean ohneZusatzbausteine) {
+        if (!ohneZusatzbausteine) {
+            return ZielbeitragService.berechneRabatteCent(TarifKern.zuCent(zielbeitrag), praemienCent);
+        }
+        var rabatte = ZielbeitragService.berechneRabatte(zielbeitrag, TarifKern.inEuro(praemienCent[0]),
+            praemienCent.length > 1 ? TarifKern.inEuro(praemienCent[1]) : 0);
+        return praemienCent.length > 1
+            ? new int[] {rabatte.haftpflicht(), rabatte.kasko()}
+            : new int[] {rabatte.haftpflicht()};
+    }
+
+    public Double getZielbeitrag() {
+        return zielbeitrag;
+    }
+
+    public boolean hatKasko() {
+        return mitKasko;
+    }
+
+    public int getAnzahlBausteine() {
+        return praemienCent.length;
+    }
+
+    public long getPraemieCent(int baustein) {
+        return praemienCent[baustein];
+    }
+
+    public int getRabatt(int baustein) {
+        return rabatte[baustein];
+    }
+
+    /**
+     * Rabatte von Haftpflicht und Kasko, {@code 0} für die Kasko, wenn keine vorhanden ist.
+     */
+    public Rabatte getRabatte() {
+        return new Rabatte(rabatte[0], mitKasko ? rabatte[1] : 0);
+    }
+
+    public long getGesamtpraemieCent() {
+        return gesamtpraemieCent;
+    }
+
+    /** Nettoprämie in ganzen Cent, wie bei {@link Tarifierung} aus der exakten Summe einmal gerundet. */
+    public long getNettopraemieCent() {
+        return nettopraemieCent;
+    }
+
+    public double getGesamtpraemie() {
+        return TarifKern.inEuro(gesamtpraemieCent);
+    }
+
+    public double getNettopraemie() {
+        return TarifKern.inEuro(nettopraemieCent);
+    }
+
+    private static PlausiException plausiFehler(int fehlerMaske) {
+        TarifMetriken.plausiFehler(fehlerMaske);
+        return PlausiException.ohneStacktrace(() -> Fehlercode.meldungen(fehlerMaske));
+    }
+}
@@ -1,18 +1,41 @@
 package com.pfefferminzia.kfz.model;
 
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.metrik.TarifMetriken;
+import com.pfefferminzia.kfz.service.TarifierungValidator;
 import com.pfefferminzia.kfz.service.ValidationService;
+import com.pfefferminzia.kfz.service.ZielbeitragService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class Tarifierung {
 
+    /** Meldung der Bereichsprüfung an Prämien und Zielbeitrag, wie {@link Fehlercode#BETRAG_AUSSERHALB_BEREICH}. */
+    static final String BETRAG_AUSSERHALB_BEREICH =
+        "Prämien und Zielbeitrag müssen betragsmäßig unter 21.474.836,48€ liegen";
+
+    /** Meldung wie {@link Fehlercode#ZUSATZBAUSTEIN_ART_UNZULAESSIG}. */
+    static final String ZUSATZBAUSTEIN_ART_UNZULAESSIG =
+        "Haftpflicht und Kasko dürfen nicht als Zusatzbaustein angegeben werden";
+
     @Positive(message = "Zielbeitrag muss positiv sein")
+    @DecimalMin(value = "-21474836.47", message = BETRAG_AUSSERHALB_BEREICH)
+    @DecimalMax(value = "21474836.47", message = BETRAG_AUSSERHALB_BEREICH)
     Double zielbeitrag;
 
     double gesamtpraemie;
     double nettopraemie;
 
+    long gesamtpraemieCent;
+    long nettopraemieCent;
+
     @NotNull(message = "Haftpflicht ist Pflichtfeld")
     @Valid
     Haftpflicht haftpflicht;
@@ -20,6 +43,15 @@ public class Tarifierung {
     @Valid
     Kasko kasko;
 
+    /**
+     * Weitere Bausteine wie {@link Schutzbrief} oder {@link Insassenunfall}, nie {@code null}. Haftpflicht und Kasko
+     * sind hier nicht zulässig, siehe {@link #isZusatzbausteineZulaessig()}.
+     */
+    List<@Valid Produkt> zusatzbausteine = List.of();
+
+    private Tarifierung() {
+    }
+
     public Tarifierung(Haftpflicht haftpflicht) {
         this.haftpflicht = haftpflicht;
         berechneTarifierung();
@@ -31,6 +63,16 @@ public class Tarifierung {
         berechneTarifierung();
     }
 
+    /**
+     * @param kasko {@code null} für eine Tarifierung ohne Kasko
+     */
+    public Tarifierung(Haftpflicht haftpflicht, Kasko kasko, List<? extends Produkt> zusatzbausteine) {
+        this.haftpflicht = haftpflicht;
+        this.kasko = kasko;
+        this.zusatzbausteine = List.copyOf(zusatzbausteine);
+        berechneTarifierung();
+    }
+
     public Tarifierung(double zielbeitrag, Haftpflicht haftpflicht, Kasko kasko) {
         this.haftpflicht = haftpflicht;
         this.kasko = kasko;
@@ -39,6 +81,77 @@ public class Tarifierung {
         berechneTarifierung();
     }
 
+    /**
+     * Berechnet die Rabatte aller Bausteine einschließlich der Zusatzbausteine für den Zielbeitrag.
+     *
+     * @param kasko {@code null} für eine Tarifierung ohne Kasko
+     */
+    public Tarifierung(double zielbeitrag, Haftpflicht haftpflicht, Kasko kasko,
+                       List<? extends Produkt> zusatzbausteine) {
+        this.haftpflicht = haftpflicht;
+        this.kasko = kasko;
+        this.zusatzbausteine = List.copyOf(zusatzbausteine);
+        this.zielbeitrag = zielbeitrag;
+        berechneRabatteFuerZielbeitrag();
+        berechneTarifierung();
+    }
+
+    /**
+     * Wie {@link #Tarifierung(Haftpflicht)}, meldet Plausibilitätsfehler aber über das Ergebnis statt
+     * über eine PlausiException. Geprüft wird unabhängig vom Modus des ValidationService direkt.
+     */
+    public static TarifierungsErgebnis tryCreate(Haftpflicht haftpflicht) {
+        return erstelle(null, haftpflicht, null, List.of());
+    }
+
+    public static TarifierungsErgebnis tryCreate(Haftpflicht haftpflicht, Kasko kasko) {
+        return erstelle(null, haftpflicht, kasko, List.of());
+    }
+
+    public static TarifierungsErgebnis tryCreate(double zielbeitrag, Haftpflicht haftpflicht, Kasko kasko) {
+        return erstelle(zielbeitrag, haftpflicht, kasko, List.of());
+    }
+
+    public static TarifierungsErgebnis tryCreate(Haftpflicht haftpflicht, Kasko kasko,
+                                                 List<? extends Produkt> zusatzbausteine) {
+        return erstelle(null, haftpflicht, kasko, zusatzbausteine);
+    }
+
+    public static TarifierungsErgebnis tryCreate(double zielbeitrag, Haftpflicht haftpflicht, Kasko kasko,
+                                                 List<? extends Produkt> zusatzbausteine) {
+        return erstelle(zielbeitrag, haftpflicht, kasko, zusatzbausteine);
+    }
+
+    private static TarifierungsErgebnis erstelle(Double zielbeitrag, Haftpflicht haftpflicht, Kasko kasko,
+                                                 List<? extends Produkt> zusatzbausteine) {
+        var tarifierung = new Tarifierung();
+        tarifierung.haftpflicht = haftpflicht;
+        tarifierung.kasko = kasko;
+        tarifierung.zusatzbausteine = List.copyOf(zusatzbausteine);
+        tarifierung.zielbeitrag = zielbeitrag;
+
+        if (zielbeitrag != null && tarifierung.kannRabatteBerechnen()) {
+            long zielCent = TarifKern.zuCent(zielbeitrag);
+            long gesamtCent = tarifierung.zusatzbausteine.isEmpty()
+                ? TarifKern.gesamtpraemieCent(haftpflicht, kasko)
+                : TarifKern.gesamtpraemieCent(tarifierung.getBausteine());
+            if (!ZielbeitragService.istErreichbarCent(zielCent, gesamtCent)) {
+                TarifMetriken.plausiFehler(Fehlercode.ZIELBEITRAG_NICHT_ERREICHBAR.bit());
+                return TarifierungsErgebnis.nichtErreichbar(zielbeitrag, ZielbeitragService.minimalerBeitrag(gesamtCent));
+            }
+            tarifierung.berechneRabatteFuerZielbeitrag();
+        }
+
+        int fehlerMaske = TarifierungValidator.pruefe(tarifierung);
+        if (fehlerMaske != 0) {
+            TarifMetriken.plausiFehler(fehlerMaske);
+            return TarifierungsErgebnis.ungueltig(fehlerMaske);
+        }
+
+        tarifierung.berechnePraemien();
+        return TarifierungsErgebnis.gueltig(tarifierung);
+    }
+
     public Double getZielbeitrag() {
         return zielbeitrag;
     }
@@ -51,6 +164,16 @@ public class Tarifierung {
         return nettopraemie;
     }
 
+    /** Gesamtprämie in ganzen Cent, exakt aus den Cent-Prämien der Bausteine. */
+    public long getGesamtpraemieCent() {
+        return gesamtpraemieCent;
+    }
+
+    /** Nettoprämie in ganzen Cent, siehe {@link TarifKern#nettopraemieCent(Haftpflicht, Kasko)}. */
+    public long getNettopraemieCent() {
+        return nettopraemieCent;
+    }
+
     public Haftpflicht getHaftpflicht() {
         return haftpflicht;
     }
@@ -59,31 +182,109 @@ public class Tarifierung {
         return kasko;
     }
 
+    public List<Produkt> getZusatzbausteine() {
+        return zusatzbausteine;
+    }
+
+    /**
+     * Alle Bausteine der Tarifierung: Haftpflicht, Kasko (falls vorhanden), dann die Zusatzbausteine.
+     */
+    public List<Produkt> getBausteine() {
+        var bausteine = new ArrayList<Produkt>(2 + zusatzbausteine.size());
+        bausteine.add(haftpflicht);
+        if (kasko != null) {
+            bausteine.add(kasko);
+        }
+        bausteine.addAll(zusatzbausteine);
+        return bausteine;
+    }
+
+    /**
+     * Constraint für die Jakarta-Validierung, entspricht {@link TarifierungValidator#istZusatzbaustein(Produkt)}.
+     */
+    @AssertTrue(message = ZUSATZBAUSTEIN_ART_UNZULAESSIG)
+    private boolean isZusatzbausteineZulaessig() {
+        for (int i = 0; i < zusatzbausteine.size(); i++) {
+            if (!TarifierungValidator.istZusatzbaustein(zusatzbausteine.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void berechneTarifierung() {
-        ValidationService.validate(this);
+        long start = TarifMetriken.start();
+        try {
+            ValidationService.validate(this);
+            berechnePraemien();
+        } finally {
+            TarifMetriken.tarifierung(start);
+        }
+    }
+
+    private void berechnePraemien() {
+        if (!zusatzbausteine.isEmpty()) {
+            var bausteine = getBausteine();
+            this.gesamtpraemie = TarifKern.gesamtpraemie(bausteine);
+            this.nettopraemie = TarifKern.nettopraemie(bausteine);
+            this.gesamtpraemieCent = TarifKern.gesamtpraemieCent(bausteine);
+            this.nettopraemieCent = TarifKern.nettopraemieCent(bausteine);
+            return;
+        }
         this.gesamtpraemie = berechneGesamtpraemie();
         this.nettopraemie = berechneNettopraemie();
+        this.gesamtpraemieCent = TarifKern.gesamtpraemieCent(this.haftpflicht, this.kasko);
+        this.nettopraemieCent = TarifKern.nettopraemieCent(this.haftpflicht, this.kasko);
     }
 
     private double berechneNettopraemie() {
-        var nettoHaftpflicht = this.haftpflicht.getPraemieMitRabatt();
-        var nettoKasko = java.util.Optional.ofNullable(this.kasko)
-            .map(Produkt::getPraemieMitRabatt)
-            .orElse(0.0);
-
-        return nettoHaftpflicht + nettoKasko;
+        return TarifKern.nettopraemie(this.haftpflicht, this.kasko);
     }
 
     private double berechneGesamtpraemie() {
-        double haftpflichtPraemie = this.haftpflicht.getPraemie();
-        double kaskoPraemie = java.util.Optional.ofNullable(this.kasko)
-            .map(Kasko::getPraemie)
-            .orElse(0.0);
+        return TarifKern.gesamtpraemie(this.haftpflicht, this.kasko);
+    }
+
+    /**
+     * Fehlende oder unplausible Bausteine und Beträge außerhalb von {@link TarifKern#istImBereich(double)} meldet die
+     * anschließende Validierung.
+     */
+    private boolean kannRabatteBerechnen() {
+        if (!TarifKern.istImBereich(this.zielbeitrag) || !istBerechenbar(this.haftpflicht)
+            || (this.kasko != null && !istBerechenbar(this.kasko))) {
+            return false;
+        }
+        for (int i = 0; i < zusatzbausteine.size(); i++) {
+            Produkt baustein = zusatzbausteine.get(i);
+            if (!istBerechenbar(baustein) || !TarifierungValidator.istZusatzbaustein(baustein)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        return haftpflichtPraemie + kaskoPraemie;
+    private static boolean istBerechenbar(Produkt produkt) {
+        return produkt != null && produkt.getPraemie() > 0 && TarifKern.istImBereich(produkt.getPraemie());
     }
 
     private void berechneRabatteFuerZielbeitrag() {
-        // ToDo: Implementier mich!!!
+        if (!kannRabatteBerechnen()) {
+            return;
+        }
+
+        if (!zusatzbausteine.isEmpty()) {
+            var bausteine = getBausteine();
+            int[] rabatte = ZielbeitragService.berechneRabatte(this.zielbeitrag, bausteine);
+            for (int i = 0; i < rabatte.length; i++) {
+                bausteine.get(i).setRabatt(rabatte[i]);
+            }
+            return;
+        }
+
+        var rabatte = ZielbeitragService.berechneRabatte(this.zielbeitrag, this.haftpflicht, this.kasko);
+        this.haftpflicht.setRabatt(rabatte.haftpflicht());
+        if (this.kasko != null) {
+            this.kasko.setRabatt(rabatte.kasko());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.pfefferminzia.kfz.model;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.common.PlausiException;
+
+import java.util.List;
+
+/**
+ * Ergebnis von {@link Tarifierung#tryCreate}: entweder eine gültige Tarifierung oder die
+ * Plausibilitätsfehler als Fehlermaske aus {@link Fehlercode#bit()}.
+ * <p>
+ * Fehlermeldungen werden erst beim Zugriff auf {@link #getFehler()} erzeugt; eine Exception nur,
+ * wenn der Aufrufer sie über {@link #orElseThrow()} anfordert.
+ */
+public final class TarifierungsErgebnis {
+
+    private final Tarifierung tarifierung;
+    private final int fehlerMaske;
+    private final double zielbeitrag;
+    private final double minimalerBeitrag;
+
+    private TarifierungsErgebnis(Tarifierung tarifierung, int fehlerMaske, double zielbeitrag, double minimalerBeitrag) {
+        this.tarifierung = tarifierung;
+        this.fehlerMaske = fehlerMaske;
+        this.zielbeitrag = zielbeitrag;
+        this.minimalerBeitrag = minimalerBeitrag;
+    }
+
+    static TarifierungsErgebnis gueltig(Tarifierung tarifierung) {
+        return new TarifierungsErgebnis(tarifierung, 0, 0, 0);
+    }
+
+    static TarifierungsErgebnis ungueltig(int fehlerMaske) {
+        return new TarifierungsErgebnis(null, fehlerMaske, 0, 0);
+    }
+
+    static TarifierungsErgebnis nichtErreichbar(double zielbeitrag, double minimalerBeitrag) {
+        return new TarifierungsErgebnis(null, Fehlercode.ZIELBEITRAG_NICHT_ERREICHBAR.bit(), zielbeitrag, minimalerBeitrag);
+    }
+
+    public boolean istGueltig() {
+        return fehlerMaske == 0;
+    }
+
+    /**
+     * @return die Tarifierung oder {@code null}, wenn die Plausibilitätsprüfung fehlgeschlagen ist
+     */
+    public Tarifierung getTarifierung() {
+        return tarifierung;
+    }
+
+    public int getFehlerMaske() {
+        return fehlerMaske;
+    }
+
+    public List<Fehlercode> getFehlercodes() {
+        return Fehlercode.aus(fehlerMaske);
+    }
+
+    public List<String> getFehler() {
+        return getFehlercodes().stream()
+            .map(code -> code == Fehlercode.ZIELBEITRAG_NICHT_ERREICHBAR
+                ? code.formatiere(zielbeitrag, minimalerBeitrag)
+                : code.getMeldung())
+            .toList();
+    }
+
+    /**
+     * @throws PlausiException ohne Stacktrace und ohne Konsolenausgabe, wenn das Ergebnis ungültig ist
+     */
+    public Tarifierung orElseThrow() {
+        if (!istGueltig()) {
+            throw PlausiException.ohneStacktrace(this::getFehler);
+        }
+        return tarifierung;
+    }
+}
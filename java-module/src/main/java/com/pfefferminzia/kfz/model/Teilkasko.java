@@ -0,0 +1,21 @@
+package com.pfefferminzia.kfz.model;
+
+/**
+ * Teilkasko als Kasko-Variante; nimmt den Platz der Kasko in der {@link Tarifierung} ein.
+ */
+public class Teilkasko extends Kasko {
+    public Teilkasko(double praemie, int rabatt) {
+        super(praemie, rabatt);
+    }
+
+    public Teilkasko(double praemie) {
+        super(praemie);
+    }
+
+    /**
+     * Erzeugt die Teilkasko aus einer Prämie in ganzen Cent; {@link #getPraemieCent()} liefert den Wert unverändert zurück.
+     */
+    public static Teilkasko ausCent(long praemieCent, int rabatt) {
+        return new Teilkasko(TarifKern.inEuro(praemieCent), rabatt);
+    }
+}
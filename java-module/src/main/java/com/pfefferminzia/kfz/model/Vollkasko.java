@@ -0,0 +1,21 @@
+package com.pfefferminzia.kfz.model;
+
+/**
+ * Vollkasko als Kasko-Variante; nimmt den Platz der Kasko in der {@link Tarifierung} ein.
+ */
+public class Vollkasko extends Kasko {
+    public Vollkasko(double praemie, int rabatt) {
+        super(praemie, rabatt);
+    }
+
+    public Vollkasko(double praemie) {
+        super(praemie);
+    }
+
+    /**
+     * Erzeugt die Vollkasko aus einer Prämie in ganzen Cent; {@link #getPraemieCent()} liefert den Wert unverändert zurück.
+     */
+    public static Vollkasko ausCent(long praemieCent, int rabatt) {
+        return new Vollkasko(TarifKern.inEuro(praemieCent), rabatt);
+    }
+}
@@ -0,0 +1,144 @@
+package com.pfefferminzia.kfz.server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Einfacher Lastgenerator für den {@link TarifServer}: {@code verbindungen} virtuelle Threads senden für die
+ * angegebene Dauer ununterbrochen Einzelanfragen (halb mit, halb ohne Zielbeitrag) und messen die Antwortzeiten.
+ */
+public final class Lastgenerator {
+
+    public record Bericht(long gesendet, long erfolgreich, long abgelehnt, long fehler, double anfragenProSekunde,
+                          long p50Mikros, long p99Mikros, long maxMikros) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.GERMANY,
+                "%d Anfragen (%,.0f/s): %d erfolgreich, %d abgelehnt (503), %d Fehler; Antwortzeit p50 %d µs, p99 %d µs, max %d µs",
+                gesendet, anfragenProSekunde, erfolgreich, abgelehnt, fehler, p50Mikros, p99Mikros, maxMikros);
+        }
+    }
+
+    private record Messung(long[] antwortzeiten, int anzahl, long erfolgreich, long abgelehnt, long fehler) {
+    }
+
+    private Lastgenerator() {
+    }
+
+    /**
+     * @param ziel Basis-URI des Servers, z.B. {@code http://localhost:8080}
+     */
+    public static Bericht starte(URI ziel, int verbindungen, Duration dauer) throws InterruptedException {
+        URI einzeln = ziel.resolve("/tarifierung");
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor();
+             var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor).build()) {
+            long start = System.nanoTime();
+            long ende = start + dauer.toNanos();
+
+            var aufgaben = new ArrayList<Callable<Messung>>(verbindungen);
+            for (int v = 0; v < verbindungen; v++) {
+                long saat = v;
+                aufgaben.add(() -> sende(client, einzeln, ende, new SplittableRandom(saat)));
+            }
+            List<Future<Messung>> ergebnisse = executor.invokeAll(aufgaben);
+            double sekunden = (System.nanoTime() - start) / 1e9;
+
+            return werteAus(ergebnisse, sekunden);
+        }
+    }
+
+    private static Messung sende(HttpClient client, URI ziel, long ende, SplittableRandom zufall) {
+        long[] antwortzeiten = new long[1024];
+        int anzahl = 0;
+        long erfolgreich = 0;
+        long abgelehnt = 0;
+        long fehler = 0;
+
+        while (System.nanoTime() < ende) {
+            var anfrage = HttpRequest.newBuilder(ziel)
+                .POST(HttpRequest.BodyPublishers.ofString(zufaelligeAnfrage(zufall)))
+                .header("Content-Type", "application/json")
+                .build();
+            long start = System.nanoTime();
+            try {
+                int status = client.send(anfrage, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 200 || status == 422) {
+                    erfolgreich++;
+                } else if (status == 503) {
+                    abgelehnt++;
+                } else {
+                    fehler++;
+                }
+            } catch (IOException e) {
+                fehler++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (anzahl == antwortzeiten.length) {
+                antwortzeiten = Arrays.copyOf(antwortzeiten, anzahl * 2);
+            }
+            antwortzeiten[anzahl++] = (System.nanoTime() - start) / 1_000;
+        }
+        return new Messung(antwortzeiten, anzahl, erfolgreich, abgelehnt, fehler);
+    }
+
+    private static String zufaelligeAnfrage(SplittableRandom zufall) {
+        double haftpflicht = 100 + zufall.nextInt(100_000) / 100.0;
+        double kasko = 100 + zufall.nextInt(100_000) / 100.0;
+        return zufall.nextBoolean()
+            ? "{\"haftpflichtPraemie\":" + haftpflicht + ",\"haftpflichtRabatt\":" + zufall.nextInt(100)
+                + ",\"kaskoPraemie\":" + kasko + ",\"kaskoRabatt\":" + zufall.nextInt(100) + "}"
+            : "{\"haftpflichtPraemie\":" + haftpflicht + ",\"kaskoPraemie\":" + kasko
+                + ",\"zielbeitrag\":" + Math.round((haftpflicht + kasko) * 70) / 100.0 + "}";
+    }
+
+    private static Bericht werteAus(List<Future<Messung>> ergebnisse, double sekunden) throws InterruptedException {
+        long erfolgreich = 0;
+        long abgelehnt = 0;
+        long fehler = 0;
+        int gesamt = 0;
+        var messungen = new ArrayList<Messung>(ergebnisse.size());
+        for (Future<Messung> ergebnis : ergebnisse) {
+            try {
+                Messung messung = ergebnis.get();
+                messungen.add(messung);
+                erfolgreich += messung.erfolgreich();
+                abgelehnt += messung.abgelehnt();
+                fehler += messung.fehler();
+                gesamt += messung.anzahl();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Lastgenerator abgebrochen", e.getCause());
+            }
+        }
+
+        long[] alle = new long[gesamt];
+        int position = 0;
+        for (Messung messung : messungen) {
+            System.arraycopy(messung.antwortzeiten(), 0, alle, position, messung.anzahl());
+            position += messung.anzahl();
+        }
+        Arrays.sort(alle);
+
+        return new Bericht(gesamt, erfolgreich, abgelehnt, fehler, gesamt / sekunden,
+            perzentil(alle, 0.50), perzentil(alle, 0.99), gesamt == 0 ? 0 : alle[gesamt - 1]);
+    }
+
+    private static long perzentil(long[] sortiert, double anteil) {
+        return sortiert.length == 0 ? 0 : sortiert[(int) Math.min(sortiert.length - 1, Math.ceil(anteil * sortiert.length) - 1)];
+    }
+}
@@ -0,0 +1,184 @@
+package com.pfefferminzia.kfz.server;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.model.TarifAnfrage;
+import com.pfefferminzia.kfz.model.TarifBatch;
+import com.pfefferminzia.kfz.service.ZielbeitragService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sammelt gleichzeitig eintreffende Anfragen und berechnet sie gemeinsam in einem {@link TarifBatch}.
+ * <p>
+ * Ein eigener Thread nimmt die erste wartende Anfrage, sammelt höchstens {@code maxWartezeit} lang weitere
+ * (bis {@code maxBatch}) und berechnet sie in einem Durchlauf. Zielbeiträge werden vorher zeilenweise über den
+ * {@link ZielbeitragService} in Rabatte übersetzt, genau wie in {@link com.pfefferminzia.kfz.model.Tarifierung#tryCreate}.
+ * Die Warteschlange ist begrenzt; ist sie voll, wird die Anfrage sofort abgelehnt statt gepuffert. Anfragen, die
+ * bereits als Liste vorliegen, berechnet {@link #berechne(List)} direkt.
+ */
+public class MikroBatcher implements AutoCloseable {
+
+    private record Auftrag(TarifAnfrage anfrage, CompletableFuture<TarifAntwort> antwort) {
+    }
+
+    private static final Auftrag ENDE = new Auftrag(null, null);
+
+    private final BlockingQueue<Auftrag> warteschlange;
+    private final int maxBatch;
+    private final long maxWartezeitNanos;
+    private final Thread thread;
+    private volatile boolean geschlossen;
+
+    public MikroBatcher(int maxBatch, long maxWartezeitMikros, int kapazitaet) {
+        this.warteschlange = new ArrayBlockingQueue<>(kapazitaet);
+        this.maxBatch = maxBatch;
+        this.maxWartezeitNanos = TimeUnit.MICROSECONDS.toNanos(maxWartezeitMikros);
+        this.thread = new Thread(this::verarbeite, "tarif-mikrobatcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @return die künftige Antwort oder {@code null}, wenn die Warteschlange voll ist
+     * @throws IllegalStateException wenn der MikroBatcher geschlossen ist
+     */
+    public CompletableFuture<TarifAntwort> einreichen(TarifAnfrage anfrage) {
+        if (geschlossen) {
+            throw geschlossenFehler();
+        }
+        var auftrag = new Auftrag(anfrage, new CompletableFuture<>());
+        if (!warteschlange.offer(auftrag)) {
+            return null;
+        }
+        // close() kann zwischen Prüfung und offer gelaufen sein. Liegt der Auftrag dann noch in der Warteschlange,
+        // holt ihn niemand mehr ab; andernfalls hat ihn der Thread oder close() übernommen und vervollständigt ihn.
+        if (geschlossen && warteschlange.remove(auftrag)) {
+            throw geschlossenFehler();
+        }
+        return auftrag.antwort();
+    }
+
+    /**
+     * Berechnet alle vorher eingereichten Anfragen und beendet den Thread. Aufträge, die gleichzeitig mit dem
+     * Schließen hinter dem Ende eingereiht wurden, werden mit einer {@link IllegalStateException} abgeschlossen.
+     */
+    @Override
+    public void close() {
+        geschlossen = true;
+        try {
+            warteschlange.put(ENDE);
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Auftrag rest;
+        while ((rest = warteschlange.poll()) != null) {
+            if (rest != ENDE) {
+                rest.antwort().completeExceptionally(geschlossenFehler());
+            }
+        }
+    }
+
+    private static IllegalStateException geschlossenFehler() {
+        return new IllegalStateException("MikroBatcher ist geschlossen");
+    }
+
+    private void verarbeite() {
+        var auftraege = new ArrayList<Auftrag>(maxBatch);
+        while (true) {
+            try {
+                auftraege.add(warteschlange.take());
+                long frist = System.nanoTime() + maxWartezeitNanos;
+                while (auftraege.size() < maxBatch) {
+                    if (warteschlange.drainTo(auftraege, maxBatch - auftraege.size()) == 0) {
+                        long rest = frist - System.nanoTime();
+                        Auftrag naechster = rest > 0 ? warteschlange.poll(rest, TimeUnit.NANOSECONDS) : null;
+                        if (naechster == null) {
+                            break;
+                        }
+                        auftraege.add(naechster);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Nur close() beendet den Thread
+            }
+
+            boolean ende = auftraege.remove(ENDE);
+            try {
+                if (!auftraege.isEmpty()) {
+                    TarifAntwort[] antworten = berechne(auftraege.stream().map(Auftrag::anfrage).toList());
+                    for (int i = 0; i < antworten.length; i++) {
+                        auftraege.get(i).antwort().complete(antworten[i]);
+                    }
+                }
+            } catch (RuntimeException e) {
+                auftraege.forEach(a -> a.antwort().completeExceptionally(e));
+            }
+            auftraege.clear();
+            if (ende) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Berechnet die Anfragen direkt in einem gemeinsamen TarifBatch, ohne Warteschlange.
+     */
+    public static TarifAntwort[] berechne(List<TarifAnfrage> anfragen) {
+        int anzahl = anfragen.size();
+        var batch = new TarifBatch(anzahl);
+        var zusatzFehler = new int[anzahl];
+        var haftpflichtRabatte = new int[anzahl];
+        var kaskoRabatte = new int[anzahl];
+        var antworten = new TarifAntwort[anzahl];
+
+        for (int i = 0; i < anzahl; i++) {
+            TarifAnfrage anfrage = anfragen.get(i);
+            double haftpflicht = anfrage.haftpflichtPraemie();
+            double kasko = anfrage.hatKasko() ? anfrage.kaskoPraemie() : 0.0;
+            int haftpflichtRabatt = anfrage.haftpflichtRabatt();
+            int kaskoRabatt = anfrage.kaskoRabatt();
+
+            Double ziel = anfrage.zielbeitrag();
+            if (ziel != null && haftpflicht > 0 && (!anfrage.hatKasko() || kasko > 0)) {
+                if (!ZielbeitragService.istErreichbar(ziel, haftpflicht, kasko)) {
+                    antworten[i] = TarifAntwort.ungueltig(Fehlercode.ZIELBEITRAG_NICHT_ERREICHBAR.bit(), List.of(
+                        ZielbeitragService.nichtErreichbarMeldung(ziel, ZielbeitragService.minimalerBeitrag(haftpflicht, kasko))));
+                    batch.setHaftpflicht(i, 1, 0);
+                    continue;
+                }
+                var rabatte = ZielbeitragService.berechneRabatte(ziel, haftpflicht, kasko);
+                haftpflichtRabatt = rabatte.haftpflicht();
+                kaskoRabatt = rabatte.kasko();
+            }
+            if (ziel != null && ziel <= 0) {
+                zusatzFehler[i] = Fehlercode.ZIELBEITRAG_NICHT_POSITIV.bit();
+            }
+
+            haftpflichtRabatte[i] = haftpflichtRabatt;
+            kaskoRabatte[i] = kaskoRabatt;
+            batch.setHaftpflicht(i, haftpflicht, haftpflichtRabatt);
+            if (anfrage.hatKasko()) {
+                batch.setKasko(i, kasko, kaskoRabatt);
+            }
+        }
+
+        batch.berechne();
+
+        for (int i = 0; i < anzahl; i++) {
+            if (antworten[i] == null) {
+                int maske = batch.getFehler()[i] | zusatzFehler[i];
+                antworten[i] = maske != 0
+                    ? TarifAntwort.ungueltig(maske, Fehlercode.meldungen(maske))
+                    : new TarifAntwort(haftpflichtRabatte[i], batch.hatKasko(i) ? kaskoRabatte[i] : null,
+                        batch.getGesamtpraemien()[i], batch.getNettopraemien()[i], 0, List.of());
+            }
+        }
+        return antworten;
+    }
+}
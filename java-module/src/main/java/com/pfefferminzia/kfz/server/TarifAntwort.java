@@ -0,0 +1,33 @@
+package com.pfefferminzia.kfz.server;
+
+import com.pfefferminzia.kfz.cli.NdjsonFormat;
+import com.pfefferminzia.kfz.common.Fehlercode;
+
+import java.util.List;
+
+/**
+ * Ergebnis einer Anfrage aus dem {@link MikroBatcher}, inhaltlich gleich einem
+ * {@link com.pfefferminzia.kfz.model.TarifierungsErgebnis}.
+ *
+ * @param kaskoRabatt {@code null} für eine Tarifierung ohne Kasko
+ * @param fehler      leer, wenn die Anfrage gültig ist
+ */
+public record TarifAntwort(int haftpflichtRabatt, Integer kaskoRabatt, double gesamtpraemie, double nettopraemie,
+                           int fehlerMaske, List<String> fehler) {
+
+    static TarifAntwort ungueltig(int fehlerMaske, List<String> fehler) {
+        return new TarifAntwort(0, null, Double.NaN, Double.NaN, fehlerMaske, fehler);
+    }
+
+    public boolean istGueltig() {
+        return fehlerMaske == 0;
+    }
+
+    public void schreibeNdjson(StringBuilder ausgabe, long zeile) {
+        if (istGueltig()) {
+            NdjsonFormat.schreibeTarif(ausgabe, zeile, haftpflichtRabatt, kaskoRabatt, gesamtpraemie, nettopraemie);
+        } else {
+            NdjsonFormat.schreibeFehler(ausgabe, zeile, Fehlercode.aus(fehlerMaske), fehler);
+        }
+    }
+}
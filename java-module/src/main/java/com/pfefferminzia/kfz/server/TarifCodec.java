@@ -0,0 +1,299 @@
+package com.pfefferminzia.kfz.server;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.model.Rabatte;
+import com.pfefferminzia.kfz.model.TarifAnfrage;
+import com.pfefferminzia.kfz.model.TarifKern;
+import com.pfefferminzia.kfz.service.TarifierungValidator;
+import com.pfefferminzia.kfz.service.ZielbeitragService;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binäres Übertragungsformat für Tarifanfragen und -ergebnisse zwischen Gateway und Tarifserver, als Alternative zu
+ * NDJSON.
+ * <p>
+ * Ein Rahmen besteht aus einem Kopf von {@value #KOPF} Bytes (Kennung, Anzahl der Datensätze) und Datensätzen fester
+ * Länge von je {@value #DATENSATZ} Bytes; ein Puffer kann beliebig viele Rahmen hintereinander enthalten.
+ * <pre>
+ * Anfrage                                  Ergebnis
+ *  0 long  Haftpflichtprämie in Cent        0 long  Gesamtprämie in Cent
+ *  8 long  Kaskoprämie in Cent              8 long  Nettoprämie in Cent
+ * 16 long  Zielbeitrag in Cent             16 long  Zielbeitrag in Cent
+ * 24 short Haftpflichtrabatt               24 int   Fehlermaske
+ * 26 short Kaskorabatt                     28 byte  Haftpflichtrabatt
+ * 28 byte  Merkmale                        29 byte  Kaskorabatt
+ *                                          30 byte  Merkmale
+ * </pre>
+ * Die Merkmale sind {@link #MIT_KASKO} und {@link #MIT_ZIELBEITRAG}, die Fehlermaske besteht aus
+ * {@link Fehlercode#bit()}; nicht belegte Bytes sind {@code 0}.
+ * Ungültige Ergebnisse haben Prämien und Rabatte {@code 0}; ist der Zielbeitrag nicht erreichbar, enthält die
+ * Gesamtprämie die Summe der angefragten Prämien, aus der sich der minimale Beitrag der Fehlermeldung ergibt.
+ * Meldungstexte werden nicht übertragen, sondern erst beim Empfänger über {@link #fehlermeldungen} erzeugt.
+ * Beträge vom Übertragungsweg sind nicht vertrauenswürdig: Prämien und Zielbeiträge außerhalb von
+ * ±{@value #MAX_CENT} Cent ergeben {@link Fehlercode#BETRAG_AUSSERHALB_BEREICH}, bevor damit gerechnet wird.
+ * <p>
+ * Alle Methoden lesen und schreiben direkt im Puffer (Heap oder Direct) in dessen Bytereihenfolge, ohne Objekte je
+ * Datensatz. Geschrieben wird ab der Position des Puffers, gelesen über die Position des Rahmens.
+ */
+public final class TarifCodec {
+
+    public static final int KOPF = 8;
+    public static final int DATENSATZ = 32;
+
+    public static final int ANFRAGEN = 0x4B544131; // "KTA1"
+    public static final int ERGEBNISSE = 0x4B544531; // "KTE1"
+
+    public static final int MIT_KASKO = 1;
+    public static final int MIT_ZIELBEITRAG = 2;
+
+    /** Größter Betrag in Cent, mit dem gerechnet wird; wie im Tarifbuch passt jede Prämie in ein {@code int}. */
+    public static final long MAX_CENT = TarifKern.MAX_CENT;
+
+    /** Für Kaskoprämie oder Zielbeitrag in {@link #schreibeAnfrage(ByteBuffer, long, int, long, int, long)}: nicht vorhanden. */
+    public static final long OHNE = Long.MIN_VALUE;
+
+    private static final int HAFTPFLICHT = 0;
+    private static final int KASKO = 8;
+    private static final int ZIEL = 16;
+    private static final int ANFRAGE_HAFTPFLICHT_RABATT = 24;
+    private static final int ANFRAGE_KASKO_RABATT = 26;
+    private static final int ANFRAGE_MERKMALE = 28;
+
+    private static final int GESAMT = 0;
+    private static final int NETTO = 8;
+    private static final int FEHLER = 24;
+    private static final int ERGEBNIS_HAFTPFLICHT_RABATT = 28;
+    private static final int ERGEBNIS_KASKO_RABATT = 29;
+    private static final int ERGEBNIS_MERKMALE = 30;
+
+    private TarifCodec() {
+    }
+
+    /**
+     * Beginnt einen Anfrage-Rahmen an der Position des Puffers.
+     *
+     * @return Beginn des Rahmens für {@link #beendeRahmen(ByteBuffer, int)}
+     */
+    public static int beginneAnfragen(ByteBuffer puffer) {
+        int rahmen = puffer.position();
+        puffer.putInt(ANFRAGEN).putInt(0);
+        return rahmen;
+    }
+
+    /**
+     * Hängt eine Anfrage an den Rahmen an. Rabatte außerhalb des {@code short}-Bereichs werden begrenzt, die
+     * Plausibilitätsfehler bleiben dieselben.
+     *
+     * @param kaskoCent {@link #OHNE} für eine Tarifierung ohne Kasko
+     * @param zielCent  {@link #OHNE} für eine Tarifierung ohne Zielbeitrag
+     */
+    public static void schreibeAnfrage(ByteBuffer puffer, long haftpflichtCent, int haftpflichtRabatt,
+                                       long kaskoCent, int kaskoRabatt, long zielCent) {
+        int merkmale = (kaskoCent != OHNE ? MIT_KASKO : 0) | (zielCent != OHNE ? MIT_ZIELBEITRAG : 0);
+        puffer.putLong(haftpflichtCent)
+            .putLong(kaskoCent != OHNE ? kaskoCent : 0)
+            .putLong(zielCent != OHNE ? zielCent : 0)
+            .putShort(alsShort(haftpflichtRabatt))
+            .putShort(alsShort(kaskoRabatt))
+            .put((byte) merkmale)
+            .put((byte) 0)
+            .putShort((short) 0);
+    }
+
+    public static void schreibeAnfrage(ByteBuffer puffer, TarifAnfrage anfrage) {
+        schreibeAnfrage(puffer, TarifKern.zuCent(anfrage.haftpflichtPraemie()), anfrage.haftpflichtRabatt(),
+            anfrage.hatKasko() ? TarifKern.zuCent(anfrage.kaskoPraemie()) : OHNE, anfrage.kaskoRabatt(),
+            anfrage.zielbeitrag() != null ? TarifKern.zuCent(anfrage.zielbeitrag()) : OHNE);
+    }
+
+    /**
+     * Trägt die Anzahl der seit {@code rahmen} geschriebenen Datensätze in den Kopf ein.
+     *
+     * @return Anzahl der Datensätze
+     */
+    public static int beendeRahmen(ByteBuffer puffer, int rahmen) {
+        int anzahl = (puffer.position() - rahmen - KOPF) / DATENSATZ;
+        puffer.putInt(rahmen + Integer.BYTES, anzahl);
+        return anzahl;
+    }
+
+    /**
+     * Tarifiert alle Anfragen eines Rahmens und schreibt die Ergebnisse als Rahmen gleicher Länge. Die Ergebnisse
+     * entsprechen denen von {@link TarifAnfrage#bewerte()} mit den Prämien in Cent; Tarifierungen werden dabei nicht
+     * erzeugt. Beide Puffer stehen danach hinter ihrem Rahmen.
+     *
+     * @return Anzahl der Datensätze
+     * @throws IllegalArgumentException wenn an der Position kein vollständiger Anfrage-Rahmen steht
+     * @throws BufferOverflowException  wenn der Ergebnispuffer zu klein ist; beide Puffer bleiben dann unverändert
+     */
+    public static int bewerte(ByteBuffer anfragen, ByteBuffer ergebnisse) {
+        int rahmen = anfragen.position();
+        int anzahl = anzahl(anfragen, rahmen, ANFRAGEN);
+        if (ergebnisse.remaining() < KOPF + anzahl * DATENSATZ) {
+            throw new BufferOverflowException();
+        }
+
+        ergebnisse.putInt(ERGEBNISSE).putInt(anzahl);
+        for (int i = 0; i < anzahl; i++) {
+            bewerte(anfragen, rahmen + KOPF + i * DATENSATZ, ergebnisse);
+        }
+        anfragen.position(rahmen + KOPF + anzahl * DATENSATZ);
+        return anzahl;
+    }
+
+    /**
+     * Gleiche Reihenfolge der Prüfungen wie {@link MikroBatcher#berechne(List)}.
+     */
+    private static void bewerte(ByteBuffer anfragen, int anfrage, ByteBuffer ergebnisse) {
+        long haftpflicht = anfragen.getLong(anfrage + HAFTPFLICHT);
+        long kasko = anfragen.getLong(anfrage + KASKO);
+        long ziel = anfragen.getLong(anfrage + ZIEL);
+        int haftpflichtRabatt = anfragen.getShort(anfrage + ANFRAGE_HAFTPFLICHT_RABATT);
+        int kaskoRabatt = anfragen.getShort(anfrage + ANFRAGE_KASKO_RABATT);
+        int merkmale = anfragen.get(anfrage + ANFRAGE_MERKMALE);
+        boolean mitKasko = (merkmale & MIT_KASKO) != 0;
+        boolean mitZiel = (merkmale & MIT_ZIELBEITRAG) != 0;
+        if (!mitKasko) {
+            kasko = 0;
+            kaskoRabatt = 0;
+        }
+
+        // Summen und Zielbeitragslöser rechnen mit dem Hundertfachen der Beträge und dürfen nicht überlaufen
+        if (ausserhalb(haftpflicht) || ausserhalb(kasko) || (mitZiel && ausserhalb(ziel))) {
+            schreibeErgebnis(ergebnisse, 0, 0, ziel, Fehlercode.BETRAG_AUSSERHALB_BEREICH.bit(), 0, 0, merkmale);
+            return;
+        }
+
+        int maske = 0;
+        if (mitZiel && haftpflicht > 0 && (!mitKasko || kasko > 0)) {
+            if (!ZielbeitragService.istErreichbarCent(ziel, haftpflicht + kasko)) {
+                schreibeErgebnis(ergebnisse, haftpflicht + kasko, 0, ziel,
+                    Fehlercode.ZIELBEITRAG_NICHT_ERREICHBAR.bit(), 0, 0, merkmale);
+                return;
+            }
+            Rabatte rabatte = ZielbeitragService.berechneRabatteCent(ziel, haftpflicht, kasko);
+            haftpflichtRabatt = rabatte.haftpflicht();
+            kaskoRabatt = rabatte.kasko();
+        }
+        if (mitZiel && ziel <= 0) {
+            maske |= Fehlercode.ZIELBEITRAG_NICHT_POSITIV.bit();
+        }
+
+        maske |= TarifierungValidator.pruefePraemie(haftpflicht, Fehlercode.HAFTPFLICHT_PRAEMIE_NICHT_POSITIV)
+            | TarifierungValidator.pruefeRabatt(haftpflichtRabatt,
+                Fehlercode.HAFTPFLICHT_RABATT_NEGATIV, Fehlercode.HAFTPFLICHT_RABATT_ZU_HOCH);
+        if (mitKasko) {
+            maske |= TarifierungValidator.pruefePraemie(kasko, Fehlercode.KASKO_PRAEMIE_NICHT_POSITIV)
+                | TarifierungValidator.pruefeRabatt(kaskoRabatt,
+                    Fehlercode.KASKO_RABATT_NEGATIV, Fehlercode.KASKO_RABATT_ZU_HOCH);
+        }
+
+        if (maske != 0) {
+            schreibeErgebnis(ergebnisse, 0, 0, ziel, maske, 0, 0, merkmale);
+        } else {
+            schreibeErgebnis(ergebnisse, TarifKern.gesamtpraemieCent(haftpflicht, kasko),
+                TarifKern.nettopraemieCent(haftpflicht, haftpflichtRabatt, kasko, kaskoRabatt),
+                ziel, 0, haftpflichtRabatt, kaskoRabatt, merkmale);
+        }
+    }
+
+    private static boolean ausserhalb(long cent) {
+        return !TarifKern.istImBereichCent(cent);
+    }
+
+    private static void schreibeErgebnis(ByteBuffer puffer, long gesamtCent, long nettoCent, long zielCent,
+                                         int fehlerMaske, int haftpflichtRabatt, int kaskoRabatt, int merkmale) {
+        puffer.putLong(gesamtCent)
+            .putLong(nettoCent)
+            .putLong(zielCent)
+            .putInt(fehlerMaske)
+            .put((byte) haftpflichtRabatt)
+            .put((byte) kaskoRabatt)
+            .put((byte) merkmale)
+            .put((byte) 0);
+    }
+
+    /**
+     * Liest den Kopf eines Ergebnis-Rahmens.
+     *
+     * @return Anzahl der Datensätze für die Zugriffsmethoden, {@code index} von {@code 0} bis {@code anzahl - 1}
+     * @throws IllegalArgumentException wenn an {@code rahmen} kein vollständiger Ergebnis-Rahmen steht
+     */
+    public static int anzahlErgebnisse(ByteBuffer puffer, int rahmen) {
+        return anzahl(puffer, rahmen, ERGEBNISSE);
+    }
+
+    /**
+     * Länge eines Rahmens in Bytes; der nächste Rahmen im Puffer beginnt bei {@code rahmen + laenge}.
+     */
+    public static int laenge(ByteBuffer puffer, int rahmen) {
+        return KOPF + puffer.getInt(rahmen + Integer.BYTES) * DATENSATZ;
+    }
+
+    public static long gesamtpraemieCent(ByteBuffer puffer, int rahmen, int index) {
+        return puffer.getLong(ergebnis(rahmen, index) + GESAMT);
+    }
+
+    public static long nettopraemieCent(ByteBuffer puffer, int rahmen, int index) {
+        return puffer.getLong(ergebnis(rahmen, index) + NETTO);
+    }
+
+    public static int haftpflichtRabatt(ByteBuffer puffer, int rahmen, int index) {
+        return puffer.get(ergebnis(rahmen, index) + ERGEBNIS_HAFTPFLICHT_RABATT);
+    }
+
+    public static int kaskoRabatt(ByteBuffer puffer, int rahmen, int index) {
+        return puffer.get(ergebnis(rahmen, index) + ERGEBNIS_KASKO_RABATT);
+    }
+
+    public static boolean hatKasko(ByteBuffer puffer, int rahmen, int index) {
+        return (puffer.get(ergebnis(rahmen, index) + ERGEBNIS_MERKMALE) & MIT_KASKO) != 0;
+    }
+
+    /** Fehlermaske aus {@link Fehlercode#bit()}, {@code 0} bei gültigen Ergebnissen. */
+    public static int fehlerMaske(ByteBuffer puffer, int rahmen, int index) {
+        return puffer.getInt(ergebnis(rahmen, index) + FEHLER);
+    }
+
+    /**
+     * Meldungstexte wie bei {@link com.pfefferminzia.kfz.model.TarifierungsErgebnis#getFehler()}, leer bei gültigen
+     * Ergebnissen. Nur dieser Zugriff erzeugt Objekte.
+     */
+    public static List<String> fehlermeldungen(ByteBuffer puffer, int rahmen, int index) {
+        int maske = fehlerMaske(puffer, rahmen, index);
+        var meldungen = new ArrayList<String>(Integer.bitCount(maske));
+        for (Fehlercode code : Fehlercode.aus(maske)) {
+            meldungen.add(code == Fehlercode.ZIELBEITRAG_NICHT_ERREICHBAR
+                ? ZielbeitragService.nichtErreichbarMeldung(
+                    TarifKern.inEuro(puffer.getLong(ergebnis(rahmen, index) + ZIEL)),
+                    ZielbeitragService.minimalerBeitrag(gesamtpraemieCent(puffer, rahmen, index)))
+                : code.getMeldung());
+        }
+        return meldungen;
+    }
+
+    private static int anzahl(ByteBuffer puffer, int rahmen, int kennung) {
+        if (puffer.limit() - rahmen < KOPF || puffer.getInt(rahmen) != kennung) {
+            throw new IllegalArgumentException("Kein " + (kennung == ANFRAGEN ? "Anfrage" : "Ergebnis")
+                + "-Rahmen an Position " + rahmen);
+        }
+        int anzahl = puffer.getInt(rahmen + Integer.BYTES);
+        if (anzahl < 0 || (puffer.limit() - rahmen - KOPF) / DATENSATZ < anzahl) {
+            throw new IllegalArgumentException("Unvollständiger Rahmen an Position " + rahmen + ": " + anzahl
+                + " Datensätze angekündigt");
+        }
+        return anzahl;
+    }
+
+    private static int ergebnis(int rahmen, int index) {
+        return rahmen + KOPF + index * DATENSATZ;
+    }
+
+    private static short alsShort(int rabatt) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, rabatt));
+    }
+}
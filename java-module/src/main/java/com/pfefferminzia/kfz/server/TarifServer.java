@@ -0,0 +1,248 @@
+package com.pfefferminzia.kfz.server;
+
+import com.pfefferminzia.kfz.cli.NdjsonFormat;
+import com.pfefferminzia.kfz.model.TarifAnfrage;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Schlanker HTTP-Tarifserver auf Basis von {@code com.sun.net.httpserver}, ohne weiteres Framework.
+ * <ul>
+ *     <li>{@code POST /tarifierung}: ein JSON-Objekt im Format von {@link NdjsonFormat}, Antwort ein JSON-Objekt
+ *     (200 gültig, 422 Plausibilitätsfehler, 400 nicht lesbar, 500 Berechnung gescheitert)</li>
+ *     <li>{@code POST /tarifierung/batch}: ein JSON-Objekt pro Zeile, Antwort eine Ergebniszeile pro Anfrage</li>
+ *     <li>{@code POST /tarifierung/binaer}: Anfrage-Rahmen im {@link TarifCodec}-Format, Antwort die Ergebnis-Rahmen in
+ *     derselben Reihenfolge (400 bei unvollständigen Rahmen)</li>
+ * </ul>
+ * Jede Anfrage läuft auf einem eigenen virtuellen Thread. Gleichzeitige Einzelanfragen bündelt der
+ * {@link MikroBatcher} zu einem TarifBatch, Batch-Anfragen werden direkt als ein TarifBatch berechnet.
+ * Höchstens {@code maxGleichzeitig} Anfragen werden gleichzeitig bearbeitet; darüber hinaus antwortet der Server
+ * sofort mit 503 und {@code Retry-After}, statt Anfragen unbegrenzt aufzustauen. Alle anderen Pfade, auch
+ * Unterpfade wie {@code /tarifierung/xyz}, ergeben 404.
+ */
+public class TarifServer implements AutoCloseable {
+
+    public static final int STANDARD_PORT = 8080;
+    public static final int STANDARD_MAX_GLEICHZEITIG = 1024;
+
+    static final int MAX_BATCH = 512;
+    static final long MAX_WARTEZEIT_MIKROS = 100;
+    static final int MAX_KOERPER_BYTES = 16 * 1024 * 1024;
+
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String NDJSON = "application/x-ndjson; charset=utf-8";
+    private static final String BINAER = "application/octet-stream";
+
+    final Semaphore limit;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final MikroBatcher batcher;
+    private final NdjsonFormat format = new NdjsonFormat();
+
+    private TarifServer(HttpServer server, int maxGleichzeitig) {
+        this.server = server;
+        this.limit = new Semaphore(maxGleichzeitig);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.batcher = new MikroBatcher(MAX_BATCH, MAX_WARTEZEIT_MIKROS, maxGleichzeitig);
+    }
+
+    /**
+     * @param port {@code 0} für einen freien Port, siehe {@link #getPort()}
+     */
+    public static TarifServer starte(int port, int maxGleichzeitig) throws IOException {
+        // Ohne TCP_NODELAY verzögern Nagle-Algorithmus und verzögerte ACKs kleine Antworten um bis zu 40 ms.
+        // Die Eigenschaft wird beim ersten HttpServer der JVM gelesen und lässt sich per -D überschreiben.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        var tarifServer = new TarifServer(HttpServer.create(new InetSocketAddress(port), 0), maxGleichzeitig);
+        tarifServer.server.createContext("/tarifierung", e -> tarifServer.behandle(e, tarifServer::einzeln));
+        tarifServer.server.createContext("/tarifierung/batch", e -> tarifServer.behandle(e, tarifServer::batch));
+        tarifServer.server.createContext("/tarifierung/binaer", e -> tarifServer.behandle(e, TarifServer::binaer));
+        tarifServer.server.setExecutor(tarifServer.executor);
+        tarifServer.server.start();
+        return tarifServer;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+        batcher.close();
+    }
+
+    private interface Bearbeitung {
+        void bearbeite(HttpExchange exchange, byte[] koerper) throws IOException;
+    }
+
+    private void behandle(HttpExchange exchange, Bearbeitung bearbeitung) {
+        try (exchange) {
+            // Kontexte von com.sun.net.httpserver passen auf jedes Präfix, bearbeitet wird nur der Pfad selbst
+            if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                antworte(exchange, 404, JSON, fehlerJson("Unbekannter Pfad " + exchange.getRequestURI().getPath()));
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                antworte(exchange, 405, JSON, fehlerJson("Nur POST wird unterstützt"));
+                return;
+            }
+            if (!limit.tryAcquire()) {
+                ueberlastet(exchange);
+                return;
+            }
+            try {
+                byte[] koerper = leseKoerper(exchange.getRequestBody());
+                if (koerper == null) {
+                    antworte(exchange, 413, JSON, fehlerJson("Anfrage größer als " + MAX_KOERPER_BYTES + " Bytes"));
+                    return;
+                }
+                bearbeitung.bearbeite(exchange, koerper);
+            } finally {
+                limit.release();
+            }
+        } catch (IOException e) {
+            // Verbindung vom Client abgebrochen, es gibt niemanden mehr, dem geantwortet werden könnte
+        }
+    }
+
+    private void einzeln(HttpExchange exchange, byte[] koerper) throws IOException {
+        var ausgabe = new StringBuilder(256);
+        TarifAnfrage anfrage;
+        try {
+            anfrage = format.leseAnfrage(new String(koerper, StandardCharsets.UTF_8).strip());
+        } catch (IllegalArgumentException e) {
+            format.schreibeLesefehler(ausgabe, 1, e.getMessage());
+            antworte(exchange, 400, JSON, ausgabe.append('\n').toString());
+            return;
+        }
+
+        CompletableFuture<TarifAntwort> zukunft;
+        try {
+            zukunft = batcher.einreichen(anfrage);
+        } catch (IllegalStateException e) {
+            // Der Server wird gerade beendet
+            zukunft = null;
+        }
+        if (zukunft == null) {
+            ueberlastet(exchange);
+            return;
+        }
+        TarifAntwort antwort;
+        try {
+            antwort = zukunft.join();
+        } catch (CompletionException e) {
+            // Der gemeinsame Batch ist gescheitert; der Client bekommt trotzdem eine Antwort statt eines Abbruchs
+            antworte(exchange, 500, JSON, fehlerJson("Interner Fehler bei der Tarifierung"));
+            return;
+        }
+        antwort.schreibeNdjson(ausgabe, 1);
+        antworte(exchange, antwort.istGueltig() ? 200 : 422, JSON, ausgabe.append('\n').toString());
+    }
+
+    private void batch(HttpExchange exchange, byte[] koerper) throws IOException {
+        List<String> zeilen = new String(koerper, StandardCharsets.UTF_8).lines().toList();
+        var lesefehler = new String[zeilen.size()];
+        var anfragen = new ArrayList<TarifAnfrage>(zeilen.size());
+        var zeilenNummern = new int[zeilen.size()];
+
+        for (int i = 0; i < zeilen.size(); i++) {
+            String zeile = zeilen.get(i);
+            if (format.istUeberspringbar(zeile)) {
+                continue;
+            }
+            try {
+                zeilenNummern[anfragen.size()] = i;
+                anfragen.add(format.leseAnfrage(zeile));
+            } catch (IllegalArgumentException e) {
+                lesefehler[i] = e.getMessage();
+            }
+        }
+
+        // Die Anfragen bilden bereits einen Batch und umgehen den MikroBatcher
+        TarifAntwort[] antworten = MikroBatcher.berechne(anfragen);
+        var ergebnisse = new TarifAntwort[zeilen.size()];
+        for (int j = 0; j < antworten.length; j++) {
+            ergebnisse[zeilenNummern[j]] = antworten[j];
+        }
+
+        var ausgabe = new StringBuilder(zeilen.size() * 96);
+        for (int i = 0; i < zeilen.size(); i++) {
+            if (lesefehler[i] != null) {
+                format.schreibeLesefehler(ausgabe, i + 1, lesefehler[i]);
+            } else if (ergebnisse[i] != null) {
+                ergebnisse[i].schreibeNdjson(ausgabe, i + 1);
+            } else {
+                continue;
+            }
+            ausgabe.append('\n');
+        }
+        antworte(exchange, 200, NDJSON, ausgabe.toString());
+    }
+
+    /**
+     * Ergebnis-Rahmen sind so groß wie die Anfrage-Rahmen, die Antwort passt also in einen Puffer gleicher Länge.
+     */
+    private static void binaer(HttpExchange exchange, byte[] koerper) throws IOException {
+        ByteBuffer anfragen = ByteBuffer.wrap(koerper);
+        ByteBuffer ergebnisse = ByteBuffer.allocate(koerper.length);
+        try {
+            while (anfragen.hasRemaining()) {
+                TarifCodec.bewerte(anfragen, ergebnisse);
+            }
+        } catch (IllegalArgumentException e) {
+            antworte(exchange, 400, JSON, fehlerJson(e.getMessage()));
+            return;
+        }
+        antworte(exchange, 200, BINAER, ergebnisse.array(), ergebnisse.position());
+    }
+
+    private static void ueberlastet(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        antworte(exchange, 503, JSON, fehlerJson("Server ausgelastet"));
+    }
+
+    /**
+     * @return den Inhalt oder {@code null}, wenn er größer als {@link #MAX_KOERPER_BYTES} ist
+     */
+    private static byte[] leseKoerper(InputStream eingabe) throws IOException {
+        byte[] bytes = eingabe.readNBytes(MAX_KOERPER_BYTES + 1);
+        return bytes.length > MAX_KOERPER_BYTES ? null : bytes;
+    }
+
+    private static String fehlerJson(String meldung) {
+        var json = new StringBuilder(64).append("{\"fehler\":[");
+        NdjsonFormat.haengeTextAn(json, meldung);
+        return json.append("]}\n").toString();
+    }
+
+    private static void antworte(HttpExchange exchange, int status, String inhaltstyp, String koerper) throws IOException {
+        byte[] bytes = koerper.getBytes(StandardCharsets.UTF_8);
+        antworte(exchange, status, inhaltstyp, bytes, bytes.length);
+    }
+
+    private static void antworte(HttpExchange exchange, int status, String inhaltstyp, byte[] koerper, int laenge)
+        throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", inhaltstyp);
+        exchange.sendResponseHeaders(status, laenge);
+        exchange.getResponseBody().write(koerper, 0, laenge);
+    }
+}
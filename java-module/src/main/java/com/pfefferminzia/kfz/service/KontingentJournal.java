@@ -0,0 +1,527 @@
+package com.pfefferminzia.kfz.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Dauerhaftes Journal der Rabattkontingente: Gutschriften und gebuchte Punkte je Makler werden an
+ * speicherabgebildete Segmentdateien angehängt und überstehen einen Neustart.
+ * <p>
+ * Jeder Eintrag ist {@code [Länge][CRC32C][Typ][Punkte][Makler]}; ein Eintrag mit Länge {@code 0} markiert das Ende
+ * eines Segments. Ein eigener Thread schreibt alle seit dem letzten Durchlauf angehängten Einträge mit einem einzigen
+ * {@code force()} auf die Platte (Group Commit). Mit {@link Bestaetigung#NACH_FSYNC} warten Schreiber, bis ihr
+ * Eintrag persistiert ist – gleichzeitige Schreiber teilen sich dabei ein fsync. Mit
+ * {@link Bestaetigung#NACH_SCHREIBEN} kehren sie sofort zurück, verloren gehen höchstens die Einträge des letzten
+ * fsync-Intervalls.
+ * <p>
+ * Nach {@value #SNAPSHOT_NACH_SEGMENTEN} vollen Segmenten werden die Stände in einen Snapshot geschrieben und die
+ * davon abgedeckten Segmente gelöscht, sodass das Wiederherstellen beim Öffnen nur den Snapshot und wenige Segmente
+ * liest. Ein beim Absturz halb geschriebener Eintrag am Ende des letzten Segments wird über die Prüfsumme erkannt
+ * und verworfen.
+ * <p>
+ * Offene Reservierungen werden bewusst nicht protokolliert: Nach einem Neustart sind sie verfallen und ihre Punkte
+ * wieder frei.
+ */
+public class KontingentJournal implements AutoCloseable {
+
+    public enum Bestaetigung {
+        NACH_SCHREIBEN,
+        NACH_FSYNC
+    }
+
+    public record Stand(long gutgeschrieben, long verbraucht) {
+
+        public long frei() {
+            return gutgeschrieben - verbraucht;
+        }
+    }
+
+    public static final int STANDARD_SEGMENTGROESSE = 64 * 1024 * 1024;
+    public static final Duration STANDARD_FSYNC_INTERVALL = Duration.ofMillis(5);
+
+    static final int SNAPSHOT_NACH_SEGMENTEN = 4;
+
+    private static final byte GUTSCHRIFT = 1;
+    private static final byte VERBRAUCH = 2;
+    private static final int KOPF = 8;
+    private static final int NUTZDATEN_OHNE_MAKLER = 1 + Long.BYTES + Short.BYTES;
+    private static final int MAX_MAKLER_BYTES = 1024;
+    private static final int SNAPSHOT_KENNUNG = 0x4B4A534E;
+    private static final String SNAPSHOT = "snapshot.bin";
+
+    private final Path verzeichnis;
+    private final Bestaetigung bestaetigung;
+    private final long fsyncIntervallNanos;
+    private final int segmentGroesse;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition neueEintraege = lock.newCondition();
+    private final Condition persistiert = lock.newCondition();
+    private final Map<String, long[]> staende = new HashMap<>();
+    private final Thread fsyncThread;
+
+    private FileChannel kanal;
+    private MappedByteBuffer segment;
+    private long segmentNummer;
+    private long segmenteSeitSnapshot;
+    private int geforcedBis;
+    private long geschriebeneBytes;
+    private long persistierteBytes;
+    private IOException fsyncFehler;
+    private boolean geschlossen;
+
+    private KontingentJournal(Path verzeichnis, Bestaetigung bestaetigung, Duration fsyncIntervall, int segmentGroesse) {
+        this.verzeichnis = verzeichnis;
+        this.bestaetigung = bestaetigung;
+        this.fsyncIntervallNanos = fsyncIntervall.toNanos();
+        this.segmentGroesse = segmentGroesse;
+        this.fsyncThread = new Thread(this::fsyncSchleife, "kontingent-journal-fsync");
+        this.fsyncThread.setDaemon(true);
+    }
+
+    public static KontingentJournal oeffne(Path verzeichnis) throws IOException {
+        return oeffne(verzeichnis, Bestaetigung.NACH_FSYNC, STANDARD_FSYNC_INTERVALL, STANDARD_SEGMENTGROESSE);
+    }
+
+    /**
+     * Öffnet das Journal im Verzeichnis und stellt die Stände aus Snapshot und Segmenten wieder her.
+     */
+    public static KontingentJournal oeffne(Path verzeichnis, Bestaetigung bestaetigung, Duration fsyncIntervall,
+                                           int segmentGroesse) throws IOException {
+        Files.createDirectories(verzeichnis);
+        var journal = new KontingentJournal(verzeichnis, bestaetigung, fsyncIntervall, segmentGroesse);
+        journal.stelleWiederHer();
+        journal.fsyncThread.start();
+        return journal;
+    }
+
+    public void gutschrift(String makler, long punkte) {
+        schreibe(GUTSCHRIFT, makler, punkte);
+    }
+
+    public void verbrauch(String makler, long punkte) {
+        schreibe(VERBRAUCH, makler, punkte);
+    }
+
+    /**
+     * Kopie der aktuellen Stände aller Makler.
+     */
+    public Map<String, Stand> getStaende() {
+        lock.lock();
+        try {
+            return kopiereStaende();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Schreibt die aktuellen Stände in einen Snapshot, beginnt ein neues Segment und löscht alle älteren Segmente.
+     */
+    public synchronized void snapshot() throws IOException {
+        Map<String, Stand> kopie;
+        long ab;
+        long nichtAbgedeckt;
+        lock.lock();
+        try {
+            pruefeOffen();
+            wechsleSegment();
+            kopie = kopiereStaende();
+            ab = segmentNummer;
+            nichtAbgedeckt = segmenteSeitSnapshot + 1;
+            segmenteSeitSnapshot = 0;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            schreibeSnapshot(ab, kopie);
+        } catch (IOException | RuntimeException e) {
+            // Ohne Snapshot bleibt der automatische Snapshot fällig und wird beim nächsten fsync wiederholt
+            lock.lock();
+            try {
+                segmenteSeitSnapshot += nichtAbgedeckt;
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+        for (long nummer : segmentNummern()) {
+            if (nummer < ab) {
+                Files.deleteIfExists(segmentPfad(nummer));
+            }
+        }
+    }
+
+    /**
+     * Wartet, bis alle bisher geschriebenen Einträge persistiert sind.
+     */
+    public void synchronisiere() {
+        lock.lock();
+        try {
+            warteAufPersistenz(geschriebeneBytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (geschlossen) {
+                return;
+            }
+            geschlossen = true;
+            neueEintraege.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        boolean unterbrochen = false;
+        while (fsyncThread.isAlive()) {
+            try {
+                fsyncThread.join();
+            } catch (InterruptedException e) {
+                unterbrochen = true;
+            }
+        }
+        if (unterbrochen) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            segment.force();
+            kanal.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void schreibe(byte typ, String makler, long punkte) {
+        byte[] name = makler.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_MAKLER_BYTES) {
+            throw new IllegalArgumentException("Maklerkennung ist länger als " + MAX_MAKLER_BYTES + " Bytes");
+        }
+        int nutzdaten = NUTZDATEN_OHNE_MAKLER + name.length;
+        var crc = new CRC32C();
+
+        lock.lock();
+        try {
+            pruefeOffen();
+            if (segment.position() + KOPF + nutzdaten + Integer.BYTES > segmentGroesse) {
+                wechsleSegment();
+                segmenteSeitSnapshot++;
+            }
+            int position = segment.position();
+            segment.position(position + KOPF)
+                .put(typ)
+                .putLong(punkte)
+                .putShort((short) name.length)
+                .put(name);
+            crc.update(segment.slice(position + KOPF, nutzdaten));
+            segment.putInt(position + Integer.BYTES, (int) crc.getValue())
+                .putInt(position, nutzdaten);
+            geschriebeneBytes += KOPF + nutzdaten;
+            wendeAn(typ, makler, punkte);
+
+            if (bestaetigung == Bestaetigung.NACH_FSYNC) {
+                neueEintraege.signal();
+                warteAufPersistenz(geschriebeneBytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void warteAufPersistenz(long bytes) {
+        boolean unterbrochen = false;
+        while (persistierteBytes < bytes && fsyncFehler == null) {
+            try {
+                persistiert.await();
+            } catch (InterruptedException e) {
+                unterbrochen = true;
+            }
+        }
+        if (unterbrochen) {
+            Thread.currentThread().interrupt();
+        }
+        if (fsyncFehler != null) {
+            throw new UncheckedIOException(fsyncFehler);
+        }
+    }
+
+    private void fsyncSchleife() {
+        while (true) {
+            MappedByteBuffer zuForcen;
+            int von;
+            int bis;
+            long bytes;
+            lock.lock();
+            try {
+                if (bestaetigung == Bestaetigung.NACH_SCHREIBEN && !geschlossen) {
+                    // Schreiber warten nicht, gebündelt wird über das Intervall
+                    neueEintraege.awaitNanos(fsyncIntervallNanos);
+                }
+                while (!geschlossen && persistierteBytes == geschriebeneBytes) {
+                    neueEintraege.awaitNanos(fsyncIntervallNanos);
+                }
+                if (persistierteBytes == geschriebeneBytes) {
+                    return;
+                }
+                zuForcen = segment;
+                von = geforcedBis;
+                bis = segment.position();
+                bytes = geschriebeneBytes;
+            } catch (InterruptedException e) {
+                // Nur close() beendet die Schleife, damit kein Schreiber auf ein fsync wartet, das nie kommt
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException fehler = null;
+            try {
+                zuForcen.force(von, bis - von);
+            } catch (UncheckedIOException e) {
+                fehler = e.getCause();
+            }
+
+            boolean snapshotFaellig;
+            lock.lock();
+            try {
+                if (fehler != null) {
+                    fsyncFehler = fehler;
+                    persistiert.signalAll();
+                    return;
+                }
+                if (zuForcen == segment) {
+                    geforcedBis = Math.max(geforcedBis, bis);
+                }
+                persistierteBytes = Math.max(persistierteBytes, bytes);
+                persistiert.signalAll();
+                snapshotFaellig = !geschlossen && segmenteSeitSnapshot >= SNAPSHOT_NACH_SEGMENTEN;
+            } finally {
+                lock.unlock();
+            }
+            if (snapshotFaellig) {
+                try {
+                    snapshot();
+                } catch (IOException | IllegalStateException e) {
+                    // Der nächste Durchlauf versucht es erneut, die Segmente bleiben bis dahin erhalten
+                }
+            }
+        }
+    }
+
+    /**
+     * Schließt das aktuelle Segment dauerhaft ab und legt das nächste an. Aufruf nur unter {@link #lock}.
+     */
+    private void wechsleSegment() throws IOException {
+        segment.force();
+        kanal.close();
+        persistierteBytes = geschriebeneBytes;
+        persistiert.signalAll();
+        oeffneSegment(segmentNummer + 1, 0);
+    }
+
+    private void oeffneSegment(long nummer, int position) throws IOException {
+        kanal = FileChannel.open(segmentPfad(nummer),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = kanal.map(FileChannel.MapMode.READ_WRITE, 0, segmentGroesse);
+        segment.position(position);
+        segmentNummer = nummer;
+        geforcedBis = position;
+    }
+
+    private void stelleWiederHer() throws IOException {
+        long ab = leseSnapshot();
+        List<Long> nummern = segmentNummern().stream().filter(n -> n >= ab).toList();
+        if (nummern.isEmpty()) {
+            oeffneSegment(ab, 0);
+            return;
+        }
+        for (int i = 0; i < nummern.size(); i++) {
+            long nummer = nummern.get(i);
+            if (i > 0 && nummer != nummern.get(i - 1) + 1) {
+                throw new IllegalStateException("Journalsegment " + (nummern.get(i - 1) + 1) + " fehlt");
+            }
+            oeffneSegment(nummer, 0);
+            boolean letztes = i == nummern.size() - 1;
+            int ende = spieleAb(segment);
+            if (!letztes) {
+                if (ende + Integer.BYTES <= segmentGroesse && segment.getInt(ende) != 0) {
+                    throw new IllegalStateException("Journalsegment " + nummer + " ist beschädigt");
+                }
+                kanal.close();
+            } else {
+                loescheAb(ende);
+                segment.position(ende);
+                geforcedBis = ende;
+                segment.force();
+            }
+        }
+        segmenteSeitSnapshot = nummern.size() - 1;
+    }
+
+    /**
+     * Überschreibt das aktuelle Segment ab {@code position} bis zum Ende mit Nullen. Seiten einer Speicherabbildung
+     * erreichen die Platte in beliebiger Reihenfolge: Hinter einem verlorenen Eintrag können spätere überlebt haben,
+     * die wieder gültig würden, sobald an der Lücke ein gleich langer Eintrag geschrieben wird. Deshalb reicht es
+     * nicht, nur bis zum ersten Null-Byte zu löschen.
+     */
+    private void loescheAb(int position) {
+        int p = position;
+        for (; p < segmentGroesse && p % Long.BYTES != 0; p++) {
+            segment.put(p, (byte) 0);
+        }
+        // Nur tatsächlich belegte Wörter schreiben, damit unbenutzte Seiten nicht unnötig verschmutzt werden
+        for (; p + Long.BYTES <= segmentGroesse; p += Long.BYTES) {
+            if (segment.getLong(p) != 0) {
+                segment.putLong(p, 0);
+            }
+        }
+        for (; p < segmentGroesse; p++) {
+            segment.put(p, (byte) 0);
+        }
+    }
+
+    /**
+     * Spielt alle gültigen Einträge eines Segments ab und liefert die Position hinter dem letzten.
+     */
+    private int spieleAb(MappedByteBuffer puffer) {
+        int position = 0;
+        var crc = new CRC32C();
+        while (position + KOPF <= segmentGroesse) {
+            int nutzdaten = puffer.getInt(position);
+            int minimum = NUTZDATEN_OHNE_MAKLER;
+            if (nutzdaten < minimum || nutzdaten > minimum + MAX_MAKLER_BYTES
+                || position + KOPF + nutzdaten > segmentGroesse) {
+                break;
+            }
+            int start = position + KOPF;
+            crc.reset();
+            crc.update(puffer.slice(start, nutzdaten));
+            byte typ = puffer.get(start);
+            int laenge = Short.toUnsignedInt(puffer.getShort(start + 1 + Long.BYTES));
+            if ((int) crc.getValue() != puffer.getInt(position + Integer.BYTES)
+                || laenge != nutzdaten - minimum || (typ != GUTSCHRIFT && typ != VERBRAUCH)) {
+                break;
+            }
+            byte[] name = new byte[laenge];
+            puffer.get(start + minimum, name);
+            wendeAn(typ, new String(name, StandardCharsets.UTF_8), puffer.getLong(start + 1));
+            position = start + nutzdaten;
+            geschriebeneBytes += KOPF + nutzdaten;
+        }
+        persistierteBytes = geschriebeneBytes;
+        return position;
+    }
+
+    private void wendeAn(byte typ, String makler, long punkte) {
+        long[] stand = staende.computeIfAbsent(makler, m -> new long[2]);
+        stand[typ == GUTSCHRIFT ? 0 : 1] += punkte;
+    }
+
+    private Map<String, Stand> kopiereStaende() {
+        var kopie = new HashMap<String, Stand>(staende.size() * 2);
+        staende.forEach((makler, stand) -> kopie.put(makler, new Stand(stand[0], stand[1])));
+        return kopie;
+    }
+
+    private void schreibeSnapshot(long abSegment, Map<String, Stand> kopie) throws IOException {
+        var puffer = ByteBuffer.allocate(4 + 8 + 4 + kopie.size() * (2 + MAX_MAKLER_BYTES + 16) + 4);
+        puffer.putInt(SNAPSHOT_KENNUNG).putLong(abSegment).putInt(kopie.size());
+        kopie.forEach((makler, stand) -> {
+            byte[] name = makler.getBytes(StandardCharsets.UTF_8);
+            puffer.putShort((short) name.length).put(name).putLong(stand.gutgeschrieben()).putLong(stand.verbraucht());
+        });
+        var crc = new CRC32C();
+        crc.update(puffer.array(), 0, puffer.position());
+        puffer.putInt((int) crc.getValue()).flip();
+
+        Path temp = verzeichnis.resolve(SNAPSHOT + ".tmp");
+        try (var datei = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (puffer.hasRemaining()) {
+                datei.write(puffer);
+            }
+            datei.force(true);
+        }
+        Files.move(temp, verzeichnis.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+        // Die Umbenennung muss dauerhaft sein, bevor die abgedeckten Segmente gelöscht werden
+        try (var ordner = FileChannel.open(verzeichnis, StandardOpenOption.READ)) {
+            ordner.force(true);
+        }
+    }
+
+    /**
+     * Lädt den Snapshot, falls vorhanden, und liefert das erste nicht abgedeckte Segment.
+     */
+    private long leseSnapshot() throws IOException {
+        Path pfad = verzeichnis.resolve(SNAPSHOT);
+        if (!Files.exists(pfad)) {
+            return 0;
+        }
+        byte[] inhalt = Files.readAllBytes(pfad);
+        if (inhalt.length < 20) {
+            throw new IllegalStateException("Snapshot " + pfad + " ist beschädigt");
+        }
+        var crc = new CRC32C();
+        crc.update(inhalt, 0, inhalt.length - 4);
+        var puffer = ByteBuffer.wrap(inhalt);
+        if (puffer.getInt() != SNAPSHOT_KENNUNG || puffer.getInt(inhalt.length - 4) != (int) crc.getValue()) {
+            throw new IllegalStateException("Snapshot " + pfad + " ist beschädigt");
+        }
+        long abSegment = puffer.getLong();
+        int anzahl = puffer.getInt();
+        for (int i = 0; i < anzahl; i++) {
+            byte[] name = new byte[Short.toUnsignedInt(puffer.getShort())];
+            puffer.get(name);
+            staende.put(new String(name, StandardCharsets.UTF_8), new long[]{puffer.getLong(), puffer.getLong()});
+        }
+        return abSegment;
+    }
+
+    private List<Long> segmentNummern() throws IOException {
+        try (Stream<Path> dateien = Files.list(verzeichnis)) {
+            List<Long> nummern = new ArrayList<>();
+            dateien.map(p -> p.getFileName().toString())
+                .filter(n -> n.startsWith("segment-") && n.endsWith(".log"))
+                .forEach(n -> nummern.add(Long.parseLong(n.substring(8, n.length() - 4))));
+            nummern.sort(null);
+            return nummern;
+        }
+    }
+
+    private Path segmentPfad(long nummer) {
+        return verzeichnis.resolve("segment-%020d.log".formatted(nummer));
+    }
+
+    private void pruefeOffen() {
+        if (geschlossen) {
+            throw new IllegalStateException("Kontingentjournal ist geschlossen");
+        }
+        if (fsyncFehler != null) {
+            throw new UncheckedIOException(fsyncFehler);
+        }
+    }
+}
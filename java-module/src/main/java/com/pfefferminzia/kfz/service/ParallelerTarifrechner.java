@@ -0,0 +1,168 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.model.TarifAnfrage;
+import com.pfefferminzia.kfz.model.TarifierungsErgebnis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Tarifiert viele Anfragen parallel auf einem eigenen ForkJoinPool mit konfigurierbarer Parallelität.
+ * <p>
+ * Die Tarifierung ist reine CPU-Arbeit ohne blockierende Aufrufe, daher werden Plattform-Threads in
+ * Anzahl der gewünschten Parallelität verwendet; virtuelle Threads brächten hier keinen Vorteil. Die Anfragen
+ * werden in Blöcken verteilt, damit der Verwaltungsaufwand pro Anfrage gegenüber der Tarifierung klein bleibt.
+ * <p>
+ * Jede Anfrage wird isoliert bewertet: Plausibilitätsfehler landen im {@link TarifierungsErgebnis},
+ * unerwartete Exceptions in {@link Bewertung#ausnahme()} – der Rest des Batches läuft weiter.
+ * Geteilt werden nur threadsichere Komponenten (ValidationService, ZielbeitragService samt Cache);
+ * jede Anfrage erzeugt ihre eigenen Produktbausteine.
+ */
+public class ParallelerTarifrechner implements AutoCloseable {
+
+    static final int BLOCKGROESSE = 512;
+
+    /**
+     * Ergebnis einer Anfrage an der Position {@code position} der Eingabe.
+     */
+    public record Bewertung(long position, TarifAnfrage anfrage, TarifierungsErgebnis ergebnis, RuntimeException ausnahme) {
+
+        public boolean istGueltig() {
+            return ausnahme == null && ergebnis.istGueltig();
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final int maximaleBloeckeInArbeit;
+
+    public ParallelerTarifrechner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelerTarifrechner(int parallelitaet) {
+        if (parallelitaet < 1) {
+            throw new IllegalArgumentException("Parallelität muss mindestens 1 sein");
+        }
+        this.pool = new ForkJoinPool(parallelitaet);
+        this.maximaleBloeckeInArbeit = parallelitaet * 4;
+    }
+
+    /**
+     * Bewertet alle Anfragen; das Ergebnis hat dieselbe Reihenfolge wie die Eingabe.
+     */
+    public List<Bewertung> bewerte(List<TarifAnfrage> anfragen) {
+        var bewertungen = new Bewertung[anfragen.size()];
+        var bloecke = new ArrayList<Callable<Void>>();
+        for (int start = 0; start < anfragen.size(); start += BLOCKGROESSE) {
+            int von = start;
+            int bis = Math.min(start + BLOCKGROESSE, anfragen.size());
+            bloecke.add(() -> {
+                for (int i = von; i < bis; i++) {
+                    bewertungen[i] = bewerte(i, anfragen.get(i));
+                }
+                return null;
+            });
+        }
+
+        for (Future<Void> block : pool.invokeAll(bloecke)) {
+            warteAuf(block);
+        }
+        return Arrays.asList(bewertungen);
+    }
+
+    /**
+     * Bewertet einen beliebig langen Strom von Anfragen mit begrenzter Anzahl gleichzeitig bearbeiteter Blöcke.
+     * Der Empfänger wird ausschließlich im aufrufenden Thread aufgerufen.
+     *
+     * @param reihenfolgeErhalten {@code true}: Ergebnisse in Eingabereihenfolge,
+     *                            {@code false}: in Fertigstellungsreihenfolge (geringere Latenz bei ungleichen Blöcken)
+     */
+    public void bewerte(Iterator<TarifAnfrage> anfragen, boolean reihenfolgeErhalten, Consumer<Bewertung> empfaenger) {
+        var inArbeit = new ArrayDeque<Future<List<Bewertung>>>();
+        CompletionService<List<Bewertung>> fertige = new ExecutorCompletionService<>(pool);
+        int offen = 0;
+        long position = 0;
+
+        while (anfragen.hasNext()) {
+            var block = new ArrayList<TarifAnfrage>(BLOCKGROESSE);
+            while (block.size() < BLOCKGROESSE && anfragen.hasNext()) {
+                block.add(anfragen.next());
+            }
+
+            long startPosition = position;
+            position += block.size();
+            Callable<List<Bewertung>> aufgabe = () -> bewerteBlock(startPosition, block);
+            if (reihenfolgeErhalten) {
+                inArbeit.add(pool.submit(aufgabe));
+                if (inArbeit.size() >= maximaleBloeckeInArbeit) {
+                    warteAuf(inArbeit.poll()).forEach(empfaenger);
+                }
+            } else {
+                fertige.submit(aufgabe);
+                if (++offen >= maximaleBloeckeInArbeit) {
+                    warteAuf(naechsterFertiger(fertige)).forEach(empfaenger);
+                    offen--;
+                }
+            }
+        }
+
+        while (!inArbeit.isEmpty()) {
+            warteAuf(inArbeit.poll()).forEach(empfaenger);
+        }
+        for (; offen > 0; offen--) {
+            warteAuf(naechsterFertiger(fertige)).forEach(empfaenger);
+        }
+    }
+
+    private static List<Bewertung> bewerteBlock(long startPosition, List<TarifAnfrage> block) {
+        var bewertungen = new ArrayList<Bewertung>(block.size());
+        for (int i = 0; i < block.size(); i++) {
+            bewertungen.add(bewerte(startPosition + i, block.get(i)));
+        }
+        return bewertungen;
+    }
+
+    private static Bewertung bewerte(long position, TarifAnfrage anfrage) {
+        try {
+            return new Bewertung(position, anfrage, anfrage.bewerte(), null);
+        } catch (RuntimeException e) {
+            return new Bewertung(position, anfrage, null, e);
+        }
+    }
+
+    private static <T> Future<T> naechsterFertiger(CompletionService<T> fertige) {
+        try {
+            return fertige.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tarifierung unterbrochen", e);
+        }
+    }
+
+    private static <T> T warteAuf(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tarifierung unterbrochen", e);
+        } catch (ExecutionException e) {
+            // Kann nur bei Fehlern außerhalb der isolierten Einzelbewertung auftreten
+            throw new IllegalStateException("Tarifierung fehlgeschlagen", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+}
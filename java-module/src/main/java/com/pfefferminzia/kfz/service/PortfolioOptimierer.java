@@ -0,0 +1,350 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.model.TarifKern;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static com.pfefferminzia.kfz.service.ZielbeitragService.MAX_RABATT;
+import static com.pfefferminzia.kfz.service.ZielbeitragService.TOLERANZ_CENT;
+
+/**
+ * Verteilt ein gemeinsames Budget an Rabattpunkten auf einen ganzen Bestand von Verträgen (Haftpflicht, Kasko,
+ * Zielbeitrag), statt jeden Zielbeitrag einzeln und ohne Rücksicht auf das {@link RabattKontingent} zu lösen.
+ * Ein Rabattpunkt ist wie im Kontingent ein Prozentpunkt auf einem Baustein; die Summe aller Rabatte überschreitet
+ * das Budget nie.
+ * <p>
+ * Innerhalb eines Vertrags wird wie im {@link ZielbeitragService} zuerst das teurere Produkt rabattiert. Damit spart
+ * jeder weitere Punkt eines Vertrags höchstens so viel wie der vorige, und beide Ziele lassen sich ohne Suche über
+ * Rabattkombinationen exakt lösen:
+ * <ul>
+ *   <li>{@link Ziel#MAXIMALE_TREFFER}: Jeder Vertrag kostet die minimale Rabattsumme für seinen Zielbeitrag, jeder
+ *       Treffer zählt gleich. Optimal ist daher, die billigsten Verträge zuerst zu nehmen. Da die Kosten zwischen
+ *       0 und 198 Punkten liegen, werden sie gezählt statt sortiert. Nicht erreichbare Zielbeiträge und Verträge, die
+ *       nicht mehr ins Budget passen, erhalten keine Rabatte.</li>
+ *   <li>{@link Ziel#MINIMALE_ABWEICHUNG}: Minimiert wird die Summe der Beträge über Zielbeitrag plus Toleranz. Die
+ *       Punkte mit der größten Ersparnis werden über alle Verträge hinweg zuerst vergeben; die Grenzersparnis, bis zu
+ *       der das Budget reicht, wird per binärer Suche bestimmt (höchstens 31 Durchläufe). Punkte mit genau der
+ *       Grenzersparnis gehen in Eingabereihenfolge an die Verträge, das Ergebnis ist deterministisch.</li>
+ * </ul>
+ * Gerechnet wird exakt in Hundertstel-Cent wie im ZielbeitragService. Die Durchläufe über die Verträge laufen in
+ * Blöcken auf einem eigenen ForkJoinPool, die Laufzeit wächst linear mit der Zahl der Verträge.
+ */
+public class PortfolioOptimierer implements AutoCloseable {
+
+    static final int BLOCKGROESSE = 4096;
+
+    private static final int MAX_PUNKTE = 2 * MAX_RABATT;
+
+    public enum Ziel {
+        MAXIMALE_TREFFER,
+        MINIMALE_ABWEICHUNG
+    }
+
+    /**
+     * Rabatte je Vertrag in Reihenfolge der Eingabe mit den Summen über den Bestand.
+     */
+    public static final class Zuteilung {
+
+        private final int[] haftpflichtRabatte;
+        private final int[] kaskoRabatte;
+        private final long[] nettopraemienCent;
+        private final boolean[] erreicht;
+        private final long punkte;
+        private final int treffer;
+        private final long abweichungCent;
+
+        private Zuteilung(int[] haftpflichtRabatte, int[] kaskoRabatte, long[] nettopraemienCent, boolean[] erreicht,
+                          long[] zielCent) {
+            this.haftpflichtRabatte = haftpflichtRabatte;
+            this.kaskoRabatte = kaskoRabatte;
+            this.nettopraemienCent = nettopraemienCent;
+            this.erreicht = erreicht;
+            long punkte = 0;
+            int treffer = 0;
+            long abweichung = 0;
+            for (int i = 0; i < erreicht.length; i++) {
+                punkte += haftpflichtRabatte[i] + kaskoRabatte[i];
+                treffer += erreicht[i] ? 1 : 0;
+                abweichung += Math.max(0, nettopraemienCent[i] - zielCent[i] - TOLERANZ_CENT);
+            }
+            this.punkte = punkte;
+            this.treffer = treffer;
+            this.abweichungCent = abweichung;
+        }
+
+        public int getAnzahl() {
+            return erreicht.length;
+        }
+
+        public int getHaftpflichtRabatt(int vertrag) {
+            return haftpflichtRabatte[vertrag];
+        }
+
+        public int getKaskoRabatt(int vertrag) {
+            return kaskoRabatte[vertrag];
+        }
+
+        public long getNettopraemieCent(int vertrag) {
+            return nettopraemienCent[vertrag];
+        }
+
+        /** Nettoprämie höchstens 0,01 € über dem Zielbeitrag, wie beim ZielbeitragService. */
+        public boolean istErreicht(int vertrag) {
+            return erreicht[vertrag];
+        }
+
+        /** Vergebene Rabattpunkte, etwa für {@link RabattKontingent#reserviere(String, long)}. */
+        public long getPunkte() {
+            return punkte;
+        }
+
+        public int getTreffer() {
+            return treffer;
+        }
+
+        /** Summe der Nettoprämien über Zielbeitrag plus Toleranz, in ganzen Cent. */
+        public long getAbweichungCent() {
+            return abweichungCent;
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    public PortfolioOptimierer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public PortfolioOptimierer(int parallelitaet) {
+        if (parallelitaet < 1) {
+            throw new IllegalArgumentException("Parallelität muss mindestens 1 sein");
+        }
+        this.pool = new ForkJoinPool(parallelitaet);
+    }
+
+    /**
+     * @param haftpflichtCent Prämien der Haftpflicht in ganzen Cent, positiv
+     * @param kaskoCent       Prämien der Kasko in ganzen Cent, {@code 0} für Verträge ohne Kasko
+     * @param zielCent        Zielbeiträge in ganzen Cent, positiv
+     * @param budget          höchstens zu vergebende Rabattpunkte über alle Verträge
+     * @throws IllegalArgumentException bei unterschiedlich langen Spalten, negativem Budget oder unplausiblen Werten
+     */
+    public Zuteilung optimiere(long[] haftpflichtCent, long[] kaskoCent, long[] zielCent, long budget, Ziel ziel) {
+        int anzahl = haftpflichtCent.length;
+        if (kaskoCent.length != anzahl || zielCent.length != anzahl) {
+            throw new IllegalArgumentException("Alle Spalten eines Bestands müssen dieselbe Länge haben");
+        }
+        if (budget < 0) {
+            throw new IllegalArgumentException("Budget darf nicht negativ sein: " + budget);
+        }
+        for (int i = 0; i < anzahl; i++) {
+            if (haftpflichtCent[i] <= 0 || kaskoCent[i] < 0 || zielCent[i] <= 0) {
+                throw new IllegalArgumentException("Vertrag " + i + ": Prämien und Zielbeitrag müssen positiv sein");
+            }
+            if (!TarifKern.istImBereichCent(haftpflichtCent[i]) || !TarifKern.istImBereichCent(kaskoCent[i])
+                || !TarifKern.istImBereichCent(zielCent[i])) {
+                throw new IllegalArgumentException("Vertrag " + i + ": "
+                    + Fehlercode.BETRAG_AUSSERHALB_BEREICH.getMeldung());
+            }
+        }
+
+        // Benötigte Ersparnis je Vertrag in Hundertstel-Cent, <= 0 wenn keine Rabatte nötig sind
+        long[] luecken = new long[anzahl];
+        long[] teuer = new long[anzahl];
+        long[] guenstig = new long[anzahl];
+        inBloecken(anzahl, (von, bis) -> {
+            for (int i = von; i < bis; i++) {
+                luecken[i] = (haftpflichtCent[i] + kaskoCent[i] - zielCent[i] - TOLERANZ_CENT) * 100;
+                teuer[i] = Math.max(haftpflichtCent[i], kaskoCent[i]);
+                guenstig[i] = Math.min(haftpflichtCent[i], kaskoCent[i]);
+            }
+            return 0;
+        });
+
+        int[] punkte = ziel == Ziel.MAXIMALE_TREFFER
+            ? verteileAufTreffer(luecken, teuer, guenstig, budget)
+            : verteileAufAbweichung(luecken, teuer, guenstig, budget);
+
+        int[] haftpflichtRabatte = new int[anzahl];
+        int[] kaskoRabatte = new int[anzahl];
+        long[] nettopraemienCent = new long[anzahl];
+        boolean[] erreicht = new boolean[anzahl];
+        inBloecken(anzahl, (von, bis) -> {
+            for (int i = von; i < bis; i++) {
+                // Teureres Produkt zuerst, bei gleichen Prämien wird die Haftpflicht bevorzugt
+                int rabattTeuer = Math.min(punkte[i], MAX_RABATT);
+                int rabattGuenstig = punkte[i] - rabattTeuer;
+                boolean haftpflichtZuerst = haftpflichtCent[i] >= kaskoCent[i];
+                haftpflichtRabatte[i] = haftpflichtZuerst ? rabattTeuer : rabattGuenstig;
+                kaskoRabatte[i] = haftpflichtZuerst ? rabattGuenstig : rabattTeuer;
+                nettopraemienCent[i] = TarifKern.nettopraemieCent(haftpflichtCent[i], haftpflichtRabatte[i],
+                    kaskoCent[i], kaskoRabatte[i]);
+                erreicht[i] = teuer[i] * rabattTeuer + guenstig[i] * rabattGuenstig >= luecken[i];
+            }
+            return 0;
+        });
+        return new Zuteilung(haftpflichtRabatte, kaskoRabatte, nettopraemienCent, erreicht, zielCent);
+    }
+
+    private int[] verteileAufTreffer(long[] luecken, long[] teuer, long[] guenstig, long budget) {
+        int anzahl = luecken.length;
+        // Minimale Rabattsumme je Vertrag, -1 wenn der Zielbeitrag nicht erreichbar ist
+        int[] kosten = new int[anzahl];
+        inBloecken(anzahl, (von, bis) -> {
+            for (int i = von; i < bis; i++) {
+                kosten[i] = luecken[i] <= 0 ? 0
+                    : luecken[i] > (teuer[i] + guenstig[i]) * MAX_RABATT ? -1
+                    : punkte(luecken[i], teuer[i], guenstig[i], 1);
+            }
+            return 0;
+        });
+
+        long[] anzahlJeKosten = new long[MAX_PUNKTE + 1];
+        for (int k : kosten) {
+            if (k >= 0) {
+                anzahlJeKosten[k]++;
+            }
+        }
+        // Alle Verträge unter der Grenze, von denen an der Grenze nur so viele, wie das Budget noch trägt
+        int grenze = 1;
+        long rest = budget;
+        long anGrenze = 0;
+        for (; grenze <= MAX_PUNKTE; grenze++) {
+            if (anzahlJeKosten[grenze] * grenze > rest) {
+                anGrenze = rest / grenze;
+                break;
+            }
+            rest -= anzahlJeKosten[grenze] * grenze;
+        }
+
+        int[] punkte = new int[anzahl];
+        for (int i = 0; i < anzahl; i++) {
+            int k = kosten[i];
+            if (k >= 0 && (k < grenze || k == grenze && anGrenze-- > 0)) {
+                punkte[i] = k;
+            }
+        }
+        return punkte;
+    }
+
+    private int[] verteileAufAbweichung(long[] luecken, long[] teuer, long[] guenstig, long budget) {
+        int[] punkte = new int[luecken.length];
+        long grenze = 1;
+        if (anzahlPunkte(luecken, teuer, guenstig, 1) > budget) {
+            // Kleinste Grenzersparnis, bei der alle Punkte mit mindestens dieser Ersparnis ins Budget passen
+            long unten = 2;
+            long oben = 1;
+            for (long praemie : teuer) {
+                oben = Math.max(oben, praemie + 1);
+            }
+            while (unten < oben) {
+                long mitte = (unten + oben) >>> 1;
+                if (anzahlPunkte(luecken, teuer, guenstig, mitte) <= budget) {
+                    oben = mitte;
+                } else {
+                    unten = mitte + 1;
+                }
+            }
+            grenze = unten;
+        }
+
+        long ersparnisGrenze = grenze;
+        long vergeben = inBloecken(luecken.length, (von, bis) -> {
+            long summe = 0;
+            for (int i = von; i < bis; i++) {
+                punkte[i] = luecken[i] > 0 ? punkte(luecken[i], teuer[i], guenstig[i], ersparnisGrenze) : 0;
+                summe += punkte[i];
+            }
+            return summe;
+        });
+
+        // Restbudget für Punkte mit der nächstkleineren Ersparnis, in Eingabereihenfolge
+        long rest = budget - vergeben;
+        for (int i = 0; i < luecken.length && rest > 0 && grenze > 1; i++) {
+            if (luecken[i] > 0) {
+                int weitere = punkte(luecken[i], teuer[i], guenstig[i], grenze - 1) - punkte[i];
+                int genommen = (int) Math.min(weitere, rest);
+                punkte[i] += genommen;
+                rest -= genommen;
+            }
+        }
+        return punkte;
+    }
+
+    private long anzahlPunkte(long[] luecken, long[] teuer, long[] guenstig, long mindestersparnis) {
+        return inBloecken(luecken.length, (von, bis) -> {
+            long summe = 0;
+            for (int i = von; i < bis; i++) {
+                if (luecken[i] > 0) {
+                    summe += punkte(luecken[i], teuer[i], guenstig[i], mindestersparnis);
+                }
+            }
+            return summe;
+        });
+    }
+
+    /**
+     * Anzahl der Rabattpunkte eines Vertrags, die jeweils mindestens {@code mindestersparnis} Hundertstel-Cent sparen.
+     * Ein voller Punkt spart die Prämie des Produkts in Cent, der letzte Punkt vor dem Zielbeitrag nur den Rest der
+     * Lücke; mit {@code mindestersparnis = 1} ist das die minimale Rabattsumme für den Zielbeitrag.
+     *
+     * @param luecke benötigte Ersparnis in Hundertstel-Cent, positiv
+     */
+    static int punkte(long luecke, long teuer, long guenstig, long mindestersparnis) {
+        if (teuer < mindestersparnis) {
+            return 0;
+        }
+        int volle = (int) Math.min(MAX_RABATT, luecke / teuer);
+        if (volle < MAX_RABATT) {
+            return volle + (luecke - volle * teuer >= mindestersparnis ? 1 : 0);
+        }
+        long rest = luecke - MAX_RABATT * teuer;
+        if (rest <= 0 || guenstig < mindestersparnis) {
+            return MAX_RABATT;
+        }
+        int volleGuenstig = (int) Math.min(MAX_RABATT, rest / guenstig);
+        if (volleGuenstig < MAX_RABATT) {
+            return MAX_RABATT + volleGuenstig + (rest - volleGuenstig * guenstig >= mindestersparnis ? 1 : 0);
+        }
+        return MAX_PUNKTE;
+    }
+
+    @FunctionalInterface
+    private interface Block {
+        long bearbeite(int von, int bis);
+    }
+
+    private long inBloecken(int anzahl, Block block) {
+        var bloecke = new ArrayList<Callable<Long>>();
+        for (int start = 0; start < anzahl; start += BLOCKGROESSE) {
+            int von = start;
+            int bis = Math.min(start + BLOCKGROESSE, anzahl);
+            bloecke.add(() -> block.bearbeite(von, bis));
+        }
+        long summe = 0;
+        for (Future<Long> ergebnis : pool.invokeAll(bloecke)) {
+            summe += warteAuf(ergebnis);
+        }
+        return summe;
+    }
+
+    private static long warteAuf(Future<Long> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Optimierung unterbrochen", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Optimierung fehlgeschlagen", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+}
@@ -0,0 +1,204 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.model.Produkt;
+import com.pfefferminzia.kfz.model.Tarifierung;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rabattkontingente der Makler: Jeder vergebene Rabattpunkt (Prozentpunkt auf einem Baustein) wird gegen das
+ * Kontingent des Maklers gebucht.
+ * <p>
+ * Eine Tarifierung reserviert ihre Punkte, sobald die Rabatte feststehen, und bucht sie bei Abschluss
+ * ({@link Reservierung#buche()}) oder gibt sie wieder frei ({@link Reservierung#freigeben()}). Es gibt keine
+ * globale Sperre: Jeder Makler hat ein eigenes Konto, reserviert wird per Compare-and-Set auf dessen freien Punkten.
+ * Konkurrierende Anfragen verschiedener Makler berühren sich nicht, die eines Maklers überziehen das Kontingent nie.
+ * <p>
+ * Mit einem {@link KontingentJournal} werden Gutschriften und gebuchte Punkte dauerhaft protokolliert und beim
+ * Erzeugen aus dem Journal wiederhergestellt.
+ */
+public class RabattKontingent {
+
+    private final ConcurrentHashMap<String, Konto> konten = new ConcurrentHashMap<>();
+
+    private final KontingentJournal journal;
+
+    public RabattKontingent() {
+        this.journal = null;
+    }
+
+    /**
+     * Übernimmt die Stände aus dem Journal und protokolliert alle weiteren Gutschriften und Buchungen darin.
+     */
+    public RabattKontingent(KontingentJournal journal) {
+        this.journal = journal;
+        journal.getStaende().forEach((makler, stand) -> {
+            Konto konto = konto(makler);
+            konto.frei.set(stand.frei());
+            konto.verbraucht.set(stand.verbraucht());
+        });
+    }
+
+    /**
+     * Schreibt dem Makler Punkte gut; das Konto wird beim ersten Aufruf angelegt.
+     */
+    public void gutschreiben(String makler, long punkte) {
+        if (punkte < 0) {
+            throw new IllegalArgumentException("Gutschrift darf nicht negativ sein");
+        }
+        if (journal != null) {
+            journal.gutschrift(makler, punkte);
+        }
+        konto(makler).frei.addAndGet(punkte);
+    }
+
+    /**
+     * Reserviert die Rabattpunkte einer Tarifierung, d.h. die Summe der Rabatte ihrer Bausteine.
+     *
+     * @throws PlausiException wenn der Makler kein Konto hat oder das Kontingent nicht ausreicht
+     */
+    public Reservierung reserviere(String makler, Tarifierung tarifierung) {
+        return reserviere(makler, punkte(tarifierung));
+    }
+
+    /**
+     * @throws PlausiException wenn der Makler kein Konto hat oder das Kontingent nicht ausreicht
+     */
+    public Reservierung reserviere(String makler, long punkte) {
+        Konto konto = konten.get(makler);
+        // Ein erschöpftes Kontingent ist kein Ausnahmefall: ohne Stacktrace und Konsolenausgabe
+        if (konto == null) {
+            throw PlausiException.ohneStacktrace(() -> List.of(Fehlercode.MAKLER_OHNE_KONTINGENT.formatiere(makler)));
+        }
+        Reservierung reservierung = konto.reserviere(punkte);
+        if (reservierung == null) {
+            long frei = konto.frei.get();
+            throw PlausiException.ohneStacktrace(() -> List.of(
+                Fehlercode.RABATTKONTINGENT_ERSCHOEPFT.formatiere(makler, punkte, frei)));
+        }
+        return reservierung;
+    }
+
+    /**
+     * Wie {@link #reserviere(String, long)}, liefert bei fehlendem Konto oder erschöpftem Kontingent aber
+     * {@code null} statt einer Exception.
+     */
+    public Reservierung tryReserviere(String makler, long punkte) {
+        Konto konto = konten.get(makler);
+        return konto != null ? konto.reserviere(punkte) : null;
+    }
+
+    /**
+     * Momentaufnahme des Kontos, {@code null} für unbekannte Makler. Die drei Werte werden einzeln gelesen
+     * und sind unter laufenden Reservierungen nicht zwingend zueinander konsistent.
+     */
+    public Kontostand getKontostand(String makler) {
+        Konto konto = konten.get(makler);
+        return konto == null ? null
+            : new Kontostand(konto.frei.get(), konto.reserviert.get(), konto.verbraucht.get());
+    }
+
+    public static long punkte(Tarifierung tarifierung) {
+        long punkte = tarifierung.getHaftpflicht().getRabatt()
+            + (tarifierung.getKasko() != null ? tarifierung.getKasko().getRabatt() : 0);
+        for (Produkt baustein : tarifierung.getZusatzbausteine()) {
+            punkte += baustein.getRabatt();
+        }
+        return punkte;
+    }
+
+    private Konto konto(String makler) {
+        return konten.computeIfAbsent(makler, m -> new Konto(m, journal));
+    }
+
+    public record Kontostand(long frei, long reserviert, long verbraucht) {
+    }
+
+    /**
+     * Vorgemerkte Punkte einer Tarifierung. Genau einer der Abschlüsse {@link #buche()} oder {@link #freigeben()}
+     * wirkt, weitere Aufrufe liefern {@code false}. Mit Journal kehrt {@link #buche()} je nach
+     * {@link KontingentJournal.Bestaetigung} erst nach dem fsync zurück; scheitert das Journal, bleibt die
+     * Reservierung offen.
+     */
+    public static final class Reservierung {
+
+        private static final int OFFEN = 0;
+        private static final int GEBUCHT = 1;
+        private static final int FREIGEGEBEN = 2;
+
+        private final Konto konto;
+        private final long punkte;
+        private final AtomicInteger zustand = new AtomicInteger(OFFEN);
+
+        private Reservierung(Konto konto, long punkte) {
+            this.konto = konto;
+            this.punkte = punkte;
+        }
+
+        public long getPunkte() {
+            return punkte;
+        }
+
+        public boolean buche() {
+            if (!zustand.compareAndSet(OFFEN, GEBUCHT)) {
+                return false;
+            }
+            if (konto.journal != null) {
+                try {
+                    konto.journal.verbrauch(konto.makler, punkte);
+                } catch (RuntimeException e) {
+                    // Nicht protokolliert heißt nicht gebucht: Die Reservierung bleibt offen für einen neuen Versuch
+                    // oder die Freigabe
+                    zustand.set(OFFEN);
+                    throw e;
+                }
+            }
+            konto.reserviert.addAndGet(-punkte);
+            konto.verbraucht.addAndGet(punkte);
+            return true;
+        }
+
+        public boolean freigeben() {
+            if (!zustand.compareAndSet(OFFEN, FREIGEGEBEN)) {
+                return false;
+            }
+            konto.reserviert.addAndGet(-punkte);
+            konto.frei.addAndGet(punkte);
+            return true;
+        }
+    }
+
+    private static final class Konto {
+
+        final String makler;
+        final KontingentJournal journal;
+        final AtomicLong frei = new AtomicLong();
+        final AtomicLong reserviert = new AtomicLong();
+        final AtomicLong verbraucht = new AtomicLong();
+
+        Konto(String makler, KontingentJournal journal) {
+            this.makler = makler;
+            this.journal = journal;
+        }
+
+        Reservierung reserviere(long punkte) {
+            if (punkte < 0) {
+                throw new IllegalArgumentException("Punkte dürfen nicht negativ sein");
+            }
+            long aktuell;
+            do {
+                aktuell = frei.get();
+                if (aktuell < punkte) {
+                    return null;
+                }
+            } while (!frei.compareAndSet(aktuell, aktuell - punkte));
+            reserviert.addAndGet(punkte);
+            return new Reservierung(this, punkte);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Produkt;
+import com.pfefferminzia.kfz.model.TarifKern;
+import com.pfefferminzia.kfz.model.Tarifierung;
+
+import java.util.List;
+
+/**
+ * Prüft die Constraints von {@link Tarifierung} und {@link Produkt} direkt im Code, ohne Reflection
+ * und ohne Bean-Validation-Metadaten. Die Regeln entsprechen den Annotationen an den Modellklassen:
+ * <ul>
+ *     <li>{@code Tarifierung.zielbeitrag}: {@code @Positive}</li>
+ *     <li>{@code Tarifierung.haftpflicht}: {@code @NotNull @Valid}</li>
+ *     <li>{@code Tarifierung.kasko}: {@code @Valid}</li>
+ *     <li>{@code Tarifierung.zusatzbausteine}: {@code List<@Valid Produkt>}, ohne Haftpflicht und Kasko
+ *     ({@code @AssertTrue}, sonst {@link Fehlercode#ZUSATZBAUSTEIN_ART_UNZULAESSIG})</li>
+ *     <li>{@code Produkt.praemie}: {@code @Positive}</li>
+ *     <li>{@code Produkt.rabatt}: {@code @Min(0) @Max(99)}</li>
+ *     <li>{@code Tarifierung.zielbeitrag} und {@code Produkt.praemie}: {@code @DecimalMin @DecimalMax} im Bereich von
+ *     {@link TarifKern#istImBereich(double)}, sonst {@link Fehlercode#BETRAG_AUSSERHALB_BEREICH}</li>
+ * </ul>
+ * Das Ergebnis ist eine Fehlermaske aus {@link Fehlercode#bit()}; im Erfolgsfall wird nichts allokiert.
+ */
+public final class TarifierungValidator {
+
+    /** Fehlercodes je Bausteinart, Index aus {@link #art(int, boolean)}. */
+    private static final Fehlercode[] PRAEMIE_NICHT_POSITIV = {Fehlercode.HAFTPFLICHT_PRAEMIE_NICHT_POSITIV,
+        Fehlercode.KASKO_PRAEMIE_NICHT_POSITIV, Fehlercode.ZUSATZBAUSTEIN_PRAEMIE_NICHT_POSITIV};
+    private static final Fehlercode[] RABATT_NEGATIV = {Fehlercode.HAFTPFLICHT_RABATT_NEGATIV,
+        Fehlercode.KASKO_RABATT_NEGATIV, Fehlercode.ZUSATZBAUSTEIN_RABATT_NEGATIV};
+    private static final Fehlercode[] RABATT_ZU_HOCH = {Fehlercode.HAFTPFLICHT_RABATT_ZU_HOCH,
+        Fehlercode.KASKO_RABATT_ZU_HOCH, Fehlercode.ZUSATZBAUSTEIN_RABATT_ZU_HOCH};
+
+    private TarifierungValidator() {
+    }
+
+    public static int pruefe(Tarifierung tarifierung) {
+        return pruefe(tarifierung.getZielbeitrag(), tarifierung.getHaftpflicht(), tarifierung.getKasko())
+            | pruefeZusatzbausteine(tarifierung.getZusatzbausteine());
+    }
+
+    /**
+     * Prüft die Eingaben einer Tarifierung, bevor sie konstruiert wird.
+     */
+    public static int pruefe(Double zielbeitrag, Haftpflicht haftpflicht, Kasko kasko) {
+        int maske = 0;
+
+        if (zielbeitrag != null) {
+            maske |= pruefeZielbeitrag(zielbeitrag);
+        }
+
+        return maske | pruefeBausteine(haftpflicht, kasko);
+    }
+
+    public static int pruefeZielbeitrag(double zielbeitrag) {
+        return (zielbeitrag > 0 ? 0 : Fehlercode.ZIELBEITRAG_NICHT_POSITIV.bit()) | pruefeBetrag(zielbeitrag);
+    }
+
+    /**
+     * Prüft nur die Produktbausteine, ohne Zielbeitrag.
+     */
+    public static int pruefeBausteine(Haftpflicht haftpflicht, Kasko kasko) {
+        int maske = 0;
+
+        if (haftpflicht == null) {
+            maske |= Fehlercode.HAFTPFLICHT_FEHLT.bit();
+        } else {
+            maske |= pruefeProdukt(haftpflicht,
+                Fehlercode.HAFTPFLICHT_PRAEMIE_NICHT_POSITIV,
+                Fehlercode.HAFTPFLICHT_RABATT_NEGATIV,
+                Fehlercode.HAFTPFLICHT_RABATT_ZU_HOCH);
+        }
+
+        if (kasko != null) {
+            maske |= pruefeProdukt(kasko,
+                Fehlercode.KASKO_PRAEMIE_NICHT_POSITIV,
+                Fehlercode.KASKO_RABATT_NEGATIV,
+                Fehlercode.KASKO_RABATT_ZU_HOCH);
+        }
+
+        return maske;
+    }
+
+    public static int pruefeZusatzbausteine(List<? extends Produkt> zusatzbausteine) {
+        int maske = 0;
+        for (int i = 0; i < zusatzbausteine.size(); i++) {
+            Produkt baustein = zusatzbausteine.get(i);
+            if (!istZusatzbaustein(baustein)) {
+                maske |= Fehlercode.ZUSATZBAUSTEIN_ART_UNZULAESSIG.bit();
+            }
+            maske |= pruefeProdukt(baustein,
+                Fehlercode.ZUSATZBAUSTEIN_PRAEMIE_NICHT_POSITIV,
+                Fehlercode.ZUSATZBAUSTEIN_RABATT_NEGATIV,
+                Fehlercode.ZUSATZBAUSTEIN_RABATT_ZU_HOCH);
+        }
+        return maske;
+    }
+
+    /**
+     * Haftpflicht und Kasko (auch Teil- und Vollkasko) haben in der Tarifierung einen festen Platz; als
+     * Zusatzbaustein würden sie doppelt tarifiert.
+     */
+    public static boolean istZusatzbaustein(Produkt baustein) {
+        return !(baustein instanceof Haftpflicht) && !(baustein instanceof Kasko);
+    }
+
+    /**
+     * Prüft nur die Prämie eines Bausteins, etwa nach einer einzelnen Änderung.
+     */
+    public static int pruefePraemie(double praemie, Fehlercode praemieNichtPositiv) {
+        return praemie > 0 ? 0 : praemieNichtPositiv.bit();
+    }
+
+    /**
+     * Prüft nur den Rabatt eines Bausteins, etwa nach einer einzelnen Änderung.
+     */
+    public static int pruefeRabatt(int rabatt, Fehlercode rabattNegativ, Fehlercode rabattZuHoch) {
+        return (rabatt < 0 ? rabattNegativ.bit() : 0) | (rabatt > 99 ? rabattZuHoch.bit() : 0);
+    }
+
+    /**
+     * Wie {@link #pruefePraemie(double, Fehlercode)} für den Baustein mit dem Index {@code baustein}: {@code 0} ist die
+     * Haftpflicht, {@code 1} die Kasko, sofern vorhanden, alle weiteren sind Zusatzbausteine. Prüft zusätzlich den
+     * Bereich der Prämie in Euro.
+     */
+    public static int pruefePraemie(int baustein, boolean mitKasko, double praemie) {
+        return pruefePraemie(praemie, PRAEMIE_NICHT_POSITIV[art(baustein, mitKasko)]) | pruefeBetrag(praemie);
+    }
+
+    /**
+     * Wie {@link #pruefeRabatt(int, Fehlercode, Fehlercode)} für den Baustein mit dem Index {@code baustein}, siehe
+     * {@link #pruefePraemie(int, boolean, double)}.
+     */
+    public static int pruefeRabatt(int baustein, boolean mitKasko, int rabatt) {
+        int art = art(baustein, mitKasko);
+        return pruefeRabatt(rabatt, RABATT_NEGATIV[art], RABATT_ZU_HOCH[art]);
+    }
+
+    private static int art(int baustein, boolean mitKasko) {
+        return baustein == 0 ? 0 : baustein == 1 && mitKasko ? 1 : 2;
+    }
+
+    /**
+     * Nicht endliche und zu große Beträge würden die Summen in Hundertstel-Cent überlaufen lassen.
+     */
+    private static int pruefeBetrag(double betrag) {
+        return TarifKern.istImBereich(betrag) ? 0 : Fehlercode.BETRAG_AUSSERHALB_BEREICH.bit();
+    }
+
+    private static int pruefeProdukt(Produkt produkt, Fehlercode praemieNichtPositiv,
+                                     Fehlercode rabattNegativ, Fehlercode rabattZuHoch) {
+        int maske = pruefePraemie(produkt.getPraemie(), praemieNichtPositiv) | pruefeBetrag(produkt.getPraemie());
+        if (produkt.getRabatt() < 0) {
+            maske |= rabattNegativ.bit();
+        }
+        if (produkt.getRabatt() > 99) {
+            maske |= rabattZuHoch.bit();
+        }
+        return maske;
+    }
+}
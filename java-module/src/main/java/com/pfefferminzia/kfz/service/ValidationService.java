@@ -1,39 +1,134 @@
 package com.pfefferminzia.kfz.service;
 
+import com.pfefferminzia.kfz.common.Fehlercode;
 import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.metrik.TarifMetriken;
+import com.pfefferminzia.kfz.model.Tarifierung;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import org.hibernate.validator.HibernateValidator;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 
 public class ValidationService {
-    
-    private static final Validator validator;
-    
-    static {
-        try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
-            validator = factory.getValidator();
+
+    /**
+     * Art der Validierung. {@code JAKARTA} prüft über Hibernate Validator, {@code DIREKT} prüft
+     * Tarifierungen über den {@link TarifierungValidator} ohne Reflection und mit denselben Meldungen.
+     */
+    public enum Modus {
+        JAKARTA,
+        DIREKT
+    }
+
+    /** System-Property zur Auswahl des Modus beim Start, z.B. {@code -Dkfz.validierung=direkt}. */
+    public static final String MODUS_PROPERTY = "kfz.validierung";
+
+    /**
+     * System-Property für den Schnellstart: Mit {@code -Dkfz.validierung.el=false} interpoliert Hibernate Validator
+     * die Meldungen ohne Expression Language und ohne {@code validation.xml}. Die Meldungen der Constraints sind
+     * feste Texte, das Ergebnis ist dasselbe.
+     */
+    public static final String EL_PROPERTY = "kfz.validierung.el";
+
+    private static volatile Modus modus = modus(System.getProperty(MODUS_PROPERTY));
+
+    public static Modus getModus() {
+        return modus;
+    }
+
+    public static void setModus(Modus modus) {
+        ValidationService.modus = modus;
+    }
+
+    /**
+     * Ein unbekannter Wert von {@value #MODUS_PROPERTY} darf die Klasse nicht unbenutzbar machen – eine Exception im
+     * statischen Initialisierer hinterließe nur {@code NoClassDefFoundError}s. Es bleibt dann bei {@code JAKARTA},
+     * mit einer Meldung auf System.err.
+     */
+    static Modus modus(String wert) {
+        if (wert == null) {
+            return Modus.JAKARTA;
+        }
+        try {
+            return Modus.valueOf(wert.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unbekannter Wert für -D" + MODUS_PROPERTY + ": '" + wert + "', erlaubt sind "
+                + Arrays.toString(Modus.values()) + ". Es wird " + Modus.JAKARTA + " verwendet.");
+            return Modus.JAKARTA;
         }
     }
 
     public static <T> void validate(T object) {
-        Set<ConstraintViolation<T>> violations = validator.validate(object);
+        long start = TarifMetriken.start();
+        try {
+            pruefe(object);
+        } finally {
+            TarifMetriken.validierung(start);
+        }
+    }
+
+    private static <T> void pruefe(T object) {
+        if (modus == Modus.DIREKT && object instanceof Tarifierung tarifierung) {
+            int fehlerMaske = TarifierungValidator.pruefe(tarifierung);
+            if (fehlerMaske != 0) {
+                TarifMetriken.plausiFehler(fehlerMaske);
+                throw new PlausiException(Fehlercode.meldungen(fehlerMaske));
+            }
+            return;
+        }
+
+        Set<ConstraintViolation<T>> violations = ValidatorHalter.VALIDATOR.validate(object);
         
         if (!violations.isEmpty()) {
             List<String> fehler = violations.stream()
                 .map(ValidationService::formatFehler)
+                .distinct()
                 .toList();
             
+            TarifMetriken.plausiFehler(fehler);
             throw new PlausiException(fehler);
         }
     }
     
+    /**
+     * Lädt Hibernate Validator erst beim ersten Jakarta-Aufruf. Im Modus {@code DIREKT} und über
+     * {@code Tarifierung.tryCreate} wird die Factory nie erzeugt.
+     * <p>
+     * Von allen Threads gemeinsam genutzt: Validator-Instanzen sind laut Jakarta-Validation-Spezifikation
+     * threadsicher. Die Factory bleibt dafür bis zum Ende der JVM geöffnet, denn die Nutzung eines
+     * Validators nach {@code ValidatorFactory.close()} ist von der Spezifikation nicht gedeckt.
+     */
+    private static final class ValidatorHalter {
+
+        static final Validator VALIDATOR = erzeugeValidator();
+
+        private static Validator erzeugeValidator() {
+            if (Boolean.parseBoolean(System.getProperty(EL_PROPERTY, "true"))) {
+                return Validation.buildDefaultValidatorFactory().getValidator();
+            }
+            return Validation.byProvider(HibernateValidator.class)
+                .configure()
+                .ignoreXmlConfiguration()
+                .messageInterpolator(new ParameterMessageInterpolator())
+                .buildValidatorFactory()
+                .getValidator();
+        }
+    }
+
     private static <T> String formatFehler(ConstraintViolation<T> violation) {
         String propertyPath = violation.getPropertyPath().toString();
         String message = violation.getMessage();
+
+        // Bereichsprüfung von Prämien und Zielbeitrag: eine Meldung für alle Bausteine
+        if (message.equals(Fehlercode.BETRAG_AUSSERHALB_BEREICH.getMeldung())) {
+            return message;
+        }
         
         // Formatierung für verschachtelte Objekte
         if (propertyPath.contains(".")) {
@@ -41,9 +136,16 @@ public class ValidationService {
             String objectName = parts[0];
             String fieldName = parts[1];
             
+            // Listenelemente erscheinen als "zusatzbausteine[2]"
+            int index = objectName.indexOf('[');
+            if (index >= 0) {
+                objectName = objectName.substring(0, index);
+            }
+            
             return switch (objectName) {
                 case "haftpflicht" -> formatHaftpflichtFehler(fieldName, message);
                 case "kasko" -> formatKaskoFehler(fieldName, message);
+                case "zusatzbausteine" -> formatZusatzbausteinFehler(fieldName, message);
                 default -> message;
             };
         }
@@ -78,4 +180,14 @@ public class ValidationService {
             default -> message;
         };
     }
+    
+    private static String formatZusatzbausteinFehler(String field, String message) {
+        return switch (field) {
+            case "praemie" -> Fehlercode.ZUSATZBAUSTEIN_PRAEMIE_NICHT_POSITIV.getMeldung();
+            case "rabatt" -> message.contains("negativ")
+                ? Fehlercode.ZUSATZBAUSTEIN_RABATT_NEGATIV.getMeldung()
+                : Fehlercode.ZUSATZBAUSTEIN_RABATT_ZU_HOCH.getMeldung();
+            default -> message;
+        };
+    }
 }
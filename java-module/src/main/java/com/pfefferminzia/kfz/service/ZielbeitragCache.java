@@ -0,0 +1,61 @@
+package com.pfefferminzia.kfz.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.pfefferminzia.kfz.model.Rabatte;
+
+import java.time.Duration;
+
+/**
+ * Größen- und zeitbegrenzter Cache für berechnete Zielbeitrag-Rabatte.
+ * <p>
+ * Schlüssel sind die auf ganze Cent normalisierten Eingaben, mit denen auch der {@link ZielbeitragService}
+ * rechnet – ein Treffer liefert daher exakt dasselbe Ergebnis wie eine neue Berechnung. Nicht erreichbare
+ * Zielbeiträge werden nicht gespeichert. Der Cache ist threadsicher und kann von beliebig vielen
+ * Anfrage-Threads gleichzeitig genutzt werden. Er deckt nur Tarifierungen aus Haftpflicht und Kasko ab; mit
+ * Zusatzbausteinen rechnet der Service an Cache und konfiguriertem {@link ZielbeitragLoeser} vorbei.
+ */
+public class ZielbeitragCache {
+
+    public record Statistik(long treffer, long fehlschlaege, long verdraengungen, long eintraege) {
+
+        public double trefferquote() {
+            long anfragen = treffer + fehlschlaege;
+            return anfragen == 0 ? 1.0 : (double) treffer / anfragen;
+        }
+    }
+
+    private record Schluessel(long haftpflichtCent, long kaskoCent, long zielCent) {
+    }
+
+    private final Cache<Schluessel, Rabatte> cache;
+
+    public ZielbeitragCache(long maximaleGroesse, Duration gueltigkeit) {
+        this.cache = CacheBuilder.newBuilder()
+            .maximumSize(maximaleGroesse)
+            .expireAfterWrite(gueltigkeit)
+            .recordStats()
+            .build();
+    }
+
+    Rabatte berechneRabatte(long zielCent, long haftpflichtCent, long kaskoCent, double zielbeitrag) {
+        var schluessel = new Schluessel(haftpflichtCent, kaskoCent, zielCent);
+        Rabatte rabatte = cache.getIfPresent(schluessel);
+        if (rabatte == null) {
+            // Parallele Fehlschläge für denselben Schlüssel berechnen dasselbe Ergebnis, daher ohne Sperre
+            rabatte = ZielbeitragService.loese(zielCent, haftpflichtCent, kaskoCent, zielbeitrag);
+            cache.put(schluessel, rabatte);
+        }
+        return rabatte;
+    }
+
+    public Statistik getStatistik() {
+        CacheStats stats = cache.stats();
+        return new Statistik(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.size());
+    }
+
+    public void leeren() {
+        cache.invalidateAll();
+    }
+}
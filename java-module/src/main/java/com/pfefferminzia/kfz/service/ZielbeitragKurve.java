@@ -0,0 +1,170 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Rabatte;
+import com.pfefferminzia.kfz.model.TarifKern;
+
+import java.util.Arrays;
+
+/**
+ * Alle optimalen Rabatte eines Prämienpaars, einmal vorberechnet – für Oberflächen, die den Zielbeitrag für dieselbe
+ * Haftpflicht und Kasko immer wieder neu setzen (Schieberegler).
+ * <p>
+ * Der {@link ZielbeitragService} rabattiert zuerst das teurere Produkt bis 99 % und erst danach das günstigere. Die
+ * optimalen Rabatte durchlaufen mit sinkendem Zielbeitrag also höchstens 199 Paare, und jedes Paar ist die Lösung für
+ * ein zusammenhängendes Intervall von Zielbeiträgen. Die Kurve speichert je Paar die Untergrenze dieses Intervalls,
+ * die Nettoprämie und beide Rabatte in aufsteigend sortierten primitiven Arrays; eine Abfrage ist eine binäre Suche
+ * über höchstens 199 Untergrenzen und liefert exakt das Ergebnis des Service. Paare, die für keinen ganzen
+ * Cent-Betrag optimal sind, werden nicht gespeichert.
+ * <p>
+ * Schneller als die Berechnung ist eine einzelne Abfrage nicht, der Service löst ein Prämienpaar ohnehin mit zwei
+ * Divisionen. Die Kurve lohnt sich, wenn die Oberfläche die erreichbaren Nettoprämien selbst braucht, etwa als
+ * Raststufen des Reglers, und für Abfragen ohne Allokation über {@link #punkt(long)}.
+ * <p>
+ * Die Kurve ist unveränderlich und kann von beliebig vielen Threads gleichzeitig abgefragt werden.
+ */
+public final class ZielbeitragKurve {
+
+    private static final int MAX_PUNKTE = 2 * ZielbeitragService.MAX_RABATT + 1;
+
+    private final long gesamtpraemieCent;
+    /** Kleinster Zielbeitrag in Cent, für den der Punkt die Lösung ist, streng aufsteigend. */
+    private final long[] untergrenzeCent;
+    private final long[] nettopraemieCent;
+    private final byte[] haftpflichtRabatt;
+    private final byte[] kaskoRabatt;
+
+    private ZielbeitragKurve(long gesamtpraemieCent, long[] untergrenzeCent, long[] nettopraemieCent,
+                             byte[] haftpflichtRabatt, byte[] kaskoRabatt) {
+        this.gesamtpraemieCent = gesamtpraemieCent;
+        this.untergrenzeCent = untergrenzeCent;
+        this.nettopraemieCent = nettopraemieCent;
+        this.haftpflichtRabatt = haftpflichtRabatt;
+        this.kaskoRabatt = kaskoRabatt;
+    }
+
+    /**
+     * @param kasko {@code null} für eine Tarifierung ohne Kasko
+     */
+    public static ZielbeitragKurve berechne(Haftpflicht haftpflicht, Kasko kasko) {
+        return berechneCent(haftpflicht.getPraemieCent(), kasko != null ? kasko.getPraemieCent() : 0);
+    }
+
+    /**
+     * @param kaskoCent Prämie der Kasko oder {@code 0} für eine Tarifierung ohne Kasko
+     * @throws IllegalArgumentException wenn die Haftpflichtprämie nicht positiv oder die Kaskoprämie negativ ist
+     */
+    public static ZielbeitragKurve berechneCent(long haftpflichtCent, long kaskoCent) {
+        if (haftpflichtCent <= 0 || kaskoCent < 0) {
+            throw new IllegalArgumentException(
+                "Ungültige Prämien: Haftpflicht " + haftpflichtCent + " Cent, Kasko " + kaskoCent + " Cent");
+        }
+        long gesamtCent = haftpflichtCent + kaskoCent;
+        boolean haftpflichtZuerst = haftpflichtCent >= kaskoCent;
+        long teuer = haftpflichtZuerst ? haftpflichtCent : kaskoCent;
+        long guenstig = haftpflichtZuerst ? kaskoCent : haftpflichtCent;
+
+        long[] untergrenze = new long[MAX_PUNKTE];
+        long[] netto = new long[MAX_PUNKTE];
+        byte[] rabattHaftpflicht = new byte[MAX_PUNKTE];
+        byte[] rabattKasko = new byte[MAX_PUNKTE];
+
+        // Paare in der Reihenfolge steigender Ersparnis, gefüllt von hinten, damit die Untergrenzen aufsteigen
+        int frei = MAX_PUNKTE;
+        int schritte = guenstig > 0 ? MAX_PUNKTE : ZielbeitragService.MAX_RABATT + 1;
+        for (int schritt = 0; schritt < schritte; schritt++) {
+            int rabattTeuer = Math.min(schritt, ZielbeitragService.MAX_RABATT);
+            int rabattGuenstig = schritt - rabattTeuer;
+            long ersparnis = teuer * rabattTeuer + guenstig * rabattGuenstig;
+            long grenze = gesamtCent - ZielbeitragService.TOLERANZ_CENT - ersparnis / 100;
+            if (frei < MAX_PUNKTE && grenze == untergrenze[frei]) {
+                // ein Paar mit weniger Rabattpunkten erreicht dieselben Zielbeiträge
+                continue;
+            }
+            frei--;
+            int rabattH = haftpflichtZuerst ? rabattTeuer : rabattGuenstig;
+            int rabattK = haftpflichtZuerst ? rabattGuenstig : rabattTeuer;
+            untergrenze[frei] = grenze;
+            netto[frei] = TarifKern.nettopraemieCent(haftpflichtCent, rabattH, kaskoCent, rabattK);
+            rabattHaftpflicht[frei] = (byte) rabattH;
+            rabattKasko[frei] = (byte) rabattK;
+        }
+
+        return new ZielbeitragKurve(gesamtCent,
+            Arrays.copyOfRange(untergrenze, frei, MAX_PUNKTE),
+            Arrays.copyOfRange(netto, frei, MAX_PUNKTE),
+            Arrays.copyOfRange(rabattHaftpflicht, frei, MAX_PUNKTE),
+            Arrays.copyOfRange(rabattKasko, frei, MAX_PUNKTE));
+    }
+
+    /**
+     * @throws PlausiException wenn der Zielbeitrag auch mit maximalen Rabatten nicht erreichbar ist
+     */
+    public Rabatte rabatte(double zielbeitrag) {
+        return rabatte(punktFuer(TarifKern.zuCent(zielbeitrag), zielbeitrag));
+    }
+
+    /**
+     * @throws PlausiException wenn der Zielbeitrag auch mit maximalen Rabatten nicht erreichbar ist
+     */
+    public Rabatte rabatteCent(long zielCent) {
+        return rabatte(punktFuer(zielCent, TarifKern.inEuro(zielCent)));
+    }
+
+    /**
+     * Punkt der Kurve für den Zielbeitrag, ohne Exception und ohne Allokation.
+     *
+     * @return Index für {@link #haftpflichtRabatt(int)}, {@link #kaskoRabatt(int)} und {@link #nettopraemieCent(int)}
+     * oder {@code -1}, wenn der Zielbeitrag nicht erreichbar ist
+     */
+    public int punkt(long zielCent) {
+        int index = Arrays.binarySearch(untergrenzeCent, zielCent);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Anzahl der Punkte; Punkt 0 hat die höchsten Rabatte, der letzte Punkt ist die Tarifierung ohne Rabatt.
+     */
+    public int anzahl() {
+        return untergrenzeCent.length;
+    }
+
+    public int haftpflichtRabatt(int punkt) {
+        return haftpflichtRabatt[punkt];
+    }
+
+    public int kaskoRabatt(int punkt) {
+        return kaskoRabatt[punkt];
+    }
+
+    public long nettopraemieCent(int punkt) {
+        return nettopraemieCent[punkt];
+    }
+
+    /**
+     * Kleinster Zielbeitrag in Cent, für den der Punkt die Lösung ist.
+     */
+    public long untergrenzeCent(int punkt) {
+        return untergrenzeCent[punkt];
+    }
+
+    public long getGesamtpraemieCent() {
+        return gesamtpraemieCent;
+    }
+
+    private int punktFuer(long zielCent, double zielbeitrag) {
+        int punkt = punkt(zielCent);
+        if (punkt < 0) {
+            throw ZielbeitragService.nichtErreichbar(zielbeitrag, gesamtpraemieCent);
+        }
+        return punkt;
+    }
+
+    private Rabatte rabatte(int punkt) {
+        int haftpflicht = haftpflichtRabatt[punkt];
+        int kasko = kaskoRabatt[punkt];
+        return haftpflicht == 0 && kasko == 0 ? Rabatte.KEINE : new Rabatte(haftpflicht, kasko);
+    }
+}
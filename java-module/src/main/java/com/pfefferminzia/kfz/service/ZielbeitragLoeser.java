@@ -0,0 +1,35 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.model.Rabatte;
+
+/**
+ * Verfahren, mit dem der {@link ZielbeitragService} die Rabatte von Haftpflicht und Kasko für einen Zielbeitrag
+ * bestimmt. Gesucht ist die minimale Rabattsumme; bei mehreren Aufteilungen mit derselben Summe wird das teurere
+ * Produkt (bei gleichen Prämien die Haftpflicht) höher rabattiert, damit alle Verfahren dasselbe Ergebnis liefern.
+ * <p>
+ * Vorprüfungen und Fehlermeldungen bleiben im Service: Ein Löser wird nur aufgerufen, wenn Rabatte nötig sind und
+ * der Zielbeitrag mit höchstens {@value ZielbeitragService#MAX_RABATT} % je Produkt erreichbar ist. Ausgewählt wird
+ * er über {@link ZielbeitragService#setLoeser} oder beim Start per {@code -Dkfz.zielbeitrag.loeser=...}.
+ */
+@FunctionalInterface
+public interface ZielbeitragLoeser {
+
+    /**
+     * @param ersparnis       benötigte Ersparnis in Hundertstel-Cent, also {@code Σ praemieCent * rabatt}, mindestens
+     *                        {@code 1} und höchstens {@code (haftpflichtCent + kaskoCent) * 99}
+     * @param haftpflichtCent Prämie der Haftpflicht in ganzen Cent
+     * @param kaskoCent       Prämie der Kasko in ganzen Cent oder {@code 0} für eine Tarifierung ohne Kasko
+     */
+    Rabatte loese(long ersparnis, long haftpflichtCent, long kaskoCent);
+
+    /**
+     * Lösungsschritte, die {@link #loese} für diese Eingabe gebraucht hat, für die {@code TarifMetriken}. Wird nur
+     * bei eingeschalteten Metriken und nach {@link #loese} aufgerufen; Löser, die ihre Schritte nicht kennen, melden
+     * einen.
+     *
+     * @param rabatte Ergebnis von {@link #loese} für dieselbe Eingabe
+     */
+    default int schritte(long ersparnis, long haftpflichtCent, long kaskoCent, Rabatte rabatte) {
+        return 1;
+    }
+}
@@ -0,0 +1,50 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.model.Rabatte;
+
+/**
+ * Wählt je Eingabe das günstigste {@link ZielbeitragVerfahren}, Standard im {@link ZielbeitragService}. Grundlage sind
+ * die Messungen des {@code ZielbeitragLoeserBenchmark} (Tabelle im README); alle Verfahren liefern dieselben Rabatte.
+ * <ul>
+ *   <li>Nicht erreichbarer Zielbeitrag oder keine Rabatte nötig: kein Löser, das entscheidet der Service vorher.</li>
+ *   <li>Höchstens {@value #ITERATIV_GRENZE} Rabattpunkte auf dem teureren Produkt:
+ *       {@link ZielbeitragVerfahren#ITERATIV}, wenige Additionen sind billiger als eine 64-Bit-Division.</li>
+ *   <li>Sonst {@link ZielbeitragVerfahren#GESCHLOSSEN}, ob nur Haftpflicht, Haftpflicht oder Kasko teurer oder gleiche
+ *       Prämien: eine Division je rabattiertem Produkt. Die Bisektion braucht bis zu 7 abhängige Vergleiche je
+ *       Produkt und ist in keiner Form schneller.</li>
+ * </ul>
+ * Die Schätzung selbst kostet eine Multiplikation.
+ */
+public final class ZielbeitragLoeserAuswahl implements ZielbeitragLoeser {
+
+    public static final ZielbeitragLoeserAuswahl INSTANZ = new ZielbeitragLoeserAuswahl();
+
+    /** Rabattpunkte, bis zu denen die Iteration schneller ist als die Division. */
+    static final int ITERATIV_GRENZE = 4;
+
+    private ZielbeitragLoeserAuswahl() {
+    }
+
+    /**
+     * @param ersparnis benötigte Ersparnis in Hundertstel-Cent wie bei {@link #loese}
+     */
+    public ZielbeitragVerfahren waehle(long ersparnis, long haftpflichtCent, long kaskoCent) {
+        long teuer = Math.max(haftpflichtCent, kaskoCent);
+        return ersparnis <= teuer * ITERATIV_GRENZE ? ZielbeitragVerfahren.ITERATIV : ZielbeitragVerfahren.GESCHLOSSEN;
+    }
+
+    @Override
+    public Rabatte loese(long ersparnis, long haftpflichtCent, long kaskoCent) {
+        return waehle(ersparnis, haftpflichtCent, kaskoCent).loese(ersparnis, haftpflichtCent, kaskoCent);
+    }
+
+    @Override
+    public int schritte(long ersparnis, long haftpflichtCent, long kaskoCent, Rabatte rabatte) {
+        return waehle(ersparnis, haftpflichtCent, kaskoCent).schritte(ersparnis, haftpflichtCent, kaskoCent, rabatte);
+    }
+
+    @Override
+    public String toString() {
+        return "auswahl";
+    }
+}
@@ -0,0 +1,308 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.metrik.TarifMetriken;
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Produkt;
+import com.pfefferminzia.kfz.model.Rabatte;
+import com.pfefferminzia.kfz.model.TarifKern;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Berechnet die minimalen Rabatte, mit denen eine Tarifierung den Zielbeitrag erreicht.
+ * <p>
+ * Gerechnet wird exakt in ganzen Cent: Die Nettoprämie in Hundertstel-Cent ist
+ * {@code Σ praemieCent * (100 - rabatt)} und muss höchstens {@code (zielCent + Toleranz) * 100} betragen.
+ * Daraus folgt die Mindestsumme {@code Σ praemieCent * rabatt}, die über die Rabatte erreicht werden muss.
+ * Jeder Rabattpunkt auf dem teureren Produkt spart mindestens so viel wie einer auf dem günstigeren,
+ * daher wird zuerst das teurere Produkt (bei Gleichstand die Haftpflicht) rabattiert und nur der Rest
+ * über das günstigere. Wie der kleinste ausreichende Rabatt gefunden wird, entscheidet der {@link ZielbeitragLoeser};
+ * standardmäßig wählt {@link ZielbeitragLoeserAuswahl} je Eingabe das günstigste {@link ZielbeitragVerfahren}.
+ * <p>
+ * Für beliebig viele Bausteine gilt dasselbe Verfahren, siehe {@link #berechneRabatte(double, List)}. Wird der
+ * Zielbeitrag für dasselbe Prämienpaar oft neu gesetzt, liefert {@link ZielbeitragKurve} die Rabatte per binärer Suche.
+ */
+public class ZielbeitragService {
+
+    /** Zulässige Abweichung der Nettoprämie über dem Zielbeitrag in Cent (± 0.01 €). */
+    public static final long TOLERANZ_CENT = 1;
+
+    /** Höchster zulässiger Rabatt in Prozentpunkten. */
+    public static final int MAX_RABATT = 99;
+
+    /**
+     * System-Property zur Auswahl des {@link ZielbeitragLoeser}s beim Start, z.B.
+     * {@code -Dkfz.zielbeitrag.loeser=bisektion}; Standard ist {@code auswahl}, siehe {@link ZielbeitragLoeserAuswahl}.
+     */
+    public static final String LOESER_PROPERTY = "kfz.zielbeitrag.loeser";
+
+    private static volatile ZielbeitragLoeser loeser = loeser(System.getProperty(LOESER_PROPERTY));
+
+    /** Optionaler Cache vor der Berechnung, standardmäßig deaktiviert. */
+    private static volatile ZielbeitragCache cache;
+
+    /**
+     * Der Cache gilt nur für Haftpflicht und Kasko. Tarifierungen mit Zusatzbausteinen laufen über
+     * {@link #berechneRabatte(double, List)} und werden immer neu berechnet.
+     */
+    public static void aktiviereCache(ZielbeitragCache zielbeitragCache) {
+        cache = zielbeitragCache;
+    }
+
+    public static void deaktiviereCache() {
+        cache = null;
+    }
+
+    public static ZielbeitragLoeser getLoeser() {
+        return loeser;
+    }
+
+    /**
+     * Setzt das Verfahren für Haftpflicht und Kasko. Tarifierungen mit Zusatzbausteinen umgehen den hier gesetzten
+     * Löser ebenso wie den {@link ZielbeitragCache} und werden immer geschlossen berechnet, siehe
+     * {@link #berechneRabatte(double, List)}.
+     */
+    public static void setLoeser(ZielbeitragLoeser zielbeitragLoeser) {
+        loeser = Objects.requireNonNull(zielbeitragLoeser);
+    }
+
+    /**
+     * Wie beim Modus des {@link ValidationService}: Ein unbekannter Wert von {@value #LOESER_PROPERTY} führt nicht zu
+     * einem {@code ExceptionInInitializerError}, sondern zur {@link ZielbeitragLoeserAuswahl} und einer Meldung auf
+     * System.err.
+     */
+    static ZielbeitragLoeser loeser(String name) {
+        if (name == null || name.trim().equalsIgnoreCase("auswahl")) {
+            return ZielbeitragLoeserAuswahl.INSTANZ;
+        }
+        try {
+            return ZielbeitragVerfahren.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unbekannter Wert für -D" + LOESER_PROPERTY + ": '" + name
+                + "', erlaubt sind auswahl und " + Arrays.toString(ZielbeitragVerfahren.values())
+                + ". Es wird auswahl verwendet.");
+            return ZielbeitragLoeserAuswahl.INSTANZ;
+        }
+    }
+
+    public static Rabatte berechneRabatte(double zielbeitrag, Haftpflicht haftpflicht, Kasko kasko) {
+        return berechneRabatte(TarifKern.zuCent(zielbeitrag), haftpflicht.getPraemieCent(),
+            kasko != null ? kasko.getPraemieCent() : 0, zielbeitrag);
+    }
+
+    /**
+     * @param kaskoPraemie Prämie der Kasko oder {@code 0} für eine Tarifierung ohne Kasko
+     * @throws PlausiException wenn der Zielbeitrag auch mit maximalen Rabatten nicht erreichbar ist
+     */
+    public static Rabatte berechneRabatte(double zielbeitrag, double haftpflichtPraemie, double kaskoPraemie) {
+        return berechneRabatte(TarifKern.zuCent(zielbeitrag), TarifKern.zuCent(haftpflichtPraemie),
+            TarifKern.zuCent(kaskoPraemie), zielbeitrag);
+    }
+
+    /**
+     * Festkomma-Variante ohne Umrechnung, alle Beträge in ganzen Cent.
+     *
+     * @param kaskoCent Prämie der Kasko oder {@code 0} für eine Tarifierung ohne Kasko
+     * @throws PlausiException wenn der Zielbeitrag auch mit maximalen Rabatten nicht erreichbar ist
+     */
+    public static Rabatte berechneRabatteCent(long zielCent, long haftpflichtCent, long kaskoCent) {
+        return berechneRabatte(zielCent, haftpflichtCent, kaskoCent, TarifKern.inEuro(zielCent));
+    }
+
+    private static Rabatte berechneRabatte(long zielCent, long haftpflichtCent, long kaskoCent, double zielbeitrag) {
+        long start = TarifMetriken.start();
+        try {
+            ZielbeitragCache aktuellerCache = cache;
+            Rabatte rabatte = aktuellerCache != null
+                ? aktuellerCache.berechneRabatte(zielCent, haftpflichtCent, kaskoCent, zielbeitrag)
+                : loese(zielCent, haftpflichtCent, kaskoCent, zielbeitrag);
+
+            if (start != 0) {
+                erfasseLoesung(rabatte, zielCent, haftpflichtCent, kaskoCent);
+            }
+            return rabatte;
+        } finally {
+            TarifMetriken.zielbeitrag(start);
+        }
+    }
+
+    /**
+     * Rabatte für beliebig viele Bausteine mit minimaler Rabattsumme, in der Reihenfolge der Bausteine.
+     * <p>
+     * Das Verfahren ist exakt: Mit {@code k} Rabattpunkten wird die größte Ersparnis erreicht, wenn die Punkte der
+     * Reihe nach bis zum Höchstrabatt auf die teuersten Bausteine gelegt werden – ein Punkt, der von einem günstigeren
+     * auf einen teureren, noch nicht voll rabattierten Baustein wandert, spart nie weniger. Die minimale Rabattsumme
+     * ist also das kleinste {@code k}, bei dem diese Verteilung die benötigte Ersparnis erreicht, und genau diese
+     * Verteilung entsteht hier per Division je Baustein. Eine Suche über die 100^N Rabattkombinationen (DP oder
+     * Branch-and-Bound) ist dafür nicht nötig; die Laufzeit wird von der Sortierung der Bausteine bestimmt.
+     * Bei gleichen Prämien wird der frühere Baustein zuerst rabattiert, für Haftpflicht und Kasko ergibt sich damit
+     * dasselbe Ergebnis wie bei {@link #berechneRabatte(double, Haftpflicht, Kasko)}.
+     *
+     * @throws PlausiException wenn der Zielbeitrag auch mit maximalen Rabatten nicht erreichbar ist
+     */
+    public static int[] berechneRabatte(double zielbeitrag, List<? extends Produkt> bausteine) {
+        long[] praemienCent = new long[bausteine.size()];
+        for (int i = 0; i < praemienCent.length; i++) {
+            praemienCent[i] = bausteine.get(i).getPraemieCent();
+        }
+        return berechneRabatte(TarifKern.zuCent(zielbeitrag), praemienCent, zielbeitrag);
+    }
+
+    /**
+     * Festkomma-Variante von {@link #berechneRabatte(double, List)}, alle Beträge in ganzen Cent.
+     */
+    public static int[] berechneRabatteCent(long zielCent, long... praemienCent) {
+        return berechneRabatte(zielCent, praemienCent, TarifKern.inEuro(zielCent));
+    }
+
+    private static int[] berechneRabatte(long zielCent, long[] praemienCent, double zielbeitrag) {
+        long start = TarifMetriken.start();
+        try {
+            int[] rabatte = loese(zielCent, praemienCent, zielbeitrag);
+
+            if (start != 0) {
+                erfasseLoesung(rabatte, zielCent, praemienCent);
+            }
+            return rabatte;
+        } finally {
+            TarifMetriken.zielbeitrag(start);
+        }
+    }
+
+    /**
+     * Die Schritte meldet der eingestellte {@link ZielbeitragLoeser}, bei einem Cache-Treffer also die der
+     * ursprünglichen Berechnung; sind keine Rabatte nötig, läuft kein Löser. Die Toleranz wird nur gewertet, wenn
+     * Rabatte nötig waren – liegt der Zielbeitrag über der Gesamtprämie, ist er ohnehin nicht zu treffen.
+     */
+    private static void erfasseLoesung(Rabatte rabatte, long zielCent, long haftpflichtCent, long kaskoCent) {
+        long benoetigt = benoetigteErsparnis(zielCent, haftpflichtCent + kaskoCent);
+        if (benoetigt <= 0) {
+            TarifMetriken.loesung(0, 0, TOLERANZ_CENT * 100);
+            return;
+        }
+        int schritte = loeser.schritte(benoetigt, haftpflichtCent, kaskoCent, rabatte);
+        long abweichung =
+            haftpflichtCent * (100 - rabatte.haftpflicht()) + kaskoCent * (100 - rabatte.kasko()) - zielCent * 100;
+        TarifMetriken.loesung(schritte, abweichung, TOLERANZ_CENT * 100);
+    }
+
+    /**
+     * Als Schritt zählt die Division je rabattiertem Baustein in {@link #loese(long, long[], double)}.
+     */
+    private static void erfasseLoesung(int[] rabatte, long zielCent, long[] praemienCent) {
+        int schritte = 0;
+        long nettoHundertstelCent = 0;
+        for (int i = 0; i < rabatte.length; i++) {
+            schritte += rabatte[i] > 0 ? 1 : 0;
+            nettoHundertstelCent += praemienCent[i] * (100 - rabatte[i]);
+        }
+        TarifMetriken.loesung(schritte, schritte == 0 ? 0 : nettoHundertstelCent - zielCent * 100, TOLERANZ_CENT * 100);
+    }
+
+    static Rabatte loese(long zielCent, long haftpflichtCent, long kaskoCent, double zielbeitrag) {
+        long gesamtCent = Math.addExact(haftpflichtCent, kaskoCent);
+
+        long benoetigt = benoetigteErsparnis(zielCent, gesamtCent);
+        if (benoetigt <= 0) {
+            return Rabatte.KEINE;
+        }
+        if (benoetigt > maximaleErsparnis(gesamtCent)) {
+            throw nichtErreichbar(zielbeitrag, gesamtCent);
+        }
+
+        return loeser.loese(benoetigt, haftpflichtCent, kaskoCent);
+    }
+
+    static int[] loese(long zielCent, long[] praemienCent, double zielbeitrag) {
+        int anzahl = praemienCent.length;
+        long gesamtCent = 0;
+        for (long praemieCent : praemienCent) {
+            gesamtCent = Math.addExact(gesamtCent, praemieCent);
+        }
+
+        int[] rabatte = new int[anzahl];
+        long benoetigt = benoetigteErsparnis(zielCent, gesamtCent);
+        if (benoetigt <= 0) {
+            return rabatte;
+        }
+        if (benoetigt > maximaleErsparnis(gesamtCent)) {
+            throw nichtErreichbar(zielbeitrag, gesamtCent);
+        }
+
+        // Bausteine nach Prämie absteigend, stabil sortiert (Insertion Sort, für wenige Bausteine am schnellsten)
+        int[] reihenfolge = new int[anzahl];
+        for (int i = 0; i < anzahl; i++) {
+            int j = i;
+            while (j > 0 && praemienCent[reihenfolge[j - 1]] < praemienCent[i]) {
+                reihenfolge[j] = reihenfolge[j - 1];
+                j--;
+            }
+            reihenfolge[j] = i;
+        }
+
+        for (int i = 0; i < anzahl && benoetigt > 0; i++) {
+            int baustein = reihenfolge[i];
+            int rabatt = (int) Math.min(MAX_RABATT, Math.ceilDiv(benoetigt, praemienCent[baustein]));
+            rabatte[baustein] = rabatt;
+            benoetigt -= praemienCent[baustein] * rabatt;
+        }
+        return rabatte;
+    }
+
+    /**
+     * Prüft ohne Exception, ob der Zielbeitrag mit Rabatten von höchstens 99 % erreichbar ist.
+     */
+    public static boolean istErreichbar(double zielbeitrag, double haftpflichtPraemie, double kaskoPraemie) {
+        return istErreichbarCent(TarifKern.zuCent(zielbeitrag),
+            TarifKern.zuCent(haftpflichtPraemie) + TarifKern.zuCent(kaskoPraemie));
+    }
+
+    /**
+     * @throws ArithmeticException wenn die Beträge in Hundertstel-Cent überlaufen; für Beträge im Bereich von
+     *                             {@link TarifKern#istImBereich(double)} kann das nicht passieren
+     */
+    public static boolean istErreichbarCent(long zielCent, long gesamtCent) {
+        return benoetigteErsparnis(zielCent, gesamtCent) <= maximaleErsparnis(gesamtCent);
+    }
+
+    /**
+     * Ersparnis in Hundertstel-Cent, die die Rabatte mindestens bringen müssen. Wie {@link #maximaleErsparnis(long)}
+     * lieber mit ArithmeticException als mit einem übergelaufenen, scheinbar gültigen Ergebnis.
+     */
+    private static long benoetigteErsparnis(long zielCent, long gesamtCent) {
+        return Math.multiplyExact(Math.subtractExact(Math.subtractExact(gesamtCent, zielCent), TOLERANZ_CENT), 100);
+    }
+
+    private static long maximaleErsparnis(long gesamtCent) {
+        return Math.multiplyExact(gesamtCent, MAX_RABATT);
+    }
+
+    /**
+     * Niedrigste erreichbare Nettoprämie, d.h. die Gesamtprämie bei maximalem Rabatt.
+     */
+    public static double minimalerBeitrag(double haftpflichtPraemie, double kaskoPraemie) {
+        return minimalerBeitrag(TarifKern.zuCent(haftpflichtPraemie) + TarifKern.zuCent(kaskoPraemie));
+    }
+
+    /**
+     * @param gesamtCent Gesamtprämie in ganzen Cent
+     */
+    public static double minimalerBeitrag(long gesamtCent) {
+        return gesamtCent * (100 - MAX_RABATT) / 10_000.0;
+    }
+
+    public static String nichtErreichbarMeldung(double zielbeitrag, double minimalerBeitrag) {
+        return Fehlercode.ZIELBEITRAG_NICHT_ERREICHBAR.formatiere(zielbeitrag, minimalerBeitrag);
+    }
+
+    static PlausiException nichtErreichbar(double zielbeitrag, long gesamtCent) {
+        TarifMetriken.plausiFehler(Fehlercode.ZIELBEITRAG_NICHT_ERREICHBAR.bit());
+        return new PlausiException(List.of(nichtErreichbarMeldung(zielbeitrag, minimalerBeitrag(gesamtCent))));
+    }
+}
@@ -0,0 +1,191 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.model.Rabatte;
+
+import static com.pfefferminzia.kfz.service.ZielbeitragService.MAX_RABATT;
+
+/**
+ * Die mitgelieferten {@link ZielbeitragLoeser}. Alle rabattieren zuerst das teurere Produkt – jeder Rabattpunkt dort
+ * spart mindestens so viel wie einer auf dem günstigeren – und unterscheiden sich nur darin, wie der kleinste
+ * ausreichende Rabatt gefunden wird. {@link #EXAKT} verzichtet auf dieses Argument und dient als Referenz.
+ * Liegt die Ersparnis außerhalb des Vertrags von {@link ZielbeitragLoeser#loese}, werfen alle eine
+ * {@link IllegalArgumentException}.
+ */
+public enum ZielbeitragVerfahren implements ZielbeitragLoeser {
+
+    /** Rabatt per Division, konstante Laufzeit. */
+    GESCHLOSSEN {
+        @Override
+        Rabatte verteile(long ersparnis, long teuer, long guenstig) {
+            int rabattTeuer = (int) Math.min(MAX_RABATT, Math.ceilDiv(ersparnis, teuer));
+            long rest = ersparnis - teuer * rabattTeuer;
+            if (rest <= 0) {
+                return new Rabatte(rabattTeuer, 0);
+            }
+            if (guenstig * MAX_RABATT < rest) {
+                throw nichtErreichbar(ersparnis);
+            }
+            return new Rabatte(rabattTeuer, (int) Math.ceilDiv(rest, guenstig));
+        }
+
+        @Override
+        int schritte(int rabattTeuer, int rabattGuenstig) {
+            return 1;
+        }
+    },
+
+    /**
+     * Verfahren aus der Aufgabenstellung: Rabatt punktweise erhöhen, bis die Nettoprämie höchstens 0,01 € über dem
+     * Zielbeitrag liegt. Höchstens 99 Iterationen je Produkt, ohne Division; günstig bei kleinen Rabatten.
+     */
+    ITERATIV {
+        @Override
+        Rabatte verteile(long ersparnis, long teuer, long guenstig) {
+            int rabattTeuer = 0;
+            int rabattGuenstig = 0;
+            long erspart = 0;
+            while (erspart < ersparnis && rabattTeuer < MAX_RABATT) {
+                rabattTeuer++;
+                erspart += teuer;
+            }
+            while (erspart < ersparnis) {
+                if (rabattGuenstig == MAX_RABATT) {
+                    throw nichtErreichbar(ersparnis);
+                }
+                rabattGuenstig++;
+                erspart += guenstig;
+            }
+            return new Rabatte(rabattTeuer, rabattGuenstig);
+        }
+
+        @Override
+        int schritte(int rabattTeuer, int rabattGuenstig) {
+            // jeder Schleifendurchlauf erhöht einen Rabatt um einen Punkt
+            return rabattTeuer + rabattGuenstig;
+        }
+    },
+
+    /** Binäre Suche über 0 bis 99 % auf dem teureren, danach auf dem günstigeren Produkt, je höchstens 7 Schritte. */
+    BISEKTION {
+        @Override
+        Rabatte verteile(long ersparnis, long teuer, long guenstig) {
+            int rabattTeuer = kleinsterRabatt(ersparnis, teuer);
+            long rest = ersparnis - teuer * rabattTeuer;
+            if (rest <= 0) {
+                return new Rabatte(rabattTeuer, 0);
+            }
+            if (guenstig * MAX_RABATT < rest) {
+                throw nichtErreichbar(ersparnis);
+            }
+            return new Rabatte(rabattTeuer, kleinsterRabatt(rest, guenstig));
+        }
+
+        @Override
+        int schritte(int rabattTeuer, int rabattGuenstig) {
+            return vergleiche(rabattTeuer) + (rabattGuenstig > 0 ? vergleiche(rabattGuenstig) : 0);
+        }
+    },
+
+    /**
+     * Ganzzahlige Suche über alle Rabattpaare, nach Rabattsumme aufsteigend und je Summe mit dem höchsten Rabatt auf
+     * dem teureren Produkt beginnend. Bis zu 10 000 Prüfungen, nur als Referenz für Tests und Vergleiche gedacht.
+     */
+    EXAKT {
+        @Override
+        Rabatte verteile(long ersparnis, long teuer, long guenstig) {
+            for (int summe = 1; summe <= 2 * MAX_RABATT; summe++) {
+                int untergrenze = Math.max(0, summe - MAX_RABATT);
+                for (int rabattTeuer = Math.min(summe, MAX_RABATT); rabattTeuer >= untergrenze; rabattTeuer--) {
+                    if (teuer * rabattTeuer + guenstig * (summe - rabattTeuer) >= ersparnis) {
+                        return new Rabatte(rabattTeuer, summe - rabattTeuer);
+                    }
+                }
+            }
+            throw nichtErreichbar(ersparnis);
+        }
+
+        @Override
+        int schritte(int rabattTeuer, int rabattGuenstig) {
+            int summe = rabattTeuer + rabattGuenstig;
+            int pruefungen = 0;
+            for (int kleinereSumme = 1; kleinereSumme < summe; kleinereSumme++) {
+                pruefungen += paare(kleinereSumme);
+            }
+            return pruefungen + Math.min(summe, MAX_RABATT) - rabattTeuer + 1;
+        }
+    };
+
+    @Override
+    public Rabatte loese(long ersparnis, long haftpflichtCent, long kaskoCent) {
+        // Teureres Produkt zuerst, bei gleichen Prämien wird die Haftpflicht bevorzugt
+        if (haftpflichtCent >= kaskoCent) {
+            return verteile(ersparnis, haftpflichtCent, kaskoCent);
+        }
+        Rabatte rabatte = verteile(ersparnis, kaskoCent, haftpflichtCent);
+        return new Rabatte(rabatte.kasko(), rabatte.haftpflicht());
+    }
+
+    /**
+     * Die Schritte ergeben sich allein aus den gefundenen Rabatten, gezählt wird also nur bei eingeschalteten
+     * Metriken: eine Division bei {@link #GESCHLOSSEN}, ein Schleifendurchlauf je Rabattpunkt bei {@link #ITERATIV},
+     * die Vergleiche der binären Suchen bei {@link #BISEKTION} und die geprüften Rabattpaare bei {@link #EXAKT}.
+     */
+    @Override
+    public int schritte(long ersparnis, long haftpflichtCent, long kaskoCent, Rabatte rabatte) {
+        return haftpflichtCent >= kaskoCent
+            ? schritte(rabatte.haftpflicht(), rabatte.kasko())
+            : schritte(rabatte.kasko(), rabatte.haftpflicht());
+    }
+
+    /**
+     * @return Rabatte für das teurere ({@code haftpflicht}) und das günstigere Produkt ({@code kasko})
+     */
+    abstract Rabatte verteile(long ersparnis, long teuer, long guenstig);
+
+    abstract int schritte(int rabattTeuer, int rabattGuenstig);
+
+    private static IllegalArgumentException nichtErreichbar(long ersparnis) {
+        return new IllegalArgumentException("Ersparnis von " + ersparnis + " Hundertstel-Cent nicht erreichbar");
+    }
+
+    /**
+     * Vergleiche, die {@link #kleinsterRabatt(long, long)} bis zum Ergebnis {@code rabatt} braucht; der Suchpfad hängt
+     * nur vom Ergebnis ab.
+     */
+    private static int vergleiche(int rabatt) {
+        int vergleiche = 0;
+        int unten = 0;
+        int oben = MAX_RABATT;
+        while (unten < oben) {
+            int mitte = (unten + oben) >>> 1;
+            if (mitte >= rabatt) {
+                oben = mitte;
+            } else {
+                unten = mitte + 1;
+            }
+            vergleiche++;
+        }
+        return vergleiche;
+    }
+
+    /**
+     * Anzahl der Rabattpaare mit dieser Summe, die {@link #EXAKT} prüft.
+     */
+    private static int paare(int summe) {
+        return Math.min(summe, MAX_RABATT) - Math.max(0, summe - MAX_RABATT) + 1;
+    }
+
+    private static int kleinsterRabatt(long ersparnis, long praemieCent) {
+        int unten = 0;
+        int oben = MAX_RABATT;
+        while (unten < oben) {
+            int mitte = (unten + oben) >>> 1;
+            if (praemieCent * mitte >= ersparnis) {
+                oben = mitte;
+            } else {
+                unten = mitte + 1;
+            }
+        }
+        return unten;
+    }
+}
@@ -0,0 +1,47 @@
+package com.pfefferminzia.kfz.tarifbuch;
+
+/**
+ * Tarifmerkmale, unter denen das {@link Tarifbuch} die Prämien führt.
+ * <p>
+ * Typ- und Regionalklasse liegen zwischen 0 und 65535, die SF-Klasse zwischen -32768 und 32767 (Malus- und
+ * Sonderklassen als negative Werte). Im Tarifbuch wird der Schlüssel als ein {@code long} gespeichert, dessen
+ * Sortierung der Reihenfolge Typklasse, Regionalklasse, SF-Klasse entspricht.
+ */
+public record TarifSchluessel(int typklasse, int regionalklasse, int sfKlasse) {
+
+    private static final int MAX_KLASSE = 0xFFFF;
+    private static final int SF_VERSATZ = 0x8000;
+
+    public TarifSchluessel {
+        if (typklasse < 0 || typklasse > MAX_KLASSE) {
+            throw new IllegalArgumentException("Typklasse außerhalb von 0.." + MAX_KLASSE + ": " + typklasse);
+        }
+        if (regionalklasse < 0 || regionalklasse > MAX_KLASSE) {
+            throw new IllegalArgumentException("Regionalklasse außerhalb von 0.." + MAX_KLASSE + ": " + regionalklasse);
+        }
+        if (sfKlasse < -SF_VERSATZ || sfKlasse >= SF_VERSATZ) {
+            throw new IllegalArgumentException("SF-Klasse außerhalb von " + -SF_VERSATZ + ".." + (SF_VERSATZ - 1) + ": " + sfKlasse);
+        }
+    }
+
+    public long alsLong() {
+        return alsLong(typklasse, regionalklasse, sfKlasse);
+    }
+
+    /**
+     * Wie {@link #alsLong()}, aber ohne den Schlüssel als Objekt anzulegen. Die Wertebereiche werden hier nicht geprüft.
+     */
+    public static long alsLong(int typklasse, int regionalklasse, int sfKlasse) {
+        return (long) typklasse << 32 | (long) regionalklasse << 16 | (sfKlasse + SF_VERSATZ);
+    }
+
+    public static TarifSchluessel aus(long schluessel) {
+        return new TarifSchluessel((int) (schluessel >>> 32) & MAX_KLASSE, (int) (schluessel >>> 16) & MAX_KLASSE,
+            ((int) schluessel & MAX_KLASSE) - SF_VERSATZ);
+    }
+
+    @Override
+    public String toString() {
+        return "TK " + typklasse + " / RK " + regionalklasse + " / SF " + sfKlasse;
+    }
+}
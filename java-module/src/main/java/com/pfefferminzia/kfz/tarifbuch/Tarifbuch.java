@@ -0,0 +1,235 @@
+package com.pfefferminzia.kfz.tarifbuch;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.ProduktVorlage;
+import com.pfefferminzia.kfz.model.Tarifangebot;
+
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Speicherabgebildetes Tarifbuch mit den Prämien für Haftpflicht und Kasko je {@link TarifSchluessel}.
+ * <p>
+ * Die Datei besteht aus einem Kopf von {@value #KOPF} Bytes, einer Sprungtabelle und Blöcken von je {@value #SEITE}
+ * Bytes (an Seitengrenzen ausgerichtet). Jeder Block enthält bis zu {@value #BLOCK} aufsteigend sortierte Schlüssel
+ * ({@code long}) und dahinter deren Haftpflicht- und Kaskoprämien in Cent ({@code int}, Kasko {@code 0} wenn keine
+ * Kasko angeboten wird); die Sprungtabelle enthält den ersten Schlüssel jedes Blocks.
+ * <p>
+ * Beim Öffnen wird nur der Kopf gelesen. Eine Abfrage sucht binär in der kleinen, meist im Cache liegenden
+ * Sprungtabelle und dann innerhalb eines einzigen Blocks, berührt also genau eine Seite der Datei. Das Betriebssystem
+ * lädt nur die berührten Seiten, sodass auch Tarifbücher mit zig Millionen Einträgen in Millisekunden geöffnet sind
+ * und nicht auf dem Heap liegen.
+ * <p>
+ * Erzeugt wird ein Tarifbuch mit dem {@link TarifbuchSchreiber}. Abfragen sind threadsicher. Die Abbildung hebt der
+ * Garbage Collector auf, sobald das Tarifbuch nicht mehr erreichbar ist; eine noch gehaltene Referenz bleibt also
+ * immer abfragbar, auch wenn die {@link TarifbuchVerwaltung} die Version längst ersetzt hat.
+ */
+public final class Tarifbuch {
+
+    /** Rückgabe der Cent-Abfragen für einen Schlüssel, den das Tarifbuch nicht enthält. */
+    public static final long KEIN_EINTRAG = -1;
+
+    static final int KENNUNG = 0x4B544231; // "KTB1"
+    static final int VERSION = 1;
+    static final int KOPF = 32;
+    static final int SEITE = 4096;
+    static final int BLOCK = SEITE / (Long.BYTES + 2 * Integer.BYTES);
+    static final int HAFTPFLICHT_VERSATZ = BLOCK * Long.BYTES;
+    static final int KASKO_VERSATZ = HAFTPFLICHT_VERSATZ + BLOCK * Integer.BYTES;
+    static final long MAX_EINTRAEGE = (Integer.MAX_VALUE - 2L * SEITE) / (SEITE + Long.BYTES) * BLOCK;
+
+    private final Path datei;
+    private final int anzahl;
+    private final MappedByteBuffer puffer;
+    private final LongBuffer sprungtabelle;
+    private final int datenStart;
+    private volatile boolean geschlossen;
+
+    private Tarifbuch(Path datei, MappedByteBuffer puffer, int anzahl) {
+        this.datei = datei;
+        this.anzahl = anzahl;
+        this.puffer = puffer;
+        this.sprungtabelle = puffer.slice(KOPF, bloecke(anzahl) * Long.BYTES).asLongBuffer();
+        this.datenStart = datenStart(anzahl);
+    }
+
+    /**
+     * @throws IOException wenn die Datei fehlt, kein Tarifbuch ist oder nicht zur Eintragsanzahl im Kopf passt
+     */
+    public static Tarifbuch oeffne(Path datei) throws IOException {
+        try (var kanal = FileChannel.open(datei, StandardOpenOption.READ)) {
+            long groesse = kanal.size();
+            if (groesse < KOPF) {
+                throw new IOException("Kein Tarifbuch: " + datei);
+            }
+            // Die Abbildung bleibt nach dem Schließen des Kanals gültig.
+            MappedByteBuffer puffer = kanal.map(FileChannel.MapMode.READ_ONLY, 0, groesse);
+            if (puffer.getInt(0) != KENNUNG) {
+                throw new IOException("Kein Tarifbuch: " + datei);
+            }
+            if (puffer.getInt(4) != VERSION) {
+                throw new IOException("Nicht unterstützte Tarifbuch-Version " + puffer.getInt(4) + ": " + datei);
+            }
+            long anzahl = puffer.getLong(8);
+            if (anzahl < 0 || anzahl > MAX_EINTRAEGE || groesse != dateigroesse((int) anzahl)) {
+                throw new IOException("Tarifbuch unvollständig oder beschädigt: " + datei);
+            }
+            return new Tarifbuch(datei, puffer, (int) anzahl);
+        }
+    }
+
+    public Path getDatei() {
+        return datei;
+    }
+
+    public int getAnzahl() {
+        return anzahl;
+    }
+
+    public boolean enthaelt(TarifSchluessel schluessel) {
+        return index(schluessel.alsLong()) >= 0;
+    }
+
+    /**
+     * @return Haftpflichtprämie in Cent oder {@link #KEIN_EINTRAG}
+     */
+    public long haftpflichtCent(long schluessel) {
+        int index = index(schluessel);
+        return index < 0 ? KEIN_EINTRAG : haftpflicht(index);
+    }
+
+    /**
+     * @return Kaskoprämie in Cent, {@code 0} wenn für den Schlüssel keine Kasko angeboten wird, oder
+     * {@link #KEIN_EINTRAG}
+     */
+    public long kaskoCent(long schluessel) {
+        int index = index(schluessel);
+        return index < 0 ? KEIN_EINTRAG : kasko(index);
+    }
+
+    /**
+     * @throws PlausiException wenn das Tarifbuch den Schlüssel nicht enthält
+     */
+    public Haftpflicht haftpflicht(TarifSchluessel schluessel, int rabatt) {
+        return Haftpflicht.ausCent(haftpflicht(indexOderFehler(schluessel)), rabatt);
+    }
+
+    /**
+     * @return die Kasko oder {@code null}, wenn für den Schlüssel keine Kasko angeboten wird
+     * @throws PlausiException wenn das Tarifbuch den Schlüssel nicht enthält
+     */
+    public Kasko kasko(TarifSchluessel schluessel, int rabatt) {
+        int praemieCent = kasko(indexOderFehler(schluessel));
+        return praemieCent == 0 ? null : Kasko.ausCent(praemieCent, rabatt);
+    }
+
+    /**
+     * Unveränderliche Haftpflichtprämie für {@link Tarifangebot}, kann zwischen Anfragen geteilt werden.
+     *
+     * @throws PlausiException wenn das Tarifbuch den Schlüssel nicht enthält
+     */
+    public ProduktVorlage haftpflichtVorlage(TarifSchluessel schluessel) {
+        return ProduktVorlage.ausCent(haftpflicht(indexOderFehler(schluessel)));
+    }
+
+    /**
+     * @return die Kaskoprämie oder {@code null}, wenn für den Schlüssel keine Kasko angeboten wird
+     * @throws PlausiException wenn das Tarifbuch den Schlüssel nicht enthält
+     */
+    public ProduktVorlage kaskoVorlage(TarifSchluessel schluessel) {
+        int praemieCent = kasko(indexOderFehler(schluessel));
+        return praemieCent == 0 ? null : ProduktVorlage.ausCent(praemieCent);
+    }
+
+    public boolean istGeschlossen() {
+        return geschlossen;
+    }
+
+    /**
+     * Markiert das Tarifbuch als von der {@link TarifbuchVerwaltung} freigegeben, wenn der letzte Zugriff auf seine
+     * Version geschlossen ist. Die Abbildung wird bewusst nicht sofort aufgehoben: Eine über {@code close()} hinaus
+     * gehaltene Referenz würde sonst auf freigegebenen Speicher zugreifen und die JVM zum Absturz bringen.
+     */
+    void schliesse() {
+        geschlossen = true;
+    }
+
+    private int indexOderFehler(TarifSchluessel schluessel) {
+        int index = index(schluessel.alsLong());
+        if (index < 0) {
+            throw new PlausiException(List.of(Fehlercode.TARIFSCHLUESSEL_UNBEKANNT.formatiere(schluessel)));
+        }
+        return index;
+    }
+
+    static int bloecke(int anzahl) {
+        return (anzahl + BLOCK - 1) / BLOCK;
+    }
+
+    static int datenStart(int anzahl) {
+        int ende = KOPF + bloecke(anzahl) * Long.BYTES;
+        return (ende + SEITE - 1) / SEITE * SEITE;
+    }
+
+    static long dateigroesse(int anzahl) {
+        return datenStart(anzahl) + (long) bloecke(anzahl) * SEITE;
+    }
+
+    private int blockStart(int index) {
+        return datenStart + index / BLOCK * SEITE;
+    }
+
+    private int haftpflicht(int index) {
+        return puffer.getInt(blockStart(index) + HAFTPFLICHT_VERSATZ + index % BLOCK * Integer.BYTES);
+    }
+
+    private int kasko(int index) {
+        return puffer.getInt(blockStart(index) + KASKO_VERSATZ + index % BLOCK * Integer.BYTES);
+    }
+
+    /**
+     * @return Index des Eintrags oder {@code -1}
+     */
+    private int index(long gesucht) {
+        // letzter Block, dessen erster Schlüssel nicht größer als der gesuchte ist
+        int block = -1;
+        int unten = 0;
+        int oben = sprungtabelle.limit() - 1;
+        while (unten <= oben) {
+            int mitte = (unten + oben) >>> 1;
+            if (sprungtabelle.get(mitte) <= gesucht) {
+                block = mitte;
+                unten = mitte + 1;
+            } else {
+                oben = mitte - 1;
+            }
+        }
+        if (block < 0) {
+            return -1;
+        }
+
+        int start = datenStart + block * SEITE;
+        unten = 0;
+        oben = Math.min(BLOCK, anzahl - block * BLOCK) - 1;
+        while (unten <= oben) {
+            int mitte = (unten + oben) >>> 1;
+            long wert = puffer.getLong(start + mitte * Long.BYTES);
+            if (wert < gesucht) {
+                unten = mitte + 1;
+            } else if (wert > gesucht) {
+                oben = mitte - 1;
+            } else {
+                return block * BLOCK + mitte;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,111 @@
+package com.pfefferminzia.kfz.tarifbuch;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Schreibt ein {@link Tarifbuch}. Die Anzahl der Einträge steht vorab fest, die Einträge kommen in aufsteigender
+ * Reihenfolge der Schlüssel und werden direkt in eine speicherabgebildete Hilfsdatei geschrieben, sodass auch große
+ * Tarifbücher ohne Zwischenspeicher auf dem Heap entstehen.
+ * <p>
+ * {@link #close()} schreibt die Datei auf die Platte und ersetzt das Ziel atomar; ein bestehendes Tarifbuch wird also
+ * nie halb überschrieben. Wird der Schreiber vorzeitig geschlossen, bleibt das Ziel unverändert.
+ */
+public final class TarifbuchSchreiber implements AutoCloseable {
+
+    private final Path ziel;
+    private final Path hilfsdatei;
+    private final int anzahl;
+    private final MappedByteBuffer puffer;
+    private final int datenStart;
+
+    private int geschrieben;
+    private long letzterSchluessel = Long.MIN_VALUE;
+    private boolean geschlossen;
+
+    private TarifbuchSchreiber(Path ziel, Path hilfsdatei, int anzahl, MappedByteBuffer puffer) {
+        this.ziel = ziel;
+        this.hilfsdatei = hilfsdatei;
+        this.anzahl = anzahl;
+        this.puffer = puffer;
+        this.datenStart = Tarifbuch.datenStart(anzahl);
+    }
+
+    public static TarifbuchSchreiber oeffne(Path ziel, long anzahl) throws IOException {
+        if (anzahl < 0 || anzahl > Tarifbuch.MAX_EINTRAEGE) {
+            throw new IllegalArgumentException("Anzahl außerhalb von 0.." + Tarifbuch.MAX_EINTRAEGE + ": " + anzahl);
+        }
+        Path absolut = ziel.toAbsolutePath();
+        Path hilfsdatei = absolut.resolveSibling(absolut.getFileName() + ".tmp");
+        try (var kanal = FileChannel.open(hilfsdatei, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var puffer = kanal.map(FileChannel.MapMode.READ_WRITE, 0, Tarifbuch.dateigroesse((int) anzahl));
+            puffer.putInt(0, Tarifbuch.KENNUNG);
+            puffer.putInt(4, Tarifbuch.VERSION);
+            puffer.putLong(8, anzahl);
+            return new TarifbuchSchreiber(absolut, hilfsdatei, (int) anzahl, puffer);
+        }
+    }
+
+    /**
+     * @param kaskoCent {@code 0}, wenn für den Schlüssel keine Kasko angeboten wird
+     */
+    public void eintrag(TarifSchluessel schluessel, long haftpflichtCent, long kaskoCent) {
+        eintrag(schluessel.alsLong(), haftpflichtCent, kaskoCent);
+    }
+
+    /**
+     * @param schluessel Schlüssel aus {@link TarifSchluessel#alsLong()}
+     */
+    public void eintrag(long schluessel, long haftpflichtCent, long kaskoCent) {
+        if (geschrieben == anzahl) {
+            throw new IllegalStateException("Tarifbuch ist bereits mit " + anzahl + " Einträgen voll");
+        }
+        if (schluessel <= letzterSchluessel) {
+            throw new IllegalArgumentException("Schlüssel nicht aufsteigend: " + TarifSchluessel.aus(schluessel)
+                + " nach " + TarifSchluessel.aus(letzterSchluessel));
+        }
+        if (haftpflichtCent <= 0 || haftpflichtCent > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Haftpflichtprämie außerhalb des gültigen Bereichs: " + haftpflichtCent);
+        }
+        if (kaskoCent < 0 || kaskoCent > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Kaskoprämie außerhalb des gültigen Bereichs: " + kaskoCent);
+        }
+        int block = geschrieben / Tarifbuch.BLOCK;
+        int imBlock = geschrieben % Tarifbuch.BLOCK;
+        if (imBlock == 0) {
+            puffer.putLong(Tarifbuch.KOPF + block * Long.BYTES, schluessel);
+        }
+        int start = datenStart + block * Tarifbuch.SEITE;
+        puffer.putLong(start + imBlock * Long.BYTES, schluessel);
+        puffer.putInt(start + Tarifbuch.HAFTPFLICHT_VERSATZ + imBlock * Integer.BYTES, (int) haftpflichtCent);
+        puffer.putInt(start + Tarifbuch.KASKO_VERSATZ + imBlock * Integer.BYTES, (int) kaskoCent);
+        letzterSchluessel = schluessel;
+        geschrieben++;
+    }
+
+    /**
+     * Schließt den Schreiber und ersetzt das Ziel durch das neue Tarifbuch.
+     *
+     * @throws IllegalStateException wenn weniger Einträge als angekündigt geschrieben wurden; das Ziel bleibt dann
+     *                               unverändert
+     */
+    @Override
+    public void close() throws IOException {
+        if (geschlossen) {
+            return;
+        }
+        geschlossen = true;
+        if (geschrieben != anzahl) {
+            Files.deleteIfExists(hilfsdatei);
+            throw new IllegalStateException("Tarifbuch unvollständig: " + geschrieben + " von " + anzahl + " Einträgen");
+        }
+        puffer.force();
+        Files.move(hilfsdatei, ziel, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
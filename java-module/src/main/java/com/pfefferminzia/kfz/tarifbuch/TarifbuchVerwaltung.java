@@ -0,0 +1,167 @@
+package com.pfefferminzia.kfz.tarifbuch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Hält das aktuelle {@link Tarifbuch} und tauscht es im laufenden Betrieb ohne Pause aus.
+ * <p>
+ * Jede geladene Datei wird zu einer neuen Version. {@link #lade(Path)} ersetzt die aktuelle Version atomar;
+ * Berechnungen, die über {@link #zugriff()} oder {@link #mitTarifbuch(Function)} begonnen wurden, laufen gegen die
+ * Version zu Ende, mit der sie begonnen haben, neue Berechnungen sehen sofort die neue Version. Jede Version zählt
+ * ihre laufenden Zugriffe; sobald eine ersetzte Version keinen Zugriff mehr hat, gilt sie als geschlossen
+ * ({@link Tarifbuch#istGeschlossen()}), und der Garbage Collector hebt ihre Abbildung auf, wenn niemand mehr auf das
+ * Tarifbuch verweist.
+ * <p>
+ * Weil der {@link TarifbuchSchreiber} das Ziel per Umbenennung ersetzt, kann ein neues Tarifbuch unter demselben Pfad
+ * geschrieben und geladen werden, während die alte Version noch abgebildet ist.
+ */
+public final class TarifbuchVerwaltung implements AutoCloseable {
+
+    private final AtomicReference<Version> aktuell;
+    private long letzteVersion;
+
+    private TarifbuchVerwaltung(Tarifbuch tarifbuch) {
+        letzteVersion = 1;
+        aktuell = new AtomicReference<>(new Version(tarifbuch, letzteVersion));
+    }
+
+    public static TarifbuchVerwaltung oeffne(Path datei) throws IOException {
+        return new TarifbuchVerwaltung(Tarifbuch.oeffne(datei));
+    }
+
+    /**
+     * Lädt eine neue Version und macht sie für alle folgenden Zugriffe zur aktuellen.
+     *
+     * @return Nummer der neuen Version
+     * @throws IOException wenn die Datei kein gültiges Tarifbuch ist; die bisherige Version bleibt dann aktuell
+     */
+    public synchronized long lade(Path datei) throws IOException {
+        if (aktuell.get() == null) {
+            throw new IllegalStateException("TarifbuchVerwaltung ist geschlossen");
+        }
+        var neu = new Version(Tarifbuch.oeffne(datei), ++letzteVersion);
+        aktuell.getAndSet(neu).freigeben();
+        return neu.nummer;
+    }
+
+    public long getVersion() {
+        Version version = aktuell.get();
+        if (version == null) {
+            throw new IllegalStateException("TarifbuchVerwaltung ist geschlossen");
+        }
+        return version.nummer;
+    }
+
+    /**
+     * Belegt die aktuelle Version, bis der Zugriff geschlossen wird.
+     */
+    public Zugriff zugriff() {
+        return new Zugriff(belege());
+    }
+
+    /**
+     * Führt die Berechnung gegen die aktuelle Version aus, ohne dafür einen {@link Zugriff} anzulegen.
+     * Das Ergebnis darf nicht auf das Tarifbuch verweisen.
+     */
+    public <T> T mitTarifbuch(Function<Tarifbuch, T> berechnung) {
+        Version version = belege();
+        try {
+            return berechnung.apply(version.tarifbuch);
+        } finally {
+            version.freigeben();
+        }
+    }
+
+    /**
+     * Gibt die aktuelle Version frei; sie wird geschlossen, sobald der letzte Zugriff geschlossen ist.
+     */
+    @Override
+    public synchronized void close() {
+        Version version = aktuell.getAndSet(null);
+        if (version != null) {
+            version.freigeben();
+        }
+    }
+
+    private Version belege() {
+        while (true) {
+            Version version = aktuell.get();
+            if (version == null) {
+                throw new IllegalStateException("TarifbuchVerwaltung ist geschlossen");
+            }
+            if (version.belege()) {
+                return version;
+            }
+            // Die Version wurde zwischenzeitlich ersetzt und freigegeben, es gibt bereits eine neuere.
+        }
+    }
+
+    /**
+     * Zugriff auf eine feste Version des Tarifbuchs. Nicht threadsicher, gehört dem Thread, der ihn angefordert hat.
+     */
+    public static final class Zugriff implements AutoCloseable {
+
+        private final Version version;
+        private boolean geschlossen;
+
+        private Zugriff(Version version) {
+            this.version = version;
+        }
+
+        public Tarifbuch tarifbuch() {
+            if (geschlossen) {
+                throw new IllegalStateException("Zugriff ist bereits geschlossen");
+            }
+            return version.tarifbuch;
+        }
+
+        public long version() {
+            return version.nummer;
+        }
+
+        @Override
+        public void close() {
+            if (!geschlossen) {
+                geschlossen = true;
+                version.freigeben();
+            }
+        }
+    }
+
+    /**
+     * Eine Version zählt die Verwaltung selbst, solange sie aktuell ist, und jeden offenen Zugriff. Bei null ist sie
+     * endgültig freigegeben und kann nicht mehr belegt werden.
+     */
+    private static final class Version {
+
+        final Tarifbuch tarifbuch;
+        final long nummer;
+        final AtomicInteger nutzer = new AtomicInteger(1);
+
+        Version(Tarifbuch tarifbuch, long nummer) {
+            this.tarifbuch = tarifbuch;
+            this.nummer = nummer;
+        }
+
+        boolean belege() {
+            int anzahl;
+            do {
+                anzahl = nutzer.get();
+                if (anzahl == 0) {
+                    return false;
+                }
+            } while (!nutzer.compareAndSet(anzahl, anzahl + 1));
+            return true;
+        }
+
+        void freigeben() {
+            if (nutzer.decrementAndGet() == 0) {
+                tarifbuch.schliesse();
+            }
+        }
+    }
+}
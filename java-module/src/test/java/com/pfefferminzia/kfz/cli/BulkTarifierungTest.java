@@ -0,0 +1,97 @@
+package com.pfefferminzia.kfz.cli;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BulkTarifierung Tests")
+class BulkTarifierungTest {
+
+    @Test
+    @DisplayName("CSV: Tarifierung, Zielbeitrag, Plausibilitätsfehler und unlesbare Zeilen")
+    void verarbeite_csv(@TempDir Path verzeichnis) throws Exception {
+        Path eingabe = verzeichnis.resolve("anfragen.csv");
+        Path ausgabe = verzeichnis.resolve("ergebnisse.csv");
+        Files.writeString(eingabe, """
+            haftpflichtPraemie;haftpflichtRabatt;kaskoPraemie;kaskoRabatt;zielbeitrag
+            100;20;50;10;
+            100;;50;;120
+            -100;-10;;;
+            100;;;;80,5
+
+            100;x
+            a100;20
+            """);
+
+        var statistik = BulkTarifierung.verarbeite(eingabe.toString(), ausgabe.toString(), new CsvFormat());
+
+        assertThat(statistik).isEqualTo(new BulkTarifierung.Statistik(6, 3));
+        assertThat(Files.readAllLines(ausgabe)).containsExactly(
+            CsvFormat.AUSGABE_KOPFZEILE,
+            "2;20;10;150.00;125.00;;",
+            "3;30;0;150.00;120.00;;",
+            "4;;;;;HAFTPFLICHT_PRAEMIE_NICHT_POSITIV|HAFTPFLICHT_RABATT_NEGATIV;"
+                + "Prämie für die Haftpflicht muss positiv sein|Rabatt für die Haftpflicht darf nicht negativ sein",
+            "5;20;;100.00;80.00;;",
+            "7;;;;;;Zeile nicht lesbar: For input string: \"x\"",
+            "8;;;;;;Zeile nicht lesbar: For input string: \"a100\"");
+    }
+
+    @Test
+    @DisplayName("NDJSON: Ergebnisse und Fehlercodes als JSON-Objekte")
+    void verarbeite_ndjson() throws Exception {
+        String eingabe = """
+            {"haftpflichtPraemie": 100, "kaskoPraemie": 50, "zielbeitrag": 120, "vertrag": "A-1"}
+            {"haftpflichtPraemie":100,"kaskoPraemie":null,"zielbeitrag":0.5}
+            {"haftpflichtRabatt":10}
+            """;
+        var ausgabe = new StringWriter();
+
+        var statistik = BulkTarifierung.verarbeite(leser(eingabe, 16), ausgabe, new NdjsonFormat());
+
+        assertThat(statistik).isEqualTo(new BulkTarifierung.Statistik(3, 2));
+        assertThat(ausgabe.toString().split("\n")).containsExactly(
+            "{\"zeile\":1,\"haftpflichtRabatt\":30,\"kaskoRabatt\":0,\"gesamtpraemie\":150.00,\"nettopraemie\":120.00}",
+            "{\"zeile\":2,\"fehlercodes\":[\"ZIELBEITRAG_NICHT_ERREICHBAR\"],"
+                + "\"fehler\":[\"Zielbeitrag von 0,50€ ist nicht erreichbar. Minimaler Beitrag: 1,00€\"]}",
+            "{\"zeile\":3,\"fehler\":[\"Zeile nicht lesbar: haftpflichtPraemie fehlt\"]}");
+    }
+
+    @Test
+    @DisplayName("NDJSON: Steuerzeichen in Fehlertexten werden maskiert")
+    void ndjson_steuerzeichen() {
+        var ausgabe = new StringBuilder();
+
+        new NdjsonFormat().schreibeLesefehler(ausgabe, 1, "a\"b\\c\nd\re\tf\u0000g\u001fh");
+
+        assertThat(ausgabe.toString())
+            .isEqualTo("{\"zeile\":1,\"fehler\":[\"a\\\"b\\\\c\\nd\\re\\tf\\u0000g\\u001fh\"]}");
+        assertThat(ausgabe.chars()).allMatch(c -> c >= 0x20);
+    }
+
+    @Test
+    @DisplayName("Zeilen über Puffergrenzen hinweg werden vollständig gelesen")
+    void zeilenLeser_kleinerPuffer() throws Exception {
+        var leser = leser("erste Zeile mit Überlänge\r\nzweite\n\nletzte ohne Umbruch", 4);
+
+        assertThat(leser.naechsteZeile()).isEqualTo("erste Zeile mit Überlänge");
+        assertThat(leser.naechsteZeile()).isEqualTo("zweite");
+        assertThat(leser.naechsteZeile()).isEmpty();
+        assertThat(leser.naechsteZeile()).isEqualTo("letzte ohne Umbruch");
+        assertThat(leser.naechsteZeile()).isNull();
+    }
+
+    private static ZeilenLeser leser(String inhalt, int puffergroesse) {
+        var stream = new ByteArrayInputStream(inhalt.getBytes(StandardCharsets.UTF_8));
+        return new ZeilenLeser(Channels.newChannel(stream), puffergroesse);
+    }
+}
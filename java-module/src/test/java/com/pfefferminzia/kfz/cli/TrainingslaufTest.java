@@ -0,0 +1,20 @@
+package com.pfefferminzia.kfz.cli;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Trainingslauf Tests")
+class TrainingslaufTest {
+
+    @Test
+    @DisplayName("Der Trainingslauf durchläuft je Runde dieselben Anfragen, erwartete Plausibilitätsfehler brechen ihn nicht ab")
+    void fuehreAus_durchlaeuftAllePfade() throws Exception {
+        long eineRunde = Trainingslauf.fuehreAus(1);
+
+        // 10 einzelne Tarifierungen, 6 CSV- und 4 NDJSON-Zeilen
+        assertThat(eineRunde).isEqualTo(10 + 6 + 4);
+        assertThat(Trainingslauf.fuehreAus(3)).isEqualTo(3 * eineRunde);
+    }
+}
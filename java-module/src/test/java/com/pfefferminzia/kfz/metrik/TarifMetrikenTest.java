@@ -0,0 +1,155 @@
+package com.pfefferminzia.kfz.metrik;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Tarifierung;
+import com.pfefferminzia.kfz.service.ValidationService;
+import com.pfefferminzia.kfz.service.ZielbeitragLoeserAuswahl;
+import com.pfefferminzia.kfz.service.ZielbeitragService;
+import com.pfefferminzia.kfz.service.ZielbeitragVerfahren;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TarifMetriken Tests")
+class TarifMetrikenTest {
+
+    @BeforeEach
+    void einschalten() {
+        TarifMetriken.zuruecksetzen();
+        TarifMetriken.aktiviere();
+    }
+
+    @AfterEach
+    void ausschalten() {
+        TarifMetriken.deaktiviere();
+        TarifMetriken.zuruecksetzen();
+        ValidationService.setModus(ValidationService.Modus.JAKARTA);
+    }
+
+    @Test
+    @DisplayName("Ausgeschaltet wird nichts erfasst")
+    void ausgeschaltet() {
+        TarifMetriken.deaktiviere();
+
+        new Tarifierung(120, new Haftpflicht(100), new Kasko(50));
+        Tarifierung.tryCreate(new Haftpflicht(-1));
+
+        var schnappschuss = TarifMetriken.schnappschuss();
+        assertThat(schnappschuss.tarifierung().anzahl()).isZero();
+        assertThat(schnappschuss.zielbeitrag().anzahl()).isZero();
+        assertThat(schnappschuss.plausiFehler()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Laufzeiten und Lösungsschritte werden je Aufruf erfasst")
+    void laufzeitenUndLoesungsschritte() {
+        new Tarifierung(new Haftpflicht(100));
+        new Tarifierung(120, new Haftpflicht(100), new Kasko(50));
+        // Haftpflicht allein reicht nicht: 99 % auf die Haftpflicht, Rest über die Kasko
+        new Tarifierung(30, new Haftpflicht(100), new Kasko(50));
+
+        var schnappschuss = TarifMetriken.schnappschuss();
+        assertThat(schnappschuss.tarifierung().anzahl()).isEqualTo(3);
+        assertThat(schnappschuss.validierung().anzahl()).isEqualTo(3);
+        assertThat(schnappschuss.zielbeitrag().anzahl()).isEqualTo(2);
+        assertThat(schnappschuss.tarifierung().perzentil(0.5)).isPositive();
+        // die Auswahl rechnet beide Zielbeiträge geschlossen, mit einer Division
+        assertThat(schnappschuss.loesungsschritte().maximum()).isEqualTo(1);
+        assertThat(schnappschuss.iterationslimitUeberschritten()).isZero();
+        assertThat(schnappschuss.toleranzVerfehlt()).isZero();
+    }
+
+    @Test
+    @DisplayName("Das Iterationslimit zählt die Schritte des eingestellten Verfahrens")
+    void iterationslimit() {
+        try {
+            ZielbeitragService.setLoeser(ZielbeitragVerfahren.ITERATIV);
+            // 99 % auf die Haftpflicht und 42 % auf die Kasko: 141 Iterationen
+            new Tarifierung(30, new Haftpflicht(100), new Kasko(50));
+            new Tarifierung(140, new Haftpflicht(100), new Kasko(50));
+        } finally {
+            ZielbeitragService.setLoeser(ZielbeitragLoeserAuswahl.INSTANZ);
+        }
+
+        var schnappschuss = TarifMetriken.schnappschuss();
+        assertThat(schnappschuss.loesungsschritte().maximum()).isEqualTo(99 + 42);
+        assertThat(schnappschuss.iterationslimitUeberschritten()).isEqualTo(1);
+        assertThat(schnappschuss.toleranzVerfehlt()).isZero();
+    }
+
+    @Test
+    @DisplayName("Ganzzahlige Rabatte, die den Zielbeitrag um mehr als einen Cent verfehlen, werden gezählt")
+    void toleranzVerfehlt() {
+        // 1 % Rabatt auf 100 € spart 1 €: 99.50 € lässt sich nur mit 99.00 € treffen
+        new Tarifierung(99.5, new Haftpflicht(100), null);
+
+        assertThat(TarifMetriken.schnappschuss().toleranzVerfehlt()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Auch Lösungen, die am unerreichbaren Zielbeitrag scheitern, gehen in die Laufzeit ein")
+    void zielbeitragNichtErreichbar_wirdGemessen() {
+        assertThatThrownBy(() -> new Tarifierung(0.5, new Haftpflicht(100), new Kasko(50)))
+            .isInstanceOf(PlausiException.class);
+
+        assertThat(TarifMetriken.schnappschuss().zielbeitrag().anzahl()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Plausibilitätsfehler werden je Fehlercode gezählt, in beiden Validierungsmodi und bei tryCreate")
+    void plausiFehlerJeFehlercode() {
+        assertThatThrownBy(() -> new Tarifierung(new Haftpflicht(-100, 120))).isInstanceOf(PlausiException.class);
+        ValidationService.setModus(ValidationService.Modus.DIREKT);
+        assertThatThrownBy(() -> new Tarifierung(new Haftpflicht(-100))).isInstanceOf(PlausiException.class);
+        Tarifierung.tryCreate(new Haftpflicht(100), new Kasko(50, -1));
+        Tarifierung.tryCreate(0.5, new Haftpflicht(100), new Kasko(50));
+
+        assertThat(TarifMetriken.schnappschuss().plausiFehler()).containsOnly(
+            Map.entry(Fehlercode.HAFTPFLICHT_PRAEMIE_NICHT_POSITIV, 2L),
+            Map.entry(Fehlercode.HAFTPFLICHT_RABATT_ZU_HOCH, 1L),
+            Map.entry(Fehlercode.KASKO_RABATT_NEGATIV, 1L),
+            Map.entry(Fehlercode.ZIELBEITRAG_NICHT_ERREICHBAR, 1L));
+    }
+
+    @Test
+    @DisplayName("Histogramm liefert Perzentile auf die Zweierpotenz genau")
+    void histogramm_perzentile() {
+        var histogramm = new Histogramm();
+        for (int i = 1; i <= 100; i++) {
+            histogramm.erfasse(i);
+        }
+
+        var schnappschuss = histogramm.schnappschuss();
+        assertThat(schnappschuss.anzahl()).isEqualTo(100);
+        assertThat(schnappschuss.mittelwert()).isEqualTo(50.5);
+        assertThat(schnappschuss.perzentil(0.5)).isEqualTo(63);
+        assertThat(schnappschuss.perzentil(0.99)).isEqualTo(100);
+        assertThat(schnappschuss.perzentil(0.01)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Metriken sind über JMX abrufbar")
+    void jmx() throws Exception {
+        TarifMetriken.registriereMBean();
+        TarifMetriken.registriereMBean();
+        new Tarifierung(new Haftpflicht(100));
+        Tarifierung.tryCreate(new Haftpflicht(-1));
+
+        var server = ManagementFactory.getPlatformMBeanServer();
+        var name = new ObjectName(TarifMetriken.OBJEKTNAME);
+        assertThat(server.getAttribute(name, "TarifierungAnzahl")).isEqualTo(1L);
+        assertThat(server.getAttribute(name, "Aktiv")).isEqualTo(true);
+        assertThat(server.getAttribute(name, "PlausiFehler").toString()).contains("HAFTPFLICHT_PRAEMIE_NICHT_POSITIV");
+    }
+}
@@ -0,0 +1,112 @@
+package com.pfefferminzia.kfz.model;
+
+import com.pfefferminzia.kfz.common.PlausiException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("InkrementelleTarifierung Tests")
+class InkrementelleTarifierungTest {
+
+    @Test
+    @DisplayName("Nach beliebigen Änderungen stimmen die Summen mit einer neu aufgebauten Tarifierung überein")
+    void aenderungen_entsprechenNeuaufbau() {
+        var zufall = new SplittableRandom(42);
+        var bearbeitung = InkrementelleTarifierung.aus(new Tarifierung(new Haftpflicht(312.47, 10), new Kasko(187.13),
+            List.of(new Schutzbrief(39.99, 5), new Insassenunfall(12.5))));
+
+        for (int i = 0; i < 10_000; i++) {
+            int baustein = zufall.nextInt(bearbeitung.getAnzahlBausteine());
+            if (zufall.nextBoolean()) {
+                bearbeitung.setRabatt(baustein, zufall.nextInt(100));
+            } else {
+                bearbeitung.setPraemie(baustein, 0.01 + zufall.nextInt(100_000) / 100.0);
+            }
+
+            if (i % 1_000 == 0) {
+                var neu = bearbeitung.alsTarifierung();
+                assertThat(bearbeitung.getGesamtpraemieCent()).isEqualTo(neu.getGesamtpraemieCent());
+                assertThat(bearbeitung.getNettopraemieCent()).isEqualTo(neu.getNettopraemieCent());
+            }
+        }
+        var neu = bearbeitung.alsTarifierung();
+        assertThat(bearbeitung.getNettopraemieCent()).isEqualTo(neu.getNettopraemieCent());
+        assertThat(bearbeitung.getNettopraemie()).isCloseTo(neu.getNettopraemie(), within(0.005));
+    }
+
+    @Test
+    @DisplayName("Ungültige Änderungen melden den Fehler des Bausteins und ändern nichts")
+    void ungueltigeAenderung_bleibtUnveraendert() {
+        var bearbeitung = InkrementelleTarifierung.aus(new Tarifierung(new Haftpflicht(100, 10), null,
+            List.of(new Schutzbrief(20))));
+        List<Long> benachrichtigt = new ArrayList<>();
+        bearbeitung.registriere((baustein, gesamt, netto) -> benachrichtigt.add(netto));
+
+        assertThatThrownBy(() -> bearbeitung.setRabatt(0, 100))
+            .isInstanceOf(PlausiException.class)
+            .hasMessageContaining("Rabatt für die Haftpflicht darf nicht größer 99 sein");
+        assertThatThrownBy(() -> bearbeitung.setPraemie(1, 0))
+            .isInstanceOf(PlausiException.class)
+            .hasMessageContaining("Prämie für den Zusatzbaustein muss positiv sein");
+        assertThatThrownBy(() -> bearbeitung.setRabatt(1, -1))
+            .hasMessageContaining("Rabatt für den Zusatzbaustein darf nicht negativ sein");
+
+        assertThat(bearbeitung.getGesamtpraemieCent()).isEqualTo(12_000);
+        assertThat(bearbeitung.getNettopraemieCent()).isEqualTo(11_000);
+        assertThat(bearbeitung.getBaustein(0).getRabatt()).isEqualTo(10);
+        assertThat(benachrichtigt).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Listener erhalten Baustein und neue Summen, unveränderte Werte lösen nichts aus")
+    void listener_erhaltenNeueSummen() {
+        var kasko = new Kasko(50);
+        var bearbeitung = InkrementelleTarifierung.aus(new Tarifierung(new Haftpflicht(100), kasko));
+        List<String> aenderungen = new ArrayList<>();
+        InkrementelleTarifierung.Listener listener =
+            (baustein, gesamt, netto) -> aenderungen.add(baustein + ":" + gesamt + ":" + netto);
+        bearbeitung.registriere(listener);
+
+        bearbeitung.setRabatt(1, 20);
+        bearbeitung.setRabatt(1, 20);
+        bearbeitung.setPraemie(0, 200);
+        bearbeitung.entferne(listener);
+        bearbeitung.setRabatt(0, 50);
+
+        assertThat(aenderungen).containsExactly("1:15000:14000", "0:25000:24000");
+        assertThat(bearbeitung.getBaustein(1).getRabatt()).isEqualTo(20);
+        assertThat(kasko.getRabatt()).isZero();
+        assertThatThrownBy(() -> bearbeitung.setRabatt(1, 100))
+            .hasMessageContaining("Rabatt für die Kasko darf nicht größer 99 sein");
+    }
+
+    @Test
+    @DisplayName("Ausgangs-Tarifierung und erzeugte Tarifierungen bleiben von späteren Änderungen unberührt")
+    void aenderungen_lassenAndereTarifierungenUnveraendert() {
+        var ausgang = new Tarifierung(new Haftpflicht(100, 10), new Teilkasko(50), List.of(new Schutzbrief(20)));
+        var bearbeitung = InkrementelleTarifierung.aus(ausgang);
+
+        bearbeitung.setRabatt(0, 50);
+        bearbeitung.setPraemie(1, 80);
+        var zwischenstand = bearbeitung.alsTarifierung();
+        bearbeitung.setRabatt(2, 25);
+
+        assertThat(ausgang.getHaftpflicht().getRabatt()).isEqualTo(10);
+        assertThat(ausgang.getKasko().getPraemie()).isEqualTo(50);
+        assertThat(ausgang.getNettopraemieCent())
+            .isEqualTo(TarifKern.nettopraemieCent(ausgang.getBausteine()))
+            .isEqualTo(16_000);
+        assertThat(zwischenstand.getKasko()).isInstanceOf(Teilkasko.class);
+        assertThat(zwischenstand.getZusatzbausteine().get(0).getRabatt()).isZero();
+        assertThat(zwischenstand.getNettopraemieCent())
+            .isEqualTo(TarifKern.nettopraemieCent(zwischenstand.getBausteine()));
+        assertThat(bearbeitung.getBaustein(1)).isInstanceOf(Teilkasko.class).isNotSameAs(ausgang.getKasko());
+    }
+}
@@ -0,0 +1,90 @@
+package com.pfefferminzia.kfz.model;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.common.PlausiException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TarifBatch Tests")
+class TarifBatchTest {
+
+    @Test
+    @DisplayName("Batch liefert dieselben Prämien wie einzelne Tarifierungen")
+    void berechne_entsprichtTarifierung() {
+        int groesse = 1_000;
+        var random = new Random(42);
+        var haftpflichtPraemien = new double[groesse];
+        var haftpflichtRabatte = new int[groesse];
+        var kaskoPraemien = new double[groesse];
+        var kaskoRabatte = new int[groesse];
+        var mitKasko = new long[(groesse + 63) / 64];
+        for (int i = 0; i < groesse; i++) {
+            haftpflichtPraemien[i] = 1 + random.nextInt(100_000) / 100.0;
+            haftpflichtRabatte[i] = random.nextInt(100);
+            if (random.nextBoolean()) {
+                kaskoPraemien[i] = 1 + random.nextInt(100_000) / 100.0;
+                kaskoRabatte[i] = random.nextInt(100);
+                mitKasko[i / 64] |= 1L << i;
+            }
+        }
+        var batch = new TarifBatch(haftpflichtPraemien, haftpflichtRabatte, kaskoPraemien, kaskoRabatte, mitKasko);
+
+        batch.berechne();
+
+        for (int i = 0; i < groesse; i++) {
+            var haftpflicht = new Haftpflicht(haftpflichtPraemien[i], haftpflichtRabatte[i]);
+            var tarifierung = batch.hatKasko(i)
+                ? new Tarifierung(haftpflicht, new Kasko(kaskoPraemien[i], kaskoRabatte[i]))
+                : new Tarifierung(haftpflicht);
+
+            assertThat(batch.istGueltig(i)).isTrue();
+            assertThat(batch.getGesamtpraemien()[i]).isEqualTo(tarifierung.getGesamtpraemie());
+            assertThat(batch.getNettopraemien()[i]).isEqualTo(tarifierung.getNettopraemie());
+        }
+    }
+
+    @Test
+    @DisplayName("Ungültige Zeilen liefern dieselben Fehler wie die PlausiException")
+    void berechne_fehlerbitmap() {
+        var batch = new TarifBatch(3);
+        batch.setHaftpflicht(0, 100, 20);
+        batch.setHaftpflicht(1, -100, 150);
+        batch.setKasko(1, -50, -20);
+        batch.setHaftpflicht(2, 100, 0);
+        batch.setKasko(2, 50, 100);
+
+        batch.berechne();
+
+        assertThat(batch.istGueltig(0)).isTrue();
+        assertThat(batch.getFehler()[1]).isEqualTo(Fehlercode.HAFTPFLICHT_PRAEMIE_NICHT_POSITIV.bit()
+            | Fehlercode.HAFTPFLICHT_RABATT_ZU_HOCH.bit()
+            | Fehlercode.KASKO_PRAEMIE_NICHT_POSITIV.bit()
+            | Fehlercode.KASKO_RABATT_NEGATIV.bit());
+        assertThat(batch.getNettopraemien()[1]).isNaN();
+        assertThatThrownBy(() -> new Tarifierung(new Haftpflicht(-100, 150), new Kasko(-50, -20)))
+            .isInstanceOf(PlausiException.class)
+            .satisfies(e -> assertThat(((PlausiException) e).getFehler())
+                .containsExactlyInAnyOrderElementsOf(batch.getFehlermeldungen(1)));
+        assertThat(batch.getFehlermeldungen(2)).containsExactly("Rabatt für die Kasko darf nicht größer 99 sein");
+    }
+
+    @Test
+    @DisplayName("Entfernte Kasko wird nicht geprüft und nicht berechnet")
+    void berechne_ohneKasko() {
+        var batch = new TarifBatch(1);
+        batch.setHaftpflicht(0, 100, 20);
+        batch.setKasko(0, -50, 0);
+        batch.entferneKasko(0);
+
+        batch.berechne();
+
+        assertThat(batch.istGueltig(0)).isTrue();
+        assertThat(batch.getGesamtpraemien()[0]).isEqualTo(100);
+        assertThat(batch.getNettopraemien()[0]).isEqualTo(80);
+    }
+}
@@ -0,0 +1,87 @@
+package com.pfefferminzia.kfz.model;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Misst die pro Aufruf allokierten Bytes über {@code ThreadMXBean.getThreadAllocatedBytes}
+ * und schlägt fehl, sobald der Bewertungspfad wieder Garbage erzeugt. Läuft in einer eigenen Surefire-Ausführung
+ * mit {@code -XX:-DoEscapeAnalysis}, damit das Ergebnis nicht von der Reihenfolge der Tests abhängt.
+ */
+@DisplayName("TarifKern Allokations Tests")
+class TarifKernAllokationTest {
+
+    private static final int AUFWAERMEN = 200_000;
+    private static final int AUFRUFE = 1_000_000;
+
+    private static com.sun.management.ThreadMXBean threadMXBean;
+
+    private final Haftpflicht haftpflicht = new Haftpflicht(100, 20);
+    private final Kasko kasko = new Kasko(50, 10);
+    private double summe;
+
+    @BeforeAll
+    static void messungPruefen() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+            "JVM unterstützt keine Allokationsmessung pro Thread");
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    @DisplayName("Prämienberechnung allokiert nichts")
+    void praemien_ohneAllokation() {
+        Runnable bewertung = () -> {
+            summe += TarifKern.gesamtpraemie(haftpflicht, kasko) + TarifKern.nettopraemie(haftpflicht, kasko);
+            summe += TarifKern.gesamtpraemie(haftpflicht, null) + TarifKern.nettopraemie(haftpflicht, null);
+        };
+
+        assertThat(bytesProAufruf(bewertung)).isLessThan(1.0);
+    }
+
+    @Test
+    @DisplayName("TarifBatch allokiert pro Berechnung nichts")
+    void tarifBatch_ohneAllokation() {
+        var batch = new TarifBatch(64);
+        for (int i = 0; i < 64; i++) {
+            batch.setHaftpflicht(i, 100 + i, i);
+            if (i % 2 == 0) {
+                batch.setKasko(i, 50 + i, i);
+            }
+        }
+
+        assertThat(bytesProAufruf(batch::berechne)).isLessThan(1.0);
+    }
+
+    @Test
+    @DisplayName("tryCreate allokiert nur das Ergebnis")
+    void tryCreate_nurErgebnis() {
+        Runnable bewertung = () -> summe += Tarifierung.tryCreate(haftpflicht, kasko).getTarifierung().getNettopraemie();
+
+        // Tarifierung (64 B) und TarifierungsErgebnis (40 B), jeweils mit Objekt-Header. Surefire führt die Klasse
+        // in einer eigenen JVM ohne Escape-Analyse aus, die Messung ist also genau diese Summe.
+        assertThat(bytesProAufruf(bewertung)).isLessThanOrEqualTo(104.0);
+    }
+
+    private static double bytesProAufruf(Runnable bewertung) {
+        for (int i = 0; i < AUFWAERMEN; i++) {
+            bewertung.run();
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long vorher = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < AUFRUFE; i++) {
+            bewertung.run();
+        }
+        long nachher = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        return (double) (nachher - vorher) / AUFRUFE;
+    }
+}
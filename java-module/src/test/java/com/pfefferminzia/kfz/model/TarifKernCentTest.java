@@ -0,0 +1,127 @@
+package com.pfefferminzia.kfz.model;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.service.ZielbeitragService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Festkomma-Berechnung in Cent Tests")
+class TarifKernCentTest {
+
+    @Test
+    @DisplayName("Halbe Cent werden beim Rabattieren aufgerundet")
+    void praemieMitRabattCent_rundetKaufmaennisch() {
+        assertThat(TarifKern.praemieMitRabattCent(15, 50)).isEqualTo(8);
+        assertThat(TarifKern.praemieMitRabattCent(13, 50)).isEqualTo(7);
+        assertThat(TarifKern.praemieMitRabattCent(10_101, 10)).isEqualTo(9_091);
+        assertThat(TarifKern.praemieMitRabattCent(10_104, 10)).isEqualTo(9_094);
+        assertThat(TarifKern.praemieMitRabattCent(10_000, 0)).isEqualTo(10_000);
+    }
+
+    @Test
+    @DisplayName("Euro nach Cent rundet den double-Wert mit Math.round, nicht endliche und zu große Beträge scheitern")
+    void zuCent_rundungUndBereich() {
+        assertThat(TarifKern.zuCent(0.125)).isEqualTo(13);
+        assertThat(TarifKern.zuCent(-0.125)).isEqualTo(-12);
+        assertThat(TarifKern.zuCent(1.005)).isEqualTo(100);
+        assertThat(TarifKern.zuCent(21_474_836.47)).isEqualTo(TarifKern.MAX_CENT);
+        assertThat(TarifKern.zuCent(-21_474_836.47)).isEqualTo(-TarifKern.MAX_CENT);
+
+        for (double euro : new double[] {21_474_836.48, -21_474_836.48, 1e17, Double.POSITIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, Double.NaN}) {
+            assertThat(TarifKern.istImBereich(euro)).as("%s", euro).isFalse();
+            assertThatThrownBy(() -> TarifKern.zuCent(euro)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(new Haftpflicht(euro)::getPraemieCent).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("Cent-Prämien sind exakt, auch wo double Rundungsfehler sammelt")
+    void tarifierung_centExakt() {
+        var tarifierung = new Tarifierung(new Haftpflicht(0.1), new Kasko(0.2));
+
+        assertThat(tarifierung.getGesamtpraemie()).isNotEqualTo(0.3);
+        assertThat(tarifierung.getGesamtpraemieCent()).isEqualTo(30);
+        assertThat(tarifierung.getNettopraemieCent()).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("Nettoprämie wird aus der exakten Summe einmal gerundet")
+    void tarifierung_nettoEinmalGerundet() {
+        // 0.15 € und 0.15 € mit 50 % Rabatt: je 7.5 Cent, zusammen genau 15 Cent
+        var haftpflicht = new Haftpflicht(0.15, 50);
+        var kasko = new Kasko(0.15, 50);
+        var tarifierung = new Tarifierung(haftpflicht, kasko);
+
+        assertThat(haftpflicht.getPraemieMitRabattCent()).isEqualTo(8);
+        assertThat(tarifierung.getNettopraemieCent()).isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("Prämien in Cent überstehen die Umrechnung nach Euro unverändert")
+    void ausCent_verlustfrei() {
+        var random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            long cent = 1 + random.nextInt(10_000_000);
+            assertThat(Haftpflicht.ausCent(cent, 0).getPraemieCent()).isEqualTo(cent);
+            assertThat(Kasko.ausCent(cent, 0).getPraemieCent()).isEqualTo(cent);
+        }
+    }
+
+    @Test
+    @DisplayName("Gerundete Nettoprämie hält die Toleranz des Zielbeitrags ein")
+    void zielbeitrag_toleranzInCent() {
+        var random = new Random(7);
+        for (int i = 0; i < 2_000; i++) {
+            long haftpflichtCent = 100 + random.nextInt(200_000);
+            long kaskoCent = 100 + random.nextInt(200_000);
+            long zielCent = (haftpflichtCent + kaskoCent) / 100 + random.nextLong(haftpflichtCent + kaskoCent);
+
+            var tarifierung = new Tarifierung(TarifKern.inEuro(zielCent),
+                Haftpflicht.ausCent(haftpflichtCent, 0), Kasko.ausCent(kaskoCent, 0));
+
+            assertThat(tarifierung.getNettopraemieCent()).isLessThanOrEqualTo(zielCent + ZielbeitragService.TOLERANZ_CENT);
+            assertThat(ZielbeitragService.berechneRabatteCent(zielCent, haftpflichtCent, kaskoCent))
+                .isEqualTo(new Rabatte(tarifierung.getHaftpflicht().getRabatt(), tarifierung.getKasko().getRabatt()));
+        }
+    }
+
+    @Test
+    @DisplayName("TarifBatchCent liefert dieselben Cent-Beträge wie einzelne Tarifierungen")
+    void tarifBatchCent_entsprichtTarifierung() {
+        int groesse = 1_000;
+        var random = new Random(42);
+        var batch = new TarifBatchCent(groesse);
+        for (int i = 0; i < groesse; i++) {
+            batch.setHaftpflicht(i, 100 + random.nextInt(100_000), random.nextInt(100));
+            if (random.nextBoolean()) {
+                batch.setKasko(i, 100 + random.nextInt(100_000), random.nextInt(100));
+            }
+        }
+        batch.setHaftpflicht(0, -100, 0);
+
+        batch.berechne();
+
+        assertThat(batch.getFehler()[0]).isEqualTo(Fehlercode.HAFTPFLICHT_PRAEMIE_NICHT_POSITIV.bit());
+        assertThat(batch.getNettopraemienCent()[0]).isZero();
+        random = new Random(42);
+        for (int i = 0; i < groesse; i++) {
+            var haftpflicht = Haftpflicht.ausCent(100 + random.nextInt(100_000), random.nextInt(100));
+            var tarifierung = random.nextBoolean()
+                ? new Tarifierung(haftpflicht, Kasko.ausCent(100 + random.nextInt(100_000), random.nextInt(100)))
+                : new Tarifierung(haftpflicht);
+            if (i == 0) {
+                continue;
+            }
+
+            assertThat(batch.istGueltig(i)).isTrue();
+            assertThat(batch.getGesamtpraemienCent()[i]).isEqualTo(tarifierung.getGesamtpraemieCent());
+            assertThat(batch.getNettopraemienCent()[i]).isEqualTo(tarifierung.getNettopraemieCent());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.pfefferminzia.kfz.model;
+
+import com.pfefferminzia.kfz.common.PlausiException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+@DisplayName("Tarifangebot Tests")
+class TarifangebotTest {
+
+    @Test
+    @DisplayName("Rabatte, Summen und Fehler entsprechen Tarifierung.tryCreate")
+    void entsprichtTryCreate() {
+        var zufall = new SplittableRandom(42);
+        for (int i = 0; i < 5_000; i++) {
+            double haftpflicht = zufall.nextInt(20) == 0 ? -zufall.nextInt(100) : 1 + zufall.nextInt(100_000) / 100.0;
+            Double kasko = zufall.nextBoolean() ? 1 + zufall.nextInt(100_000) / 100.0 : null;
+            var zusatz = new ArrayList<Double>();
+            for (int z = zufall.nextInt(3) - 1; z > 0; z--) {
+                zusatz.add(1 + zufall.nextInt(10_000) / 100.0);
+            }
+            int anzahl = 1 + (kasko != null ? 1 : 0) + zusatz.size();
+            int[] rabatte = zufall.ints(anzahl, -5, 105).toArray();
+            double gesamt = haftpflicht + (kasko != null ? kasko : 0) + zusatz.stream().mapToDouble(d -> d).sum();
+            Double ziel = zufall.nextBoolean() ? Math.floor(gesamt * zufall.nextDouble() * 100) / 100 : null;
+
+            var vorlagen = zusatz.stream().map(ProduktVorlage::of).toList();
+            var produkte = new ArrayList<Produkt>();
+            for (int z = 0; z < zusatz.size(); z++) {
+                produkte.add(new Schutzbrief(zusatz.get(z), ziel == null ? rabatte[anzahl - zusatz.size() + z] : 0));
+            }
+            var h = new Haftpflicht(haftpflicht, ziel == null ? rabatte[0] : 0);
+            var k = kasko != null ? new Kasko(kasko, ziel == null ? rabatte[1] : 0) : null;
+            var erwartet = ziel != null ? Tarifierung.tryCreate(ziel, h, k, produkte) : Tarifierung.tryCreate(h, k, produkte);
+
+            Tarifangebot angebot;
+            try {
+                angebot = ziel != null
+                    ? Tarifangebot.berechne(ziel, ProduktVorlage.of(haftpflicht),
+                        kasko != null ? ProduktVorlage.of(kasko) : null, vorlagen)
+                    : Tarifangebot.berechne(ProduktVorlage.of(haftpflicht),
+                        kasko != null ? ProduktVorlage.of(kasko) : null, vorlagen, rabatte);
+            } catch (PlausiException e) {
+                assertThat(erwartet.istGueltig()).isFalse();
+                assertThat(e.getFehler()).containsExactlyElementsOf(erwartet.getFehler());
+                continue;
+            }
+
+            var tarifierung = erwartet.orElseThrow();
+            var bausteine = tarifierung.getBausteine();
+            assertThat(angebot.getAnzahlBausteine()).isEqualTo(bausteine.size());
+            for (int b = 0; b < bausteine.size(); b++) {
+                assertThat(angebot.getRabatt(b)).isEqualTo(bausteine.get(b).getRabatt());
+                assertThat(angebot.getPraemieCent(b)).isEqualTo(bausteine.get(b).getPraemieCent());
+            }
+            assertThat(angebot.getGesamtpraemieCent()).isEqualTo(tarifierung.getGesamtpraemieCent());
+            assertThat(angebot.getNettopraemieCent()).isEqualTo(tarifierung.getNettopraemieCent());
+            assertThat(angebot.hatKasko()).isEqualTo(kasko != null);
+        }
+    }
+
+    @Test
+    @DisplayName("Geteilte Vorlagen bleiben bei parallelen Zielbeiträgen unverändert")
+    void geteilteVorlagen_parallel() {
+        var haftpflicht = ProduktVorlage.of(312.47);
+        var kasko = ProduktVorlage.of(187.13);
+        List<ProduktVorlage> zusatz = List.of(ProduktVorlage.of(39.99));
+
+        var angebote = IntStream.range(0, 10_000).parallel()
+            .mapToObj(i -> Tarifangebot.berechne(100 + i % 400, haftpflicht, kasko, zusatz))
+            .toList();
+
+        for (int i = 0; i < angebote.size(); i++) {
+            var referenz = new Tarifierung(100 + i % 400, new Haftpflicht(312.47), new Kasko(187.13),
+                List.of(new Schutzbrief(39.99)));
+            assertThat(angebote.get(i).getNettopraemieCent()).isEqualTo(referenz.getNettopraemieCent());
+            assertThat(angebote.get(i).getRabatte())
+                .isEqualTo(new Rabatte(referenz.getHaftpflicht().getRabatt(), referenz.getKasko().getRabatt()));
+        }
+        assertThat(haftpflicht.getPraemieCent()).isEqualTo(31_247);
+        assertThat(haftpflicht).isEqualTo(ProduktVorlage.ausCent(31_247));
+    }
+
+    @Test
+    @DisplayName("Rabatte müssen zu den Bausteinen passen, fehlende Haftpflicht ist ein Plausifehler")
+    void ungueltigeAufrufe() {
+        var kasko = ProduktVorlage.of(50);
+
+        assertThatThrownBy(() -> Tarifangebot.berechne(ProduktVorlage.of(100), kasko, List.of(), 10))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("1 Rabatte für 2 Bausteine");
+        var fehler = catchThrowableOfType(() -> Tarifangebot.berechne(120, null, kasko), PlausiException.class);
+        assertThat(fehler.getFehler()).containsExactlyElementsOf(Tarifierung.tryCreate(120, null, new Kasko(50)).getFehler());
+    }
+}
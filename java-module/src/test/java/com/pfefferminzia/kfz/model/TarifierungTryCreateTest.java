@@ -0,0 +1,124 @@
+package com.pfefferminzia.kfz.model;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.common.PlausiException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("Tarifierung tryCreate Tests")
+class TarifierungTryCreateTest {
+
+    @Test
+    @DisplayName("Gültige Eingaben liefern eine berechnete Tarifierung")
+    void tryCreate_gueltig() {
+        var ergebnis = Tarifierung.tryCreate(new Haftpflicht(100, 20), new Kasko(50, 10));
+
+        assertThat(ergebnis.istGueltig()).isTrue();
+        assertThat(ergebnis.getFehler()).isEmpty();
+        assertThat(ergebnis.getTarifierung().getGesamtpraemie()).isEqualTo(150);
+        assertThat(ergebnis.orElseThrow().getNettopraemie()).isEqualTo(125);
+    }
+
+    @Test
+    @DisplayName("Ungültige Eingaben liefern Fehlercodes und dieselben Meldungen wie der Konstruktor")
+    void tryCreate_ungueltig() {
+        var ergebnis = Tarifierung.tryCreate(new Haftpflicht(-100, 150), new Kasko(-50, -20));
+
+        assertThat(ergebnis.istGueltig()).isFalse();
+        assertThat(ergebnis.getTarifierung()).isNull();
+        assertThat(ergebnis.getFehlercodes()).containsExactly(
+            Fehlercode.HAFTPFLICHT_PRAEMIE_NICHT_POSITIV,
+            Fehlercode.HAFTPFLICHT_RABATT_ZU_HOCH,
+            Fehlercode.KASKO_PRAEMIE_NICHT_POSITIV,
+            Fehlercode.KASKO_RABATT_NEGATIV);
+        assertThatThrownBy(() -> new Tarifierung(new Haftpflicht(-100, 150), new Kasko(-50, -20)))
+            .isInstanceOf(PlausiException.class)
+            .satisfies(e -> assertThat(((PlausiException) e).getFehler())
+                .containsExactlyInAnyOrderElementsOf(ergebnis.getFehler()));
+    }
+
+    @Test
+    @DisplayName("Nicht endliche und zu große Beträge werden gemeldet statt überzulaufen")
+    void tryCreate_betragAusserhalbBereich() {
+        assertThat(Tarifierung.tryCreate(100, new Haftpflicht(1e17), null).getFehlercodes())
+            .containsExactly(Fehlercode.BETRAG_AUSSERHALB_BEREICH);
+        assertThat(Tarifierung.tryCreate(new Haftpflicht(Double.POSITIVE_INFINITY), null).getFehlercodes())
+            .containsExactly(Fehlercode.BETRAG_AUSSERHALB_BEREICH);
+        assertThat(Tarifierung.tryCreate(1e17, new Haftpflicht(100), new Kasko(50)).getFehlercodes())
+            .containsExactly(Fehlercode.BETRAG_AUSSERHALB_BEREICH);
+        assertThat(Tarifierung.tryCreate(100, new Haftpflicht(100), null, List.of(new Schutzbrief(Double.NaN)))
+            .getFehlercodes())
+            .containsExactly(Fehlercode.ZUSATZBAUSTEIN_PRAEMIE_NICHT_POSITIV, Fehlercode.BETRAG_AUSSERHALB_BEREICH);
+        assertThatThrownBy(() -> new Tarifierung(100, new Haftpflicht(1e17), null))
+            .isInstanceOf(PlausiException.class)
+            .hasMessageContaining(Fehlercode.BETRAG_AUSSERHALB_BEREICH.getMeldung());
+
+        assertThat(Tarifierung.tryCreate(new Haftpflicht(21_474_836.47), null).istGueltig()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Fehlende Haftpflicht wird als Fehlercode gemeldet")
+    void tryCreate_haftpflichtFehlt() {
+        var ergebnis = Tarifierung.tryCreate(null);
+
+        assertThat(ergebnis.getFehlercodes()).containsExactly(Fehlercode.HAFTPFLICHT_FEHLT);
+        assertThat(ergebnis.getFehler()).containsExactly("Haftpflicht ist Pflichtfeld");
+    }
+
+    @Test
+    @DisplayName("Zielbeitrag wird wie im Konstruktor berechnet")
+    void tryCreate_zielbeitrag() {
+        var ergebnis = Tarifierung.tryCreate(120, new Haftpflicht(100), new Kasko(50));
+
+        assertThat(ergebnis.istGueltig()).isTrue();
+        assertThat(ergebnis.getTarifierung().getNettopraemie()).isCloseTo(120, within(0.01));
+        assertThat(ergebnis.getTarifierung().getHaftpflicht().getRabatt()).isEqualTo(30);
+        assertThat(ergebnis.getTarifierung().getKasko().getRabatt()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Nicht erreichbarer Zielbeitrag wird mit Meldung und Mindestbeitrag gemeldet")
+    void tryCreate_zielbeitragNichtErreichbar() {
+        var ergebnis = Tarifierung.tryCreate(-200, new Haftpflicht(100), new Kasko(50));
+
+        assertThat(ergebnis.getFehlercodes()).containsExactly(Fehlercode.ZIELBEITRAG_NICHT_ERREICHBAR);
+        assertThat(ergebnis.getFehler())
+            .containsExactly("Zielbeitrag von -200,00€ ist nicht erreichbar. Minimaler Beitrag: 1,50€");
+    }
+
+    @Test
+    @DisplayName("orElseThrow wirft eine PlausiException ohne Stacktrace und ohne Konsolenausgabe")
+    void tryCreate_orElseThrow() {
+        var ergebnis = Tarifierung.tryCreate(new Haftpflicht(100, -10));
+        var standardFehlerausgabe = System.err;
+        var konsole = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(konsole));
+        try {
+            assertThatThrownBy(ergebnis::orElseThrow)
+                .isInstanceOf(PlausiException.class)
+                .hasMessageContaining("Rabatt für die Haftpflicht darf nicht negativ sein")
+                .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+        } finally {
+            System.setErr(standardFehlerausgabe);
+        }
+
+        assertThat(konsole.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("PlausiException ohne Fehlerliste bleibt wie bisher nutzbar")
+    void plausiException_ohneFehler() {
+        var exception = new PlausiException(null);
+
+        assertThat(exception.getFehler()).isNull();
+        assertThat(exception.getMessage()).isEqualTo("Plausibilitätsprüfung fehlgeschlagen");
+    }
+}
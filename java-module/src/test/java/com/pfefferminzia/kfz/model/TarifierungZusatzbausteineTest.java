@@ -0,0 +1,106 @@
+package com.pfefferminzia.kfz.model;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.service.ValidationService;
+import com.pfefferminzia.kfz.service.ValidationService.Modus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Tarifierung mit Zusatzbausteinen Tests")
+class TarifierungZusatzbausteineTest {
+
+    @Test
+    @DisplayName("Gesamt- und Nettoprämie enthalten alle Bausteine")
+    void tarifierung_summiertAlleBausteine() {
+        var tarifierung = new Tarifierung(new Haftpflicht(300, 10), new Vollkasko(200),
+            List.of(new Schutzbrief(40, 50), new Insassenunfall(25.55)));
+
+        assertThat(tarifierung.getGesamtpraemie()).isEqualTo(565.55);
+        assertThat(tarifierung.getGesamtpraemieCent()).isEqualTo(56_555);
+        assertThat(tarifierung.getNettopraemieCent()).isEqualTo(27_000 + 20_000 + 2_000 + 2_555);
+        assertThat(tarifierung.getBausteine()).hasSize(4).first().isSameAs(tarifierung.getHaftpflicht());
+    }
+
+    @Test
+    @DisplayName("Zielbeitrag rabattiert die teuersten Bausteine zuerst und hält die Toleranz ein")
+    void zielbeitrag_teuersteBausteineZuerst() {
+        var haftpflicht = new Haftpflicht(300);
+        var kasko = new Teilkasko(100);
+        var schutzbrief = new Schutzbrief(400);
+        var insassenunfall = new Insassenunfall(50);
+
+        var tarifierung = new Tarifierung(450, haftpflicht, kasko, List.of(schutzbrief, insassenunfall));
+
+        // benötigt 399,99 €: 99 % auf den Schutzbrief (396 €), Rest 3,99 € auf die Haftpflicht (2 %)
+        assertThat(schutzbrief.getRabatt()).isEqualTo(99);
+        assertThat(haftpflicht.getRabatt()).isEqualTo(2);
+        assertThat(kasko.getRabatt()).isZero();
+        assertThat(insassenunfall.getRabatt()).isZero();
+        assertThat(tarifierung.getNettopraemieCent()).isLessThanOrEqualTo(45_001);
+    }
+
+    @Test
+    @DisplayName("tryCreate meldet unerreichbaren Zielbeitrag über alle Bausteine")
+    void tryCreate_nichtErreichbar() {
+        var ergebnis = Tarifierung.tryCreate(5, new Haftpflicht(300), null, List.of(new Schutzbrief(400)));
+
+        assertThat(ergebnis.getFehlercodes()).containsExactly(Fehlercode.ZIELBEITRAG_NICHT_ERREICHBAR);
+        assertThat(ergebnis.getFehler()).containsExactly("Zielbeitrag von 5,00€ ist nicht erreichbar. Minimaler Beitrag: 7,00€");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Modus.class)
+    @DisplayName("Unplausible Zusatzbausteine werden in beiden Validierungsmodi gemeldet")
+    void validierung_zusatzbaustein(Modus modus) {
+        Modus vorher = ValidationService.getModus();
+        ValidationService.setModus(modus);
+        try {
+            assertThatThrownBy(() -> new Tarifierung(new Haftpflicht(100), null,
+                List.of(new Schutzbrief(0), new Insassenunfall(10, 100))))
+                .isInstanceOf(PlausiException.class)
+                .satisfies(e -> assertThat(((PlausiException) e).getFehler()).containsExactlyInAnyOrder(
+                    "Prämie für den Zusatzbaustein muss positiv sein",
+                    "Rabatt für den Zusatzbaustein darf nicht größer 99 sein"));
+        } finally {
+            ValidationService.setModus(vorher);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Modus.class)
+    @DisplayName("Haftpflicht und Kasko werden als Zusatzbaustein in beiden Validierungsmodi abgelehnt")
+    void validierung_haftpflichtOderKaskoAlsZusatzbaustein(Modus modus) {
+        Modus vorher = ValidationService.getModus();
+        ValidationService.setModus(modus);
+        try {
+            for (Produkt baustein : List.of(new Haftpflicht(50), new Kasko(50), new Teilkasko(50), new Vollkasko(50))) {
+                var schutzbrief = new Schutzbrief(40);
+                var zusatzbausteine = List.of(schutzbrief, baustein);
+                assertThatThrownBy(() -> new Tarifierung(150, new Haftpflicht(100), null, zusatzbausteine))
+                    .isInstanceOf(PlausiException.class)
+                    .satisfies(e -> assertThat(((PlausiException) e).getFehler())
+                        .containsExactly(Fehlercode.ZUSATZBAUSTEIN_ART_UNZULAESSIG.getMeldung()));
+                assertThat(schutzbrief.getRabatt()).isZero();
+            }
+        } finally {
+            ValidationService.setModus(vorher);
+        }
+    }
+
+    @Test
+    @DisplayName("tryCreate meldet Haftpflicht oder Kasko unter den Zusatzbausteinen")
+    void tryCreate_kaskoAlsZusatzbaustein() {
+        var ergebnis = Tarifierung.tryCreate(new Haftpflicht(100), new Kasko(50), List.of(new Vollkasko(-1)));
+
+        assertThat(ergebnis.getFehlercodes()).containsExactly(
+            Fehlercode.ZUSATZBAUSTEIN_PRAEMIE_NICHT_POSITIV, Fehlercode.ZUSATZBAUSTEIN_ART_UNZULAESSIG);
+    }
+}
@@ -0,0 +1,138 @@
+package com.pfefferminzia.kfz.server;
+
+import com.pfefferminzia.kfz.common.Fehlercode;
+import com.pfefferminzia.kfz.model.TarifAnfrage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TarifCodec Tests")
+class TarifCodecTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    @DisplayName("Ergebnisse entsprechen TarifAnfrage.bewerte, auch über mehrere Rahmen in Heap- und Direct-Puffern")
+    void bewerte_entsprichtTarifAnfrage(boolean direct) {
+        var random = new Random(42);
+        var anfragen = new ArrayList<TarifAnfrage>();
+        for (int i = 0; i < 2_000; i++) {
+            double haftpflicht = random.nextInt(10) == 0 ? -random.nextInt(100) : 1 + random.nextInt(100_000) / 100.0;
+            Double kasko = random.nextBoolean() ? 1 + random.nextInt(100_000) / 100.0 : null;
+            long gesamtCent = Math.round(haftpflicht * 100) + (kasko != null ? Math.round(kasko * 100) : 0);
+            anfragen.add(switch (random.nextInt(4)) {
+                case 0 -> new TarifAnfrage(haftpflicht, random.nextInt(120) - 10, kasko, random.nextInt(120) - 10, null);
+                case 1 -> TarifAnfrage.mitZielbeitrag((long) (gesamtCent * random.nextDouble()) / 100.0, haftpflicht, kasko);
+                case 2 -> TarifAnfrage.mitZielbeitrag(-random.nextInt(10), haftpflicht, kasko);
+                default -> new TarifAnfrage(haftpflicht, random.nextInt(100), kasko, random.nextInt(100), null);
+            });
+        }
+
+        int groesse = 2 * (TarifCodec.KOPF + anfragen.size() * TarifCodec.DATENSATZ);
+        ByteBuffer puffer = direct ? ByteBuffer.allocateDirect(groesse) : ByteBuffer.allocate(groesse);
+        List<List<TarifAnfrage>> teile = List.of(anfragen.subList(0, 700), anfragen.subList(700, anfragen.size()));
+        for (List<TarifAnfrage> teil : teile) {
+            int rahmen = TarifCodec.beginneAnfragen(puffer);
+            teil.forEach(anfrage -> TarifCodec.schreibeAnfrage(puffer, anfrage));
+            assertThat(TarifCodec.beendeRahmen(puffer, rahmen)).isEqualTo(teil.size());
+        }
+        puffer.flip();
+
+        ByteBuffer ergebnisse = direct ? ByteBuffer.allocateDirect(groesse) : ByteBuffer.allocate(groesse);
+        while (puffer.hasRemaining()) {
+            TarifCodec.bewerte(puffer, ergebnisse);
+        }
+        assertThat(ergebnisse.position()).isEqualTo(puffer.limit());
+
+        int rahmen = 0;
+        int index = 0;
+        for (TarifAnfrage anfrage : anfragen) {
+            if (index == TarifCodec.anzahlErgebnisse(ergebnisse, rahmen)) {
+                rahmen += TarifCodec.laenge(ergebnisse, rahmen);
+                index = 0;
+            }
+            var erwartet = anfrage.bewerte();
+            assertThat(TarifCodec.fehlerMaske(ergebnisse, rahmen, index)).as(anfrage.toString())
+                .isEqualTo(erwartet.getFehlerMaske());
+            assertThat(TarifCodec.fehlermeldungen(ergebnisse, rahmen, index)).as(anfrage.toString())
+                .isEqualTo(erwartet.getFehler());
+            assertThat(TarifCodec.hatKasko(ergebnisse, rahmen, index)).isEqualTo(anfrage.hatKasko());
+            if (erwartet.istGueltig()) {
+                var tarifierung = erwartet.getTarifierung();
+                assertThat(TarifCodec.gesamtpraemieCent(ergebnisse, rahmen, index))
+                    .isEqualTo(tarifierung.getGesamtpraemieCent());
+                assertThat(TarifCodec.nettopraemieCent(ergebnisse, rahmen, index))
+                    .as(anfrage.toString()).isEqualTo(tarifierung.getNettopraemieCent());
+                assertThat(TarifCodec.haftpflichtRabatt(ergebnisse, rahmen, index))
+                    .isEqualTo(tarifierung.getHaftpflicht().getRabatt());
+                assertThat(TarifCodec.kaskoRabatt(ergebnisse, rahmen, index))
+                    .isEqualTo(anfrage.hatKasko() ? tarifierung.getKasko().getRabatt() : 0);
+            }
+            index++;
+        }
+    }
+
+    @Test
+    @DisplayName("Unvollständige oder fremde Rahmen werden abgelehnt, ohne die Puffer zu verändern")
+    void ungueltigerRahmen_wirdAbgelehnt() {
+        var anfragen = ByteBuffer.allocate(TarifCodec.KOPF + 2 * TarifCodec.DATENSATZ);
+        int rahmen = TarifCodec.beginneAnfragen(anfragen);
+        TarifCodec.schreibeAnfrage(anfragen, 10_000, 10, TarifCodec.OHNE, 0, TarifCodec.OHNE);
+        TarifCodec.schreibeAnfrage(anfragen, 10_000, 10, 5_000, 0, 12_000);
+        TarifCodec.beendeRahmen(anfragen, rahmen);
+
+        var abgeschnitten = anfragen.duplicate().flip().limit(TarifCodec.KOPF + TarifCodec.DATENSATZ);
+        assertThatThrownBy(() -> TarifCodec.bewerte(abgeschnitten, ByteBuffer.allocate(1024)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("2 Datensätze angekündigt");
+        assertThatThrownBy(() -> TarifCodec.anzahlErgebnisse(anfragen.duplicate().flip(), 0))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Kein Ergebnis-Rahmen");
+
+        var vollstaendig = anfragen.duplicate().flip();
+        var zuKlein = ByteBuffer.allocate(TarifCodec.KOPF + TarifCodec.DATENSATZ);
+        assertThatThrownBy(() -> TarifCodec.bewerte(vollstaendig, zuKlein))
+            .isInstanceOf(BufferOverflowException.class);
+        assertThat(vollstaendig.position()).isZero();
+        assertThat(zuKlein.position()).isZero();
+    }
+
+    @Test
+    @DisplayName("Beträge außerhalb des gültigen Bereichs werden abgelehnt statt überzulaufen")
+    void betragAusserhalbBereich_wirdAbgelehnt() {
+        long[][] anfragen = {
+            {Long.MAX_VALUE, Long.MAX_VALUE, 1},
+            {10_000, 5_000, Long.MIN_VALUE + 1},
+            {TarifCodec.MAX_CENT + 1, TarifCodec.OHNE, TarifCodec.OHNE},
+            {10_000, -TarifCodec.MAX_CENT - 1, TarifCodec.OHNE},
+            {TarifCodec.MAX_CENT, TarifCodec.MAX_CENT, TarifCodec.MAX_CENT},
+        };
+        var puffer = ByteBuffer.allocate(TarifCodec.KOPF + anfragen.length * TarifCodec.DATENSATZ);
+        int rahmen = TarifCodec.beginneAnfragen(puffer);
+        for (long[] anfrage : anfragen) {
+            TarifCodec.schreibeAnfrage(puffer, anfrage[0], 0, anfrage[1], 0, anfrage[2]);
+        }
+        TarifCodec.beendeRahmen(puffer, rahmen);
+
+        var ergebnisse = ByteBuffer.allocate(puffer.capacity());
+        TarifCodec.bewerte(puffer.flip(), ergebnisse);
+
+        int bereich = Fehlercode.BETRAG_AUSSERHALB_BEREICH.bit();
+        for (int i = 0; i < 4; i++) {
+            assertThat(TarifCodec.fehlerMaske(ergebnisse, 0, i)).as("Anfrage %d", i).isEqualTo(bereich);
+            assertThat(TarifCodec.gesamtpraemieCent(ergebnisse, 0, i)).isZero();
+        }
+        assertThat(TarifCodec.fehlerMaske(ergebnisse, 0, 4)).isZero();
+        assertThat(TarifCodec.gesamtpraemieCent(ergebnisse, 0, 4)).isEqualTo(2 * TarifCodec.MAX_CENT);
+        assertThat(TarifCodec.nettopraemieCent(ergebnisse, 0, 4)).isEqualTo(TarifCodec.MAX_CENT);
+    }
+}
@@ -0,0 +1,220 @@
+package com.pfefferminzia.kfz.server;
+
+import com.pfefferminzia.kfz.cli.NdjsonFormat;
+import com.pfefferminzia.kfz.model.TarifAnfrage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TarifServer Tests")
+class TarifServerTest {
+
+    private TarifServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void starten() throws Exception {
+        server = TarifServer.starte(0, 16);
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void stoppen() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("MikroBatcher liefert dieselben Ergebnisse wie Tarifierung.tryCreate")
+    void mikroBatcher_entsprichtTryCreate() {
+        var random = new Random(42);
+        var anfragen = new ArrayList<TarifAnfrage>();
+        for (int i = 0; i < 2_000; i++) {
+            double haftpflicht = random.nextInt(10) == 0 ? -random.nextInt(100) : 1 + random.nextInt(100_000) / 100.0;
+            Double kasko = random.nextBoolean() ? 1 + random.nextInt(100_000) / 100.0 : null;
+            double gesamt = haftpflicht + (kasko != null ? kasko : 0);
+            anfragen.add(switch (random.nextInt(4)) {
+                case 0 -> new TarifAnfrage(haftpflicht, random.nextInt(120) - 10, kasko, random.nextInt(120) - 10, null);
+                case 1 -> TarifAnfrage.mitZielbeitrag(gesamt * random.nextDouble(), haftpflicht, kasko);
+                case 2 -> TarifAnfrage.mitZielbeitrag(-random.nextInt(10), haftpflicht, kasko);
+                default -> new TarifAnfrage(haftpflicht, random.nextInt(100), kasko, random.nextInt(100), null);
+            });
+        }
+
+        var format = new NdjsonFormat();
+        var futures = new ArrayList<CompletableFuture<TarifAntwort>>();
+        try (var batcher = new MikroBatcher(64, 100, anfragen.size())) {
+            anfragen.forEach(anfrage -> futures.add(batcher.einreichen(anfrage)));
+            for (int i = 0; i < anfragen.size(); i++) {
+                var erwartet = new StringBuilder();
+                format.schreibeErgebnis(erwartet, i, anfragen.get(i).bewerte());
+                var tatsaechlich = new StringBuilder();
+                futures.get(i).join().schreibeNdjson(tatsaechlich, i);
+
+                assertThat(tatsaechlich.toString()).as(anfragen.get(i).toString()).isEqualTo(erwartet.toString());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Nach close() bleibt keine eingereichte Anfrage unbeantwortet")
+    void mikroBatcher_close() throws Exception {
+        var anfrage = new TarifAnfrage(100, 10, 50.0, 10, null);
+        for (int runde = 0; runde < 50; runde++) {
+            var batcher = new MikroBatcher(8, 10, 1_024);
+            var futures = new ConcurrentLinkedQueue<CompletableFuture<TarifAntwort>>();
+            var einreicher = new ArrayList<Thread>();
+            for (int t = 0; t < 4; t++) {
+                einreicher.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        for (int i = 0; i < 200; i++) {
+                            var zukunft = batcher.einreichen(anfrage);
+                            if (zukunft != null) {
+                                futures.add(zukunft);
+                            }
+                        }
+                    } catch (IllegalStateException e) {
+                        // geschlossen
+                    }
+                }));
+            }
+            batcher.close();
+            for (Thread thread : einreicher) {
+                thread.join();
+            }
+
+            // berechnet oder beim Schließen abgelehnt, aber in jedem Fall abgeschlossen
+            assertThat(futures).allSatisfy(zukunft -> assertThat(zukunft.handle(
+                    (antwort, fehler) -> antwort != null || fehler instanceof IllegalStateException))
+                .succeedsWithin(Duration.ofSeconds(5))
+                .isEqualTo(true));
+            assertThatThrownBy(() -> batcher.einreichen(anfrage)).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("Einzelanfrage mit Zielbeitrag wird tarifiert")
+    void einzeln_zielbeitrag() throws Exception {
+        var antwort = sende("/tarifierung", "{\"haftpflichtPraemie\":100,\"kaskoPraemie\":50,\"zielbeitrag\":120}");
+
+        assertThat(antwort.statusCode()).isEqualTo(200);
+        assertThat(antwort.body()).isEqualTo(
+            "{\"zeile\":1,\"haftpflichtRabatt\":30,\"kaskoRabatt\":0,\"gesamtpraemie\":150.00,\"nettopraemie\":120.00}\n");
+    }
+
+    @Test
+    @DisplayName("Plausibilitätsfehler ergeben 422, unlesbare Anfragen 400, andere Methoden 405")
+    void einzeln_fehler() throws Exception {
+        assertThat(sende("/tarifierung", "{\"haftpflichtPraemie\":-100}").statusCode()).isEqualTo(422);
+        assertThat(sende("/tarifierung", "{\"haftpflichtPraemie\":-100}").body())
+            .contains("HAFTPFLICHT_PRAEMIE_NICHT_POSITIV");
+        assertThat(sende("/tarifierung", "kein json").statusCode()).isEqualTo(400);
+
+        var get = client.send(HttpRequest.newBuilder(uri("/tarifierung")).GET().build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertThat(get.statusCode()).isEqualTo(405);
+    }
+
+    @Test
+    @DisplayName("Unbekannte Unterpfade ergeben 404, Fehlertexte bleiben gültiges JSON")
+    void unbekannterPfad() throws Exception {
+        var antwort = sende("/tarifierung/xyz", "{\"haftpflichtPraemie\":100}");
+        assertThat(antwort.statusCode()).isEqualTo(404);
+        assertThat(sende("/tarifierungen", "{\"haftpflichtPraemie\":100}").statusCode()).isEqualTo(404);
+        assertThat(sende("/tarifierung/batch/", "{\"haftpflichtPraemie\":100}").statusCode()).isEqualTo(404);
+        assertThat(sende("/tarifierung/x%22y", "").body())
+            .isEqualTo("{\"fehler\":[\"Unbekannter Pfad /tarifierung/x\\\"y\"]}\n");
+    }
+
+    @Test
+    @DisplayName("Batch liefert eine Ergebniszeile pro Anfrage")
+    void batch() throws Exception {
+        var antwort = sende("/tarifierung/batch", """
+            {"haftpflichtPraemie":100,"haftpflichtRabatt":20}
+
+            {"haftpflichtPraemie":100,"kaskoPraemie":50,"zielbeitrag":0.5}
+            nicht lesbar
+            """);
+
+        assertThat(antwort.statusCode()).isEqualTo(200);
+        assertThat(antwort.headers().firstValue("Content-Type")).hasValueSatisfying(t -> assertThat(t).contains("ndjson"));
+        assertThat(antwort.body().lines().toList()).satisfiesExactly(
+            zeile -> assertThat(zeile).isEqualTo(
+                "{\"zeile\":1,\"haftpflichtRabatt\":20,\"gesamtpraemie\":100.00,\"nettopraemie\":80.00}"),
+            zeile -> assertThat(zeile).startsWith("{\"zeile\":3,\"fehlercodes\":[\"ZIELBEITRAG_NICHT_ERREICHBAR\"]"),
+            zeile -> assertThat(zeile).startsWith("{\"zeile\":4,\"fehler\":[\"Zeile nicht lesbar"));
+    }
+
+    @Test
+    @DisplayName("Über dem Limit antwortet der Server sofort mit 503")
+    void lastabwurf() throws Exception {
+        server.limit.acquire(16);
+        try {
+            var antwort = sende("/tarifierung", "{\"haftpflichtPraemie\":100}");
+            assertThat(antwort.statusCode()).isEqualTo(503);
+            assertThat(antwort.headers().firstValue("Retry-After")).contains("1");
+        } finally {
+            server.limit.release(16);
+        }
+        assertThat(sende("/tarifierung", "{\"haftpflichtPraemie\":100}").statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Binärformat: Ergebnis-Rahmen zurück, 400 bei unvollständigem Rahmen")
+    void binaer() throws Exception {
+        var anfragen = ByteBuffer.allocate(TarifCodec.KOPF + 2 * TarifCodec.DATENSATZ);
+        int rahmen = TarifCodec.beginneAnfragen(anfragen);
+        TarifCodec.schreibeAnfrage(anfragen, 10_000, 20, 5_000, 10, TarifCodec.OHNE);
+        TarifCodec.schreibeAnfrage(anfragen, 10_000, 0, 5_000, 0, 100);
+        TarifCodec.beendeRahmen(anfragen, rahmen);
+
+        var antwort = client.send(HttpRequest.newBuilder(uri("/tarifierung/binaer"))
+            .POST(HttpRequest.BodyPublishers.ofByteArray(anfragen.array())).build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(antwort.statusCode()).isEqualTo(200);
+        var ergebnisse = ByteBuffer.wrap(antwort.body());
+        assertThat(TarifCodec.anzahlErgebnisse(ergebnisse, 0)).isEqualTo(2);
+        assertThat(TarifCodec.nettopraemieCent(ergebnisse, 0, 0)).isEqualTo(12_500);
+        assertThat(TarifCodec.fehlermeldungen(ergebnisse, 0, 1)).singleElement().asString()
+            .contains("nicht erreichbar");
+
+        var abgeschnitten = HttpRequest.BodyPublishers.ofByteArray(anfragen.array(), 0, TarifCodec.KOPF + 1);
+        assertThat(client.send(HttpRequest.newBuilder(uri("/tarifierung/binaer")).POST(abgeschnitten).build(),
+            HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("Lastgenerator sendet Anfragen und misst die Antwortzeiten")
+    void lastgenerator() throws Exception {
+        var bericht = Lastgenerator.starte(URI.create("http://localhost:" + server.getPort()), 4, Duration.ofMillis(500));
+
+        assertThat(bericht.gesendet()).isPositive();
+        assertThat(bericht.erfolgreich() + bericht.abgelehnt()).isEqualTo(bericht.gesendet());
+        assertThat(bericht.fehler()).isZero();
+        assertThat(bericht.p99Mikros()).isGreaterThanOrEqualTo(bericht.p50Mikros());
+    }
+
+    private HttpResponse<String> sende(String pfad, String koerper) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(pfad)).POST(HttpRequest.BodyPublishers.ofString(koerper)).build(),
+            HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String pfad) {
+        return URI.create("http://localhost:" + server.getPort() + pfad);
+    }
+}
@@ -0,0 +1,243 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.service.KontingentJournal.Bestaetigung;
+import com.pfefferminzia.kfz.service.KontingentJournal.Stand;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("KontingentJournal Tests")
+class KontingentJournalTest {
+
+    private static final int SEGMENTGROESSE = 4096;
+
+    @TempDir
+    Path verzeichnis;
+
+    @Test
+    @DisplayName("Gutschriften und Verbrauch überstehen einen Neustart")
+    void oeffne_stelltStaendeWiederHer() throws IOException {
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC)) {
+            journal.gutschrift("M1", 100);
+            journal.gutschrift("M2", 50);
+            journal.verbrauch("M1", 30);
+        }
+
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC)) {
+            assertThat(journal.getStaende()).containsOnly(
+                Map.entry("M1", new Stand(100, 30)),
+                Map.entry("M2", new Stand(50, 0)));
+            journal.verbrauch("M2", 10);
+        }
+
+        try (var journal = oeffne(Bestaetigung.NACH_SCHREIBEN)) {
+            assertThat(journal.getStaende().get("M2")).isEqualTo(new Stand(50, 10));
+        }
+    }
+
+    @Test
+    @DisplayName("Snapshot ersetzt die abgedeckten Segmente")
+    void snapshot_loeschtAlteSegmente() throws IOException {
+        try (var journal = oeffne(Bestaetigung.NACH_SCHREIBEN)) {
+            for (int i = 0; i < 1_000; i++) {
+                journal.gutschrift("M" + (i % 10), 2);
+                journal.verbrauch("M" + (i % 10), 1);
+            }
+            journal.snapshot();
+            journal.verbrauch("M0", 5);
+            assertThat(segmente()).hasSize(1);
+        }
+
+        try (var journal = oeffne(Bestaetigung.NACH_SCHREIBEN)) {
+            assertThat(journal.getStaende()).hasSize(10);
+            assertThat(journal.getStaende().get("M0")).isEqualTo(new Stand(200, 105));
+            assertThat(journal.getStaende().get("M9")).isEqualTo(new Stand(200, 100));
+        }
+    }
+
+    @Test
+    @DisplayName("Volle Segmente lösen automatisch einen Snapshot aus")
+    void schreibe_automatischerSnapshot() throws IOException {
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC)) {
+            for (int i = 0; i < 5_000; i++) {
+                journal.verbrauch("M1", 1);
+            }
+        }
+
+        assertThat(Files.exists(verzeichnis.resolve("snapshot.bin"))).isTrue();
+        assertThat(segmente().size()).isLessThanOrEqualTo(KontingentJournal.SNAPSHOT_NACH_SEGMENTEN + 1);
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC)) {
+            assertThat(journal.getStaende().get("M1")).isEqualTo(new Stand(0, 5_000));
+        }
+    }
+
+    @Test
+    @DisplayName("Ein gescheiterter automatischer Snapshot wird beim nächsten fsync wiederholt")
+    void schreibe_snapshotNachFehlerWiederholt() throws Exception {
+        // Ein Verzeichnis an Stelle der temporären Datei lässt das Schreiben des Snapshots scheitern
+        Path sperre = Files.createDirectories(verzeichnis.resolve("snapshot.bin.tmp"));
+        Files.createFile(sperre.resolve("belegt"));
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC)) {
+            for (int i = 0; i < 1_000; i++) {
+                journal.verbrauch("M1", 1);
+            }
+            assertThat(Files.exists(verzeichnis.resolve("snapshot.bin"))).isFalse();
+
+            Files.delete(sperre.resolve("belegt"));
+            Files.delete(sperre);
+            journal.verbrauch("M1", 1);
+            for (int i = 0; i < 500 && !Files.exists(verzeichnis.resolve("snapshot.bin")); i++) {
+                Thread.sleep(10);
+            }
+            assertThat(Files.exists(verzeichnis.resolve("snapshot.bin"))).isTrue();
+        }
+
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC)) {
+            assertThat(journal.getStaende().get("M1")).isEqualTo(new Stand(0, 1_001));
+        }
+    }
+
+    @Test
+    @DisplayName("Ein abgeschnittener Snapshot wird als beschädigt gemeldet")
+    void oeffne_abgeschnittenerSnapshot() throws IOException {
+        Files.write(verzeichnis.resolve("snapshot.bin"), new byte[] {1, 2});
+
+        assertThatThrownBy(() -> oeffne(Bestaetigung.NACH_FSYNC))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("beschädigt");
+    }
+
+    @Test
+    @DisplayName("Ein abgebrochener letzter Eintrag wird verworfen")
+    void oeffne_verwirftAbgebrochenenEintrag() throws IOException {
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC)) {
+            journal.gutschrift("M1", 100);
+            journal.verbrauch("M1", 7);
+        }
+        // Letztes Byte des zweiten Eintrags (Makler "M1" = 2 Bytes) verfälschen
+        int ende = 2 * (8 + 1 + 8 + 2 + 2);
+        try (var kanal = FileChannel.open(segmente().get(0), StandardOpenOption.WRITE)) {
+            kanal.write(ByteBuffer.wrap(new byte[]{'X'}), ende - 1);
+        }
+
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC)) {
+            assertThat(journal.getStaende().get("M1")).isEqualTo(new Stand(100, 0));
+            journal.verbrauch("M1", 3);
+        }
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC)) {
+            assertThat(journal.getStaende().get("M1")).isEqualTo(new Stand(100, 3));
+        }
+    }
+
+    @Test
+    @DisplayName("Einträge hinter einer Lücke werden verworfen und leben nicht wieder auf")
+    void oeffne_verwirftEintraegeHinterLuecke() throws IOException {
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC)) {
+            journal.gutschrift("M1", 100);
+            journal.verbrauch("M1", 7);
+            journal.verbrauch("M1", 5);
+        }
+        // Zweiter Eintrag hat die Platte nicht erreicht, der dritte schon
+        int laenge = 8 + 1 + 8 + 2 + 2;
+        try (var kanal = FileChannel.open(segmente().get(0), StandardOpenOption.WRITE)) {
+            kanal.write(ByteBuffer.allocate(laenge), laenge);
+        }
+
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC)) {
+            assertThat(journal.getStaende().get("M1")).isEqualTo(new Stand(100, 0));
+            journal.verbrauch("M1", 3);
+        }
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC)) {
+            assertThat(journal.getStaende().get("M1")).isEqualTo(new Stand(100, 3));
+        }
+    }
+
+    @Test
+    @DisplayName("Gleichzeitige Schreiber teilen sich die fsyncs, kein Eintrag geht verloren")
+    void schreibe_nebenlaeufig() throws Exception {
+        int threads = 8;
+        int eintraege = 2_000;
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC);
+             var executor = Executors.newFixedThreadPool(threads)) {
+            var aufgaben = new ArrayList<Callable<Void>>();
+            for (int t = 0; t < threads; t++) {
+                String makler = "M" + (t % 3);
+                aufgaben.add(() -> {
+                    for (int i = 0; i < eintraege; i++) {
+                        journal.verbrauch(makler, 1);
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> ergebnis : executor.invokeAll(aufgaben)) {
+                ergebnis.get();
+            }
+        }
+
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC)) {
+            long summe = journal.getStaende().values().stream().mapToLong(Stand::verbraucht).sum();
+            assertThat(summe).isEqualTo((long) threads * eintraege);
+            assertThat(journal.getStaende().get("M0").verbraucht()).isEqualTo(3L * eintraege);
+        }
+    }
+
+    @Test
+    @DisplayName("RabattKontingent übernimmt gebuchte Punkte, offene Reservierungen verfallen")
+    void rabattKontingent_mitJournal() throws IOException {
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC)) {
+            var kontingent = new RabattKontingent(journal);
+            kontingent.gutschreiben("M1", 100);
+            kontingent.reserviere("M1", 30).buche();
+            kontingent.reserviere("M1", 20);
+            assertThat(kontingent.getKontostand("M1")).isEqualTo(new RabattKontingent.Kontostand(50, 20, 30));
+        }
+
+        try (var journal = oeffne(Bestaetigung.NACH_FSYNC)) {
+            var kontingent = new RabattKontingent(journal);
+            assertThat(kontingent.getKontostand("M1")).isEqualTo(new RabattKontingent.Kontostand(70, 0, 30));
+        }
+    }
+
+    @Test
+    @DisplayName("Scheitert das Journal, bleibt die Reservierung offen")
+    void rabattKontingent_journalFehler() throws IOException {
+        var journal = oeffne(Bestaetigung.NACH_FSYNC);
+        var kontingent = new RabattKontingent(journal);
+        kontingent.gutschreiben("M1", 100);
+        var reservierung = kontingent.reserviere("M1", 30);
+        journal.close();
+
+        assertThatThrownBy(reservierung::buche).isInstanceOf(IllegalStateException.class);
+        assertThat(kontingent.getKontostand("M1")).isEqualTo(new RabattKontingent.Kontostand(70, 30, 0));
+        assertThat(reservierung.freigeben()).isTrue();
+        assertThat(kontingent.getKontostand("M1")).isEqualTo(new RabattKontingent.Kontostand(100, 0, 0));
+    }
+
+    private KontingentJournal oeffne(Bestaetigung bestaetigung) throws IOException {
+        return KontingentJournal.oeffne(verzeichnis, bestaetigung, Duration.ofMillis(1), SEGMENTGROESSE);
+    }
+
+    private List<Path> segmente() throws IOException {
+        try (Stream<Path> dateien = Files.list(verzeichnis)) {
+            return dateien.filter(p -> p.getFileName().toString().startsWith("segment-")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.model.TarifAnfrage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ParallelerTarifrechner Tests")
+class ParallelerTarifrechnerTest {
+
+    @Test
+    @DisplayName("Liste: Ergebnisse in Eingabereihenfolge und identisch zur sequentiellen Tarifierung")
+    void bewerte_liste() {
+        var anfragen = anfragen(10_000);
+
+        List<ParallelerTarifrechner.Bewertung> bewertungen;
+        try (var rechner = new ParallelerTarifrechner(4)) {
+            bewertungen = rechner.bewerte(anfragen);
+        }
+
+        assertThat(bewertungen).hasSize(anfragen.size());
+        for (int i = 0; i < anfragen.size(); i++) {
+            var bewertung = bewertungen.get(i);
+            var erwartet = anfragen.get(i).bewerte();
+            assertThat(bewertung.position()).isEqualTo(i);
+            assertThat(bewertung.ergebnis().getFehler()).isEqualTo(erwartet.getFehler());
+            if (erwartet.istGueltig()) {
+                assertThat(bewertung.ergebnis().getTarifierung().getNettopraemie())
+                    .isEqualTo(erwartet.getTarifierung().getNettopraemie());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Fehlerhafte Anfragen brechen den Batch nicht ab")
+    void bewerte_fehlerisolation() {
+        var anfragen = new ArrayList<TarifAnfrage>();
+        anfragen.add(TarifAnfrage.of(100, 20));
+        anfragen.add(TarifAnfrage.of(-100, -10));
+        anfragen.add(null);
+        anfragen.add(TarifAnfrage.mitZielbeitrag(1.0, 100, 50.0));
+        anfragen.add(TarifAnfrage.of(100, 0, 50, 10));
+
+        List<ParallelerTarifrechner.Bewertung> bewertungen;
+        try (var rechner = new ParallelerTarifrechner(2)) {
+            bewertungen = rechner.bewerte(anfragen);
+        }
+
+        assertThat(bewertungen).extracting(ParallelerTarifrechner.Bewertung::istGueltig)
+            .containsExactly(true, false, false, false, true);
+        assertThat(bewertungen.get(2).ausnahme()).isInstanceOf(NullPointerException.class);
+        assertThat(bewertungen.get(4).ergebnis().getTarifierung().getNettopraemie()).isEqualTo(145);
+    }
+
+    @Test
+    @DisplayName("Strom: mit Reihenfolge geordnet, ohne Reihenfolge vollständig")
+    void bewerte_strom() {
+        var anfragen = anfragen(5_000);
+
+        try (var rechner = new ParallelerTarifrechner(4)) {
+            var geordnet = new ArrayList<Long>();
+            rechner.bewerte(anfragen.iterator(), true, bewertung -> geordnet.add(bewertung.position()));
+            assertThat(geordnet).containsExactlyElementsOf(IntStream.range(0, 5_000).mapToObj(i -> (long) i).toList());
+
+            var ungeordnet = new ArrayList<Long>();
+            rechner.bewerte(anfragen.iterator(), false, bewertung -> ungeordnet.add(bewertung.position()));
+            assertThat(ungeordnet).containsExactlyInAnyOrderElementsOf(geordnet);
+        }
+    }
+
+    private static List<TarifAnfrage> anfragen(int anzahl) {
+        var random = new Random(7);
+        var anfragen = new ArrayList<TarifAnfrage>(anzahl);
+        for (int i = 0; i < anzahl; i++) {
+            double haftpflicht = 1 + random.nextInt(100_000) / 100.0;
+            Double kasko = random.nextBoolean() ? 1 + random.nextInt(100_000) / 100.0 : null;
+            anfragen.add(switch (i % 3) {
+                case 0 -> new TarifAnfrage(haftpflicht, random.nextInt(110) - 5, kasko, random.nextInt(100), null);
+                case 1 -> TarifAnfrage.mitZielbeitrag(random.nextInt(200_000) / 100.0, haftpflicht, kasko);
+                default -> new TarifAnfrage(haftpflicht, 0, kasko, 0, null);
+            });
+        }
+        return anfragen;
+    }
+}
@@ -0,0 +1,188 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.model.Rabatte;
+import com.pfefferminzia.kfz.service.PortfolioOptimierer.Ziel;
+import com.pfefferminzia.kfz.service.PortfolioOptimierer.Zuteilung;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PortfolioOptimierer Tests")
+class PortfolioOptimiererTest {
+
+    @Test
+    @DisplayName("Maximale Treffer entsprechen der vollständigen Suche über alle Teilmengen")
+    void maximaleTreffer_vollstaendigeSuche() {
+        var zufall = new SplittableRandom(11);
+        try (var optimierer = new PortfolioOptimierer(2)) {
+            for (int runde = 0; runde < 30; runde++) {
+                var bestand = bestand(zufall, 8, 500, 5_000);
+                long budget = zufall.nextLong(600);
+
+                Zuteilung zuteilung = optimierer.optimiere(bestand[0], bestand[1], bestand[2], budget,
+                    Ziel.MAXIMALE_TREFFER);
+
+                int[] kosten = new int[8];
+                for (int i = 0; i < kosten.length; i++) {
+                    kosten[i] = minimaleRabattsumme(bestand[0][i], bestand[1][i], bestand[2][i]);
+                }
+                int besteTreffer = 0;
+                for (int teilmenge = 0; teilmenge < 1 << kosten.length; teilmenge++) {
+                    long summe = 0;
+                    boolean moeglich = true;
+                    for (int i = 0; i < kosten.length; i++) {
+                        if ((teilmenge & 1 << i) != 0) {
+                            moeglich &= kosten[i] >= 0;
+                            summe += kosten[i];
+                        }
+                    }
+                    if (moeglich && summe <= budget) {
+                        besteTreffer = Math.max(besteTreffer, Integer.bitCount(teilmenge));
+                    }
+                }
+                assertThat(zuteilung.getTreffer()).isEqualTo(besteTreffer);
+                assertThat(zuteilung.getPunkte()).isLessThanOrEqualTo(budget);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Minimale Abweichung entspricht der dynamischen Programmierung über alle Rabattpaare")
+    void minimaleAbweichung_dynamischeProgrammierung() {
+        var zufall = new SplittableRandom(12);
+        try (var optimierer = new PortfolioOptimierer(2)) {
+            for (int runde = 0; runde < 30; runde++) {
+                var bestand = bestand(zufall, 4, 100, 2_000);
+                int budget = zufall.nextInt(120);
+
+                Zuteilung zuteilung = optimierer.optimiere(bestand[0], bestand[1], bestand[2], budget,
+                    Ziel.MINIMALE_ABWEICHUNG);
+
+                long abweichung = 0;
+                for (int i = 0; i < 4; i++) {
+                    abweichung += abweichung(bestand[0][i], zuteilung.getHaftpflichtRabatt(i),
+                        bestand[1][i], zuteilung.getKaskoRabatt(i), bestand[2][i]);
+                }
+                // beste[b]: minimale Abweichung der bisherigen Verträge mit höchstens b Punkten
+                long[] beste = new long[budget + 1];
+                for (int i = 0; i < 4; i++) {
+                    long[] neu = new long[budget + 1];
+                    Arrays.fill(neu, Long.MAX_VALUE);
+                    for (int b = 0; b <= budget; b++) {
+                        for (int h = 0; h <= Math.min(b, ZielbeitragService.MAX_RABATT); h++) {
+                            for (int k = 0; h + k <= b && k <= ZielbeitragService.MAX_RABATT; k++) {
+                                long wert = beste[b - h - k]
+                                    + abweichung(bestand[0][i], h, bestand[1][i], k, bestand[2][i]);
+                                neu[b] = Math.min(neu[b], wert);
+                            }
+                        }
+                    }
+                    beste = neu;
+                }
+                assertThat(abweichung).isEqualTo(beste[budget]);
+                assertThat(zuteilung.getPunkte()).isLessThanOrEqualTo(budget);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Mit ausreichendem Budget entsprechen die Rabatte dem ZielbeitragService")
+    void ausreichendesBudget_wieZielbeitragService() {
+        var bestand = bestand(new SplittableRandom(13), 20_000, 100, 200_000);
+
+        for (Ziel ziel : Ziel.values()) {
+            Zuteilung zuteilung;
+            try (var optimierer = new PortfolioOptimierer(4)) {
+                zuteilung = optimierer.optimiere(bestand[0], bestand[1], bestand[2], Long.MAX_VALUE, ziel);
+            }
+            for (int i = 0; i < zuteilung.getAnzahl(); i++) {
+                long gesamt = bestand[0][i] + bestand[1][i];
+                if (!ZielbeitragService.istErreichbarCent(bestand[2][i], gesamt)) {
+                    assertThat(zuteilung.istErreicht(i)).isFalse();
+                    continue;
+                }
+                Rabatte rabatte = ZielbeitragService.berechneRabatteCent(bestand[2][i], bestand[0][i], bestand[1][i]);
+                assertThat(zuteilung.getHaftpflichtRabatt(i)).isEqualTo(rabatte.haftpflicht());
+                assertThat(zuteilung.getKaskoRabatt(i)).isEqualTo(rabatte.kasko());
+                assertThat(zuteilung.istErreicht(i)).isTrue();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("100 000 Verträge: Budget eingehalten, Ergebnis unabhängig von der Parallelität")
+    void grosserBestand_parallel() {
+        var bestand = bestand(new SplittableRandom(14), 100_000, 100, 200_000);
+        long budget = 2_000_000;
+
+        for (Ziel ziel : Ziel.values()) {
+            Zuteilung parallel;
+            Zuteilung sequentiell;
+            try (var optimierer = new PortfolioOptimierer(4)) {
+                parallel = optimierer.optimiere(bestand[0], bestand[1], bestand[2], budget, ziel);
+            }
+            try (var optimierer = new PortfolioOptimierer(1)) {
+                sequentiell = optimierer.optimiere(bestand[0], bestand[1], bestand[2], budget, ziel);
+            }
+
+            assertThat(parallel.getPunkte()).isLessThanOrEqualTo(budget);
+            assertThat(parallel.getTreffer()).isEqualTo(sequentiell.getTreffer());
+            assertThat(parallel.getAbweichungCent()).isEqualTo(sequentiell.getAbweichungCent());
+            for (int i = 0; i < parallel.getAnzahl(); i++) {
+                assertThat(parallel.getHaftpflichtRabatt(i)).isEqualTo(sequentiell.getHaftpflichtRabatt(i));
+                assertThat(parallel.getKaskoRabatt(i)).isEqualTo(sequentiell.getKaskoRabatt(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Unterschiedlich lange Spalten und unplausible Verträge werden abgelehnt")
+    void ungueltigeEingaben() {
+        try (var optimierer = new PortfolioOptimierer(1)) {
+            assertThatThrownBy(() -> optimierer.optimiere(new long[2], new long[1], new long[2], 10,
+                Ziel.MAXIMALE_TREFFER))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> optimierer.optimiere(new long[] {100, -1}, new long[2], new long[] {50, 50}, 10,
+                Ziel.MINIMALE_ABWEICHUNG))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Vertrag 1: Prämien und Zielbeitrag müssen positiv sein");
+        }
+    }
+
+    /**
+     * Haftpflicht, Kasko (jeder dritte Vertrag ohne) und Zielbeitrag zwischen 0,5 % und 110 % der Gesamtprämie.
+     */
+    private static long[][] bestand(SplittableRandom zufall, int anzahl, long minCent, long maxCent) {
+        long[][] spalten = new long[3][anzahl];
+        for (int i = 0; i < anzahl; i++) {
+            spalten[0][i] = zufall.nextLong(minCent, maxCent);
+            spalten[1][i] = i % 3 == 0 ? 0 : i % 7 == 0 ? spalten[0][i] : zufall.nextLong(minCent, maxCent);
+            spalten[2][i] = Math.max(1, (spalten[0][i] + spalten[1][i]) * zufall.nextInt(5, 1_100) / 1_000);
+        }
+        return spalten;
+    }
+
+    private static int minimaleRabattsumme(long haftpflichtCent, long kaskoCent, long zielCent) {
+        int minimum = -1;
+        for (int h = 0; h <= ZielbeitragService.MAX_RABATT; h++) {
+            for (int k = 0; k <= ZielbeitragService.MAX_RABATT; k++) {
+                if (abweichung(haftpflichtCent, h, kaskoCent, k, zielCent) == 0 && (minimum < 0 || h + k < minimum)) {
+                    minimum = h + k;
+                }
+            }
+        }
+        return minimum;
+    }
+
+    /** Abweichung über Zielbeitrag plus Toleranz in Hundertstel-Cent. */
+    private static long abweichung(long haftpflichtCent, int haftpflichtRabatt, long kaskoCent, int kaskoRabatt,
+                                   long zielCent) {
+        long netto = haftpflichtCent * (100 - haftpflichtRabatt) + kaskoCent * (100 - kaskoRabatt);
+        return Math.max(0, netto - (zielCent + ZielbeitragService.TOLERANZ_CENT) * 100);
+    }
+}
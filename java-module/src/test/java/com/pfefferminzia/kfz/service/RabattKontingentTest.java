@@ -0,0 +1,113 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Tarifierung;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("RabattKontingent Tests")
+class RabattKontingentTest {
+
+    @Test
+    @DisplayName("Reservierte Punkte werden gebucht oder wieder freigegeben")
+    void reserviere_buchenUndFreigeben() {
+        var kontingent = new RabattKontingent();
+        kontingent.gutschreiben("M1", 100);
+        var tarifierung = new Tarifierung(120, new Haftpflicht(100), new Kasko(50));
+
+        var gebucht = kontingent.reserviere("M1", tarifierung);
+        var freigegeben = kontingent.reserviere("M1", 10);
+        assertThat(gebucht.getPunkte()).isEqualTo(30);
+        assertThat(kontingent.getKontostand("M1")).isEqualTo(new RabattKontingent.Kontostand(60, 40, 0));
+
+        assertThat(gebucht.buche()).isTrue();
+        assertThat(freigegeben.freigeben()).isTrue();
+        assertThat(kontingent.getKontostand("M1")).isEqualTo(new RabattKontingent.Kontostand(70, 0, 30));
+    }
+
+    @Test
+    @DisplayName("Eine Reservierung wird genau einmal abgeschlossen")
+    void reservierung_nurEinAbschluss() {
+        var kontingent = new RabattKontingent();
+        kontingent.gutschreiben("M1", 10);
+        var reservierung = kontingent.reserviere("M1", 10);
+
+        assertThat(reservierung.buche()).isTrue();
+        assertThat(reservierung.buche()).isFalse();
+        assertThat(reservierung.freigeben()).isFalse();
+        assertThat(kontingent.getKontostand("M1")).isEqualTo(new RabattKontingent.Kontostand(0, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Erschöpftes Kontingent und unbekannte Makler werden abgelehnt")
+    void reserviere_abgelehnt() {
+        var kontingent = new RabattKontingent();
+        kontingent.gutschreiben("M1", 5);
+
+        assertThatThrownBy(() -> kontingent.reserviere("M1", 6))
+            .isInstanceOf(PlausiException.class)
+            .hasMessageContaining("Rabattkontingent von Makler M1 reicht nicht aus: benötigt 6, frei 5 Punkte")
+            .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+        assertThatThrownBy(() -> kontingent.reserviere("M2", 1))
+            .isInstanceOf(PlausiException.class)
+            .hasMessageContaining("Makler M2 hat kein Rabattkontingent");
+        assertThat(kontingent.tryReserviere("M1", 6)).isNull();
+        assertThat(kontingent.tryReserviere("M2", 1)).isNull();
+        assertThat(kontingent.getKontostand("M1")).isEqualTo(new RabattKontingent.Kontostand(5, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Konkurrierende Reservierungen überziehen das Kontingent nie")
+    void reserviere_nebenlaeufig() throws Exception {
+        int threads = 8;
+        int versuche = 10_000;
+        var kontingent = new RabattKontingent();
+        kontingent.gutschreiben("M1", 25_000);
+        kontingent.gutschreiben("M2", 1_000_000);
+        var start = new CountDownLatch(1);
+
+        var aufgaben = new ArrayList<Callable<Long>>();
+        for (int t = 0; t < threads; t++) {
+            aufgaben.add(() -> {
+                start.await();
+                long erfolgreich = 0;
+                for (int i = 0; i < versuche; i++) {
+                    var reservierung = kontingent.tryReserviere("M1", 1);
+                    if (reservierung != null) {
+                        erfolgreich++;
+                        reservierung.buche();
+                    }
+                    kontingent.reserviere("M2", 3).freigeben();
+                }
+                return erfolgreich;
+            });
+        }
+
+        long erfolgreich = 0;
+        try (var executor = Executors.newFixedThreadPool(threads)) {
+            var ergebnisse = new ArrayList<Future<Long>>();
+            for (var aufgabe : aufgaben) {
+                ergebnisse.add(executor.submit(aufgabe));
+            }
+            start.countDown();
+            for (var ergebnis : ergebnisse) {
+                erfolgreich += ergebnis.get();
+            }
+        }
+
+        assertThat(erfolgreich).isEqualTo(25_000);
+        assertThat(kontingent.getKontostand("M1")).isEqualTo(new RabattKontingent.Kontostand(0, 0, 25_000));
+        assertThat(kontingent.getKontostand("M2")).isEqualTo(new RabattKontingent.Kontostand(1_000_000, 0, 0));
+    }
+}
@@ -0,0 +1,86 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Tarifierung;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ValidationService Tests")
+class ValidationServiceTest {
+
+    private static final double[] PRAEMIEN = {-1e17, -50, 0, 0.01, 100, 1e17, Double.POSITIVE_INFINITY, Double.NaN};
+    private static final int[] RABATTE = {-1, 0, 99, 100};
+
+    @AfterEach
+    void modusZuruecksetzen() {
+        ValidationService.setModus(ValidationService.Modus.JAKARTA);
+    }
+
+    @Test
+    @DisplayName("Direkte Validierung liefert dieselben Meldungen wie Jakarta Validation")
+    void validate_direktEntsprichtJakarta() {
+        for (double haftpflichtPraemie : PRAEMIEN) {
+            for (int haftpflichtRabatt : RABATTE) {
+                for (double kaskoPraemie : PRAEMIEN) {
+                    for (int kaskoRabatt : RABATTE) {
+                        vergleicheModi(() -> new Tarifierung(
+                            new Haftpflicht(haftpflichtPraemie, haftpflichtRabatt),
+                            new Kasko(kaskoPraemie, kaskoRabatt)));
+                    }
+                }
+                vergleicheModi(() -> new Tarifierung(new Haftpflicht(haftpflichtPraemie, haftpflichtRabatt)));
+            }
+        }
+        for (double zielbeitrag : PRAEMIEN) {
+            vergleicheModi(() -> new Tarifierung(zielbeitrag, new Haftpflicht(100), new Kasko(50)));
+        }
+        vergleicheModi(() -> new Tarifierung(null));
+        vergleicheModi(() -> new Tarifierung(null, new Kasko(-50, 100)));
+    }
+
+    @Test
+    @DisplayName("Modus ist umschaltbar")
+    void setModus_schaltetUm() {
+        ValidationService.setModus(ValidationService.Modus.DIREKT);
+
+        assertThat(ValidationService.getModus()).isEqualTo(ValidationService.Modus.DIREKT);
+    }
+
+    @Test
+    @DisplayName("Unbekannte Werte der System-Properties fallen auf den Standard zurück")
+    void property_unbekannterWert_standard() {
+        assertThat(ValidationService.modus(null)).isEqualTo(ValidationService.Modus.JAKARTA);
+        assertThat(ValidationService.modus(" direkt ")).isEqualTo(ValidationService.Modus.DIREKT);
+        assertThat(ValidationService.modus("schnell")).isEqualTo(ValidationService.Modus.JAKARTA);
+
+        assertThat(ZielbeitragService.loeser(null)).isSameAs(ZielbeitragLoeserAuswahl.INSTANZ);
+        assertThat(ZielbeitragService.loeser("Bisektion")).isEqualTo(ZielbeitragVerfahren.BISEKTION);
+        assertThat(ZielbeitragService.loeser("newton")).isSameAs(ZielbeitragLoeserAuswahl.INSTANZ);
+    }
+
+    private static void vergleicheModi(Supplier<Tarifierung> tarifierung) {
+        ValidationService.setModus(ValidationService.Modus.JAKARTA);
+        List<String> jakarta = fehler(tarifierung);
+        ValidationService.setModus(ValidationService.Modus.DIREKT);
+        List<String> direkt = fehler(tarifierung);
+
+        assertThat(direkt).containsExactlyInAnyOrderElementsOf(jakarta);
+    }
+
+    private static List<String> fehler(Supplier<Tarifierung> tarifierung) {
+        try {
+            tarifierung.get();
+            return List.of();
+        } catch (PlausiException e) {
+            return e.getFehler();
+        }
+    }
+}
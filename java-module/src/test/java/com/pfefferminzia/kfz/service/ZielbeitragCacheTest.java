@@ -0,0 +1,86 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Rabatte;
+import com.pfefferminzia.kfz.model.Tarifierung;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ZielbeitragCache Tests")
+class ZielbeitragCacheTest {
+
+    @AfterEach
+    void cacheDeaktivieren() {
+        ZielbeitragService.deaktiviereCache();
+    }
+
+    @Test
+    @DisplayName("Wiederholte Kombinationen werden aus dem Cache beantwortet")
+    void berechneRabatte_trefferUndFehlschlaege() {
+        var cache = new ZielbeitragCache(100, Duration.ofMinutes(5));
+        ZielbeitragService.aktiviereCache(cache);
+
+        var erste = new Tarifierung(120, new Haftpflicht(100), new Kasko(50));
+        var zweite = new Tarifierung(120, new Haftpflicht(100), new Kasko(50));
+        // Gleiche Cent-Beträge ergeben denselben Schlüssel
+        var dritte = new Tarifierung(120.001, new Haftpflicht(100.004), new Kasko(50));
+
+        assertThat(zweite.getHaftpflicht().getRabatt()).isEqualTo(erste.getHaftpflicht().getRabatt());
+        assertThat(dritte.getHaftpflicht().getRabatt()).isEqualTo(erste.getHaftpflicht().getRabatt());
+        assertThat(cache.getStatistik()).isEqualTo(new ZielbeitragCache.Statistik(2, 1, 0, 1));
+        assertThat(cache.getStatistik().trefferquote()).isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    @DisplayName("Cache ist in der Größe begrenzt und zählt Verdrängungen")
+    void berechneRabatte_verdraengung() {
+        var cache = new ZielbeitragCache(10, Duration.ofMinutes(5));
+        ZielbeitragService.aktiviereCache(cache);
+
+        for (int ziel = 50; ziel < 150; ziel++) {
+            ZielbeitragService.berechneRabatte(ziel, 100, 50);
+        }
+
+        assertThat(cache.getStatistik().eintraege()).isLessThanOrEqualTo(10);
+        assertThat(cache.getStatistik().verdraengungen()).isGreaterThanOrEqualTo(90);
+    }
+
+    @Test
+    @DisplayName("Parallele Zugriffe liefern dieselben Rabatte wie ohne Cache")
+    void berechneRabatte_parallel() throws Exception {
+        var cache = new ZielbeitragCache(1_000, Duration.ofMinutes(5));
+        ZielbeitragService.aktiviereCache(cache);
+
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            var ergebnisse = new ArrayList<Future<Boolean>>();
+            for (int thread = 0; thread < 8; thread++) {
+                ergebnisse.add(executor.submit((Callable<Boolean>) () -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        double ziel = 20 + i % 130;
+                        Rabatte erwartet = ZielbeitragService.loese(Math.round(ziel * 100), 10_000, 5_000, ziel);
+                        if (!ZielbeitragService.berechneRabatte(ziel, 100, 50).equals(erwartet)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (var ergebnis : ergebnisse) {
+                assertThat(ergebnis.get()).isTrue();
+            }
+        }
+
+        assertThat(cache.getStatistik().eintraege()).isEqualTo(130);
+        assertThat(cache.getStatistik().treffer()).isGreaterThan(cache.getStatistik().fehlschlaege());
+    }
+}
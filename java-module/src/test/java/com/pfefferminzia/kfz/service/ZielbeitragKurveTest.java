@@ -0,0 +1,103 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Rabatte;
+import com.pfefferminzia.kfz.model.TarifKern;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ZielbeitragKurve Tests")
+class ZielbeitragKurveTest {
+
+    @ParameterizedTest(name = "Haftpflicht {0} Cent, Kasko {1} Cent")
+    @CsvSource({"10000, 5000", "5000, 10000", "7500, 7500", "37, 99999", "25000, 0", "1, 1", "12345, 6789"})
+    @DisplayName("Jeder Zielbeitrag liefert dieselben Rabatte wie der ZielbeitragService")
+    void rabatteCent_entsprichtService(long haftpflichtCent, long kaskoCent) {
+        var kurve = ZielbeitragKurve.berechneCent(haftpflichtCent, kaskoCent);
+
+        vergleicheMitService(kurve, haftpflichtCent, kaskoCent);
+    }
+
+    @Test
+    @DisplayName("Zufällige Prämienpaare stimmen an allen Grenzen mit dem ZielbeitragService überein")
+    void rabatteCent_entsprichtServiceFuerZufaelligePaare() {
+        var zufall = new SplittableRandom(42);
+        for (int i = 0; i < 200; i++) {
+            long haftpflichtCent = 1 + zufall.nextLong(200_000);
+            long kaskoCent = zufall.nextInt(4) == 0 ? 0 : 1 + zufall.nextLong(200_000);
+            var kurve = ZielbeitragKurve.berechneCent(haftpflichtCent, kaskoCent);
+
+            for (int punkt = 0; punkt < kurve.anzahl(); punkt++) {
+                for (long zielCent = kurve.untergrenzeCent(punkt) - 1; zielCent <= kurve.untergrenzeCent(punkt); zielCent++) {
+                    pruefe(kurve, zielCent, haftpflichtCent, kaskoCent);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Die Kurve ist nach Zielbeitrag sortiert und die Nettoprämie liegt im Toleranzbereich")
+    void punkte_sortiertMitPassenderNettopraemie() {
+        var kurve = ZielbeitragKurve.berechne(new Haftpflicht(100), new Kasko(50));
+
+        assertThat(kurve.anzahl()).isBetween(2, 199);
+        assertThat(kurve.haftpflichtRabatt(0)).isEqualTo(99);
+        assertThat(kurve.kaskoRabatt(0)).isEqualTo(99);
+        assertThat(kurve.nettopraemieCent(kurve.anzahl() - 1)).isEqualTo(15_000);
+        for (int punkt = 0; punkt < kurve.anzahl(); punkt++) {
+            if (punkt > 0) {
+                assertThat(kurve.untergrenzeCent(punkt)).isGreaterThan(kurve.untergrenzeCent(punkt - 1));
+                assertThat(kurve.nettopraemieCent(punkt)).isGreaterThan(kurve.nettopraemieCent(punkt - 1));
+            }
+            assertThat(kurve.nettopraemieCent(punkt))
+                .isLessThanOrEqualTo(kurve.untergrenzeCent(punkt) + ZielbeitragService.TOLERANZ_CENT);
+        }
+    }
+
+    @Test
+    @DisplayName("Nicht erreichbarer Zielbeitrag nennt wie der Service den minimalen Beitrag")
+    void rabatte_nichtErreichbar() {
+        var kurve = ZielbeitragKurve.berechne(new Haftpflicht(100), new Kasko(50));
+
+        assertThat(kurve.punkt(100)).isEqualTo(-1);
+        assertThatThrownBy(() -> kurve.rabatte(1.0))
+            .isInstanceOf(PlausiException.class)
+            .hasMessageContaining("Zielbeitrag von 1,00€ ist nicht erreichbar")
+            .hasMessageContaining("Minimaler Beitrag: 1,50€");
+        assertThat(kurve.rabatte(200)).isEqualTo(Rabatte.KEINE);
+        assertThat(kurve.rabatte(120)).isEqualTo(ZielbeitragService.berechneRabatte(120, 100, 50));
+    }
+
+    private static void vergleicheMitService(ZielbeitragKurve kurve, long haftpflichtCent, long kaskoCent) {
+        long gesamtCent = haftpflichtCent + kaskoCent;
+        for (long zielCent = gesamtCent / 100 - 2; zielCent <= gesamtCent + 2; zielCent++) {
+            pruefe(kurve, zielCent, haftpflichtCent, kaskoCent);
+        }
+    }
+
+    private static void pruefe(ZielbeitragKurve kurve, long zielCent, long haftpflichtCent, long kaskoCent) {
+        double ziel = TarifKern.inEuro(zielCent);
+        Rabatte erwartet;
+        try {
+            erwartet = ZielbeitragService.loese(zielCent, haftpflichtCent, kaskoCent, ziel);
+        } catch (PlausiException e) {
+            assertThat(kurve.punkt(zielCent)).as("Ziel %d Cent", zielCent).isEqualTo(-1);
+            assertThatThrownBy(() -> kurve.rabatteCent(zielCent)).hasMessage(e.getMessage());
+            return;
+        }
+
+        int punkt = kurve.punkt(zielCent);
+        assertThat(kurve.rabatteCent(zielCent)).as("Ziel %d Cent", zielCent).isEqualTo(erwartet);
+        assertThat(kurve.nettopraemieCent(punkt)).isEqualTo(
+            TarifKern.nettopraemieCent(haftpflichtCent, erwartet.haftpflicht(), kaskoCent, erwartet.kasko()));
+    }
+}
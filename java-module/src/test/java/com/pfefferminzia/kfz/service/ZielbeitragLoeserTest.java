@@ -0,0 +1,127 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.model.Haftpflicht;
+import com.pfefferminzia.kfz.model.Kasko;
+import com.pfefferminzia.kfz.model.Rabatte;
+import com.pfefferminzia.kfz.model.Tarifierung;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ZielbeitragLoeser Tests")
+class ZielbeitragLoeserTest {
+
+    @AfterEach
+    void tearDown() {
+        ZielbeitragService.setLoeser(ZielbeitragLoeserAuswahl.INSTANZ);
+    }
+
+    @ParameterizedTest(name = "Haftpflicht {0} Cent, Kasko {1} Cent")
+    @CsvSource({"10000, 5000", "5000, 10000", "7500, 7500", "25000, 0", "1, 99999", "37, 38", "1, 0"})
+    @DisplayName("Alle Verfahren und die Auswahl liefern für jede erreichbare Ersparnis dieselben Rabatte")
+    void alleVerfahrenStimmenUeberein(long haftpflichtCent, long kaskoCent) {
+        long gesamtCent = haftpflichtCent + kaskoCent;
+        for (long ersparnis = 1; ersparnis <= gesamtCent * ZielbeitragService.MAX_RABATT;
+             ersparnis += Math.max(1, gesamtCent / 7)) {
+            pruefeGleich(ersparnis, haftpflichtCent, kaskoCent);
+        }
+        pruefeGleich(gesamtCent * ZielbeitragService.MAX_RABATT, haftpflichtCent, kaskoCent);
+    }
+
+    @Test
+    @DisplayName("Zufällige Prämien und Zielbeiträge: alle Verfahren stimmen überein")
+    void zufaelligeEingaben() {
+        var zufall = new SplittableRandom(24);
+        for (int i = 0; i < 20_000; i++) {
+            long haftpflichtCent = 1 + zufall.nextLong(200_000);
+            long kaskoCent = switch (i % 3) {
+                case 0 -> 0;
+                case 1 -> haftpflichtCent;
+                default -> 1 + zufall.nextLong(200_000);
+            };
+            long ersparnis = 1 + zufall.nextLong((haftpflichtCent + kaskoCent) * ZielbeitragService.MAX_RABATT);
+            pruefeGleich(ersparnis, haftpflichtCent, kaskoCent);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ZielbeitragVerfahren.class)
+    @DisplayName("Tarifierung mit eingestelltem Verfahren erreicht den Zielbeitrag mit denselben Rabatten")
+    void setLoeser_tarifierung(ZielbeitragVerfahren verfahren) {
+        var referenz = new Tarifierung(612.34, new Haftpflicht(487.31), new Kasko(312.57));
+
+        ZielbeitragService.setLoeser(verfahren);
+        var tarifierung = new Tarifierung(612.34, new Haftpflicht(487.31), new Kasko(312.57));
+
+        assertThat(ZielbeitragService.getLoeser()).isEqualTo(verfahren);
+        assertThat(tarifierung.getHaftpflicht().getRabatt()).isEqualTo(referenz.getHaftpflicht().getRabatt());
+        assertThat(tarifierung.getKasko().getRabatt()).isEqualTo(referenz.getKasko().getRabatt());
+        assertThat(tarifierung.getNettopraemie()).isLessThanOrEqualTo(612.35);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ZielbeitragVerfahren.class)
+    @DisplayName("Unerreichbare Ersparnis führt bei jedem Verfahren zu IllegalArgumentException")
+    void nichtErreichbar(ZielbeitragVerfahren verfahren) {
+        long ohneKasko = 10_000L * ZielbeitragService.MAX_RABATT + 1;
+        long mitKasko = 15_000L * ZielbeitragService.MAX_RABATT + 1;
+
+        assertThatThrownBy(() -> verfahren.loese(ohneKasko, 10_000, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> verfahren.loese(mitKasko, 5_000, 10_000))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Auswahl iteriert nur bei wenigen Rabattpunkten auf dem teureren Produkt")
+    void auswahl() {
+        var auswahl = ZielbeitragLoeserAuswahl.INSTANZ;
+
+        assertThat(auswahl.waehle(3 * 10_000, 10_000, 5_000)).isEqualTo(ZielbeitragVerfahren.ITERATIV);
+        assertThat(auswahl.waehle(3 * 10_000, 5_000, 10_000)).isEqualTo(ZielbeitragVerfahren.ITERATIV);
+        assertThat(auswahl.waehle(30 * 10_000, 10_000, 0)).isEqualTo(ZielbeitragVerfahren.GESCHLOSSEN);
+        assertThat(auswahl.waehle(120 * 7_500, 7_500, 7_500)).isEqualTo(ZielbeitragVerfahren.GESCHLOSSEN);
+    }
+
+    @Test
+    @DisplayName("Jedes Verfahren meldet seine tatsächlichen Lösungsschritte")
+    void schritte() {
+        // 99 % auf die Haftpflicht, 42 % auf die Kasko
+        long ersparnis = 1_199_900;
+        Rabatte rabatte = new Rabatte(99, 42);
+
+        assertThat(ZielbeitragVerfahren.GESCHLOSSEN.schritte(ersparnis, 10_000, 5_000, rabatte)).isEqualTo(1);
+        assertThat(ZielbeitragVerfahren.ITERATIV.schritte(ersparnis, 10_000, 5_000, rabatte)).isEqualTo(99 + 42);
+        assertThat(ZielbeitragVerfahren.BISEKTION.schritte(ersparnis, 10_000, 5_000, rabatte)).isEqualTo(6 + 7);
+        assertThat(ZielbeitragVerfahren.EXAKT.schritte(ersparnis, 10_000, 5_000, rabatte)).isEqualTo(8_289);
+        // Kasko teurer: gezählt wird in derselben Reihenfolge wie gerechnet
+        assertThat(ZielbeitragVerfahren.ITERATIV.schritte(ersparnis, 5_000, 10_000, new Rabatte(42, 99)))
+            .isEqualTo(99 + 42);
+        assertThat(ZielbeitragVerfahren.BISEKTION.schritte(100, 10_000, 0, new Rabatte(1, 0))).isEqualTo(7);
+
+        assertThat(ZielbeitragLoeserAuswahl.INSTANZ.schritte(ersparnis, 10_000, 5_000, rabatte)).isEqualTo(1);
+        assertThat(ZielbeitragLoeserAuswahl.INSTANZ.schritte(3 * 10_000, 10_000, 5_000, new Rabatte(3, 0)))
+            .isEqualTo(3);
+        assertThat(((ZielbeitragLoeser) (e, h, k) -> rabatte).schritte(ersparnis, 10_000, 5_000, rabatte)).isEqualTo(1);
+    }
+
+    private static void pruefeGleich(long ersparnis, long haftpflichtCent, long kaskoCent) {
+        Rabatte erwartet = ZielbeitragVerfahren.EXAKT.loese(ersparnis, haftpflichtCent, kaskoCent);
+        assertThat(haftpflichtCent * erwartet.haftpflicht() + kaskoCent * erwartet.kasko())
+            .isGreaterThanOrEqualTo(ersparnis);
+        for (ZielbeitragVerfahren verfahren : ZielbeitragVerfahren.values()) {
+            assertThat(verfahren.loese(ersparnis, haftpflichtCent, kaskoCent))
+                .as("%s für Ersparnis %d, Haftpflicht %d, Kasko %d", verfahren, ersparnis, haftpflichtCent, kaskoCent)
+                .isEqualTo(erwartet);
+        }
+        assertThat(ZielbeitragLoeserAuswahl.INSTANZ.loese(ersparnis, haftpflichtCent, kaskoCent)).isEqualTo(erwartet);
+    }
+}
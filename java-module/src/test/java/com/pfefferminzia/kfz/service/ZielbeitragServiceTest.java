@@ -0,0 +1,158 @@
+package com.pfefferminzia.kfz.service;
+
+import com.pfefferminzia.kfz.common.PlausiException;
+import com.pfefferminzia.kfz.model.Rabatte;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ZielbeitragService Tests")
+class ZielbeitragServiceTest {
+
+    @ParameterizedTest(name = "Haftpflicht {0}€, Kasko {1}€")
+    @CsvSource({"100, 50", "50, 100", "75, 75", "100, 20", "123.45, 67.89", "0.37, 999.99", "250, 0"})
+    @DisplayName("Minimale Rabattsumme stimmt mit vollständiger Suche über alle Rabatte überein")
+    void berechneRabatte_entsprichtVollstaendigerSuche(double haftpflicht, double kasko) {
+        double gesamt = haftpflicht + kasko;
+        for (int prozent = 1; prozent <= 100; prozent++) {
+            double ziel = Math.round(gesamt * prozent) / 100.0;
+            if (ziel < gesamt * 0.01) {
+                continue;
+            }
+
+            Rabatte rabatte = ZielbeitragService.berechneRabatte(ziel, haftpflicht, kasko);
+
+            assertThat(netto(haftpflicht, rabatte.haftpflicht()) + netto(kasko, rabatte.kasko()))
+                .isLessThanOrEqualTo(ziel + 0.01 + 1e-9);
+            assertThat(rabatte.summe()).isEqualTo(minimaleRabattsumme(ziel, haftpflicht, kasko));
+        }
+    }
+
+    @Test
+    @DisplayName("Ohne Kasko wird nur die Haftpflicht rabattiert")
+    void berechneRabatte_ohneKasko() {
+        Rabatte rabatte = ZielbeitragService.berechneRabatte(80, 100, 0);
+
+        assertThat(rabatte).isEqualTo(new Rabatte(20, 0));
+    }
+
+    @Test
+    @DisplayName("Zielbeitrag über der Gesamtprämie - keine Rabatte")
+    void berechneRabatte_zielUeberGesamtpraemie() {
+        assertThat(ZielbeitragService.berechneRabatte(200, 100, 50)).isEqualTo(Rabatte.KEINE);
+    }
+
+    @Test
+    @DisplayName("Nicht erreichbarer Zielbeitrag nennt den minimalen Beitrag")
+    void berechneRabatte_nichtErreichbar() {
+        assertThatThrownBy(() -> ZielbeitragService.berechneRabatte(1.0, 100, 50))
+            .isInstanceOf(PlausiException.class)
+            .hasMessageContaining("Zielbeitrag von 1,00€ ist nicht erreichbar")
+            .hasMessageContaining("Minimaler Beitrag: 1,50€");
+    }
+
+    @ParameterizedTest(name = "Prämien {0}")
+    @CsvSource(delimiter = '|', value = {"10000 5000 2500", "7777 7777 7777", "123 45678 901", "30000 1 29999"})
+    @DisplayName("Drei Bausteine: minimale Rabattsumme stimmt mit vollständiger Suche überein")
+    void berechneRabatteCent_dreiBausteine_entsprichtVollstaendigerSuche(String praemien) {
+        long[] praemienCent = Arrays.stream(praemien.split(" ")).mapToLong(Long::parseLong).toArray();
+        long gesamt = praemienCent[0] + praemienCent[1] + praemienCent[2];
+        for (int prozent = 2; prozent <= 100; prozent += 7) {
+            long zielCent = gesamt * prozent / 100;
+
+            int[] rabatte = ZielbeitragService.berechneRabatteCent(zielCent, praemienCent);
+
+            assertThat(nettoHundertstelCent(praemienCent, rabatte)).isLessThanOrEqualTo((zielCent + 1) * 100);
+            assertThat(rabatte[0] + rabatte[1] + rabatte[2]).isEqualTo(minimaleRabattsumme(zielCent, praemienCent));
+        }
+    }
+
+    @Test
+    @DisplayName("Zwei Bausteine: dasselbe Ergebnis wie die Berechnung für Haftpflicht und Kasko")
+    void berechneRabatteCent_zweiBausteine_wieHaftpflichtUndKasko() {
+        var zufall = new SplittableRandom(17);
+        for (int i = 0; i < 10_000; i++) {
+            long haftpflicht = 1 + zufall.nextLong(100_000);
+            long kasko = zufall.nextBoolean() ? haftpflicht : 1 + zufall.nextLong(100_000);
+            long ziel = (haftpflicht + kasko) / 100 + zufall.nextLong(haftpflicht + kasko);
+
+            Rabatte erwartet = ZielbeitragService.berechneRabatteCent(ziel, haftpflicht, kasko);
+
+            assertThat(ZielbeitragService.berechneRabatteCent(ziel, new long[]{haftpflicht, kasko}))
+                .containsExactly(erwartet.haftpflicht(), erwartet.kasko());
+        }
+    }
+
+    @Test
+    @DisplayName("Überlaufende Cent-Beträge scheitern, statt ein falsches Ergebnis zu liefern")
+    void berechneRabatteCent_ueberlauf() {
+        long riesig = Long.MAX_VALUE / 50;
+
+        assertThatThrownBy(() -> ZielbeitragService.berechneRabatteCent(10_000, riesig, 0))
+            .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> ZielbeitragService.berechneRabatteCent(10_000, new long[] {riesig, riesig}))
+            .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> ZielbeitragService.istErreichbarCent(10_000, riesig))
+            .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    @DisplayName("Zehn Bausteine: teuerste Bausteine zuerst bis zum Höchstrabatt")
+    void berechneRabatteCent_zehnBausteine() {
+        long[] praemienCent = {1_000, 9_000, 2_000, 8_000, 3_000, 7_000, 4_000, 6_000, 5_000, 500};
+
+        int[] rabatte = ZielbeitragService.berechneRabatteCent(10_000, praemienCent);
+
+        // benötigt (45.500 - 10.001) * 100 = 3.549.900: 99 % auf 9.000 bis 5.000, Rest 84.900 auf 4.000
+        assertThat(rabatte).containsExactly(0, 99, 0, 99, 0, 99, 22, 99, 99, 0);
+        assertThatThrownBy(() -> ZielbeitragService.berechneRabatteCent(400, praemienCent))
+            .isInstanceOf(PlausiException.class)
+            .hasMessageContaining("Minimaler Beitrag: 4,55€");
+    }
+
+    private static long nettoHundertstelCent(long[] praemienCent, int[] rabatte) {
+        long summe = 0;
+        for (int i = 0; i < praemienCent.length; i++) {
+            summe += praemienCent[i] * (100 - rabatte[i]);
+        }
+        return summe;
+    }
+
+    private static int minimaleRabattsumme(long zielCent, long[] praemienCent) {
+        int minimum = Integer.MAX_VALUE;
+        for (int a = 0; a <= 99; a++) {
+            for (int b = 0; b <= 99 && a + b < minimum; b++) {
+                for (int c = 0; c <= 99 && a + b + c < minimum; c++) {
+                    if (nettoHundertstelCent(praemienCent, new int[]{a, b, c}) <= (zielCent + 1) * 100) {
+                        minimum = a + b + c;
+                    }
+                }
+            }
+        }
+        return minimum;
+    }
+
+    private static double netto(double praemie, int rabatt) {
+        return praemie * ((100 - rabatt) / 100.0);
+    }
+
+    private static int minimaleRabattsumme(double ziel, double haftpflicht, double kasko) {
+        int minimum = Integer.MAX_VALUE;
+        int maxKasko = kasko > 0 ? 99 : 0;
+        for (int rabattHaftpflicht = 0; rabattHaftpflicht <= 99; rabattHaftpflicht++) {
+            for (int rabattKasko = 0; rabattKasko <= maxKasko; rabattKasko++) {
+                if (netto(haftpflicht, rabattHaftpflicht) + netto(kasko, rabattKasko) <= ziel + 0.01 + 1e-9) {
+                    minimum = Math.min(minimum, rabattHaftpflicht + rabattKasko);
+                }
+            }
+        }
+        return minimum;
+    }
+}
@@ -0,0 +1,138 @@
+package com.pfefferminzia.kfz.tarifbuch;
+
+import com.pfefferminzia.kfz.common.PlausiException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Tarifbuch Tests")
+class TarifbuchTest {
+
+    @TempDir
+    Path verzeichnis;
+
+    @Test
+    @DisplayName("Prämien werden je Tarifschlüssel gefunden")
+    void abfrage_liefertPraemienJeSchluessel() throws IOException {
+        var tarifbuch = schreibeTarifbuch(10, 12, 30);
+
+        assertThat(tarifbuch.getAnzahl()).isEqualTo(10 * 12 * 30);
+        for (int typ = 10; typ < 20; typ++) {
+            for (int region = 1; region <= 12; region++) {
+                for (int sf = -2; sf < 28; sf++) {
+                    long schluessel = TarifSchluessel.alsLong(typ, region, sf);
+                    assertThat(tarifbuch.haftpflichtCent(schluessel)).isEqualTo(haftpflichtCent(typ, region, sf));
+                    assertThat(tarifbuch.kaskoCent(schluessel)).isEqualTo(kaskoCent(typ, region, sf));
+                }
+            }
+        }
+        assertThat(tarifbuch.haftpflichtCent(TarifSchluessel.alsLong(20, 1, 0))).isEqualTo(Tarifbuch.KEIN_EINTRAG);
+        assertThat(tarifbuch.kaskoCent(TarifSchluessel.alsLong(10, 13, 0))).isEqualTo(Tarifbuch.KEIN_EINTRAG);
+        assertThat(tarifbuch.kaskoCent(TarifSchluessel.alsLong(9, 12, 27))).isEqualTo(Tarifbuch.KEIN_EINTRAG);
+    }
+
+    @Test
+    @DisplayName("Erzeugt Haftpflicht und Kasko mit Rabatt aus dem Tarifbuch")
+    void haftpflichtUndKasko_ausTarifbuch() throws IOException {
+        var tarifbuch = schreibeTarifbuch(10, 12, 30);
+        var schluessel = new TarifSchluessel(15, 3, 10);
+
+        var haftpflicht = tarifbuch.haftpflicht(schluessel, 10);
+        var kasko = tarifbuch.kasko(schluessel, 5);
+
+        assertThat(haftpflicht.getPraemieCent()).isEqualTo(haftpflichtCent(15, 3, 10));
+        assertThat(haftpflicht.getRabatt()).isEqualTo(10);
+        assertThat(kasko.getPraemieCent()).isEqualTo(kaskoCent(15, 3, 10));
+        assertThat(kasko.getRabatt()).isEqualTo(5);
+        assertThat(tarifbuch.haftpflichtVorlage(schluessel).getPraemieCent()).isEqualTo(haftpflichtCent(15, 3, 10));
+        assertThat(tarifbuch.kaskoVorlage(schluessel).getPraemieCent()).isEqualTo(kaskoCent(15, 3, 10));
+    }
+
+    @Test
+    @DisplayName("Ohne Kaskoprämie gibt es keine Kasko, unbekannte Schlüssel sind ein Plausifehler")
+    void kasko_ohneAngebotUndUnbekannterSchluessel() throws IOException {
+        var tarifbuch = schreibeTarifbuch(10, 12, 30);
+
+        assertThat(tarifbuch.kasko(new TarifSchluessel(10, 1, -2), 0)).isNull();
+        assertThat(tarifbuch.kaskoVorlage(new TarifSchluessel(10, 1, -2))).isNull();
+        assertThatThrownBy(() -> tarifbuch.haftpflicht(new TarifSchluessel(99, 1, 0), 0))
+            .isInstanceOf(PlausiException.class)
+            .satisfies(e -> assertThat(((PlausiException) e).getFehler())
+                .containsExactly("Tarifbuch enthält keinen Eintrag für TK 99 / RK 1 / SF 0"));
+        assertThat(tarifbuch.enthaelt(new TarifSchluessel(99, 1, 0))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Schlüssel müssen aufsteigend und vollständig geschrieben werden, das Ziel bleibt sonst unverändert")
+    void schreiber_prueftReihenfolgeUndVollstaendigkeit() throws IOException {
+        Path datei = verzeichnis.resolve("tarifbuch.bin");
+        schreibeTarifbuch(1, 1, 2);
+
+        var schreiber = TarifbuchSchreiber.oeffne(datei, 3);
+        schreiber.eintrag(new TarifSchluessel(1, 1, 5), 100, 0);
+        assertThatThrownBy(() -> schreiber.eintrag(new TarifSchluessel(1, 1, 4), 100, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(schreiber::close).isInstanceOf(IllegalStateException.class);
+
+        assertThat(Tarifbuch.oeffne(datei).getAnzahl()).isEqualTo(2);
+        try (var dateien = Files.list(verzeichnis)) {
+            assertThat(dateien).containsExactly(datei);
+        }
+    }
+
+    @Test
+    @DisplayName("Beschädigte Dateien werden beim Öffnen abgelehnt")
+    void oeffne_lehntBeschaedigteDateiAb() throws IOException {
+        schreibeTarifbuch(2, 2, 2);
+        Path datei = verzeichnis.resolve("tarifbuch.bin");
+        byte[] inhalt = Files.readAllBytes(datei);
+        Files.write(datei, Arrays.copyOf(inhalt, inhalt.length - 4));
+
+        assertThatThrownBy(() -> Tarifbuch.oeffne(datei)).isInstanceOf(IOException.class);
+        Files.writeString(datei, "kein tarifbuch, nur text ..........");
+        assertThatThrownBy(() -> Tarifbuch.oeffne(datei))
+            .isInstanceOf(IOException.class)
+            .hasMessageStartingWith("Kein Tarifbuch");
+    }
+
+    @Test
+    @DisplayName("Tarifschlüssel lässt sich verlustfrei als long darstellen")
+    void tarifSchluessel_alsLong() {
+        var schluessel = new TarifSchluessel(65535, 12, -32768);
+
+        assertThat(TarifSchluessel.aus(schluessel.alsLong())).isEqualTo(schluessel);
+        assertThat(new TarifSchluessel(10, 1, -1).alsLong()).isLessThan(new TarifSchluessel(10, 1, 0).alsLong());
+        assertThatThrownBy(() -> new TarifSchluessel(10, 1, 40_000)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Tarifbuch schreibeTarifbuch(int typklassen, int regionalklassen, int sfKlassen) throws IOException {
+        Path datei = verzeichnis.resolve("tarifbuch.bin");
+        try (var schreiber = TarifbuchSchreiber.oeffne(datei, (long) typklassen * regionalklassen * sfKlassen)) {
+            for (int typ = 10; typ < 10 + typklassen; typ++) {
+                for (int region = 1; region <= regionalklassen; region++) {
+                    for (int sf = -2; sf < sfKlassen - 2; sf++) {
+                        schreiber.eintrag(new TarifSchluessel(typ, region, sf),
+                            haftpflichtCent(typ, region, sf), kaskoCent(typ, region, sf));
+                    }
+                }
+            }
+        }
+        return Tarifbuch.oeffne(datei);
+    }
+
+    private static long haftpflichtCent(int typ, int region, int sf) {
+        return 20_000 + typ * 300L + region * 150L - sf * 200L;
+    }
+
+    private static long kaskoCent(int typ, int region, int sf) {
+        return sf < 0 ? 0 : 10_000 + typ * 250L + region * 90L - sf * 100L;
+    }
+}
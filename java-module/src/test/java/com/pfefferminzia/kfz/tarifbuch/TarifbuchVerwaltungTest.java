@@ -0,0 +1,142 @@
+package com.pfefferminzia.kfz.tarifbuch;
+
+import com.pfefferminzia.kfz.model.Tarifierung;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TarifbuchVerwaltung Tests")
+class TarifbuchVerwaltungTest {
+
+    private static final int TYPKLASSEN = 20;
+    private static final int SF_KLASSEN = 50;
+
+    @TempDir
+    Path verzeichnis;
+
+    @Test
+    @DisplayName("Laufende Zugriffe behalten ihre Version, die alte wird danach geschlossen")
+    void lade_ersetztVersionNachLetztemZugriff() throws IOException {
+        Path datei = verzeichnis.resolve("tarifbuch.bin");
+        schreibe(datei, 10_000);
+        var schluessel = new TarifSchluessel(5, 1, 7);
+
+        try (var verwaltung = TarifbuchVerwaltung.oeffne(datei)) {
+            var alt = verwaltung.zugriff();
+            schreibe(datei, 20_000);
+            assertThat(verwaltung.lade(datei)).isEqualTo(2);
+
+            assertThat(alt.version()).isEqualTo(1);
+            assertThat(alt.tarifbuch().haftpflichtCent(schluessel.alsLong())).isEqualTo(haftpflichtCent(10_000, 5, 7));
+            long neuerBeitrag = verwaltung.mitTarifbuch(tarifbuch -> tarifbuch.haftpflichtCent(schluessel.alsLong()));
+            assertThat(neuerBeitrag).isEqualTo(haftpflichtCent(20_000, 5, 7));
+
+            Tarifbuch altesTarifbuch = alt.tarifbuch();
+            assertThat(altesTarifbuch.istGeschlossen()).isFalse();
+            alt.close();
+            assertThat(altesTarifbuch.istGeschlossen()).isTrue();
+            assertThatThrownBy(alt::tarifbuch).isInstanceOf(IllegalStateException.class);
+            // Eine über close() hinaus gehaltene Referenz bleibt abfragbar, die Abbildung hebt erst der GC auf
+            assertThat(altesTarifbuch.haftpflichtCent(schluessel.alsLong())).isEqualTo(haftpflichtCent(10_000, 5, 7));
+        }
+    }
+
+    @Test
+    @DisplayName("Ein ungültiges Tarifbuch lässt die aktuelle Version unverändert")
+    void lade_ungueltigeDateiBehaeltVersion() throws IOException {
+        Path datei = verzeichnis.resolve("tarifbuch.bin");
+        schreibe(datei, 10_000);
+
+        try (var verwaltung = TarifbuchVerwaltung.oeffne(datei)) {
+            assertThatThrownBy(() -> verwaltung.lade(verzeichnis.resolve("fehlt.bin"))).isInstanceOf(IOException.class);
+            assertThat(verwaltung.getVersion()).isEqualTo(1);
+            int anzahl = verwaltung.mitTarifbuch(Tarifbuch::getAnzahl);
+            assertThat(anzahl).isEqualTo(TYPKLASSEN * SF_KLASSEN);
+        }
+    }
+
+    @Test
+    @DisplayName("Stresstest: Neuladen in enger Schleife, während viele Threads tarifieren")
+    void lade_waehrendTarifierung() throws Exception {
+        Path a = verzeichnis.resolve("a.bin");
+        Path b = verzeichnis.resolve("b.bin");
+        schreibe(a, 10_000);
+        schreibe(b, 20_000);
+        Set<Tarifbuch> gesehen = ConcurrentHashMap.newKeySet();
+        var verwaltung = TarifbuchVerwaltung.oeffne(a);
+        var fertig = new AtomicBoolean();
+        var tarifierungen = new AtomicLong();
+
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> tarifierer = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int versatz = t;
+                tarifierer.add(executor.submit(() -> {
+                    for (int i = versatz; !fertig.get(); i++) {
+                        var schluessel = new TarifSchluessel(i % TYPKLASSEN, 1, i % SF_KLASSEN);
+                        Tarifierung tarifierung = verwaltung.mitTarifbuch(tarifbuch -> {
+                            gesehen.add(tarifbuch);
+                            var haftpflicht = tarifbuch.haftpflicht(schluessel, 10);
+                            // lässt den ladenden Thread mitten in die Berechnung
+                            Thread.yield();
+                            return new Tarifierung(haftpflicht, tarifbuch.kasko(schluessel, 5));
+                        });
+                        // Haftpflicht und Kasko stammen immer aus derselben Version.
+                        long haftpflicht = tarifierung.getHaftpflicht().getPraemieCent();
+                        long kasko = tarifierung.getKasko().getPraemieCent();
+                        assertThat(haftpflicht - kasko).isEqualTo(5_000);
+                        assertThat(haftpflicht).isIn(
+                            haftpflichtCent(10_000, schluessel.typklasse(), schluessel.sfKlasse()),
+                            haftpflichtCent(20_000, schluessel.typklasse(), schluessel.sfKlasse()));
+                        tarifierungen.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            int ladevorgaenge = 0;
+            while (ladevorgaenge < 1_000 || tarifierungen.get() < 20_000) {
+                verwaltung.lade(ladevorgaenge++ % 2 == 0 ? b : a);
+            }
+            fertig.set(true);
+
+            for (Future<?> future : tarifierer) {
+                future.get();
+            }
+            assertThat(verwaltung.getVersion()).isEqualTo(ladevorgaenge + 1);
+            assertThat(gesehen).hasSizeGreaterThan(100);
+        }
+
+        verwaltung.close();
+        assertThat(gesehen).allMatch(Tarifbuch::istGeschlossen);
+    }
+
+    private static void schreibe(Path datei, long basis) throws IOException {
+        try (var schreiber = TarifbuchSchreiber.oeffne(datei, TYPKLASSEN * SF_KLASSEN)) {
+            for (int typ = 0; typ < TYPKLASSEN; typ++) {
+                for (int sf = 0; sf < SF_KLASSEN; sf++) {
+                    long haftpflicht = haftpflichtCent(basis, typ, sf);
+                    schreiber.eintrag(new TarifSchluessel(typ, 1, sf), haftpflicht, haftpflicht - 5_000);
+                }
+            }
+        }
+    }
+
+    private static long haftpflichtCent(long basis, int typ, int sf) {
+        return basis + typ * 100L + sf;
+    }
+}